@@ -0,0 +1,103 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares answering a batch of lookups with one search call per key
+ * against searchAll, sequentially and in parallel, for several batch sizes.
+ * 
+ * The tree is an AVL tree of random even keys inserted in random order, so
+ * its nodes are scattered over the heap like in a long-running service.
+ * Probes are uniform over the key range, so about half of them hit. Every
+ * configuration answers the same total number of probes, split into
+ * batches of the given size, and repeats ROUNDS times; only the last
+ * round is reported.
+ * 
+ * searchAll only sorts and shares descents on trees of 2^19 keys or more;
+ * run with a smaller first argument to see the plain fallback.
+ * 
+ * Usage:
+ * 1. Compile: javac -d out src/*.java benchmark/*.java
+ * 2. Run: java -Xmx2g -cp out BatchSearchBenchmark [keys] [probes]
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class BatchSearchBenchmark {
+    
+    /** Timed rounds per configuration; all but the last one are warm-up */
+    private static final int ROUNDS = 5;
+    
+    /** Batch sizes compared */
+    private static final int[] BATCH_SIZES = {1_000, 10_000, 100_000, 1_000_000};
+    
+    /** Sink for lookup results so the JIT cannot drop the loops */
+    private static int hits;
+    
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 22;
+        int probeCount = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 22;
+        Random random = new Random(42);
+        
+        BinarySearchTree tree = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        while (tree.getSize() < n) {
+            tree.insert(random.nextInt(Integer.MAX_VALUE) & ~1);
+        }
+        int[] probes = new int[probeCount];
+        for (int i = 0; i < probeCount; i++) {
+            probes[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+        
+        System.out.println("Keys: " + n + ", probes: " + probeCount + ", height: " + tree.getHeight());
+        for (int batch : BATCH_SIZES) {
+            long loop = measure(tree, probes, batch, 0);
+            long sequential = measure(tree, probes, batch, 1);
+            long parallel = measure(tree, probes, batch, 2);
+            System.out.printf("batch %,9d: loop %6.1f ns/key, searchAll %6.1f ns/key (%.1fx), parallel %6.1f ns/key (%.1fx)%n",
+                    batch, (double) loop / probeCount,
+                    (double) sequential / probeCount, (double) loop / sequential,
+                    (double) parallel / probeCount, (double) loop / parallel);
+        }
+        System.out.println("Hits: " + hits);
+    }
+    
+    /**
+     * Answers all probes in batches ROUNDS times and returns the last round's duration
+     * @param tree the tree under test
+     * @param probes keys to look up
+     * @param batch number of probes per batch
+     * @param variant 0 for a search loop, 1 for searchAll, 2 for parallel searchAll
+     * @return elapsed nanoseconds of the final round
+     */
+    private static long measure(BinarySearchTree tree, int[] probes, int batch, int variant) {
+        int[][] batches = new int[(probes.length + batch - 1) / batch][];
+        for (int b = 0; b < batches.length; b++) {
+            int from = b * batch;
+            batches[b] = Arrays.copyOfRange(probes, from, Math.min(from + batch, probes.length));
+        }
+        
+        long elapsed = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            int found = 0;
+            for (int[] keys : batches) {
+                if (variant == 0) {
+                    for (int key : keys) {
+                        if (tree.search(key)) {
+                            found++;
+                        }
+                    }
+                } else {
+                    boolean[] results = tree.searchAll(keys, variant == 2);
+                    for (boolean result : results) {
+                        if (result) {
+                            found++;
+                        }
+                    }
+                }
+            }
+            elapsed = System.nanoTime() - start;
+            hits += found;
+        }
+        return elapsed;
+    }
+}
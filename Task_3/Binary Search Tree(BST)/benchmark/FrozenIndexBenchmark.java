@@ -0,0 +1,85 @@
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * Compares lookup throughput of the pointer tree, the array-backed tree
+ * and the frozen Eytzinger index on the same random key set.
+ * 
+ * Every structure answers the same shuffled probe sequence (half hits,
+ * half misses) several times; the first rounds warm up the JIT and only
+ * the last round is reported. Key sets well beyond the last-level cache
+ * show the difference best.
+ * 
+ * Usage:
+ * 1. Compile: javac -d out src/*.java benchmark/*.java
+ * 2. Run: java -Xmx4g -cp out FrozenIndexBenchmark [keys] [probes]
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class FrozenIndexBenchmark {
+    
+    /** Timed rounds per structure; all but the last one are warm-up */
+    private static final int ROUNDS = 5;
+    
+    /** Sink for lookup results so the JIT cannot drop the loops */
+    private static int hits;
+    
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 22;
+        int probeCount = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 22;
+        Random random = new Random(42);
+        
+        // Even keys are present, odd probes always miss
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = 2 * random.nextInt(Integer.MAX_VALUE / 2);
+        }
+        int[] probes = new int[probeCount];
+        for (int i = 0; i < probeCount; i++) {
+            probes[i] = random.nextBoolean() ? keys[random.nextInt(n)] : 2 * random.nextInt(Integer.MAX_VALUE / 2) + 1;
+        }
+        
+        BinarySearchTree pointerTree = BinarySearchTree.fromArray(keys, BinarySearchTree.BalanceMode.AVL);
+        ArrayBinarySearchTree arrayTree = new ArrayBinarySearchTree(BinarySearchTree.BalanceMode.AVL, n);
+        for (int key : pointerTree.toSortedArray()) {
+            arrayTree.insert(key);
+        }
+        FrozenBinarySearchTree frozen = pointerTree.freeze();
+        
+        System.out.println("Keys: " + pointerTree.getSize() + ", probes: " + probeCount);
+        report("BinarySearchTree (AVL)", measure(probes, pointerTree::search), probeCount);
+        report("ArrayBinarySearchTree (AVL)", measure(probes, arrayTree::search), probeCount);
+        report("FrozenBinarySearchTree", measure(probes, frozen::search), probeCount);
+        System.out.println("Hits: " + hits);
+    }
+    
+    /**
+     * Runs the probe sequence ROUNDS times and returns the last round's duration
+     * @param probes keys to look up
+     * @param lookup the search function under test
+     * @return elapsed nanoseconds of the final round
+     */
+    private static long measure(int[] probes, IntPredicate lookup) {
+        long elapsed = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            int found = 0;
+            for (int probe : probes) {
+                if (lookup.test(probe)) {
+                    found++;
+                }
+            }
+            elapsed = System.nanoTime() - start;
+            hits += found;
+        }
+        return elapsed;
+    }
+    
+    /**
+     * Prints nanoseconds per lookup for one structure
+     */
+    private static void report(String name, long nanos, int probeCount) {
+        System.out.printf("%-30s %8.1f ns/search%n", name, (double) nanos / probeCount);
+    }
+}
@@ -0,0 +1,170 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Measures how fast KeyFileLoader turns key files into int arrays and trees.
+ * 
+ * Writes n random keys to a temporary binary file and a temporary
+ * newline-delimited text file, then reports for each format:
+ * - raw read: FileChannel reads into a direct buffer with no parsing,
+ *   the ceiling set by the page cache or disk
+ * - readKeys: KeyFileLoader parsing into an int array
+ * - readLine: BufferedReader.readLine plus Integer.parseInt (text only),
+ *   the usual String-based way
+ * - load: readKeys plus BinarySearchTree.fromArray, the complete ingest
+ * Every measurement repeats ROUNDS times; only the last round is reported,
+ * so the files are served from the page cache. Drop the cache between runs
+ * (or pass a file larger than RAM) to see disk-bound numbers.
+ * 
+ * Usage:
+ * 1. Compile: javac -d out src/*.java benchmark/*.java
+ * 2. Run: java -Xmx4g -cp out KeyFileLoadBenchmark [n]
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class KeyFileLoadBenchmark {
+    
+    /** Timed rounds per measurement; all but the last one are warm-up */
+    private static final int ROUNDS = 3;
+    
+    /** Sink for results so the JIT cannot drop the work */
+    private static long checksum;
+    
+    public static void main(String[] args) throws IOException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int[] keys = new Random(42).ints(n).toArray();
+        Path binary = Files.createTempFile("keys", ".bin");
+        Path text = Files.createTempFile("keys", ".txt");
+        try {
+            writeBinary(keys, binary);
+            writeText(keys, text);
+            keys = null;
+            KeyFileLoader loader = new KeyFileLoader();
+            
+            System.out.println(n + " keys (MB/s of file read; ms in brackets)");
+            for (Path file : new Path[] {binary, text}) {
+                KeyFileLoader.Format format = loader.detectFormat(file);
+                long bytes = Files.size(file);
+                System.out.printf("%-6s %,14d bytes: raw read %s, readKeys %s", format, bytes,
+                        rate(bytes, () -> checksum += rawRead(file)),
+                        rate(bytes, () -> checksum += loader.readKeys(file, format).length));
+                if (format == KeyFileLoader.Format.TEXT) {
+                    System.out.printf(", readLine %s", rate(bytes, () -> checksum += readLines(file)));
+                }
+                System.out.printf(", load %s%n", rate(bytes, () -> checksum += loader.load(file, format, BinarySearchTree.BalanceMode.AVL).getSize()));
+            }
+            System.out.println("Checksum: " + checksum);
+        } finally {
+            Files.deleteIfExists(binary);
+            Files.deleteIfExists(text);
+        }
+    }
+    
+    /**
+     * Work measured by rate
+     */
+    private interface Task {
+        void run() throws IOException;
+    }
+    
+    /**
+     * Times the last of ROUNDS runs of a task
+     * @return throughput and time, formatted
+     */
+    private static String rate(long bytes, Task task) throws IOException {
+        long elapsed = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            task.run();
+            elapsed = System.nanoTime() - start;
+        }
+        return String.format("%6.0f (%6d)", bytes / 1e6 / (elapsed / 1e9), elapsed / 1_000_000);
+    }
+    
+    /**
+     * Reads the file without looking at the bytes
+     * @return the number of bytes read
+     */
+    private static long rawRead(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(KeyFileLoader.DEFAULT_BUFFER_BYTES);
+        long total = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            int read;
+            while ((read = channel.read(buffer)) >= 0) {
+                total += read;
+                buffer.clear();
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Parses the text file the String-based way
+     * @return the number of keys
+     */
+    private static long readLines(Path file) throws IOException {
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                checksum += Integer.parseInt(line);
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * Writes the keys as little-endian ints
+     */
+    private static void writeBinary(int[] keys, Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int key : keys) {
+                if (!buffer.hasRemaining()) {
+                    flush(buffer, channel);
+                }
+                buffer.putInt(key);
+            }
+            flush(buffer, channel);
+        }
+    }
+    
+    /**
+     * Writes the keys one per line
+     */
+    private static void writeText(int[] keys, Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int key : keys) {
+                if (buffer.remaining() < 12) {
+                    flush(buffer, channel);
+                }
+                for (char c : Integer.toString(key).toCharArray()) {
+                    buffer.put((byte) c);
+                }
+                buffer.put((byte) '\n');
+            }
+            flush(buffer, channel);
+        }
+    }
+    
+    /**
+     * Writes out and empties the buffer
+     */
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,110 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Measures insert/delete churn with and without node recycling.
+ * 
+ * Each run keeps a sliding window of random keys in an AVL tree: every step
+ * deletes the oldest key and inserts a fresh one, so the size stays fixed
+ * and every node the tree unlinks could serve the next insert. For each
+ * window size the same key sequence is replayed with the pool off and with
+ * POOL_CAPACITY pooled nodes, reporting time per operation, bytes allocated
+ * per operation by this thread, and the young/old collections (count and
+ * time) the run triggered. Every run repeats ROUNDS times; only the last
+ * round is reported.
+ * 
+ * Usage:
+ * 1. Compile: javac -d out src/*.java benchmark/*.java
+ * 2. Run: java -Xmx2g -cp out NodeRecyclingBenchmark [steps]
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class NodeRecyclingBenchmark {
+    
+    /** Timed rounds per measurement; all but the last one are warm-up */
+    private static final int ROUNDS = 3;
+    
+    /** Number of keys kept in the tree */
+    private static final int[] WINDOW_SIZES = {1_000, 100_000, 1_000_000};
+    
+    /** Pool capacity for the recycling runs */
+    private static final int POOL_CAPACITY = 1024;
+    
+    /** Sink for tree sizes so the JIT cannot drop the work */
+    private static long checksum;
+    
+    public static void main(String[] args) {
+        int steps = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        
+        System.out.println(steps + " delete+insert steps per run (2 operations each)");
+        for (int window : WINDOW_SIZES) {
+            int[] keys = new Random(42).ints(window + steps, 0, Integer.MAX_VALUE).toArray();
+            for (int capacity : new int[] {0, POOL_CAPACITY}) {
+                Result result = null;
+                for (int round = 0; round < ROUNDS; round++) {
+                    result = run(keys, window, capacity, threads);
+                }
+                System.out.printf("window = %,9d, pool %5d: %6.1f ns/op, %6.2f bytes/op, %4d GCs, %5d ms in GC%n",
+                        window, capacity, result.nanosPerOp, result.bytesPerOp, result.collections, result.gcMillis);
+            }
+        }
+        System.out.println("Checksum: " + checksum);
+    }
+    
+    /**
+     * Numbers reported for one run
+     */
+    private record Result(double nanosPerOp, double bytesPerOp, long collections, long gcMillis) {
+    }
+    
+    /**
+     * Fills a tree with the first window keys, then slides the window over the rest
+     * @param keys the key sequence; keys[i] is deleted when keys[i + window] is inserted
+     * @param window the number of keys kept in the tree
+     * @param capacity the node pool capacity, 0 for no recycling
+     * @param threads source of the per-thread allocation counter
+     * @return timing, allocation and GC figures for the sliding phase
+     */
+    private static Result run(int[] keys, int window, int capacity, com.sun.management.ThreadMXBean threads) {
+        BinarySearchTree tree = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        tree.setNodePoolCapacity(capacity);
+        for (int i = 0; i < window; i++) {
+            tree.insert(keys[i]);
+        }
+        System.gc();
+        
+        long threadId = Thread.currentThread().getId();
+        long[] gcBefore = gcTotals();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = window; i < keys.length; i++) {
+            tree.delete(keys[i - window]);
+            tree.insert(keys[i]);
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        long[] gcAfter = gcTotals();
+        
+        checksum += tree.getSize();
+        long operations = 2L * (keys.length - window);
+        return new Result((double) elapsed / operations, (double) bytes / operations,
+                gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+    }
+    
+    /**
+     * Sums collection counts and times over all collectors
+     * @return {collections, milliseconds}
+     */
+    private static long[] gcTotals() {
+        long[] totals = new long[2];
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            totals[0] += Math.max(0, collector.getCollectionCount());
+            totals[1] += Math.max(0, collector.getCollectionTime());
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,86 @@
+import java.util.Random;
+
+/**
+ * Compares merging one tree into another by inserting the smaller tree's
+ * values one at a time with the join-based unionWith, sequentially and on
+ * fork/join, and times intersectWith and subtract for the same inputs.
+ * 
+ * The large tree holds n random keys; the small one holds m random keys
+ * from the same range for each m in SMALL_SIZES, so a few of them overlap.
+ * Both are AVL trees. Every measurement works on fresh copies made outside
+ * the timed region and repeats ROUNDS times; only the last round is reported.
+ * 
+ * Usage:
+ * 1. Compile: javac -d out src/*.java benchmark/*.java
+ * 2. Run: java -Xmx4g -cp out SetOperationBenchmark [n]
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class SetOperationBenchmark {
+    
+    /** Timed rounds per measurement; all but the last one are warm-up */
+    private static final int ROUNDS = 3;
+    
+    /** Sizes of the smaller operand */
+    private static final int[] SMALL_SIZES = {1_000, 100_000, 1_000_000};
+    
+    /** Sink for result sizes so the JIT cannot drop the work */
+    private static long checksum;
+    
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+        Random random = new Random(42);
+        BinarySearchTree large = BinarySearchTree.fromArray(randomKeys(n, random), BinarySearchTree.BalanceMode.AVL);
+        
+        System.out.println("Large tree: " + large.getSize() + " keys (ms per operation)");
+        for (int m : SMALL_SIZES) {
+            BinarySearchTree small = BinarySearchTree.fromArray(randomKeys(m, random), BinarySearchTree.BalanceMode.AVL);
+            System.out.printf("m = %,9d: insert loop %8.1f, unionWith %8.1f, parallel %8.1f, intersectWith %8.1f, subtract %8.1f%n", m,
+                    measure(large, small, 0), measure(large, small, 1), measure(large, small, 2),
+                    measure(large, small, 3), measure(large, small, 4));
+        }
+        System.out.println("Checksum: " + checksum);
+    }
+    
+    /**
+     * Draws distinct-enough random keys from a range eight times the count
+     */
+    private static int[] randomKeys(int count, Random random) {
+        int[] keys = new int[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = random.nextInt(count * 8);
+        }
+        return keys;
+    }
+    
+    /**
+     * Times one way of combining copies of the two trees
+     * @param large the larger operand (copied, not modified)
+     * @param small the smaller operand (copied, not modified)
+     * @param variant 0 insert loop, 1 unionWith, 2 parallel unionWith, 3 intersectWith, 4 subtract
+     * @return milliseconds taken by the final round
+     */
+    private static double measure(BinarySearchTree large, BinarySearchTree small, int variant) {
+        long elapsed = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            BinarySearchTree result = large.copy();
+            BinarySearchTree other = small.copy();
+            long start = System.nanoTime();
+            if (variant == 0) {
+                other.forEachInorder(result::insert);
+            } else if (variant == 1) {
+                result.unionWith(other);
+            } else if (variant == 2) {
+                result.unionWith(other, true);
+            } else if (variant == 3) {
+                result.intersectWith(other);
+            } else {
+                result.subtract(other);
+            }
+            elapsed = System.nanoTime() - start;
+            checksum += result.getSize();
+        }
+        return elapsed / 1e6;
+    }
+}
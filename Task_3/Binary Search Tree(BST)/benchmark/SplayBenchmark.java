@@ -0,0 +1,141 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * Compares lookup throughput of the plain, AVL and splay trees on a
+ * uniform and a Zipfian access trace over the same random key set.
+ * 
+ * Under the uniform trace every key is equally likely, so the splay
+ * tree pays for its rotations without gaining anything. Under the
+ * Zipfian trace a small set of hot keys receives most lookups; the
+ * splay tree keeps them near the root, which is where it can beat the
+ * balanced tree. The skew can be changed with the third argument
+ * (0.99 is the usual default of key-value store benchmarks).
+ * 
+ * Every trace runs several times per tree; the first rounds warm up
+ * the JIT (and let the splay tree adapt) and only the last round is reported.
+ * 
+ * Usage:
+ * 1. Compile: javac -d out src/*.java benchmark/*.java
+ * 2. Run: java -Xmx2g -cp out SplayBenchmark [keys] [lookups] [skew]
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class SplayBenchmark {
+    
+    /** Timed rounds per tree and trace; all but the last one are warm-up */
+    private static final int ROUNDS = 5;
+    
+    /** Sink for lookup results so the JIT cannot drop the loops */
+    private static int hits;
+    
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        int lookupCount = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 22;
+        double skew = args.length > 2 ? Double.parseDouble(args[2]) : 0.99;
+        Random random = new Random(42);
+        
+        // Distinct keys in random order; the order doubles as the popularity ranking
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = i * 2;
+        }
+        shuffle(keys, random);
+        
+        int[] uniform = new int[lookupCount];
+        for (int i = 0; i < lookupCount; i++) {
+            uniform[i] = keys[random.nextInt(n)];
+        }
+        int[] zipfian = zipfianTrace(keys, lookupCount, skew, random);
+        
+        System.out.println("Keys: " + n + ", lookups: " + lookupCount + ", Zipf skew: " + skew);
+        for (BinarySearchTree.BalanceMode mode : BinarySearchTree.BalanceMode.values()) {
+            // Fresh trees per trace so the splay tree starts without a head start
+            report(mode + " / uniform", measure(buildTree(keys, mode), uniform), lookupCount);
+            report(mode + " / zipfian", measure(buildTree(keys, mode), zipfian), lookupCount);
+        }
+        System.out.println("Hits: " + hits);
+    }
+    
+    /**
+     * Builds a tree by inserting the keys one at a time in their shuffled order,
+     * so the plain tree gets a typical random shape instead of a perfect one
+     */
+    private static BinarySearchTree buildTree(int[] keys, BinarySearchTree.BalanceMode mode) {
+        BinarySearchTree tree = new BinarySearchTree(mode);
+        for (int key : keys) {
+            tree.insert(key);
+        }
+        return tree;
+    }
+    
+    /**
+     * Draws lookups whose rank r (1-based) has probability proportional to 1 / r^skew,
+     * by binary search over the cumulative distribution
+     * @param keys keys ordered from most to least popular
+     * @param count number of lookups to draw
+     * @param skew the Zipf exponent
+     * @param random source of randomness
+     * @return the lookup keys
+     */
+    private static int[] zipfianTrace(int[] keys, int count, double skew, Random random) {
+        double[] cumulative = new double[keys.length];
+        double total = 0;
+        for (int rank = 0; rank < keys.length; rank++) {
+            total += 1.0 / Math.pow(rank + 1, skew);
+            cumulative[rank] = total;
+        }
+        
+        int[] trace = new int[count];
+        for (int i = 0; i < count; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            int rank = index >= 0 ? index : -index - 1;
+            trace[i] = keys[Math.min(rank, keys.length - 1)];
+        }
+        return trace;
+    }
+    
+    /**
+     * Fisher-Yates shuffle of an int array
+     */
+    private static void shuffle(int[] values, Random random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+    
+    /**
+     * Runs the trace ROUNDS times and returns the last round's duration
+     * @param tree the tree under test
+     * @param trace keys to look up
+     * @return elapsed nanoseconds of the final round
+     */
+    private static long measure(BinarySearchTree tree, int[] trace) {
+        IntPredicate lookup = tree::search;
+        long elapsed = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            int found = 0;
+            for (int key : trace) {
+                if (lookup.test(key)) {
+                    found++;
+                }
+            }
+            elapsed = System.nanoTime() - start;
+            hits += found;
+        }
+        return elapsed;
+    }
+    
+    /**
+     * Prints nanoseconds per lookup for one tree and trace
+     */
+    private static void report(String name, long nanos, int lookupCount) {
+        System.out.printf("%-20s %8.1f ns/search%n", name, (double) nanos / lookupCount);
+    }
+}
@@ -0,0 +1,175 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates LongBinarySearchTree and DoubleBinarySearchTree from one template.
+ * 
+ * The two trees differ only in their key type, so both are expanded from
+ * codegen/PrimitiveBinarySearchTree.java.template instead of being kept in
+ * sync by hand. The template is plain Java with placeholders:
+ * 
+ *   ${type}  the primitive key type (long, double)
+ *   ${Type}  its capitalized form, used for Long.compare, OptionalLong,
+ *            LongConsumer, PrimitiveIterator.OfLong and the class name
+ *   ${NAME}  a key-type specific snippet (see KEY_TYPES); a line holding
+ *            only a snippet placeholder is replaced by the snippet's lines,
+ *            or dropped if the snippet is empty
+ * 
+ * The generated files are checked in under src/, so building the project
+ * never needs this tool. Run it after editing the template, and run it
+ * with --check to verify that the checked-in files are up to date.
+ * 
+ * Usage (from the project directory):
+ * 1. Compile: javac -d out codegen/GeneratePrimitiveTrees.java
+ * 2. Run: java -cp out GeneratePrimitiveTrees [--check]
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class GeneratePrimitiveTrees {
+    
+    /** Template shared by every generated tree, relative to the project directory */
+    private static final Path TEMPLATE = Paths.get("codegen", "PrimitiveBinarySearchTree.java.template");
+    
+    /** Directory the generated sources are written to */
+    private static final Path OUTPUT_DIRECTORY = Paths.get("src");
+    
+    /** Placeholder values per key type, in generation order */
+    private static final List<Map<String, String>> KEY_TYPES = List.of(
+            keyType("long", "Long", "0L",
+                    "",
+                    "the sum of the values, wrapping around on overflow like Long.sum",
+                    "     * @return the sum of the values, identical to sum()",
+                    "     * @return statistics over all values, identical to summaryStatistics()"),
+            keyType("double", "Double", "0.0",
+                    " * Keys are ordered by Double.compare, the same total order as Arrays.sort:\n"
+                            + " * -0.0 sorts before 0.0 and both are distinct keys, and NaN is a single\n"
+                            + " * key greater than positive infinity.\n"
+                            + " * ",
+                    "the sum of the values, added in ascending order",
+                    "     * @return the sum of the values; double addition is not associative, so\n"
+                            + "     *         this can differ from sum() in the last bits",
+                    "     * @return statistics over all values; double addition is not associative,\n"
+                            + "     *         so the sum and average can differ from summaryStatistics() in the last bits"));
+    
+    private GeneratePrimitiveTrees() {
+        // Command-line tool - not instantiable
+    }
+    
+    /**
+     * Collects the placeholder values for one key type
+     * @param type the primitive key type
+     * @param boxed the capitalized key type
+     * @param zero the zero literal of the key type
+     * @param orderNote class doc paragraph on key ordering (may be empty)
+     * @param sumReturn the @return text of sum()
+     * @param parallelSumReturn the @return lines of parallelSum()
+     * @param parallelStatisticsReturn the @return lines of parallelSummaryStatistics()
+     * @return the placeholder values by name
+     */
+    private static Map<String, String> keyType(String type, String boxed, String zero, String orderNote,
+            String sumReturn, String parallelSumReturn, String parallelStatisticsReturn) {
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("type", type);
+        values.put("Type", boxed);
+        values.put("ZERO", zero);
+        values.put("ORDER_NOTE", orderNote);
+        values.put("SUM_RETURN", sumReturn);
+        values.put("PARALLEL_SUM_RETURN", parallelSumReturn);
+        values.put("PARALLEL_STATISTICS_RETURN", parallelStatisticsReturn);
+        return values;
+    }
+    
+    /**
+     * Expands the template for every key type and writes or checks the results
+     * @param args "--check" to only compare against the checked-in files
+     * @throws IOException if the template or a source file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        boolean check = args.length > 0 && args[0].equals("--check");
+        if (args.length > 1 || (args.length == 1 && !check)) {
+            System.err.println("Usage: java GeneratePrimitiveTrees [--check]");
+            System.exit(2);
+        }
+        
+        String template = new String(Files.readAllBytes(TEMPLATE), StandardCharsets.UTF_8);
+        List<Path> stale = new ArrayList<>();
+        for (Map<String, String> keyType : KEY_TYPES) {
+            Path target = OUTPUT_DIRECTORY.resolve(keyType.get("Type") + "BinarySearchTree.java");
+            String source = expand(template, keyType);
+            String current = Files.exists(target) ? new String(Files.readAllBytes(target), StandardCharsets.UTF_8) : null;
+            if (source.equals(current)) {
+                System.out.println("Up to date: " + target);
+            } else if (check) {
+                stale.add(target);
+            } else {
+                Files.write(target, source.getBytes(StandardCharsets.UTF_8));
+                System.out.println("Generated:  " + target);
+            }
+        }
+        
+        if (!stale.isEmpty()) {
+            System.err.println("Out of date (edit the template, then rerun without --check): " + stale);
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Replaces every placeholder in the template
+     * @param template the template text
+     * @param values the placeholder values of one key type
+     * @return the generated source
+     * @throws IllegalStateException if the template uses an unknown placeholder
+     */
+    static String expand(String template, Map<String, String> values) {
+        StringBuilder out = new StringBuilder(template.length() + 1024);
+        for (String line : template.split("\n", -1)) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("${") && trimmed.endsWith("}") && trimmed.indexOf('$', 1) < 0) {
+                // A snippet on a line of its own: splice its lines in, or drop the line
+                String snippet = lookup(values, trimmed.substring(2, trimmed.length() - 1));
+                if (!snippet.isEmpty()) {
+                    out.append(snippet).append('\n');
+                }
+                continue;
+            }
+            
+            int from = 0;
+            int start;
+            while ((start = line.indexOf("${", from)) >= 0) {
+                int end = line.indexOf('}', start);
+                if (end < 0) {
+                    throw new IllegalStateException("Unclosed placeholder in: " + line);
+                }
+                out.append(line, from, start).append(lookup(values, line.substring(start + 2, end)));
+                from = end + 1;
+            }
+            out.append(line, from, line.length()).append('\n');
+        }
+        // split() keeps the text after the final newline as an empty last line
+        out.setLength(out.length() - 1);
+        return out.toString();
+    }
+    
+    /**
+     * Gets one placeholder value
+     * @param values the placeholder values of one key type
+     * @param name the placeholder name
+     * @return its value
+     * @throws IllegalStateException if the name is unknown
+     */
+    private static String lookup(Map<String, String> values, String name) {
+        String value = values.get(name);
+        if (value == null) {
+            throw new IllegalStateException("Unknown placeholder ${" + name + "}");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,50 @@
+package bst;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: the standard JMH command line, with the
+ * GC profiler always attached so every result includes the allocation rate
+ * (gc.alloc.rate.norm is bytes allocated per operation).
+ * 
+ * Examples:
+ * - java -jar benchmarks.jar                                  (everything; takes many hours)
+ * - java -jar benchmarks.jar BinarySearchTreeBenchmark.search -p size=1000000 -p mode=AVL
+ * - java -jar benchmarks.jar TreeBuildBenchmark -p distribution=SEQUENTIAL,RANDOM
+ * - java -jar benchmarks.jar -l                               (list benchmarks)
+ * - java -jar benchmarks.jar -h                               (all JMH options)
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public final class BenchmarkMain {
+    
+    private BenchmarkMain() {
+        // Entry point only
+    }
+    
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp()) {
+            commandLine.showHelp();
+            return;
+        }
+        if (commandLine.shouldList()) {
+            new Runner(commandLine).list();
+            return;
+        }
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
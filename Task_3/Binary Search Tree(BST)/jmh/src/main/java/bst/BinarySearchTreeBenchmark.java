@@ -0,0 +1,140 @@
+package bst;
+
+import java.util.PrimitiveIterator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-operation cost of BinarySearchTree on a pre-built tree.
+ * 
+ * Each trial builds a balanced tree of n even keys with fromSorted and a
+ * stream of 2^20 keys from the chosen distribution. Point operations
+ * walk that stream, so one benchmark invocation is one operation:
+ * - search: a lookup of a present key
+ * - insertThenDelete: inserts the absent odd neighbour of a key and
+ *   removes it again, so the tree keeps its size and shape
+ * - deleteThenInsert: removes a present key (usually an inner node with
+ *   two children) and puts it back
+ * Whole-tree operations (traversals, getHeight, getSize) ignore the
+ * distribution.
+ * 
+ * Both throughput and sampled latency (with percentiles) are reported;
+ * run through BenchmarkMain, or add "-prof gc", for allocation rates.
+ * Trees of 100M keys need about 5 GB of heap; the forks get 8 GB.
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class BinarySearchTreeBenchmark {
+    
+    /** Length of the key stream; a power of two so the cursor wraps with a mask */
+    private static final int STREAM_LENGTH = 1 << 20;
+    
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int size;
+    
+    @Param({"SEQUENTIAL", "RANDOM", "ZIPFIAN", "ADVERSARIAL"})
+    public KeyDistribution distribution;
+    
+    @Param({"NONE", "AVL", "SPLAY"})
+    public BinarySearchTree.BalanceMode mode;
+    
+    /** Tree under test, rebuilt for every trial */
+    private BinarySearchTree tree;
+    
+    /** Keys visited by the point operations */
+    private int[] stream;
+    
+    /** Position in the key stream */
+    private int cursor;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] keys = new int[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = 2 * i;
+        }
+        tree = BinarySearchTree.fromSorted(keys, mode, true);
+        stream = distribution.keys(size, STREAM_LENGTH, 42);
+        cursor = 0;
+    }
+    
+    /**
+     * Returns the next key of the stream
+     */
+    private int nextKey() {
+        return stream[cursor++ & (STREAM_LENGTH - 1)];
+    }
+    
+    // ==================== POINT OPERATIONS ====================
+    
+    @Benchmark
+    public boolean search() {
+        return tree.search(nextKey());
+    }
+    
+    @Benchmark
+    public void insertThenDelete() {
+        int absent = nextKey() + 1;
+        tree.insert(absent);
+        tree.delete(absent);
+    }
+    
+    @Benchmark
+    public void deleteThenInsert() {
+        int present = nextKey();
+        tree.delete(present);
+        tree.insert(present);
+    }
+    
+    // ==================== WHOLE-TREE OPERATIONS ====================
+    
+    @Benchmark
+    public void forEachInorder(Blackhole blackhole) {
+        tree.forEachInorder(blackhole::consume);
+    }
+    
+    @Benchmark
+    public long iterator() {
+        long checksum = 0;
+        PrimitiveIterator.OfInt values = tree.iterator();
+        while (values.hasNext()) {
+            checksum += values.nextInt();
+        }
+        return checksum;
+    }
+    
+    @Benchmark
+    public void forEachLevelOrder(Blackhole blackhole) {
+        tree.forEachLevelOrder(blackhole::consume);
+    }
+    
+    @Benchmark
+    public int getHeight() {
+        return tree.getHeight();
+    }
+    
+    @Benchmark
+    public int getSize() {
+        return tree.getSize();
+    }
+}
@@ -0,0 +1,142 @@
+package bst;
+
+import java.util.SplittableRandom;
+
+/**
+ * Key streams used by the benchmarks.
+ * 
+ * The benchmark trees hold the even keys 0, 2, ..., 2(n - 1). A stream
+ * names those keys by index (key = 2 * index), so adding 1 to a streamed
+ * key gives a value that is guaranteed to be absent.
+ * 
+ * Distributions:
+ * - SEQUENTIAL: indices 0, 1, 2, ... in order (sorted input, cache-friendly lookups)
+ * - RANDOM: uniform indices
+ * - ZIPFIAN: Zipf-skewed popularity (exponent 0.99), hot keys scattered
+ *   over the key space so they do not share a subtree
+ * - ADVERSARIAL: alternating from both ends (0, n-1, 1, n-2, ...); as
+ *   insertion order it turns the plain tree into a zig-zag path and makes
+ *   the AVL tree rebalance on almost every insert
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public enum KeyDistribution {
+    SEQUENTIAL,
+    RANDOM,
+    ZIPFIAN,
+    ADVERSARIAL;
+    
+    /** Zipf exponent, the usual default of key-value store benchmarks */
+    private static final double ZIPF_THETA = 0.99;
+    
+    /**
+     * Generates a stream of keys drawn from this distribution
+     * @param n number of distinct keys (indices 0..n-1)
+     * @param count length of the stream
+     * @param seed seed for the random distributions
+     * @return the keys, each 2 * index
+     */
+    public int[] keys(int n, int count, long seed) {
+        if (n <= 0 || n > (Integer.MAX_VALUE >> 1) + 1 || count < 0) {
+            throw new IllegalArgumentException("Invalid key count " + n + " or stream length " + count);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] keys = new int[count];
+        switch (this) {
+            case SEQUENTIAL:
+                for (int i = 0; i < count; i++) {
+                    keys[i] = 2 * (i % n);
+                }
+                break;
+            case RANDOM:
+                for (int i = 0; i < count; i++) {
+                    keys[i] = 2 * random.nextInt(n);
+                }
+                break;
+            case ZIPFIAN:
+                Zipf zipf = new Zipf(n);
+                long multiplier = scatterMultiplier(n);
+                for (int i = 0; i < count; i++) {
+                    long rank = zipf.next(random.nextDouble());
+                    keys[i] = (int) (2 * (rank * multiplier % n));
+                }
+                break;
+            case ADVERSARIAL:
+                for (int i = 0; i < count; i++) {
+                    int position = i % n;
+                    int step = position >> 1;
+                    keys[i] = 2 * ((position & 1) == 0 ? step : n - 1 - step);
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown distribution " + this);
+        }
+        return keys;
+    }
+    
+    /**
+     * Finds a multiplier coprime to n, so rank * multiplier mod n is a
+     * permutation that scatters neighbouring ranks across the key space
+     */
+    private static long scatterMultiplier(int n) {
+        long multiplier = 2654435761L % Math.max(n, 2);
+        while (gcd(multiplier, n) != 1) {
+            multiplier++;
+        }
+        return multiplier;
+    }
+    
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+    
+    /**
+     * Zipf sampler in O(1) memory (Gray et al., "Quickly Generating
+     * Billion-Record Synthetic Databases"), so 100M-key streams need no
+     * cumulative table. Setup is one O(n) pass for the normalization constant.
+     */
+    private static final class Zipf {
+        private final int n;
+        private final double zetaN;
+        private final double alpha;
+        private final double eta;
+        private final double secondThreshold;
+        
+        Zipf(int n) {
+            this.n = n;
+            this.zetaN = zeta(n);
+            this.alpha = 1.0 / (1.0 - ZIPF_THETA);
+            this.eta = (1.0 - Math.pow(2.0 / n, 1.0 - ZIPF_THETA)) / (1.0 - zeta(2) / zetaN);
+            this.secondThreshold = 1.0 + Math.pow(0.5, ZIPF_THETA);
+        }
+        
+        /**
+         * Maps a uniform sample in [0, 1) to a rank in [0, n), rank 0 being the most popular
+         */
+        long next(double u) {
+            double uz = u * zetaN;
+            if (uz < 1.0) {
+                return 0;
+            }
+            if (uz < secondThreshold) {
+                return Math.min(1, n - 1);
+            }
+            long rank = (long) (n * Math.pow(eta * u - eta + 1.0, alpha));
+            return Math.min(rank, n - 1);
+        }
+        
+        private static double zeta(long n) {
+            double sum = 0;
+            for (long i = 1; i <= n; i++) {
+                sum += 1.0 / Math.pow(i, ZIPF_THETA);
+            }
+            return sum;
+        }
+    }
+}
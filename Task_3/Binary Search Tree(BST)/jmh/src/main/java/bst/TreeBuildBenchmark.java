@@ -0,0 +1,73 @@
+package bst;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of building a tree with one insert per key, in the insertion order
+ * given by the key distribution.
+ * 
+ * This is where the distributions differ most: sorted and alternating
+ * input turn the plain tree into a path (quadratic total cost) and make
+ * the AVL tree rotate on most inserts, while the Zipfian order repeats
+ * popular keys (duplicate inserts) and leaves the rest out. For
+ * comparison, fromArray (sort, then a balanced O(n) build) runs on the
+ * same input.
+ * 
+ * Sizes stop at 100K keys because the plain tree's quadratic cases grow
+ * with n^2; BinarySearchTreeBenchmark covers up to 100M keys.
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class TreeBuildBenchmark {
+    
+    @Param({"1000", "10000", "100000"})
+    public int size;
+    
+    @Param({"SEQUENTIAL", "RANDOM", "ZIPFIAN", "ADVERSARIAL"})
+    public KeyDistribution distribution;
+    
+    @Param({"NONE", "AVL", "SPLAY"})
+    public BinarySearchTree.BalanceMode mode;
+    
+    /** Keys in insertion order */
+    private int[] order;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        order = distribution.keys(size, size, 7);
+    }
+    
+    @Benchmark
+    public BinarySearchTree insertOneByOne() {
+        BinarySearchTree tree = new BinarySearchTree(mode);
+        for (int key : order) {
+            tree.insert(key);
+        }
+        return tree;
+    }
+    
+    @Benchmark
+    public BinarySearchTree fromArray() {
+        return BinarySearchTree.fromArray(order, mode);
+    }
+}
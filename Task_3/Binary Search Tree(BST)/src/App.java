@@ -1,3 +1,9 @@
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -11,27 +17,67 @@ import java.util.Scanner;
  * - Input validation and error handling
  * - Automated demo mode for showcasing BST capabilities
  * - User-friendly interface with emojis and clear feedback
+ * - Any OrderedIntSet implementation, chosen at startup by name or from
+ *   workload hints (for example: java -cp src App treap, or App concurrent-access)
+ * - Bulk loading of a binary or text key file instead of the sample data
+ *   (for example: java -cp src App avl-tree --keys=ids.txt)
  * 
  * @author Aya Gamal
  * @version 1.0
  */
 public class App {
     
-    /** Static BST instance shared across all methods */
-    private static BinarySearchTree bst = new BinarySearchTree();
+    /** Ordered set shared across all methods; a plain BinarySearchTree unless chosen otherwise */
+    private static OrderedIntSet bst = new BinarySearchTree();
+    
+    /** Startup options, kept so clearing the set recreates the same implementation */
+    private static String[] options = {OrderedIntSetFactory.Implementation.PLAIN_TREE.name()};
     
     /** Scanner for reading user input */
     private static Scanner scanner = new Scanner(System.in);
     
+    /** Command-line prefix naming a key file to load at startup */
+    private static final String KEYS_OPTION = "--keys=";
+    
+    /** Sets larger than this are summarized instead of printed value by value */
+    private static final int MAX_PRINTED_VALUES = 100;
+    
     public static void main(String[] args) {
         System.out.println("🌳 Binary Search Tree Interactive Demo 🌳");
         System.out.println("==========================================");
         
-        // Pre-populate with some sample data
-        System.out.println("\nInitializing BST with sample data: [50, 30, 70, 20, 40, 60, 80]");
-        int[] sampleData = {50, 30, 70, 20, 40, 60, 80};
-        for (int value : sampleData) {
-            bst.insert(value);
+        // Implementation names or workload hints select the ordered set; --keys= names a key file
+        Path keyFile = null;
+        List<String> setOptions = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith(KEYS_OPTION)) {
+                keyFile = Path.of(arg.substring(KEYS_OPTION.length()));
+            } else {
+                setOptions.add(arg);
+            }
+        }
+        if (!setOptions.isEmpty()) {
+            options = setOptions.toArray(new String[0]);
+        }
+        try {
+            bst = OrderedIntSetFactory.fromOptions(options);
+        } catch (IllegalArgumentException e) {
+            System.out.println("❌ " + e.getMessage());
+            System.out.println("Implementations: " + Arrays.toString(OrderedIntSetFactory.Implementation.values()));
+            System.out.println("Workload hints: " + Arrays.toString(OrderedIntSetFactory.WorkloadHint.values()));
+            return;
+        }
+        System.out.println("Implementation: " + describe(bst));
+        
+        if (keyFile != null) {
+            if (!loadKeyFile(keyFile)) {
+                return;
+            }
+        } else {
+            // Pre-populate with some sample data
+            System.out.println("\nInitializing BST with sample data: [50, 30, 70, 20, 40, 60, 80]");
+            int[] sampleData = {50, 30, 70, 20, 40, 60, 80};
+            bst.insertAll(sampleData);
         }
         
         displayTreeInfo();
@@ -79,6 +125,53 @@ public class App {
         }
     }
     
+    /**
+     * Names the implementation behind the shared set
+     */
+    private static String describe(OrderedIntSet set) {
+        if (set instanceof BinarySearchTree) {
+            return "BinarySearchTree (" + ((BinarySearchTree) set).getBalanceMode() + ")";
+        }
+        return set.getClass().getSimpleName();
+    }
+    
+    /**
+     * Bulk-loads a key file, detecting whether it holds binary or text keys
+     * @param file the key file
+     * @return true if the keys were loaded
+     */
+    private static boolean loadKeyFile(Path file) {
+        System.out.println("\n📂 Loading keys from " + file);
+        try {
+            KeyFileLoader loader = new KeyFileLoader();
+            KeyFileLoader.Format format = loader.detectFormat(file);
+            long start = System.nanoTime();
+            int read = loader.loadInto(file, format, bst);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.println("✅ Read " + read + " " + format + " keys (" + bst.getSize() + " distinct) in " + millis + " ms");
+            return true;
+        } catch (NoSuchFileException e) {
+            System.out.println("❌ No such file: " + file);
+            return false;
+        } catch (IOException e) {
+            System.out.println("❌ Could not load keys: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Prints the values in sorted order on one line
+     */
+    private static void printInorder() {
+        if (bst.getSize() > MAX_PRINTED_VALUES) {
+            System.out.println("Inorder traversal: (" + bst.getSize() + " values, too many to list)");
+            return;
+        }
+        System.out.print("Inorder traversal: ");
+        bst.forEachInorder(value -> System.out.print(value + " "));
+        System.out.println();
+    }
+    
     /**
      * Displays the main menu options
      */
@@ -195,16 +288,20 @@ public class App {
         System.out.println("-".repeat(40));
         
         System.out.print("📈 ");
-        bst.inorderTraversal();
+        printInorder();
         System.out.println("   (Sorted order)");
         
-        System.out.print("📊 ");
-        bst.preorderTraversal();
-        System.out.println("   (Root first)");
-        
-        System.out.print("📉 ");
-        bst.postorderTraversal();
-        System.out.println("   (Root last)");
+        // Preorder and postorder depend on the tree shape, which only BinarySearchTree exposes
+        if (bst instanceof BinarySearchTree && bst.getSize() <= MAX_PRINTED_VALUES) {
+            BinarySearchTree tree = (BinarySearchTree) bst;
+            System.out.print("📊 ");
+            tree.preorderTraversal();
+            System.out.println("   (Root first)");
+            
+            System.out.print("📉 ");
+            tree.postorderTraversal();
+            System.out.println("   (Root last)");
+        }
     }
     
     /**
@@ -214,7 +311,9 @@ public class App {
         System.out.println("\n📊 TREE INFORMATION:");
         System.out.println("-".repeat(30));
         System.out.println("📏 Size: " + bst.getSize() + " nodes");
-        System.out.println("📐 Height: " + bst.getHeight());
+        if (bst instanceof BinarySearchTree) {
+            System.out.println("📐 Height: " + ((BinarySearchTree) bst).getHeight());
+        }
         System.out.println("🔄 Empty: " + (bst.isEmpty() ? "Yes" : "No"));
         
         if (!bst.isEmpty()) {
@@ -222,7 +321,7 @@ public class App {
             System.out.println("⬆️  Maximum: " + bst.findMax());
             
             System.out.print("🔢 Current values (sorted): ");
-            bst.inorderTraversal();
+            printInorder();
         }
     }
     
@@ -254,7 +353,7 @@ public class App {
         String confirmation = scanner.nextLine().trim().toLowerCase();
         
         if (confirmation.equals("y") || confirmation.equals("yes")) {
-            bst = new BinarySearchTree(); // Create new empty tree
+            bst = OrderedIntSetFactory.fromOptions(options); // Create new empty set
             System.out.println("✅ Tree cleared successfully!");
         } else {
             System.out.println("❌ Clear operation cancelled.");
@@ -269,7 +368,7 @@ public class App {
         System.out.println("=".repeat(50));
         
         // Clear and start fresh
-        bst = new BinarySearchTree();
+        bst = OrderedIntSetFactory.fromOptions(options);
         
         // Demo 1: Insertion
         System.out.println("\n1️⃣  INSERTION DEMO:");
@@ -305,7 +404,7 @@ public class App {
             System.out.println("Deleting " + value + "...");
             bst.delete(value);
             System.out.print("Tree after deletion: ");
-            bst.inorderTraversal();
+            printInorder();
         }
         
         System.out.println("\n🎉 Demo completed! Final tree size: " + bst.getSize());
@@ -0,0 +1,630 @@
+import java.util.Arrays;
+
+/**
+ * Binary Search Tree that stores its nodes in parallel primitive arrays
+ * instead of one TreeNode object per value.
+ * 
+ * A node is an index into the key/left/right/height/size arrays and child
+ * links are indices rather than references, so the whole tree is five
+ * int[] objects no matter how many values it holds. This removes the
+ * per-node object header and gives the garbage collector nothing to trace
+ * beyond the arrays themselves. Slots released by delete are kept on a
+ * free list (threaded through the left array) and reused by insert.
+ * 
+ * Features:
+ * - Same operations as BinarySearchTree (insert, search, delete,
+ *   traversals, size, height, min/max, select, rank)
+ * - NONE or AVL balancing, selected at construction (SPLAY is not supported)
+ * - Memory footprint reporting for comparison with the object layout
+ * 
+ * Time Complexity:
+ * - Same as BinarySearchTree: O(h) for insert, search, delete, select, rank
+ * - Amortized O(1) extra for array growth on insert
+ * 
+ * Space Complexity:
+ * - 20 bytes per slot of capacity (five ints) plus array headers
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class ArrayBinarySearchTree {
+    
+    /** Index used in place of a null child link */
+    private static final int NIL = -1;
+    
+    /** Number of parallel int arrays backing each node */
+    private static final int INTS_PER_NODE = 5;
+    
+    /** Size of an array object header on a 64-bit JVM with compressed oops */
+    private static final int ARRAY_HEADER_BYTES = 16;
+    
+    /** Default number of node slots allocated up front */
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    /** Largest array length the JVM reliably allocates, and so the most nodes a tree can hold */
+    static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+    
+    /** Value stored in each node */
+    private int[] keys;
+    
+    /** Left child index of each node (next free slot for released nodes) */
+    private int[] left;
+    
+    /** Right child index of each node */
+    private int[] right;
+    
+    /** Height of the subtree rooted at each node (0 for a leaf) */
+    private int[] heights;
+    
+    /** Number of nodes in the subtree rooted at each node */
+    private int[] sizes;
+    
+    /** Index of the root node, or NIL for an empty tree */
+    private int root;
+    
+    /** Number of slots ever handed out (slots at or past this index are untouched) */
+    private int highWater;
+    
+    /** Head of the free list of released slots, or NIL if empty */
+    private int freeHead;
+    
+    /** Balancing strategy chosen at construction time */
+    private final BinarySearchTree.BalanceMode balanceMode;
+    
+    /** Reusable root-to-node path / traversal stack, grows with tree height */
+    private int[] path;
+    
+    /**
+     * Constructor - initializes an empty, unbalanced tree
+     */
+    public ArrayBinarySearchTree() {
+        this(BinarySearchTree.BalanceMode.NONE, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructor - initializes an empty tree with the given balancing strategy
+     * @param balanceMode the balancing strategy to apply on insert and delete
+     */
+    public ArrayBinarySearchTree(BinarySearchTree.BalanceMode balanceMode) {
+        this(balanceMode, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Constructor - initializes an empty tree with room for the given number of nodes
+     * @param balanceMode the balancing strategy to apply on insert and delete (NONE or AVL)
+     * @param initialCapacity number of node slots to allocate up front
+     */
+    public ArrayBinarySearchTree(BinarySearchTree.BalanceMode balanceMode, int initialCapacity) {
+        if (balanceMode == null) {
+            throw new IllegalArgumentException("Balance mode cannot be null");
+        }
+        if (balanceMode == BinarySearchTree.BalanceMode.SPLAY) {
+            throw new IllegalArgumentException("Splay mode is not supported by ArrayBinarySearchTree");
+        }
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity cannot be negative");
+        }
+        if (initialCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Initial capacity cannot exceed " + MAX_CAPACITY);
+        }
+        this.balanceMode = balanceMode;
+        this.keys = new int[initialCapacity];
+        this.left = new int[initialCapacity];
+        this.right = new int[initialCapacity];
+        this.heights = new int[initialCapacity];
+        this.sizes = new int[initialCapacity];
+        this.root = NIL;
+        this.highWater = 0;
+        this.freeHead = NIL;
+        this.path = new int[32];
+    }
+    
+    /**
+     * Gets the balancing strategy of this tree
+     * @return the balance mode chosen at construction
+     */
+    public BinarySearchTree.BalanceMode getBalanceMode() {
+        return balanceMode;
+    }
+    
+    // ==================== INSERTION OPERATIONS ====================
+    
+    /**
+     * Inserts a value into the tree (duplicates are ignored)
+     * @param value the integer value to insert
+     */
+    public void insert(int value) {
+        if (root == NIL) {
+            root = allocate(value);
+            return;
+        }
+        
+        int[] path = ensurePathCapacity(heightOf(root) + 1);
+        int depth = 0;
+        int current = root;
+        while (current != NIL) {
+            path[depth++] = current;
+            if (value < keys[current]) {
+                current = left[current];
+            } else if (value > keys[current]) {
+                current = right[current];
+            } else {
+                // If value equals the node's key, we ignore duplicates
+                return;
+            }
+        }
+        
+        // allocate() may grow the arrays, so read them after the call
+        int node = allocate(value);
+        int parent = path[depth - 1];
+        if (value < keys[parent]) {
+            left[parent] = node;
+        } else {
+            right[parent] = node;
+        }
+        
+        fixUpPath(depth);
+    }
+    
+    // ==================== SEARCH OPERATIONS ====================
+    
+    /**
+     * Searches for a value in the tree
+     * @param value the value to search for
+     * @return true if the value exists, false otherwise
+     */
+    public boolean search(int value) {
+        int current = root;
+        while (current != NIL) {
+            int key = keys[current];
+            if (value == key) {
+                return true;
+            }
+            current = value < key ? left[current] : right[current];
+        }
+        return false;
+    }
+    
+    // ==================== DELETION OPERATIONS ====================
+    
+    /**
+     * Deletes a value from the tree and returns its slot to the free list
+     * @param value the value to delete
+     */
+    public void delete(int value) {
+        if (root == NIL) {
+            return;
+        }
+        
+        int[] path = ensurePathCapacity(heightOf(root) + 1);
+        int depth = 0;
+        int current = root;
+        while (current != NIL && value != keys[current]) {
+            path[depth++] = current;
+            current = value < keys[current] ? left[current] : right[current];
+        }
+        
+        // Value not found
+        if (current == NIL) {
+            return;
+        }
+        
+        int parent = depth > 0 ? path[depth - 1] : NIL;
+        
+        if (left[current] == NIL || right[current] == NIL) {
+            // Case 1 and 2: Node has at most one child - splice it out
+            int child = left[current] != NIL ? left[current] : right[current];
+            replaceChild(parent, current, child);
+            release(current);
+        } else {
+            // Case 3: Node has two children - pull up the inorder successor
+            path[depth++] = current;
+            int successorParent = current;
+            int successor = right[current];
+            while (left[successor] != NIL) {
+                path[depth++] = successor;
+                successorParent = successor;
+                successor = left[successor];
+            }
+            
+            keys[current] = keys[successor];
+            replaceChild(successorParent, successor, right[successor]);
+            release(successor);
+        }
+        
+        fixUpPath(depth);
+    }
+    
+    // ==================== SLOT MANAGEMENT ====================
+    
+    /**
+     * Takes a slot from the free list (or the unused tail) and initializes it as a leaf
+     * @param value the value to store
+     * @return the index of the new node
+     */
+    private int allocate(int value) {
+        int node;
+        if (freeHead != NIL) {
+            node = freeHead;
+            freeHead = left[node];
+        } else {
+            if (highWater == keys.length) {
+                grow();
+            }
+            node = highWater++;
+        }
+        
+        keys[node] = value;
+        left[node] = NIL;
+        right[node] = NIL;
+        heights[node] = 0;
+        sizes[node] = 1;
+        return node;
+    }
+    
+    /**
+     * Pushes a slot onto the free list so a later insert can reuse it
+     * @param node the index of the detached node
+     */
+    private void release(int node) {
+        left[node] = freeHead;
+        right[node] = NIL;
+        freeHead = node;
+    }
+    
+    /**
+     * Doubles the capacity of all node arrays, up to MAX_CAPACITY
+     */
+    private void grow() {
+        int capacity = grownCapacity(keys.length);
+        keys = Arrays.copyOf(keys, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        heights = Arrays.copyOf(heights, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+    }
+    
+    /**
+     * Computes the next array length when the arrays are full
+     * Doubling is done in long arithmetic, so lengths past 2^30 are capped
+     * instead of overflowing to a negative size.
+     * @param capacity the current array length
+     * @return the new array length, larger than capacity
+     * @throws IllegalStateException if the arrays are already at MAX_CAPACITY
+     */
+    static int grownCapacity(int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Tree is full: cannot hold more than " + MAX_CAPACITY + " nodes");
+        }
+        return (int) Math.min(MAX_CAPACITY, Math.max(DEFAULT_CAPACITY, capacity * 2L));
+    }
+    
+    // ==================== BALANCING OPERATIONS ====================
+    
+    /**
+     * Walks the recorded path bottom-up, refreshing heights/sizes and rebalancing
+     * @param depth number of valid entries in the path buffer
+     */
+    private void fixUpPath(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            int node = path[i];
+            int subtree = rebalance(node);
+            if (subtree != node) {
+                replaceChild(i > 0 ? path[i - 1] : NIL, node, subtree);
+            }
+        }
+    }
+    
+    /**
+     * Points the parent (or the root, if parent is NIL) at a new child
+     * @param parent the parent index, or NIL if oldChild is the root
+     * @param oldChild the child being replaced
+     * @param newChild the replacement (may be NIL)
+     */
+    private void replaceChild(int parent, int oldChild, int newChild) {
+        if (parent == NIL) {
+            root = newChild;
+        } else if (left[parent] == oldChild) {
+            left[parent] = newChild;
+        } else {
+            right[parent] = newChild;
+        }
+    }
+    
+    /**
+     * Refreshes a node's height and size and, in AVL mode, restores balance
+     * @param node the node whose children may have changed
+     * @return the root of the (possibly rotated) subtree
+     */
+    private int rebalance(int node) {
+        updateNode(node);
+        if (balanceMode != BinarySearchTree.BalanceMode.AVL) {
+            return node;
+        }
+        
+        int balance = balanceFactor(node);
+        if (balance > 1) {
+            if (balanceFactor(left[node]) < 0) {
+                left[node] = rotateLeft(left[node]);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (balanceFactor(right[node]) > 0) {
+                right[node] = rotateRight(right[node]);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+    
+    /**
+     * Rotates the subtree right around the given node
+     * @param node the root of the subtree (must have a left child)
+     * @return the new root of the subtree
+     */
+    private int rotateRight(int node) {
+        int pivot = left[node];
+        left[node] = right[pivot];
+        right[pivot] = node;
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+    
+    /**
+     * Rotates the subtree left around the given node
+     * @param node the root of the subtree (must have a right child)
+     * @return the new root of the subtree
+     */
+    private int rotateLeft(int node) {
+        int pivot = right[node];
+        right[node] = left[pivot];
+        left[pivot] = node;
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+    
+    /**
+     * Recomputes a node's cached height and subtree size from its children
+     * @param node the node to update
+     */
+    private void updateNode(int node) {
+        heights[node] = Math.max(heightOf(left[node]), heightOf(right[node])) + 1;
+        sizes[node] = sizeOf(left[node]) + sizeOf(right[node]) + 1;
+    }
+    
+    /**
+     * Gets the cached height of a subtree
+     * @param node the root index of the subtree
+     * @return the height, or -1 for an empty subtree
+     */
+    private int heightOf(int node) {
+        return node == NIL ? -1 : heights[node];
+    }
+    
+    /**
+     * Gets the cached size of a subtree
+     * @param node the root index of the subtree
+     * @return the number of nodes, or 0 for an empty subtree
+     */
+    private int sizeOf(int node) {
+        return node == NIL ? 0 : sizes[node];
+    }
+    
+    /**
+     * Computes the AVL balance factor of a node
+     * @param node the node to inspect
+     * @return left height minus right height
+     */
+    private int balanceFactor(int node) {
+        return heightOf(left[node]) - heightOf(right[node]);
+    }
+    
+    /**
+     * Makes sure the path buffer can hold the given number of indices
+     * @param capacity the number of entries required
+     * @return the (possibly reallocated) path buffer
+     */
+    private int[] ensurePathCapacity(int capacity) {
+        if (path.length < capacity) {
+            path = new int[Math.max(capacity, path.length * 2)];
+        }
+        return path;
+    }
+    
+    // ==================== TRAVERSAL OPERATIONS ====================
+    
+    /**
+     * Performs inorder traversal (Left -> Root -> Right)
+     * Results in sorted order
+     */
+    public void inorderTraversal() {
+        System.out.print("Inorder traversal: ");
+        int[] stack = ensurePathCapacity(heightOf(root) + 1);
+        int top = 0;
+        int current = root;
+        while (current != NIL || top > 0) {
+            while (current != NIL) {
+                stack[top++] = current;
+                current = left[current];
+            }
+            current = stack[--top];
+            System.out.print(keys[current] + " ");
+            current = right[current];
+        }
+        System.out.println();
+    }
+    
+    /**
+     * Performs preorder traversal (Root -> Left -> Right)
+     */
+    public void preorderTraversal() {
+        System.out.print("Preorder traversal: ");
+        int[] stack = ensurePathCapacity(heightOf(root) + 1);
+        int top = 0;
+        int current = root;
+        while (current != NIL || top > 0) {
+            while (current != NIL) {
+                System.out.print(keys[current] + " ");
+                stack[top++] = current;
+                current = left[current];
+            }
+            current = right[stack[--top]];
+        }
+        System.out.println();
+    }
+    
+    /**
+     * Performs postorder traversal (Left -> Right -> Root)
+     */
+    public void postorderTraversal() {
+        System.out.print("Postorder traversal: ");
+        int[] stack = ensurePathCapacity(heightOf(root) + 1);
+        int top = 0;
+        int current = root;
+        int lastVisited = NIL;
+        while (current != NIL || top > 0) {
+            while (current != NIL) {
+                stack[top++] = current;
+                current = left[current];
+            }
+            int peek = stack[top - 1];
+            if (right[peek] != NIL && right[peek] != lastVisited) {
+                current = right[peek];
+            } else {
+                System.out.print(keys[peek] + " ");
+                lastVisited = stack[--top];
+            }
+        }
+        System.out.println();
+    }
+    
+    // ==================== ORDER STATISTICS ====================
+    
+    /**
+     * Finds the k-th smallest value (0-based)
+     * @param k the zero-based rank of the value to find
+     * @return the value with exactly k smaller values in the tree
+     * @throws IllegalArgumentException if k is outside [0, getSize())
+     */
+    public int select(int k) {
+        if (k < 0 || k >= sizeOf(root)) {
+            throw new IllegalArgumentException("Rank " + k + " out of range for tree of size " + sizeOf(root));
+        }
+        
+        int current = root;
+        while (true) {
+            int leftSize = sizeOf(left[current]);
+            if (k < leftSize) {
+                current = left[current];
+            } else if (k > leftSize) {
+                k -= leftSize + 1;
+                current = right[current];
+            } else {
+                return keys[current];
+            }
+        }
+    }
+    
+    /**
+     * Counts the values strictly smaller than the given value
+     * @param value the value to rank (need not be in the tree)
+     * @return the number of values less than value
+     */
+    public int rank(int value) {
+        int rank = 0;
+        int current = root;
+        while (current != NIL) {
+            if (value <= keys[current]) {
+                current = left[current];
+            } else {
+                rank += sizeOf(left[current]) + 1;
+                current = right[current];
+            }
+        }
+        return rank;
+    }
+    
+    // ==================== UTILITY OPERATIONS ====================
+    
+    /**
+     * Checks if the tree is empty
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+    
+    /**
+     * Gets the height of the tree in O(1)
+     * @return the height of the tree (-1 for empty tree)
+     */
+    public int getHeight() {
+        return heightOf(root);
+    }
+    
+    /**
+     * Gets the number of values in the tree in O(1)
+     * @return the number of nodes
+     */
+    public int getSize() {
+        return sizeOf(root);
+    }
+    
+    /**
+     * Gets the number of node slots currently allocated
+     * @return the length of the backing arrays
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+    
+    /**
+     * Finds the minimum value in the tree
+     * @return the minimum value
+     * @throws IllegalStateException if the tree is empty
+     */
+    public int findMin() {
+        if (isEmpty()) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        
+        int current = root;
+        while (left[current] != NIL) {
+            current = left[current];
+        }
+        return keys[current];
+    }
+    
+    /**
+     * Finds the maximum value in the tree
+     * @return the maximum value
+     * @throws IllegalStateException if the tree is empty
+     */
+    public int findMax() {
+        if (isEmpty()) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        
+        int current = root;
+        while (right[current] != NIL) {
+            current = right[current];
+        }
+        return keys[current];
+    }
+    
+    /**
+     * Estimates the heap used by this tree's node storage and path buffer,
+     * assuming a 64-bit JVM with compressed oops
+     * Compare with BinarySearchTree.estimateMemoryFootprint() for the
+     * object-per-node layout holding the same values.
+     * @return the approximate number of bytes retained by this tree
+     */
+    public long estimateMemoryFootprint() {
+        long nodeArrays = INTS_PER_NODE * (ARRAY_HEADER_BYTES + 4L * keys.length);
+        long pathBuffer = ARRAY_HEADER_BYTES + 4L * path.length;
+        return nodeArrays + pathBuffer;
+    }
+}
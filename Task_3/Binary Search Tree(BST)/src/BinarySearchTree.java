@@ -1,3 +1,20 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IntSummaryStatistics;
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntToLongFunction;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
 /**
  * Binary Search Tree implementation with standard BST operations.
  * This implementation maintains the BST property: for any node,
@@ -6,236 +23,2606 @@
  * 
  * Features:
  * - Insert, search, and delete operations
- * - Three types of tree traversals (inorder, preorder, postorder)
+ * - Four tree traversals (inorder, preorder, postorder, level order), pushed
+ *   into an IntConsumer or pulled through a primitive iterator without boxing
  * - Utility methods for tree statistics (size, height, min/max)
- * - Handles duplicate values by ignoring them
- * - Recursive implementation for clean and readable code
+ * - Order statistics: k-th smallest (select) and rank in O(h)
+ * - Linear-time bulk build from int arrays, optionally in parallel
+ * - Fork/join aggregation (sum, summary statistics, custom reducers and
+ *   collectors) with results identical to the sequential versions
+ * - Ordered queries: floor, ceiling, higher, lower, range count and range scan
+ * - Split, join, union, intersection and difference in O(m log(n/m + 1)),
+ *   optionally on fork/join, by relinking the operands' nodes
+ * - Range deletion (deleteRange, deleteBelow, deleteAbove) in O(log n)
+ * - Handles duplicate values by ignoring them, or counts them per node
+ *   in multiset mode (rank, select and size then include multiplicity)
+ * - Optional AVL self-balancing or splay (self-adjusting) mode selected
+ *   at construction
+ * - Iterative implementation: tree depth is bounded by heap, not thread stack
+ * - Opt-in node recycling, so steady insert/delete churn allocates nothing
+ * - Implements OrderedIntSet, so callers can swap in another ordered set
  * 
  * Time Complexity:
  * - Average case: O(log n) for insert, search, delete
- * - Worst case: O(n) when tree becomes unbalanced
+ * - Worst case: O(n) when tree becomes unbalanced (O(log n) in AVL mode,
+ *   O(log n) amortized in splay mode)
  * - Traversals: O(n) always
+ * - getSize, getHeight: O(1) from per-node cached subtree size and height
+ * - Bulk build: O(n) from sorted input, O(n log n) from unsorted input
+ * - floor/ceiling/higher/lower/rangeCount: O(h); range scan: O(h + k) for k matches
+ * - split, join, deleteRange/Below/Above: O(log n); set operations on trees
+ *   of sizes m <= n: O(m log(n/m + 1))
  * 
  * Space Complexity:
  * - Storage: O(n) for n nodes
- * - Recursion stack: O(log n) average, O(n) worst case
+ * - Path buffer and traversal stack: O(h) each for a tree of height h,
+ *   allocated once and reused (no per-call allocations once they have grown)
  * 
  * @author Aya Gamal
  * @version 1.0
  */
-public class BinarySearchTree {
+public class BinarySearchTree implements OrderedIntSet {
+    
+    /**
+     * Balancing strategy applied by insert and delete.
+     */
+    public enum BalanceMode {
+        /** Plain BST: insert and delete never rotate nodes, so the shape depends on insertion order */
+        NONE,
+        /** AVL tree: subtree heights differ by at most one, height stays O(log n) */
+        AVL,
+        /**
+         * Splay tree: search, insert and delete rotate the last node they touch
+         * to the root, so recently and frequently used keys stay near the top.
+         * Single operations may take O(n), but any sequence of m operations
+         * costs O(m log n). Searches change the tree's shape in this mode.
+         */
+        SPLAY
+    }
+    
+    /** Initial capacity of the path buffer, enough for any AVL tree of 2^22 nodes */
+    private static final int INITIAL_PATH_CAPACITY = 32;
+    
+    /**
+     * Approximate size of one TreeNode on a 64-bit JVM with compressed oops:
+     * 12-byte header + value, height, size, count (4 bytes each) + two 4-byte
+     * references, padded to a multiple of 8
+     */
+    private static final int TREE_NODE_BYTES = 40;
+    
+    /** Size of an array object header on a 64-bit JVM with compressed oops */
+    private static final int ARRAY_HEADER_BYTES = 16;
+    
+    /** Subtrees smaller than this are built sequentially by the parallel bulk build */
+    private static final int PARALLEL_BUILD_THRESHOLD = 1 << 16;
+    
+    /** Subtrees with at most this many nodes are aggregated sequentially by parallel reductions */
+    private static final int PARALLEL_AGGREGATE_THRESHOLD = 1 << 13;
+    
+    /** Operand pairs with at most this many values in total are combined sequentially by parallel set operations */
+    private static final int PARALLEL_SET_THRESHOLD = 1 << 14;
+    
+    /** Batches with at most this many probes are searched sequentially by a parallel searchAll */
+    private static final int PARALLEL_SEARCH_THRESHOLD = 1 << 14;
+    
+    /** Descents searchAll keeps in flight at once, so their cache misses overlap */
+    private static final int SEARCH_LANES = 8;
+    
+    /**
+     * Smallest tree for which searchAll sorts its probes and shares descents;
+     * smaller trees stay in cache, where sorting costs more than it saves
+     */
+    private static final int SHARED_SEARCH_MIN_SIZE = 1 << 19;
     
     /** The root node of the BST - entry point for all operations */
     private TreeNode root;
     
+    /** Balancing strategy chosen at construction time */
+    private final BalanceMode balanceMode;
+    
+    /** True if duplicates are counted on their node instead of ignored */
+    private final boolean multiset;
+    
+    /**
+     * Reusable buffer holding the root-to-node path during insert, delete
+     * and splaying. Grows with tree height. None of those run callbacks, so
+     * the buffer is never in use twice; traversals use traversalStack instead.
+     */
+    private TreeNode[] path;
+    
+    /**
+     * Reusable explicit stack for traversals. Only borrowStack and
+     * returnStack touch it, so a traversal started from another one's
+     * callback gets its own stack instead of overwriting the running one.
+     */
+    private TreeNode[] traversalStack;
+    
+    /** True while a traversal is borrowing traversalStack */
+    private boolean stackBorrowed;
+    
+    /**
+     * True while every node is known to satisfy the AVL balance rule, which
+     * split, join and the set operations rely on. Always true in AVL mode;
+     * in the other modes insert, delete and splaying clear it.
+     */
+    private boolean avlShaped = true;
+    
+    /**
+     * Number of splay operations so far. Splaying moves nodes without
+     * changing the contents, so iterators compare this with the value they
+     * last saw and re-find their position instead of failing.
+     */
+    private int splayCount;
+    
+    /** Operation counters, or null (the default) when instrumentation is off */
+    private TreeMetrics metrics;
+    
+    /** Head of the free list of recycled nodes, linked through their right pointers */
+    private TreeNode freeList;
+    
+    /** Number of nodes on the free list */
+    private int pooledNodes;
+    
+    /** Maximum number of nodes kept on the free list; 0 turns recycling off */
+    private int poolCapacity;
+    
+    /**
+     * Constructor - initializes an empty, unbalanced BST
+     */
+    public BinarySearchTree() {
+        this(BalanceMode.NONE);
+    }
+    
+    /**
+     * Constructor - initializes an empty BST with the given balancing strategy
+     * @param balanceMode the balancing strategy to apply on insert and delete
+     */
+    public BinarySearchTree(BalanceMode balanceMode) {
+        this(balanceMode, false);
+    }
+    
+    /**
+     * Constructor - initializes an empty BST, optionally as a multiset
+     * In multiset mode each distinct value has one node carrying its number
+     * of occurrences: insert increments it, delete decrements it, and
+     * getSize, select, rank, range counts and traversals all see every
+     * occurrence. Sets and multisets share all algorithms otherwise.
+     * @param balanceMode the balancing strategy to apply on insert and delete
+     * @param multiset true to count duplicates instead of ignoring them
+     */
+    public BinarySearchTree(BalanceMode balanceMode, boolean multiset) {
+        if (balanceMode == null) {
+            throw new IllegalArgumentException("Balance mode cannot be null");
+        }
+        this.root = null;
+        this.balanceMode = balanceMode;
+        this.multiset = multiset;
+        this.path = new TreeNode[INITIAL_PATH_CAPACITY];
+        this.traversalStack = new TreeNode[INITIAL_PATH_CAPACITY];
+    }
+    
+    /**
+     * Gets the balancing strategy of this tree
+     * @return the balance mode chosen at construction
+     */
+    public BalanceMode getBalanceMode() {
+        return balanceMode;
+    }
+    
+    /**
+     * Checks whether this tree counts duplicate values
+     * @return true in multiset mode
+     */
+    public boolean isMultiset() {
+        return multiset;
+    }
+    
+    /**
+     * Attaches operation counters, or detaches them with null
+     * While attached, every search, insert and delete is recorded; while
+     * detached (the default) the operations skip all counting.
+     * @param metrics the counters to update, or null to turn instrumentation off
+     */
+    public void setMetrics(TreeMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Gets the attached operation counters
+     * @return the counters, or null if instrumentation is off
+     */
+    public TreeMetrics getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Turns node recycling on (capacity > 0) or off (0, the default)
+     * While on, delete puts each node it unlinks on a free list of at most
+     * capacity nodes, and insert takes nodes from that list before allocating,
+     * so a workload that inserts about as often as it deletes stops allocating
+     * once the pool has warmed up. Pooled nodes stay reachable, so the capacity
+     * bounds the memory held back from the GC. Only insert and delete recycle;
+     * bulk builds, set operations and range deletions allocate and drop nodes
+     * as before. Lowering the capacity releases the surplus nodes to the GC.
+     * @param capacity the maximum number of pooled nodes
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public void setNodePoolCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+        poolCapacity = capacity;
+        while (pooledNodes > capacity) {
+            TreeNode node = freeList;
+            freeList = node.right;
+            node.right = null;
+            pooledNodes--;
+        }
+    }
+    
+    /**
+     * Gets the maximum number of nodes kept for reuse
+     * @return the pool capacity, 0 if recycling is off
+     */
+    public int getNodePoolCapacity() {
+        return poolCapacity;
+    }
+    
+    /**
+     * Counts the nodes currently waiting on the free list
+     * @return the number of pooled nodes
+     */
+    public int getPooledNodeCount() {
+        return pooledNodes;
+    }
+    
+    /**
+     * Creates a node for a new value, reusing a pooled node if there is one
+     * Package-private so IntTreeMap can create nodes that carry a payload.
+     * @param value the value to store
+     * @return a detached node holding the value once
+     */
+    TreeNode newNode(int value) {
+        TreeNode node = freeList;
+        if (node == null) {
+            if (metrics != null) {
+                metrics.recordNodeAllocated();
+            }
+            return new TreeNode(value);
+        }
+        
+        freeList = node.right;
+        pooledNodes--;
+        node.value = value;
+        node.right = null;
+        node.height = 0;
+        node.size = 1;
+        node.count = 1;
+        if (metrics != null) {
+            metrics.recordNodeReused();
+        }
+        return node;
+    }
+    
+    /**
+     * Puts an unlinked node on the free list if recycling is on and the pool has room
+     * @param node a node no longer reachable from the tree
+     */
+    private void releaseNode(TreeNode node) {
+        if (pooledNodes < poolCapacity) {
+            node.left = null;
+            node.right = freeList;
+            freeList = node;
+            pooledNodes++;
+        }
+    }
+    
+    // ==================== INSERTION OPERATIONS ====================
+    
+    /**
+     * Public method to insert a value into the BST
+     * @param value the integer value to insert
+     */
+    @Override
+    public void insert(int value) {
+        int visited = insertValue(value);
+        if (metrics != null) {
+            metrics.recordInsert(visited);
+        }
+    }
+    
+    /**
+     * Inserts a value and reports how far the descent went
+     * @param value the integer value to insert
+     * @return the number of existing nodes visited
+     */
+    private int insertValue(int value) {
+        // Base case: if the tree is empty, the new node becomes the root
+        if (root == null) {
+            root = newNode(value);
+            return 0;
+        }
+        
+        // Walk down to the empty spot, remembering the path for the fix-up
+        // (one extra slot so splay mode can append the new node)
+        TreeNode[] path = ensurePathCapacity(heightOf(root) + 2);
+        int depth = 0;
+        TreeNode current = root;
+        while (current != null) {
+            path[depth++] = current;
+            if (value < current.value) {
+                current = current.left;
+            } else if (value > current.value) {
+                current = current.right;
+            } else if (multiset) {
+                // Another occurrence: only the sizes along the path change
+                current.count++;
+                fixUpPath(depth);
+                splayIfEnabled(depth);
+                return depth;
+            } else {
+                // If value equals node.value, we ignore duplicates
+                duplicateInserted(current);
+                splayIfEnabled(depth);
+                return depth;
+            }
+        }
+        
+        TreeNode parent = path[depth - 1];
+        TreeNode node = newNode(value);
+        if (value < parent.value) {
+            parent.left = node;
+        } else {
+            parent.right = node;
+        }
+        
+        fixUpPath(depth);
+        if (balanceMode == BalanceMode.SPLAY) {
+            path[depth] = node;
+            splay(depth + 1);
+        }
+        return depth;
+    }
+    
+    /**
+     * Called when a set-mode insert finds its value already present; does nothing
+     * here, IntTreeMap overrides it to replace the node's payload
+     * @param node the node holding the value
+     */
+    void duplicateInserted(TreeNode node) {
+    }
+    
+    /**
+     * Inserts many values at once by merging them with the current contents
+     * and rebuilding a perfectly balanced tree
+     * Costs O(n + m log m) for m new values, which beats m single inserts
+     * when m is a sizeable fraction of the tree. Duplicates are ignored.
+     * In multiset mode every value is inserted individually so that
+     * occurrences are counted.
+     * @param values the values to insert (not modified)
+     */
+    @Override
+    public void insertAll(int[] values) {
+        if (values == null) {
+            throw new IllegalArgumentException("Values cannot be null");
+        }
+        if (multiset) {
+            for (int value : values) {
+                insert(value);
+            }
+            return;
+        }
+        
+        int[] incoming = sortedDistinct(values, false);
+        int[] merged = isEmpty() ? incoming : mergeDistinct(toSortedArray(), incoming);
+        root = buildBalanced(merged, 0, merged.length);
+        avlShaped = true;
+    }
+    
+    // ==================== BULK BUILD OPERATIONS ====================
+    
+    /**
+     * Builds a perfectly balanced tree from strictly ascending values in O(n)
+     * @param sorted the values in strictly ascending order (not modified)
+     * @param balanceMode the balancing strategy for later inserts and deletes
+     * @return a new tree containing exactly the given values
+     * @throws IllegalArgumentException if the values are not strictly ascending
+     */
+    public static BinarySearchTree fromSorted(int[] sorted, BalanceMode balanceMode) {
+        return fromSorted(sorted, balanceMode, false);
+    }
+    
+    /**
+     * Builds a perfectly balanced tree from strictly ascending values in O(n),
+     * optionally building large subtrees in parallel on the common fork/join pool
+     * @param sorted the values in strictly ascending order (not modified)
+     * @param balanceMode the balancing strategy for later inserts and deletes
+     * @param parallel true to split the build across fork/join workers
+     * @return a new tree containing exactly the given values
+     * @throws IllegalArgumentException if the values are not strictly ascending
+     */
+    public static BinarySearchTree fromSorted(int[] sorted, BalanceMode balanceMode, boolean parallel) {
+        if (sorted == null) {
+            throw new IllegalArgumentException("Values cannot be null");
+        }
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1] >= sorted[i]) {
+                throw new IllegalArgumentException("Values must be strictly ascending (index " + i + ")");
+            }
+        }
+        
+        BinarySearchTree tree = new BinarySearchTree(balanceMode);
+        tree.root = parallel && sorted.length > PARALLEL_BUILD_THRESHOLD
+                ? ForkJoinPool.commonPool().invoke(new BuildTask(sorted, 0, sorted.length))
+                : buildBalanced(sorted, 0, sorted.length);
+        return tree;
+    }
+    
+    /**
+     * Builds a perfectly balanced tree from values in any order
+     * The values are copied, sorted and de-duplicated first, so this is O(n log n).
+     * @param values the values to load (not modified, duplicates allowed)
+     * @param balanceMode the balancing strategy for later inserts and deletes
+     * @return a new tree containing the distinct values
+     */
+    public static BinarySearchTree fromArray(int[] values, BalanceMode balanceMode) {
+        return fromArray(values, balanceMode, false);
+    }
+    
+    /**
+     * Builds a perfectly balanced tree from values in any order, optionally
+     * sorting and building in parallel for very large inputs
+     * @param values the values to load (not modified, duplicates allowed)
+     * @param balanceMode the balancing strategy for later inserts and deletes
+     * @param parallel true to use a parallel sort and fork/join build
+     * @return a new tree containing the distinct values
+     */
+    public static BinarySearchTree fromArray(int[] values, BalanceMode balanceMode, boolean parallel) {
+        if (values == null) {
+            throw new IllegalArgumentException("Values cannot be null");
+        }
+        return fromSorted(sortedDistinct(values, parallel), balanceMode, parallel);
+    }
+    
+    /**
+     * Builds the subtree for sorted[from, to) with its middle element as root
+     * Left and right halves differ in size by at most one, so the result is
+     * a valid AVL tree. Recursion depth is log2(n), never the tree size.
+     * @param sorted strictly ascending values
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @return the root of the subtree, or null for an empty range
+     */
+    private static TreeNode buildBalanced(int[] sorted, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        
+        int mid = (from + to) >>> 1;
+        TreeNode node = new TreeNode(sorted[mid]);
+        node.left = buildBalanced(sorted, from, mid);
+        node.right = buildBalanced(sorted, mid + 1, to);
+        updateNode(node);
+        return node;
+    }
+    
+    /**
+     * Fork/join task that builds the two halves of a large range concurrently
+     */
+    private static final class BuildTask extends RecursiveTask<TreeNode> {
+        private static final long serialVersionUID = 1L;
+        
+        /** Strictly ascending source values shared by all tasks */
+        private final int[] sorted;
+        
+        /** First index of this task's range (inclusive) */
+        private final int from;
+        
+        /** Last index of this task's range (exclusive) */
+        private final int to;
+        
+        BuildTask(int[] sorted, int from, int to) {
+            this.sorted = sorted;
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        protected TreeNode compute() {
+            if (to - from <= PARALLEL_BUILD_THRESHOLD) {
+                return buildBalanced(sorted, from, to);
+            }
+            
+            int mid = (from + to) >>> 1;
+            BuildTask leftTask = new BuildTask(sorted, from, mid);
+            leftTask.fork();
+            TreeNode node = new TreeNode(sorted[mid]);
+            node.right = new BuildTask(sorted, mid + 1, to).compute();
+            node.left = leftTask.join();
+            updateNode(node);
+            return node;
+        }
+    }
+    
+    /**
+     * Returns a sorted copy of the values with duplicates removed
+     * @param values the values to copy
+     * @param parallel true to use a parallel sort
+     * @return strictly ascending distinct values
+     */
+    private static int[] sortedDistinct(int[] values, boolean parallel) {
+        int[] sorted = values.clone();
+        if (parallel) {
+            Arrays.parallelSort(sorted);
+        } else {
+            Arrays.sort(sorted);
+        }
+        
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct == 0 || sorted[i] != sorted[distinct - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+    }
+    
+    /**
+     * Merges two strictly ascending arrays into one, dropping values present in both
+     * @param a strictly ascending values
+     * @param b strictly ascending values
+     * @return the strictly ascending union of a and b
+     */
+    private static int[] mergeDistinct(int[] a, int[] b) {
+        int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                merged[k++] = a[i++];
+            } else if (a[i] > b[j]) {
+                merged[k++] = b[j++];
+            } else {
+                merged[k++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            merged[k++] = a[i++];
+        }
+        while (j < b.length) {
+            merged[k++] = b[j++];
+        }
+        return k == merged.length ? merged : Arrays.copyOf(merged, k);
+    }
+    
+    // ==================== SEARCH OPERATIONS ====================
+    
+    /**
+     * Public method to search for a value in the BST
+     * In splay mode the search also moves the found (or last visited) node
+     * to the root, except when called from a traversal callback, where the
+     * tree is left unchanged so the running traversal stays valid.
+     * @param value the value to search for
+     * @return true if the value exists, false otherwise
+     */
+    @Override
+    public boolean search(int value) {
+        if (balanceMode == BalanceMode.SPLAY && !stackBorrowed) {
+            return splaySearch(value);
+        }
+        if (metrics != null) {
+            return searchInstrumented(value);
+        }
+        return findNode(value) != null;
+    }
+    
+    /**
+     * Plain descent to the node holding a value, without splaying or metrics
+     * @param value the value to search for
+     * @return the node, or null if the value is absent
+     */
+    TreeNode findNode(int value) {
+        TreeNode current = root;
+        while (current != null) {
+            // If we found the value
+            if (value == current.value) {
+                return current;
+            }
+            
+            // Continue in the appropriate subtree
+            current = value < current.value ? current.left : current.right;
+        }
+        return null;
+    }
+    
+    /**
+     * Search loop used while metrics are attached; kept separate so the
+     * uninstrumented loop above carries no counting at all
+     * @param value the value to search for
+     * @return true if the value is found, false otherwise
+     */
+    private boolean searchInstrumented(int value) {
+        int visited = 0;
+        TreeNode current = root;
+        while (current != null) {
+            visited++;
+            if (value == current.value) {
+                metrics.recordSearch(value, visited);
+                return true;
+            }
+            current = value < current.value ? current.left : current.right;
+        }
+        metrics.recordSearch(value, visited);
+        return false;
+    }
+    
+    /**
+     * Searches for a batch of values, sharing descents between neighbouring keys
+     * On trees of at least SHARED_SEARCH_MIN_SIZE values the probes are sorted
+     * and answered in ascending order by several interleaved finger searches
+     * (see searchSorted): close keys only walk the part of the path where they
+     * differ, and independent lanes overlap their cache misses. Smaller trees
+     * fit in cache and answer each probe with a plain descent. The tree is
+     * never restructured, even in splay mode. With metrics attached, each probe
+     * is recorded with the comparisons it made.
+     * @param keys the values to search for (not modified, duplicates allowed)
+     * @return an array whose entry i is true if keys[i] is in the tree
+     */
+    @Override
+    public boolean[] searchAll(int[] keys) {
+        return searchAll(keys, false);
+    }
+    
+    /**
+     * Searches for a batch of values, optionally sorting in parallel and
+     * answering batches of more than PARALLEL_SEARCH_THRESHOLD probes on the
+     * common fork/join pool. Workers only read the tree, which must not be
+     * modified until the call returns.
+     * @param keys the values to search for (not modified, duplicates allowed)
+     * @param parallel true to split large batches across fork/join workers
+     * @return an array whose entry i is true if keys[i] is in the tree
+     */
+    public boolean[] searchAll(int[] keys, boolean parallel) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Keys cannot be null");
+        }
+        boolean[] found = new boolean[keys.length];
+        if (root == null || keys.length == 0) {
+            return found;
+        }
+        
+        // Key in the high half, original index in the low half: sorts by key, then position
+        long[] probes = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            probes[i] = ((long) keys[i] << 32) | i;
+        }
+        boolean shared = sizeOf(root) >= SHARED_SEARCH_MIN_SIZE;
+        if (shared && parallel) {
+            Arrays.parallelSort(probes);
+        } else if (shared) {
+            Arrays.sort(probes);
+        }
+        
+        if (parallel && probes.length > PARALLEL_SEARCH_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new SearchAllTask(this, probes, 0, probes.length, found, shared));
+        } else if (shared) {
+            searchSorted(probes, 0, probes.length, found);
+        } else {
+            searchEach(probes, 0, probes.length, found);
+        }
+        return found;
+    }
+    
+    /**
+     * Answers probes[from, to) one at a time with a plain descent from the root
+     * @param probes packed (key, index) pairs in any order
+     * @param from first probe (inclusive)
+     * @param to last probe (exclusive)
+     * @param found results indexed by the original key position
+     */
+    private void searchEach(long[] probes, int from, int to, boolean[] found) {
+        for (int p = from; p < to; p++) {
+            int key = (int) (probes[p] >> 32);
+            int compared = 0;
+            TreeNode node = root;
+            while (node != null) {
+                compared++;
+                if (key == node.value) {
+                    found[(int) probes[p]] = true;
+                    break;
+                }
+                node = key < node.value ? node.left : node.right;
+            }
+            if (metrics != null) {
+                metrics.recordSearch(key, compared);
+            }
+        }
+    }
+    
+    /**
+     * Answers sorted probes[from, to) with SEARCH_LANES interleaved finger searches
+     * The range is cut into contiguous lanes, and the lanes advance one node
+     * at a time in turn. Within a lane each probe resumes from the deepest
+     * node on the previous probe's path whose subtree can still hold it, so
+     * close keys share the top of their descents; across lanes the node loads
+     * are independent, so their cache misses overlap instead of queueing.
+     * Lane l owns slots [l * slots, (l + 1) * slots) of the stack arrays;
+     * upper[i] is the exclusive upper bound of the keys in stack[i]'s subtree.
+     * Ascending probes never fall below a subtree on the path, so only upper
+     * bounds are needed.
+     * @param probes packed (key, index) pairs in ascending order
+     * @param from first probe (inclusive)
+     * @param to last probe (exclusive)
+     * @param found results indexed by the original key position
+     */
+    private void searchSorted(long[] probes, int from, int to, boolean[] found) {
+        int lanes = Math.min(SEARCH_LANES, to - from);
+        int slots = heightOf(root) + 1;
+        TreeNode[] stack = new TreeNode[lanes * slots];
+        long[] upper = new long[lanes * slots];
+        TreeNode[] current = new TreeNode[lanes];
+        int[] next = new int[lanes];
+        int[] end = new int[lanes];
+        int[] top = new int[lanes];
+        int[] compared = new int[lanes];
+        
+        for (int lane = 0; lane < lanes; lane++) {
+            int base = lane * slots;
+            stack[base] = root;
+            upper[base] = Long.MAX_VALUE;
+            top[lane] = base + 1;
+            current[lane] = root;
+            next[lane] = from + (int) ((long) (to - from) * lane / lanes);
+            end[lane] = from + (int) ((long) (to - from) * (lane + 1) / lanes);
+        }
+        
+        int active = lanes;
+        while (active > 0) {
+            for (int lane = 0; lane < lanes; lane++) {
+                int p = next[lane];
+                if (p == end[lane]) {
+                    continue;
+                }
+                
+                // One step of this lane's descent
+                int key = (int) (probes[p] >> 32);
+                TreeNode node = current[lane];
+                compared[lane]++;
+                TreeNode child = null;
+                if (key == node.value) {
+                    found[(int) probes[p]] = true;
+                } else {
+                    int t = top[lane];
+                    long bound;
+                    if (key < node.value) {
+                        child = node.left;
+                        bound = node.value;
+                    } else {
+                        child = node.right;
+                        bound = upper[t - 1];
+                    }
+                    if (child != null) {
+                        stack[t] = child;
+                        upper[t] = bound;
+                        top[lane] = t + 1;
+                        current[lane] = child;
+                        continue;
+                    }
+                }
+                
+                // Probe answered: record it and resume the lane's next probe
+                if (metrics != null) {
+                    metrics.recordSearch(key, compared[lane]);
+                }
+                compared[lane] = 0;
+                next[lane] = ++p;
+                if (p == end[lane]) {
+                    active--;
+                    continue;
+                }
+                int nextKey = (int) (probes[p] >> 32);
+                int base = lane * slots;
+                int t = top[lane];
+                while (t > base + 1 && nextKey >= upper[t - 1]) {
+                    t--;
+                }
+                top[lane] = t;
+                current[lane] = stack[t - 1];
+            }
+        }
+    }
+    
+    /**
+     * Fork/join task that splits a probe range in halves until each part is
+     * small enough to answer on its own, by finger search if the probes are sorted
+     */
+    private static final class SearchAllTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        /** Tree being searched; only read by the workers */
+        private final BinarySearchTree tree;
+        
+        /** Packed (key, index) probes, shared by all tasks */
+        private final long[] probes;
+        
+        /** First probe of this task's range (inclusive) */
+        private final int from;
+        
+        /** Last probe of this task's range (exclusive) */
+        private final int to;
+        
+        /** Results indexed by original key position; tasks write disjoint entries */
+        private final boolean[] found;
+        
+        /** True if the probes are sorted and answered by finger search */
+        private final boolean shared;
+        
+        SearchAllTask(BinarySearchTree tree, long[] probes, int from, int to, boolean[] found, boolean shared) {
+            this.tree = tree;
+            this.probes = probes;
+            this.from = from;
+            this.to = to;
+            this.found = found;
+            this.shared = shared;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_SEARCH_THRESHOLD) {
+                if (shared) {
+                    tree.searchSorted(probes, from, to, found);
+                } else {
+                    tree.searchEach(probes, from, to, found);
+                }
+                return;
+            }
+            
+            int mid = (from + to) >>> 1;
+            invokeAll(new SearchAllTask(tree, probes, from, mid, found, shared),
+                    new SearchAllTask(tree, probes, mid, to, found, shared));
+        }
+    }
+    
+    /**
+     * Counts the occurrences of a value
+     * @param value the value to count
+     * @return the multiplicity in multiset mode; 1 or 0 otherwise
+     */
+    public int count(int value) {
+        TreeNode current = root;
+        while (current != null) {
+            if (value == current.value) {
+                return current.count;
+            }
+            current = value < current.value ? current.left : current.right;
+        }
+        return 0;
+    }
+    
+    // ==================== DELETION OPERATIONS ====================
+    
+    /**
+     * Public method to delete a value from the BST
+     * @param value the value to delete
+     */
+    @Override
+    public void delete(int value) {
+        int visited = deleteValue(value);
+        if (metrics != null) {
+            metrics.recordDelete(visited);
+        }
+    }
+    
+    /**
+     * Deletes one occurrence of a value and reports how far the descent went
+     * @param value the value to delete
+     * @return the number of nodes visited, including the successor search
+     */
+    private int deleteValue(int value) {
+        if (root == null) {
+            return 0;
+        }
+        
+        // Find the node to delete, remembering the path for the fix-up
+        TreeNode[] path = ensurePathCapacity(heightOf(root) + 1);
+        int depth = 0;
+        TreeNode current = root;
+        while (current != null && value != current.value) {
+            path[depth++] = current;
+            current = value < current.value ? current.left : current.right;
+        }
+        
+        // Value not found
+        if (current == null) {
+            splayIfEnabled(depth);
+            return depth;
+        }
+        
+        if (current.count > 1) {
+            // Multiset: drop one occurrence and keep the node
+            current.count--;
+            path[depth++] = current;
+            fixUpPath(depth);
+            splayIfEnabled(depth);
+            return depth;
+        }
+        
+        entryRemoved(current);
+        TreeNode parent = depth > 0 ? path[depth - 1] : null;
+        int visited;
+        
+        if (current.left == null || current.right == null) {
+            // Case 1 and 2: Node has at most one child - splice it out
+            TreeNode child = current.left != null ? current.left : current.right;
+            replaceChild(parent, current, child);
+            releaseNode(current);
+            visited = depth + 1;
+        } else {
+            // Case 3: Node has two children
+            if (metrics != null) {
+                metrics.recordSuccessorReplacement();
+            }
+            // Find the inorder successor (smallest value in right subtree)
+            path[depth++] = current;
+            TreeNode successorParent = current;
+            TreeNode successor = current.right;
+            while (successor.left != null) {
+                path[depth++] = successor;
+                successorParent = successor;
+                successor = successor.left;
+            }
+            
+            // Replace the node's value (and multiplicity) with successor's
+            moveEntry(successor, current);
+            
+            // Delete the successor (which has at most one right child)
+            replaceChild(successorParent, successor, successor.right);
+            releaseNode(successor);
+            visited = depth + 1;
+        }
+        
+        fixUpPath(depth);
+        // In splay mode the parent of the removed node moves to the root
+        splayIfEnabled(depth);
+        return visited;
+    }
+    
+    /**
+     * Called with the node whose value is about to leave the tree, before it is
+     * spliced out or overwritten; does nothing here, IntTreeMap overrides it to
+     * hand back the removed payload
+     * @param node the node being deleted
+     */
+    void entryRemoved(TreeNode node) {
+    }
+    
+    /**
+     * Copies the inorder successor's contents into a node whose own value is deleted
+     * IntTreeMap overrides it to move the payload along with the key.
+     * @param from the successor, unlinked right after the copy
+     * @param to the node taking over the successor's place in the order
+     */
+    void moveEntry(TreeNode from, TreeNode to) {
+        to.value = from.value;
+        to.count = from.count;
+    }
+    
+    /**
+     * Helper method to find the node with minimum value in a subtree
+     * @param node the root of the subtree
+     * @return the node with the minimum value
+     */
+    private TreeNode findMinimum(TreeNode node) {
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+    
+    // ==================== BALANCING OPERATIONS ====================
+    
+    /**
+     * Walks the recorded path bottom-up after a structural change,
+     * refreshing cached heights/sizes and rebalancing each ancestor
+     * @param depth number of valid entries in the path buffer
+     */
+    private void fixUpPath(int depth) {
+        if (balanceMode != BalanceMode.AVL) {
+            avlShaped = false;
+        }
+        for (int i = depth - 1; i >= 0; i--) {
+            TreeNode node = path[i];
+            TreeNode subtree = rebalance(node);
+            if (subtree != node) {
+                replaceChild(i > 0 ? path[i - 1] : null, node, subtree);
+            }
+        }
+    }
+    
+    /**
+     * Points the parent (or the root, if parent is null) at a new child
+     * @param parent the parent node, or null if oldChild is the root
+     * @param oldChild the child being replaced
+     * @param newChild the replacement (may be null)
+     */
+    private void replaceChild(TreeNode parent, TreeNode oldChild, TreeNode newChild) {
+        if (parent == null) {
+            root = newChild;
+        } else if (parent.left == oldChild) {
+            parent.left = newChild;
+        } else {
+            parent.right = newChild;
+        }
+    }
+    
+    /**
+     * Refreshes the cached height and size of a node and, in AVL mode,
+     * restores the balance invariant with at most two rotations
+     * @param node the node whose children may have changed
+     * @return the root of the (possibly rotated) subtree
+     */
+    private TreeNode rebalance(TreeNode node) {
+        if (balanceMode != BalanceMode.AVL) {
+            updateNode(node);
+            return node;
+        }
+        return restoreAvl(node);
+    }
+    
+    /**
+     * Refreshes the cached height and size of a node and restores the AVL
+     * invariant with at most two rotations, whatever the tree's balance mode
+     * Both subtrees must be AVL trees whose heights differ by at most two.
+     * @param node the node whose children may have changed
+     * @return the root of the (possibly rotated) subtree
+     */
+    private static TreeNode restoreAvl(TreeNode node) {
+        updateNode(node);
+        int balance = balanceFactor(node);
+        if (balance > 1) {
+            // Left-heavy: left-right case needs the left child rotated first
+            if (balanceFactor(node.left) < 0) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            // Right-heavy: right-left case needs the right child rotated first
+            if (balanceFactor(node.right) > 0) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+    
+    /**
+     * Rotates the subtree right around the given node
+     * @param node the root of the subtree (must have a left child)
+     * @return the new root of the subtree
+     */
+    private static TreeNode rotateRight(TreeNode node) {
+        TreeNode pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+    
+    /**
+     * Rotates the subtree left around the given node
+     * @param node the root of the subtree (must have a right child)
+     * @return the new root of the subtree
+     */
+    private static TreeNode rotateLeft(TreeNode node) {
+        TreeNode pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+    
+    /**
+     * Splay-mode search: records the path like insert does, then splays the
+     * matching node, or the last node visited if the value is absent
+     * @param value the value to search for
+     * @return true if the value is found, false otherwise
+     */
+    private boolean splaySearch(int value) {
+        if (root == null) {
+            return false;
+        }
+        
+        TreeNode[] path = ensurePathCapacity(heightOf(root) + 1);
+        int depth = 0;
+        TreeNode current = root;
+        boolean found = false;
+        while (current != null) {
+            path[depth++] = current;
+            if (value == current.value) {
+                found = true;
+                break;
+            }
+            current = value < current.value ? current.left : current.right;
+        }
+        
+        if (metrics != null) {
+            metrics.recordSearch(value, depth);
+        }
+        splay(depth);
+        return found;
+    }
+    
+    /**
+     * Splays the last node of the recorded path if this tree is in splay mode
+     * @param depth number of valid entries in the path buffer
+     */
+    private void splayIfEnabled(int depth) {
+        if (balanceMode == BalanceMode.SPLAY && depth > 0) {
+            splay(depth);
+        }
+    }
+    
+    /**
+     * Moves the last node of the recorded path to the root with bottom-up
+     * zig-zig and zig-zag steps (plus one final zig at odd depths). The
+     * rotations refresh cached heights and sizes of every node they move,
+     * and every node on the path is moved, so no separate fix-up is needed.
+     * The path entries above the node must still form the root-to-node path.
+     * @param depth number of valid entries in the path buffer
+     */
+    private void splay(int depth) {
+        avlShaped = false;
+        splayCount++;
+        int i = depth - 1;
+        TreeNode node = path[i];
+        while (i >= 2) {
+            TreeNode parent = path[i - 1];
+            TreeNode grandparent = path[i - 2];
+            boolean nodeIsLeft = parent.left == node;
+            boolean parentIsLeft = grandparent.left == parent;
+            if (nodeIsLeft && parentIsLeft) {
+                // Zig-zig: rotate the grandparent first, then the parent
+                rotateRight(grandparent);
+                rotateRight(parent);
+            } else if (!nodeIsLeft && !parentIsLeft) {
+                rotateLeft(grandparent);
+                rotateLeft(parent);
+            } else if (nodeIsLeft) {
+                // Zig-zag: rotate the node up twice
+                grandparent.right = rotateRight(parent);
+                rotateLeft(grandparent);
+            } else {
+                grandparent.left = rotateLeft(parent);
+                rotateRight(grandparent);
+            }
+            replaceChild(i > 2 ? path[i - 3] : null, grandparent, node);
+            i -= 2;
+        }
+        if (i == 1) {
+            // Zig: the parent is the root
+            TreeNode parent = path[0];
+            root = parent.left == node ? rotateRight(parent) : rotateLeft(parent);
+        }
+    }
+    
+    /**
+     * Recomputes a node's cached height and subtree size from its children
+     * @param node the node to update
+     */
+    private static void updateNode(TreeNode node) {
+        node.height = Math.max(heightOf(node.left), heightOf(node.right)) + 1;
+        node.size = sizeOf(node.left) + sizeOf(node.right) + node.count;
+    }
+    
+    /**
+     * Gets the cached height of a subtree
+     * @param node the root of the subtree
+     * @return the height, or -1 for an empty subtree
+     */
+    private static int heightOf(TreeNode node) {
+        return node == null ? -1 : node.height;
+    }
+    
+    /**
+     * Gets the cached size of a subtree
+     * @param node the root of the subtree
+     * @return the number of nodes, or 0 for an empty subtree
+     */
+    private static int sizeOf(TreeNode node) {
+        return node == null ? 0 : node.size;
+    }
+    
+    /**
+     * Computes the AVL balance factor of a node
+     * @param node the node to inspect
+     * @return left height minus right height
+     */
+    private static int balanceFactor(TreeNode node) {
+        return heightOf(node.left) - heightOf(node.right);
+    }
+    
+    /**
+     * Makes sure the path buffer can hold the given number of nodes,
+     * growing it geometrically so repeated calls stay allocation-free
+     * @param capacity the number of entries required
+     * @return the (possibly reallocated) path buffer
+     */
+    private TreeNode[] ensurePathCapacity(int capacity) {
+        if (path.length < capacity) {
+            path = new TreeNode[Math.max(capacity, path.length * 2)];
+        }
+        return path;
+    }
+    
+    // ==================== TRAVERSAL OPERATIONS ====================
+    
+    /**
+     * Copies all values into a new array in ascending order
+     * @return the values of the tree, sorted
+     */
+    @Override
+    public int[] toSortedArray() {
+        int[] values = new int[sizeOf(root)];
+        TreeNode[] stack = borrowStack();
+        try {
+            int top = 0;
+            int index = 0;
+            TreeNode current = root;
+            while (current != null || top > 0) {
+                while (current != null) {
+                    stack[top++] = current;
+                    current = current.left;
+                }
+                current = stack[--top];
+                for (int c = current.count; c > 0; c--) {
+                    values[index++] = current.value;
+                }
+                current = current.right;
+            }
+        } finally {
+            returnStack(stack);
+        }
+        return values;
+    }
+    
+    /**
+     * Takes a read-optimized snapshot of the current values
+     * The snapshot answers searches and range queries with far fewer cache
+     * misses than this tree, but does not see later inserts or deletes.
+     * @return a frozen, cache-friendly index over the current values
+     * @throws IllegalArgumentException if this tree is a multiset
+     */
+    public FrozenBinarySearchTree freeze() {
+        return FrozenBinarySearchTree.fromTree(this);
+    }
+    
+    /**
+     * Performs inorder traversal (Left -> Root -> Right)
+     * Results in sorted order for BST
+     */
+    public void inorderTraversal() {
+        System.out.print("Inorder traversal: ");
+        forEachInorder(BinarySearchTree::printValue);
+        System.out.println();
+    }
+    
+    /**
+     * Performs preorder traversal (Root -> Left -> Right)
+     */
+    public void preorderTraversal() {
+        System.out.print("Preorder traversal: ");
+        forEachPreorder(BinarySearchTree::printValue);
+        System.out.println();
+    }
+    
+    /**
+     * Performs postorder traversal (Left -> Right -> Root)
+     */
+    public void postorderTraversal() {
+        System.out.print("Postorder traversal: ");
+        forEachPostorder(BinarySearchTree::printValue);
+        System.out.println();
+    }
+    
+    /**
+     * Prints one traversal value followed by a separator
+     * @param value the value to print
+     */
+    private static void printValue(int value) {
+        System.out.print(value + " ");
+    }
+    
+    /**
+     * Pushes every value to the action in inorder (sorted) order
+     * No boxing and no per-value allocation. The action must not modify the tree.
+     * @param action callback receiving each value
+     */
+    @Override
+    public void forEachInorder(IntConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        forEachInorderNode(node -> visit(action, node));
+    }
+    
+    /**
+     * Pushes every node to the action in inorder (sorted) order, once per node
+     * The action must not modify the tree.
+     * @param action callback receiving each node
+     */
+    void forEachInorderNode(Consumer<? super TreeNode> action) {
+        TreeNode[] stack = borrowStack();
+        try {
+            int top = 0;
+            TreeNode current = root;
+            while (current != null || top > 0) {
+                // Push the whole left spine, then visit the deepest pending node
+                while (current != null) {
+                    stack[top++] = current;
+                    current = current.left;
+                }
+                current = stack[--top];
+                action.accept(current);
+                current = current.right;
+            }
+        } finally {
+            returnStack(stack);
+        }
+    }
+    
+    /**
+     * Pushes every value to the action in preorder (Root -> Left -> Right)
+     * The action must not modify the tree.
+     * @param action callback receiving each value
+     */
+    public void forEachPreorder(IntConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        
+        TreeNode[] stack = borrowStack();
+        try {
+            int top = 0;
+            TreeNode current = root;
+            while (current != null || top > 0) {
+                // Visit nodes on the way down the left spine
+                while (current != null) {
+                    visit(action, current);
+                    stack[top++] = current;
+                    current = current.left;
+                }
+                current = stack[--top].right;
+            }
+        } finally {
+            returnStack(stack);
+        }
+    }
+    
+    /**
+     * Pushes every value to the action in postorder (Left -> Right -> Root)
+     * The action must not modify the tree.
+     * @param action callback receiving each value
+     */
+    public void forEachPostorder(IntConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        
+        TreeNode[] stack = borrowStack();
+        try {
+            int top = 0;
+            TreeNode current = root;
+            TreeNode lastVisited = null;
+            while (current != null || top > 0) {
+                while (current != null) {
+                    stack[top++] = current;
+                    current = current.left;
+                }
+                TreeNode peek = stack[top - 1];
+                if (peek.right != null && peek.right != lastVisited) {
+                    // Right subtree not done yet - descend into it first
+                    current = peek.right;
+                } else {
+                    visit(action, peek);
+                    lastVisited = stack[--top];
+                }
+            }
+        } finally {
+            returnStack(stack);
+        }
+    }
+    
+    /**
+     * Pushes every value to the action level by level, left to right
+     * Uses one growable ring buffer per call (sized to the widest level),
+     * not one allocation per value. The action must not modify the tree.
+     * @param action callback receiving each value
+     */
+    public void forEachLevelOrder(IntConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        if (root == null) {
+            return;
+        }
+        
+        TreeNode[] queue = new TreeNode[16];
+        queue[0] = root;
+        int head = 0;
+        int count = 1;
+        while (count > 0) {
+            TreeNode node = queue[head];
+            head = (head + 1) & (queue.length - 1);
+            count--;
+            visit(action, node);
+            
+            // Grow before enqueueing children so the ring never overflows
+            if (count + 2 > queue.length) {
+                TreeNode[] larger = new TreeNode[queue.length * 2];
+                for (int i = 0; i < count; i++) {
+                    larger[i] = queue[(head + i) & (queue.length - 1)];
+                }
+                queue = larger;
+                head = 0;
+            }
+            if (node.left != null) {
+                queue[(head + count++) & (queue.length - 1)] = node.left;
+            }
+            if (node.right != null) {
+                queue[(head + count++) & (queue.length - 1)] = node.right;
+            }
+        }
+    }
+    
+    /**
+     * Pushes one node's value to the action once per occurrence
+     * @param action callback receiving the value
+     * @param node the node being visited
+     */
+    private static void visit(IntConsumer action, TreeNode node) {
+        for (int c = node.count; c > 0; c--) {
+            action.accept(node.value);
+        }
+    }
+    
+    /**
+     * Returns an iterator over the values in ascending order
+     * The iterator holds its own stack (one array of tree height), yields
+     * primitive ints through nextInt() and allocates nothing per value.
+     * In SPLAY mode a search made while iterating moves nodes; the iterator
+     * notices and re-finds its position in O(h), so it still returns every
+     * value once, in order. Inserts and deletes are modifications and must
+     * not happen while iterating.
+     * @return a primitive iterator over the sorted values
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new InorderIterator();
+    }
+    
+    /**
+     * Inorder iterator that keeps the pending left spine on an explicit stack
+     */
+    private final class InorderIterator implements PrimitiveIterator.OfInt {
+        
+        /** Nodes whose value has not been returned yet, deepest on top */
+        private TreeNode[] stack;
+        
+        /** Number of nodes on the stack */
+        private int top;
+        
+        /** Occurrences of the top node's value already returned (multiset mode) */
+        private int repeats;
+        
+        /** The tree's splayCount when the stack was last built */
+        private int seenSplayCount;
+        
+        /** True once a value has been returned */
+        private boolean started;
+        
+        /** The value returned last (valid once started) */
+        private int lastValue;
+        
+        InorderIterator() {
+            this.stack = new TreeNode[heightOf(root) + 1];
+            this.seenSplayCount = splayCount;
+            pushLeftSpine(root);
+        }
+        
+        @Override
+        public boolean hasNext() {
+            resyncAfterSplay();
+            return top > 0;
+        }
+        
+        @Override
+        public int nextInt() {
+            resyncAfterSplay();
+            if (top == 0) {
+                throw new NoSuchElementException("No more values in the tree");
+            }
+            TreeNode node = stack[top - 1];
+            started = true;
+            lastValue = node.value;
+            if (++repeats < node.count) {
+                return node.value;
+            }
+            repeats = 0;
+            top--;
+            pushLeftSpine(node.right);
+            return node.value;
+        }
+        
+        /**
+         * Rebuilds the stack for the current shape if the tree was splayed,
+         * holding exactly the nodes still to be returned that lie on the
+         * path to the next value
+         */
+        private void resyncAfterSplay() {
+            if (seenSplayCount == splayCount) {
+                return;
+            }
+            seenSplayCount = splayCount;
+            top = 0;
+            if (!started) {
+                pushLeftSpine(root);
+                return;
+            }
+            
+            // Keep the last value's node while some of its occurrences are still due
+            TreeNode node = root;
+            while (node != null) {
+                if (node.value > lastValue || (repeats > 0 && node.value == lastValue)) {
+                    push(node);
+                    node = node.left;
+                } else {
+                    node = node.right;
+                }
+            }
+        }
+        
+        /**
+         * Pushes a node and all of its left descendants
+         * @param node the subtree to descend into (may be null)
+         */
+        private void pushLeftSpine(TreeNode node) {
+            while (node != null) {
+                push(node);
+                node = node.left;
+            }
+        }
+        
+        /**
+         * Pushes one node, growing the stack if the tree got taller
+         * @param node the node to push
+         */
+        private void push(TreeNode node) {
+            if (top == stack.length) {
+                stack = Arrays.copyOf(stack, Math.max(2 * stack.length, heightOf(root) + 1));
+            }
+            stack[top++] = node;
+        }
+    }
+    
+    // ==================== ORDER STATISTICS ====================
+    
+    /**
+     * Finds the k-th smallest value in the BST (0-based, so select(0)
+     * is the minimum and select(getSize() - 1) is the maximum)
+     * @param k the zero-based rank of the value to find
+     * @return the value with exactly k smaller values in the tree
+     * @throws IllegalArgumentException if k is outside [0, getSize())
+     */
+    public int select(int k) {
+        if (k < 0 || k >= sizeOf(root)) {
+            throw new IllegalArgumentException("Rank " + k + " out of range for tree of size " + sizeOf(root));
+        }
+        
+        TreeNode current = root;
+        while (true) {
+            int leftSize = sizeOf(current.left);
+            if (k < leftSize) {
+                current = current.left;
+            } else if (k >= leftSize + current.count) {
+                // Skip the left subtree and this node's occurrences
+                k -= leftSize + current.count;
+                current = current.right;
+            } else {
+                return current.value;
+            }
+        }
+    }
+    
+    /**
+     * Counts the values in the BST that are strictly smaller than the given value
+     * For a value in the tree this is its zero-based position in sorted order,
+     * so select(rank(x)) == x
+     * @param value the value to rank (need not be in the tree)
+     * @return the number of values less than value
+     */
+    public int rank(int value) {
+        int rank = 0;
+        TreeNode current = root;
+        while (current != null) {
+            if (value <= current.value) {
+                current = current.left;
+            } else {
+                // This node and its whole left subtree are smaller
+                rank += sizeOf(current.left) + current.count;
+                current = current.right;
+            }
+        }
+        return rank;
+    }
+    
+    // ==================== RANGE QUERIES ====================
+    
+    /**
+     * Finds the greatest value less than or equal to the given value
+     * @param value the bound to search from
+     * @return the floor value, or empty if every value is greater
+     */
+    @Override
+    public OptionalInt floor(int value) {
+        TreeNode node = floorNode(value);
+        return node == null ? OptionalInt.empty() : OptionalInt.of(node.value);
+    }
+    
+    /**
+     * Finds the node holding the greatest value less than or equal to the given value
+     * @param value the bound to search from
+     * @return the floor node, or null if every value is greater
+     */
+    TreeNode floorNode(int value) {
+        TreeNode best = null;
+        TreeNode current = root;
+        while (current != null) {
+            if (value == current.value) {
+                return current;
+            }
+            if (value < current.value) {
+                current = current.left;
+            } else {
+                // Candidate - a closer one can only be in the right subtree
+                best = current;
+                current = current.right;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Finds the smallest value greater than or equal to the given value
+     * @param value the bound to search from
+     * @return the ceiling value, or empty if every value is smaller
+     */
+    @Override
+    public OptionalInt ceiling(int value) {
+        TreeNode node = ceilingNode(value);
+        return node == null ? OptionalInt.empty() : OptionalInt.of(node.value);
+    }
+    
+    /**
+     * Finds the node holding the smallest value greater than or equal to the given value
+     * @param value the bound to search from
+     * @return the ceiling node, or null if every value is smaller
+     */
+    TreeNode ceilingNode(int value) {
+        TreeNode best = null;
+        TreeNode current = root;
+        while (current != null) {
+            if (value == current.value) {
+                return current;
+            }
+            if (value > current.value) {
+                current = current.right;
+            } else {
+                // Candidate - a closer one can only be in the left subtree
+                best = current;
+                current = current.left;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * Finds the smallest value strictly greater than the given value (successor)
+     * @param value the bound to search from
+     * @return the next larger value, or empty if none exists
+     */
+    @Override
+    public OptionalInt higher(int value) {
+        TreeNode best = null;
+        TreeNode current = root;
+        while (current != null) {
+            if (value < current.value) {
+                best = current;
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        return best == null ? OptionalInt.empty() : OptionalInt.of(best.value);
+    }
+    
+    /**
+     * Finds the greatest value strictly less than the given value (predecessor)
+     * @param value the bound to search from
+     * @return the next smaller value, or empty if none exists
+     */
+    @Override
+    public OptionalInt lower(int value) {
+        TreeNode best = null;
+        TreeNode current = root;
+        while (current != null) {
+            if (value > current.value) {
+                best = current;
+                current = current.right;
+            } else {
+                current = current.left;
+            }
+        }
+        return best == null ? OptionalInt.empty() : OptionalInt.of(best.value);
+    }
+    
+    /**
+     * Counts the values in the closed range [lo, hi] using cached subtree sizes
+     * @param lo the lower bound (inclusive)
+     * @param hi the upper bound (inclusive)
+     * @return the number of values v with lo <= v <= hi (0 if lo > hi)
+     */
+    @Override
+    public int rangeCount(int lo, int hi) {
+        if (lo > hi) {
+            return 0;
+        }
+        return countAtMost(hi) - rank(lo);
+    }
+    
     /**
-     * Constructor - initializes an empty BST
+     * Visits the values in the closed range [lo, hi] in ascending order
+     * Only the nodes in the range and the O(h) nodes on its boundary paths
+     * are touched. The action must not modify the tree.
+     * @param lo the lower bound (inclusive)
+     * @param hi the upper bound (inclusive)
+     * @param action callback receiving each value in the range
      */
-    public BinarySearchTree() {
-        this.root = null;
+    @Override
+    public void rangeScan(int lo, int hi, IntConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        if (lo > hi) {
+            return;
+        }
+        
+        TreeNode[] stack = borrowStack();
+        try {
+            int top = 0;
+            TreeNode current = root;
+            while (current != null || top > 0) {
+                while (current != null) {
+                    if (current.value < lo) {
+                        // Nothing in this node's left subtree can be in range
+                        current = current.right;
+                    } else {
+                        stack[top++] = current;
+                        current = current.left;
+                    }
+                }
+                if (top == 0) {
+                    break;
+                }
+                TreeNode node = stack[--top];
+                if (node.value > hi) {
+                    // Every pending node is larger still
+                    break;
+                }
+                visit(action, node);
+                current = node.right;
+            }
+        } finally {
+            returnStack(stack);
+        }
     }
     
-    // ==================== INSERTION OPERATIONS ====================
+    /**
+     * Counts the values in the BST that are less than or equal to the given value
+     * @param value the upper bound (inclusive)
+     * @return the number of values v with v <= value
+     */
+    private int countAtMost(int value) {
+        int count = 0;
+        TreeNode current = root;
+        while (current != null) {
+            if (value < current.value) {
+                current = current.left;
+            } else {
+                count += sizeOf(current.left) + current.count;
+                current = current.right;
+            }
+        }
+        return count;
+    }
     
     /**
-     * Public method to insert a value into the BST
-     * @param value the integer value to insert
+     * Lends the traversal stack to a traversal, or a fresh stack if it is
+     * already lent out (a callback started another traversal). Every
+     * traversal must get its stack here and give it back in a finally block.
+     * @return a stack large enough for the current tree height
      */
-    public void insert(int value) {
-        root = insertRecursive(root, value);
+    private TreeNode[] borrowStack() {
+        int capacity = heightOf(root) + 1;
+        if (stackBorrowed) {
+            return new TreeNode[capacity];
+        }
+        if (traversalStack.length < capacity) {
+            traversalStack = new TreeNode[Math.max(capacity, traversalStack.length * 2)];
+        }
+        stackBorrowed = true;
+        return traversalStack;
     }
     
     /**
-     * Private recursive helper method for insertion
-     * @param node the current node being examined
-     * @param value the value to insert
-     * @return the node after insertion (may be a new node or the same node)
+     * Gives back a stack obtained from borrowStack
+     * @param stack the stack being returned
      */
-    private TreeNode insertRecursive(TreeNode node, int value) {
-        // Base case: if we reach an empty spot, create a new node
-        if (node == null) {
-            return new TreeNode(value);
+    private void returnStack(TreeNode[] stack) {
+        if (stack == traversalStack) {
+            stackBorrowed = false;
         }
+    }
+    
+    // ==================== SPLIT, JOIN AND SET OPERATIONS ====================
+    
+    /**
+     * Set operations built from split and join; see combine
+     */
+    private enum SetOperation {
+        UNION, INTERSECTION, DIFFERENCE
+    }
+    
+    /**
+     * The three parts of a split: the subtree below the key, the detached
+     * node holding the key (or null), and the subtree above the key
+     */
+    private static final class SplitResult {
+        TreeNode left;
+        TreeNode middle;
+        TreeNode right;
+    }
+    
+    /**
+     * Moves every value greater than or equal to the key into a new tree
+     * This tree keeps the values smaller than the key. Both trees are
+     * AVL-shaped afterwards, in every balance mode. O(log n) for an AVL tree;
+     * see ensureAvlShaped for trees in the other modes.
+     * @param key the smallest value to move
+     * @return a tree with the same balance mode and multiset setting holding the moved values
+     */
+    public BinarySearchTree split(int key) {
+        ensureAvlShaped();
+        SplitResult parts = new SplitResult();
+        split(root, key, parts);
         
-        // Recursive case: compare and go left or right
-        if (value < node.value) {
-            node.left = insertRecursive(node.left, value);
-        } else if (value > node.value) {
-            node.right = insertRecursive(node.right, value);
+        BinarySearchTree upper = new BinarySearchTree(balanceMode, multiset);
+        upper.root = parts.middle == null ? parts.right : join(null, parts.middle, parts.right);
+        root = parts.left;
+        return upper;
+    }
+    
+    /**
+     * Concatenates two trees whose value ranges do not overlap
+     * Runs in O(log n) for AVL operands; the result is AVL-shaped in every
+     * balance mode and reuses the operands' nodes, so both operands are left
+     * empty. Operands in NONE or SPLAY mode are made AVL-shaped first (see
+     * ensureAvlShaped).
+     * @param left the tree with the smaller values
+     * @param right the tree with the larger values
+     * @return a tree with left's balance mode holding the values of both
+     * @throws IllegalArgumentException if a tree is null, both are the same tree,
+     *         one is a multiset and the other is not, or the ranges overlap
+     */
+    public static BinarySearchTree join(BinarySearchTree left, BinarySearchTree right) {
+        checkOperands(left, right);
+        if (left.root != null && right.root != null && left.findMax() >= right.findMin()) {
+            throw new IllegalArgumentException("Every value of left must be smaller than every value of right");
         }
-        // If value equals node.value, we ignore duplicates
+        left.ensureAvlShaped();
+        right.ensureAvlShaped();
         
-        return node;
+        BinarySearchTree joined = new BinarySearchTree(left.balanceMode, left.multiset);
+        joined.root = joinTwo(left.root, right.root, new SplitResult());
+        left.root = null;
+        right.root = null;
+        return joined;
     }
     
-    // ==================== SEARCH OPERATIONS ====================
+    /**
+     * Adds every value of another tree to this one, in O(m log(n/m + 1)) for
+     * AVL trees of sizes m <= n. In multiset mode occurrence counts add up.
+     * The result is AVL-shaped in every balance mode; operands in NONE or
+     * SPLAY mode are made AVL-shaped first (see ensureAvlShaped).
+     * The other tree's nodes are reused, so it is left empty; pass other.copy()
+     * to keep it.
+     * @param other the tree to merge in
+     * @throws IllegalArgumentException if other is null, this tree, or differs in multiset mode
+     */
+    public void unionWith(BinarySearchTree other) {
+        unionWith(other, false);
+    }
     
     /**
-     * Public method to search for a value in the BST
-     * @param value the value to search for
-     * @return true if the value exists, false otherwise
+     * Adds every value of another tree to this one, optionally splitting the
+     * work across the common fork/join pool
+     * @param other the tree to merge in (left empty)
+     * @param parallel true to combine large subtrees on fork/join workers
+     * @throws IllegalArgumentException if other is null, this tree, or differs in multiset mode
      */
-    public boolean search(int value) {
-        return searchRecursive(root, value);
+    public void unionWith(BinarySearchTree other, boolean parallel) {
+        combineWith(SetOperation.UNION, other, parallel);
     }
     
     /**
-     * Private recursive helper method for searching
-     * @param node the current node being examined
-     * @param value the value to search for
-     * @return true if found, false otherwise
+     * Keeps only the values that also occur in another tree, in O(m log(n/m + 1))
+     * for AVL trees of sizes m <= n. In multiset mode each value keeps the
+     * smaller of its two occurrence counts. The other tree is left empty.
+     * @param other the tree to intersect with
+     * @throws IllegalArgumentException if other is null, this tree, or differs in multiset mode
      */
-    private boolean searchRecursive(TreeNode node, int value) {
-        // Base case: if node is null, value not found
-        if (node == null) {
-            return false;
+    public void intersectWith(BinarySearchTree other) {
+        intersectWith(other, false);
+    }
+    
+    /**
+     * Keeps only the values that also occur in another tree, optionally
+     * splitting the work across the common fork/join pool
+     * @param other the tree to intersect with (left empty)
+     * @param parallel true to combine large subtrees on fork/join workers
+     * @throws IllegalArgumentException if other is null, this tree, or differs in multiset mode
+     */
+    public void intersectWith(BinarySearchTree other, boolean parallel) {
+        combineWith(SetOperation.INTERSECTION, other, parallel);
+    }
+    
+    /**
+     * Removes every value that occurs in another tree, in O(m log(n/m + 1))
+     * for AVL trees of sizes m <= n. In multiset mode the other tree's
+     * occurrence counts are subtracted. The other tree is left empty.
+     * @param other the tree whose values to remove
+     * @throws IllegalArgumentException if other is null, this tree, or differs in multiset mode
+     */
+    public void subtract(BinarySearchTree other) {
+        subtract(other, false);
+    }
+    
+    /**
+     * Removes every value that occurs in another tree, optionally splitting
+     * the work across the common fork/join pool
+     * @param other the tree whose values to remove (left empty)
+     * @param parallel true to combine large subtrees on fork/join workers
+     * @throws IllegalArgumentException if other is null, this tree, or differs in multiset mode
+     */
+    public void subtract(BinarySearchTree other, boolean parallel) {
+        combineWith(SetOperation.DIFFERENCE, other, parallel);
+    }
+    
+    /**
+     * Removes every value in the closed range [lo, hi]
+     * Two splits cut the range out as whole subtrees and one join reattaches
+     * the values outside it, so this is O(log n) on an AVL tree however
+     * many values are removed (the removed nodes are simply dropped). The
+     * tree is AVL-shaped afterwards; in NONE or SPLAY mode it is made
+     * AVL-shaped first (see ensureAvlShaped).
+     * @param lo the lower bound (inclusive)
+     * @param hi the upper bound (inclusive)
+     * @return the number of values removed, counting every occurrence in multiset mode (0 if lo > hi)
+     */
+    public int deleteRange(int lo, int hi) {
+        if (lo > hi || root == null) {
+            return 0;
+        }
+        ensureAvlShaped();
+        int before = sizeOf(root);
+        SplitResult parts = new SplitResult();
+        
+        // Keep what lies below lo, drop lo itself, then drop everything up to hi
+        split(root, lo, parts);
+        TreeNode below = parts.left;
+        split(parts.right, hi, parts);
+        root = joinTwo(below, parts.right, parts);
+        return before - sizeOf(root);
+    }
+    
+    /**
+     * Removes every value smaller than a bound, in O(log n) on an AVL tree
+     * @param bound the smallest value to keep
+     * @return the number of values removed, counting every occurrence in multiset mode
+     */
+    public int deleteBelow(int bound) {
+        if (root == null) {
+            return 0;
+        }
+        ensureAvlShaped();
+        int before = sizeOf(root);
+        SplitResult parts = new SplitResult();
+        split(root, bound, parts);
+        root = parts.middle == null ? parts.right : join(null, parts.middle, parts.right);
+        return before - sizeOf(root);
+    }
+    
+    /**
+     * Removes every value greater than a bound, in O(log n) on an AVL tree
+     * @param bound the largest value to keep
+     * @return the number of values removed, counting every occurrence in multiset mode
+     */
+    public int deleteAbove(int bound) {
+        if (root == null) {
+            return 0;
+        }
+        ensureAvlShaped();
+        int before = sizeOf(root);
+        SplitResult parts = new SplitResult();
+        split(root, bound, parts);
+        root = parts.middle == null ? parts.left : join(parts.left, parts.middle, null);
+        return before - sizeOf(root);
+    }
+    
+    /**
+     * Copies the tree into a new, perfectly balanced tree in O(n)
+     * @return a tree with the same values, counts, balance mode and multiset setting
+     */
+    public BinarySearchTree copy() {
+        TreeNode[] nodes = collectNodes();
+        for (int i = 0; i < nodes.length; i++) {
+            TreeNode node = new TreeNode(nodes[i].value);
+            node.count = nodes[i].count;
+            nodes[i] = node;
         }
+        BinarySearchTree copy = new BinarySearchTree(balanceMode, multiset);
+        copy.root = linkBalanced(nodes, 0, nodes.length);
+        return copy;
+    }
+    
+    /**
+     * Validates the operands of join and the set operations
+     */
+    private static void checkOperands(BinarySearchTree first, BinarySearchTree second) {
+        if (first == null || second == null) {
+            throw new IllegalArgumentException("Trees cannot be null");
+        }
+        if (first == second) {
+            throw new IllegalArgumentException("Cannot combine a tree with itself");
+        }
+        if (first.multiset != second.multiset) {
+            throw new IllegalArgumentException("Cannot combine a set with a multiset");
+        }
+    }
+    
+    /**
+     * Runs a set operation with this tree as the result and empties the other tree
+     * Union and intersection are symmetric, so the smaller tree drives the
+     * recursion; difference always splits the other tree by this tree's keys.
+     */
+    private void combineWith(SetOperation operation, BinarySearchTree other, boolean parallel) {
+        checkOperands(this, other);
+        ensureAvlShaped();
+        other.ensureAvlShaped();
         
-        // If we found the value
-        if (value == node.value) {
-            return true;
+        TreeNode a = root;
+        TreeNode b = other.root;
+        if (operation != SetOperation.DIFFERENCE && sizeOf(a) > sizeOf(b)) {
+            a = other.root;
+            b = root;
+        }
+        root = parallel && sizeOf(a) + sizeOf(b) > PARALLEL_SET_THRESHOLD
+                ? ForkJoinPool.commonPool().invoke(new SetOperationTask(operation, a, b, multiset))
+                : combine(operation, a, b, multiset, false);
+        other.root = null;
+    }
+    
+    /**
+     * Combines two subtrees: splits b by a's root key, combines the halves
+     * recursively (in parallel for large inputs) and joins the results around
+     * a's root, whose count is adjusted for the operation or which is dropped
+     * Both subtrees are consumed. Recursion depth is bounded by their heights.
+     * @param operation the set operation to apply
+     * @param a the first operand (the minuend for difference), an AVL subtree
+     * @param b the second operand, an AVL subtree
+     * @param multiset true to combine occurrence counts instead of presence
+     * @param parallel true to fork the left half when the operands are large
+     * @return the root of the combined, AVL-shaped subtree
+     */
+    private static TreeNode combine(SetOperation operation, TreeNode a, TreeNode b, boolean multiset, boolean parallel) {
+        if (a == null) {
+            return operation == SetOperation.UNION ? b : null;
         }
+        if (b == null) {
+            return operation == SetOperation.INTERSECTION ? null : a;
+        }
+        
+        boolean fork = parallel && sizeOf(a) + sizeOf(b) > PARALLEL_SET_THRESHOLD;
+        TreeNode aLeft = a.left;
+        TreeNode aRight = a.right;
+        SplitResult parts = new SplitResult();
+        split(b, a.value, parts);
+        TreeNode match = parts.middle;
         
-        // Recursively search in the appropriate subtree
-        if (value < node.value) {
-            return searchRecursive(node.left, value);
+        TreeNode left;
+        TreeNode right;
+        if (fork) {
+            SetOperationTask leftTask = new SetOperationTask(operation, aLeft, parts.left, multiset);
+            leftTask.fork();
+            right = combine(operation, aRight, parts.right, multiset, true);
+            left = leftTask.join();
         } else {
-            return searchRecursive(node.right, value);
+            left = combine(operation, aLeft, parts.left, multiset, parallel);
+            right = combine(operation, aRight, parts.right, multiset, parallel);
+        }
+        
+        int count = a.count;
+        if (operation == SetOperation.UNION) {
+            if (match != null && multiset) {
+                count += match.count;
+            }
+        } else if (operation == SetOperation.INTERSECTION) {
+            count = match == null ? 0 : Math.min(count, match.count);
+        } else if (match != null) {
+            count -= match.count;
+        }
+        
+        if (count <= 0) {
+            return joinTwo(left, right, parts);
         }
+        a.count = count;
+        return join(left, a, right);
     }
     
-    // ==================== DELETION OPERATIONS ====================
-    
     /**
-     * Public method to delete a value from the BST
-     * @param value the value to delete
+     * Fork/join task that combines one pair of subtrees
      */
-    public void delete(int value) {
-        root = deleteRecursive(root, value);
+    private static final class SetOperationTask extends RecursiveTask<TreeNode> {
+        private static final long serialVersionUID = 1L;
+        
+        /** Operation to apply */
+        private final SetOperation operation;
+        
+        /** First operand subtree */
+        private final TreeNode a;
+        
+        /** Second operand subtree */
+        private final TreeNode b;
+        
+        /** True to combine occurrence counts */
+        private final boolean multiset;
+        
+        SetOperationTask(SetOperation operation, TreeNode a, TreeNode b, boolean multiset) {
+            this.operation = operation;
+            this.a = a;
+            this.b = b;
+            this.multiset = multiset;
+        }
+        
+        @Override
+        protected TreeNode compute() {
+            return combine(operation, a, b, multiset, true);
+        }
     }
     
     /**
-     * Private recursive helper method for deletion
-     * @param node the current node being examined
-     * @param value the value to delete
-     * @return the node after deletion (may be null, same node, or different node)
+     * Splits a subtree around a key, consuming it
+     * The pieces are AVL subtrees if the input is one.
+     * @param node the subtree to split, an AVL subtree
+     * @param key the key to split at
+     * @param out receives the values below the key, the detached node
+     *            holding the key (or null), and the values above it
      */
-    private TreeNode deleteRecursive(TreeNode node, int value) {
-        // Base case: if tree is empty or value not found
+    private static void split(TreeNode node, int key, SplitResult out) {
         if (node == null) {
-            return null;
+            out.left = null;
+            out.middle = null;
+            out.right = null;
+            return;
         }
         
-        // Recursively find the node to delete
-        if (value < node.value) {
-            node.left = deleteRecursive(node.left, value);
-        } else if (value > node.value) {
-            node.right = deleteRecursive(node.right, value);
+        TreeNode left = node.left;
+        TreeNode right = node.right;
+        if (key == node.value) {
+            node.left = null;
+            node.right = null;
+            out.left = left;
+            out.middle = node;
+            out.right = right;
+        } else if (key < node.value) {
+            split(left, key, out);
+            out.right = join(out.right, node, right);
         } else {
-            // Node to be deleted found - handle three cases
-            
-            // Case 1: Node has no children (leaf node)
-            if (node.left == null && node.right == null) {
-                return null;
+            split(right, key, out);
+            out.left = join(left, node, out.left);
+        }
+    }
+    
+    /**
+     * Joins two AVL subtrees and a detached middle node into one AVL subtree
+     * Every value of left must be smaller than middle's and every value of
+     * right larger. Descends the spine of the taller side until the heights
+     * are within one, hangs the middle node there and restores the balance on
+     * the way back up, in O(|h(left) - h(right)| + 1).
+     * @param left the subtree of smaller values (may be null)
+     * @param middle the node to place between them
+     * @param right the subtree of larger values (may be null)
+     * @return the root of the joined subtree
+     */
+    private static TreeNode join(TreeNode left, TreeNode middle, TreeNode right) {
+        int leftHeight = heightOf(left);
+        int rightHeight = heightOf(right);
+        if (leftHeight > rightHeight + 1) {
+            left.right = join(left.right, middle, right);
+            return restoreAvl(left);
+        }
+        if (rightHeight > leftHeight + 1) {
+            right.left = join(left, middle, right.left);
+            return restoreAvl(right);
+        }
+        middle.left = left;
+        middle.right = right;
+        updateNode(middle);
+        return middle;
+    }
+    
+    /**
+     * Joins two subtrees without a middle node by detaching the largest node of left
+     * @param left the AVL subtree of smaller values (may be null)
+     * @param right the AVL subtree of larger values (may be null)
+     * @param scratch holder reused for the detached node
+     * @return the root of the joined subtree
+     */
+    private static TreeNode joinTwo(TreeNode left, TreeNode right, SplitResult scratch) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        TreeNode rest = splitLast(left, scratch);
+        return join(rest, scratch.middle, right);
+    }
+    
+    /**
+     * Detaches the largest node of a non-empty subtree
+     * @param node the subtree
+     * @param out receives the detached node in its middle field
+     * @return the remaining subtree, rebalanced
+     */
+    private static TreeNode splitLast(TreeNode node, SplitResult out) {
+        if (node.right == null) {
+            TreeNode left = node.left;
+            node.left = null;
+            out.middle = node;
+            return left;
+        }
+        TreeNode rest = splitLast(node.right, out);
+        return join(node.left, node, rest);
+    }
+    
+    /**
+     * Makes the tree satisfy the AVL balance rule before a split, join or set
+     * operation, whose joins (restoreAvl) are only correct on AVL subtrees and
+     * whose recursion depth follows the tree height
+     * AVL-mode trees always qualify. A NONE- or SPLAY-mode tree changed by
+     * insert, delete or splaying since its last split, join or set operation
+     * is checked node by node in O(n) and, if any node is out of balance,
+     * relinked into a perfectly balanced shape in O(n); the result of the
+     * operation is AVL-shaped, so the next one starts in O(log n) again.
+     */
+    private void ensureAvlShaped() {
+        if (avlShaped) {
+            return;
+        }
+        if (!isAvlShaped()) {
+            TreeNode[] nodes = collectNodes();
+            root = linkBalanced(nodes, 0, nodes.length);
+        }
+        avlShaped = true;
+    }
+    
+    /**
+     * Checks the AVL balance rule on every node using the cached heights
+     * @return true if no node's subtree heights differ by more than one
+     */
+    private boolean isAvlShaped() {
+        TreeNode[] stack = borrowStack();
+        try {
+            int top = 0;
+            if (root != null) {
+                stack[top++] = root;
             }
-            
-            // Case 2: Node has only one child
-            if (node.left == null) {
-                return node.right;
+            while (top > 0) {
+                TreeNode node = stack[--top];
+                if (Math.abs(balanceFactor(node)) > 1) {
+                    return false;
+                }
+                if (node.left != null) {
+                    stack[top++] = node.left;
+                }
+                if (node.right != null) {
+                    stack[top++] = node.right;
+                }
             }
-            if (node.right == null) {
-                return node.left;
+        } finally {
+            returnStack(stack);
+        }
+        return true;
+    }
+    
+    /**
+     * Collects the nodes of the tree in inorder
+     * @return one entry per node (not per occurrence)
+     */
+    private TreeNode[] collectNodes() {
+        TreeNode[] nodes = new TreeNode[multiset ? countNodes() : sizeOf(root)];
+        int count = 0;
+        TreeNode[] stack = borrowStack();
+        try {
+            int top = 0;
+            TreeNode current = root;
+            while (current != null || top > 0) {
+                while (current != null) {
+                    stack[top++] = current;
+                    current = current.left;
+                }
+                current = stack[--top];
+                nodes[count++] = current;
+                current = current.right;
             }
-            
-            // Case 3: Node has two children
-            // Find the inorder successor (smallest value in right subtree)
-            TreeNode successor = findMinimum(node.right);
-            
-            // Replace the node's value with successor's value
-            node.value = successor.value;
-            
-            // Delete the successor (which has at most one child)
-            node.right = deleteRecursive(node.right, successor.value);
+        } finally {
+            returnStack(stack);
         }
-        
-        return node;
+        return nodes;
     }
     
     /**
-     * Helper method to find the node with minimum value in a subtree
-     * @param node the root of the subtree
-     * @return the node with the minimum value
+     * Relinks nodes[from, to), which are in ascending order, into a perfectly
+     * balanced subtree with the middle node as root; recursion depth is log2(n)
+     * @param nodes the nodes to link (their children are overwritten)
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @return the root of the subtree, or null for an empty range
      */
-    private TreeNode findMinimum(TreeNode node) {
-        while (node.left != null) {
-            node = node.left;
+    private static TreeNode linkBalanced(TreeNode[] nodes, int from, int to) {
+        if (from >= to) {
+            return null;
         }
+        
+        int mid = (from + to) >>> 1;
+        TreeNode node = nodes[mid];
+        node.left = linkBalanced(nodes, from, mid);
+        node.right = linkBalanced(nodes, mid + 1, to);
+        updateNode(node);
         return node;
     }
     
-    // ==================== TRAVERSAL OPERATIONS ====================
+    // ==================== PARALLEL AGGREGATION ====================
     
     /**
-     * Performs inorder traversal (Left -> Root -> Right)
-     * Results in sorted order for BST
+     * Folds every value, in ascending order, into a long on the calling thread
+     * @param identity the identity of the combiner (result for an empty tree)
+     * @param mapper converts each value to the long being folded
+     * @param combiner associative function combining two partial results
+     * @return the folded result
      */
-    public void inorderTraversal() {
-        System.out.print("Inorder traversal: ");
-        inorderRecursive(root);
-        System.out.println();
+    public long reduce(long identity, IntToLongFunction mapper, LongBinaryOperator combiner) {
+        if (mapper == null || combiner == null) {
+            throw new IllegalArgumentException("Mapper and combiner cannot be null");
+        }
+        long[] result = {identity};
+        forEachInorder(value -> result[0] = combiner.applyAsLong(result[0], mapper.applyAsLong(value)));
+        return result[0];
     }
     
     /**
-     * Private recursive helper for inorder traversal
-     * @param node the current node
+     * Folds every value into a long on the common fork/join pool
+     * Partial results are combined in ascending key order, so any
+     * associative combiner gives exactly the result of reduce().
+     * @param identity the identity of the combiner (result for an empty tree)
+     * @param mapper converts each value to the long being folded
+     * @param combiner associative function combining two partial results
+     * @return the folded result
      */
-    private void inorderRecursive(TreeNode node) {
-        if (node != null) {
-            inorderRecursive(node.left);
-            System.out.print(node.value + " ");
-            inorderRecursive(node.right);
+    public long parallelReduce(long identity, IntToLongFunction mapper, LongBinaryOperator combiner) {
+        if (mapper == null || combiner == null) {
+            throw new IllegalArgumentException("Mapper and combiner cannot be null");
         }
+        long[] result = parallelCollect(
+                () -> new long[] {identity},
+                (partial, value) -> partial[0] = combiner.applyAsLong(partial[0], mapper.applyAsLong(value)),
+                (first, second) -> first[0] = combiner.applyAsLong(first[0], second[0]));
+        return result[0];
     }
     
     /**
-     * Performs preorder traversal (Root -> Left -> Right)
+     * Sums all values on the calling thread
+     * @return the sum of the values as a long (no overflow below 2^32 values)
      */
-    public void preorderTraversal() {
-        System.out.print("Preorder traversal: ");
-        preorderRecursive(root);
-        System.out.println();
+    public long sum() {
+        return reduce(0L, value -> value, Long::sum);
     }
     
     /**
-     * Private recursive helper for preorder traversal
-     * @param node the current node
+     * Sums all values on the common fork/join pool
+     * @return the sum of the values, identical to sum()
      */
-    private void preorderRecursive(TreeNode node) {
-        if (node != null) {
-            System.out.print(node.value + " ");
-            preorderRecursive(node.left);
-            preorderRecursive(node.right);
-        }
+    public long parallelSum() {
+        return parallelReduce(0L, value -> value, Long::sum);
     }
     
     /**
-     * Performs postorder traversal (Left -> Right -> Root)
+     * Computes count, sum, min, max and average in one pass on the calling thread
+     * @return statistics over all values
      */
-    public void postorderTraversal() {
-        System.out.print("Postorder traversal: ");
-        postorderRecursive(root);
-        System.out.println();
+    public IntSummaryStatistics summaryStatistics() {
+        IntSummaryStatistics statistics = new IntSummaryStatistics();
+        forEachInorder(statistics);
+        return statistics;
+    }
+    
+    /**
+     * Computes count, sum, min, max and average in one pass on the common fork/join pool
+     * @return statistics over all values, identical to summaryStatistics()
+     */
+    public IntSummaryStatistics parallelSummaryStatistics() {
+        return parallelCollect(IntSummaryStatistics::new, IntSummaryStatistics::accept, IntSummaryStatistics::combine);
+    }
+    
+    /**
+     * Accumulates every value into mutable containers on the common fork/join pool,
+     * in the style of IntStream.collect
+     * Each task fills its own container from supplier; containers are merged
+     * with combiner(earlier, later) in ascending key order, so order-sensitive
+     * containers (lists, hashes) see the values exactly as forEachInorder does.
+     * Subtrees of up to PARALLEL_AGGREGATE_THRESHOLD nodes are walked sequentially.
+     * The tree must not be modified while collecting.
+     * @param supplier creates an empty container
+     * @param accumulator adds one value to a container
+     * @param combiner merges the second container into the first
+     * @return the container holding every value
+     */
+    public <R> R parallelCollect(Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        if (supplier == null || accumulator == null || combiner == null) {
+            throw new IllegalArgumentException("Supplier, accumulator and combiner cannot be null");
+        }
+        
+        CollectTask<R> task = new CollectTask<>(root, supplier, accumulator, combiner);
+        return sizeOf(root) > PARALLEL_AGGREGATE_THRESHOLD
+                ? ForkJoinPool.commonPool().invoke(task)
+                : task.compute();
     }
     
     /**
-     * Private recursive helper for postorder traversal
-     * @param node the current node
+     * Fork/join task collecting one subtree
+     * Instead of recursing into both children, a task walks down the larger
+     * child and forks the smaller one at every step. Forked subtrees are thus
+     * at most half the size of their parent task, which bounds the nesting of
+     * tasks (and of join calls on the thread stack) by log2(n) even for a
+     * degenerate, list-shaped tree.
      */
-    private void postorderRecursive(TreeNode node) {
-        if (node != null) {
-            postorderRecursive(node.left);
-            postorderRecursive(node.right);
-            System.out.print(node.value + " ");
+    private static final class CollectTask<R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+        
+        /** Root of the subtree collected by this task (may be null) */
+        private final TreeNode subtree;
+        
+        /** Creates an empty container per task */
+        private final Supplier<R> supplier;
+        
+        /** Adds one value to a container */
+        private final ObjIntConsumer<R> accumulator;
+        
+        /** Merges a later container into an earlier one */
+        private final BiConsumer<R, R> combiner;
+        
+        CollectTask(TreeNode subtree, Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+            this.subtree = subtree;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+        
+        @Override
+        protected R compute() {
+            // Nodes passed on the way down, with the task forked for their other child:
+            // "before" entries precede the final subtree in key order, "after" entries follow it
+            ArrayList<TreeNode> beforeNodes = new ArrayList<>();
+            ArrayList<CollectTask<R>> beforeTasks = new ArrayList<>();
+            ArrayList<TreeNode> afterNodes = new ArrayList<>();
+            ArrayList<CollectTask<R>> afterTasks = new ArrayList<>();
+            
+            TreeNode node = subtree;
+            while (node != null && node.size > PARALLEL_AGGREGATE_THRESHOLD) {
+                if (sizeOf(node.left) >= sizeOf(node.right)) {
+                    afterNodes.add(node);
+                    afterTasks.add(forkSubtree(node.right));
+                    node = node.left;
+                } else {
+                    beforeNodes.add(node);
+                    beforeTasks.add(forkSubtree(node.left));
+                    node = node.right;
+                }
+            }
+            
+            R result = supplier.get();
+            for (int i = 0; i < beforeNodes.size(); i++) {
+                joinInto(result, beforeTasks.get(i));
+                accumulate(result, beforeNodes.get(i));
+            }
+            collectSequentially(node, result);
+            // The deepest "after" entry is the closest successor of the final subtree
+            for (int i = afterNodes.size() - 1; i >= 0; i--) {
+                accumulate(result, afterNodes.get(i));
+                joinInto(result, afterTasks.get(i));
+            }
+            return result;
+        }
+        
+        /**
+         * Forks a task for a subtree
+         * @param node the subtree root (may be null)
+         * @return the forked task, or null for an empty subtree
+         */
+        private CollectTask<R> forkSubtree(TreeNode node) {
+            if (node == null) {
+                return null;
+            }
+            CollectTask<R> task = new CollectTask<>(node, supplier, accumulator, combiner);
+            task.fork();
+            return task;
+        }
+        
+        /**
+         * Waits for a forked task and merges its container into the result
+         * @param result the container of the current task
+         * @param task the forked task (null for an empty subtree)
+         */
+        private void joinInto(R result, CollectTask<R> task) {
+            if (task != null) {
+                combiner.accept(result, task.join());
+            }
+        }
+        
+        /**
+         * Adds one node's value to the container once per occurrence
+         * @param result the container to fill
+         * @param node the node being visited
+         */
+        private void accumulate(R result, TreeNode node) {
+            for (int c = node.count; c > 0; c--) {
+                accumulator.accept(result, node.value);
+            }
+        }
+        
+        /**
+         * Accumulates a small subtree in inorder on the current thread
+         * @param node the subtree root (may be null)
+         * @param result the container to fill
+         */
+        private void collectSequentially(TreeNode node, R result) {
+            TreeNode[] stack = new TreeNode[heightOf(node) + 1];
+            int top = 0;
+            TreeNode current = node;
+            while (current != null || top > 0) {
+                while (current != null) {
+                    stack[top++] = current;
+                    current = current.left;
+                }
+                current = stack[--top];
+                accumulate(result, current);
+                current = current.right;
+            }
         }
     }
     
@@ -245,59 +2632,83 @@ public class BinarySearchTree {
      * Checks if the BST is empty
      * @return true if empty, false otherwise
      */
+    @Override
     public boolean isEmpty() {
         return root == null;
     }
     
     /**
      * Gets the height of the BST
+     * Heights are cached on every node and kept current by insert/delete,
+     * so this is O(1)
      * @return the height of the tree (-1 for empty tree)
      */
     public int getHeight() {
-        return getHeightRecursive(root);
+        return heightOf(root);
     }
     
     /**
-     * Private recursive helper for calculating height
-     * @param node the current node
-     * @return the height of the subtree rooted at node
+     * Counts the nodes at each depth, showing how far the shape is from balanced
+     * Each distinct value counts once, whatever its multiplicity.
+     * @return an array of length getHeight() + 1 whose entry d is the number of nodes at depth d
      */
-    private int getHeightRecursive(TreeNode node) {
-        if (node == null) {
-            return -1; // Height of empty tree is -1
+    public int[] depthHistogram() {
+        int[] histogram = new int[heightOf(root) + 1];
+        if (root == null) {
+            return histogram;
         }
         
-        int leftHeight = getHeightRecursive(node.left);
-        int rightHeight = getHeightRecursive(node.right);
-        
-        return Math.max(leftHeight, rightHeight) + 1;
+        // Level-order walk; levelLeft counts the queued nodes still on the current level
+        TreeNode[] queue = new TreeNode[16];
+        queue[0] = root;
+        int head = 0;
+        int count = 1;
+        int level = 0;
+        int levelLeft = 1;
+        while (count > 0) {
+            TreeNode node = queue[head];
+            head = (head + 1) & (queue.length - 1);
+            count--;
+            histogram[level]++;
+            
+            if (count + 2 > queue.length) {
+                TreeNode[] larger = new TreeNode[queue.length * 2];
+                for (int i = 0; i < count; i++) {
+                    larger[i] = queue[(head + i) & (queue.length - 1)];
+                }
+                queue = larger;
+                head = 0;
+            }
+            if (node.left != null) {
+                queue[(head + count++) & (queue.length - 1)] = node.left;
+            }
+            if (node.right != null) {
+                queue[(head + count++) & (queue.length - 1)] = node.right;
+            }
+            if (--levelLeft == 0) {
+                level++;
+                levelLeft = count;
+            }
+        }
+        return histogram;
     }
     
     /**
      * Counts the total number of nodes in the BST
-     * @return the number of nodes
+     * Sizes are cached on every node, so this is O(1)
+     * In multiset mode every occurrence is counted.
+     * @return the number of nodes (values, including duplicates, in multiset mode)
      */
+    @Override
     public int getSize() {
-        return getSizeRecursive(root);
-    }
-    
-    /**
-     * Private recursive helper for counting nodes
-     * @param node the current node
-     * @return the number of nodes in the subtree rooted at node
-     */
-    private int getSizeRecursive(TreeNode node) {
-        if (node == null) {
-            return 0;
-        }
-        
-        return 1 + getSizeRecursive(node.left) + getSizeRecursive(node.right);
+        return sizeOf(root);
     }
     
     /**
      * Finds the minimum value in the BST
      * @return the minimum value, or throws exception if tree is empty
      */
+    @Override
     public int findMin() {
         if (isEmpty()) {
             throw new IllegalStateException("Tree is empty");
@@ -311,6 +2722,7 @@ public class BinarySearchTree {
      * Finds the maximum value in the BST
      * @return the maximum value, or throws exception if tree is empty
      */
+    @Override
     public int findMax() {
         if (isEmpty()) {
             throw new IllegalStateException("Tree is empty");
@@ -322,4 +2734,43 @@ public class BinarySearchTree {
         }
         return current.value;
     }
+    
+    /**
+     * Counts the nodes (distinct values) by walking the tree
+     * Only needed in multiset mode, where cached sizes count occurrences.
+     * @return the number of nodes
+     */
+    private int countNodes() {
+        int nodes = 0;
+        TreeNode[] stack = borrowStack();
+        try {
+            int top = 0;
+            TreeNode current = root;
+            while (current != null || top > 0) {
+                while (current != null) {
+                    stack[top++] = current;
+                    current = current.left;
+                }
+                current = stack[--top];
+                nodes++;
+                current = current.right;
+            }
+        } finally {
+            returnStack(stack);
+        }
+        return nodes;
+    }
+    
+    /**
+     * Estimates the heap used by this tree's nodes (pooled ones included) and reusable buffers,
+     * assuming a 64-bit JVM with compressed oops
+     * Compare with ArrayBinarySearchTree.estimateMemoryFootprint() for the
+     * array-backed layout holding the same values.
+     * @return the approximate number of bytes retained by this tree
+     */
+    public long estimateMemoryFootprint() {
+        long nodes = (long) TREE_NODE_BYTES * ((multiset ? countNodes() : sizeOf(root)) + pooledNodes);
+        long buffers = 2 * ARRAY_HEADER_BYTES + 4L * (path.length + traversalStack.length);
+        return nodes + buffers;
+    }
 }
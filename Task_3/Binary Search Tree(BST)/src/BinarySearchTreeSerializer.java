@@ -0,0 +1,354 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.zip.CRC32;
+
+/**
+ * Saves and restores the values of a BinarySearchTree in a compact,
+ * versioned binary format.
+ * 
+ * Only the sorted values are stored, never the tree shape, so a snapshot
+ * is independent of balance mode and insertion history:
+ * 
+ *   magic   int    "BSTS"
+ *   version int    FORMAT_VERSION
+ *   count   int    number of values
+ *   first   varint zigzag-encoded smallest value (absent if count == 0)
+ *   deltas  varint count - 1 gaps between consecutive values, unsigned
+ *   crc     int    CRC32 of everything above
+ * 
+ * Integers are little-endian, varints are LEB128 (7 bits per byte, low
+ * bits first). Dense key sets need one byte per value instead of four.
+ * 
+ * Writing streams the values straight from the tree's inorder iterator
+ * through one reusable direct buffer. Reading decodes into an int array
+ * and hands it to BinarySearchTree.fromSorted, so the tree is rebuilt
+ * perfectly balanced in O(n) without a single insert. The header count is
+ * never trusted for allocation: on a file it is checked against the bytes
+ * left (every value takes at least one), on other channels the array grows
+ * as values arrive.
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public final class BinarySearchTreeSerializer {
+    
+    /** File signature ("BSTS") identifying a snapshot */
+    private static final int MAGIC = 0x42535453;
+    
+    /** Version written by this class and the only one it reads */
+    public static final int FORMAT_VERSION = 1;
+    
+    /** Size of the fixed header: magic, version, count */
+    private static final int HEADER_BYTES = 12;
+    
+    /** Size of the I/O buffer, reused for the whole call */
+    private static final int BUFFER_BYTES = 1 << 16;
+    
+    /** Longest varint for a 32-bit value */
+    private static final int MAX_VARINT_BYTES = 5;
+    
+    /**
+     * Most values allocated up front when the channel's size is unknown;
+     * the array then grows as values arrive, so a forged count cannot
+     * allocate more than the data actually holds
+     */
+    private static final int INITIAL_VALUES_CAPACITY = 1 << 16;
+    
+    private BinarySearchTreeSerializer() {
+        // Static utility - not instantiable
+    }
+    
+    // ==================== WRITE OPERATIONS ====================
+    
+    /**
+     * Writes a snapshot of the tree's values to a file, replacing its contents
+     * @param tree the tree to save (not modified)
+     * @param file the destination file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(BinarySearchTree tree, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(tree, channel);
+        }
+    }
+    
+    /**
+     * Writes a snapshot of the tree's values to a channel (the channel stays open)
+     * The tree must not be modified while it is being written.
+     * @param tree the tree to save (not modified, not a multiset)
+     * @param channel the destination channel
+     * @throws IOException if the channel cannot be written
+     */
+    public static void write(BinarySearchTree tree, WritableByteChannel channel) throws IOException {
+        if (tree == null || channel == null) {
+            throw new IllegalArgumentException("Tree and channel cannot be null");
+        }
+        if (tree.isMultiset()) {
+            // Version 1 stores strictly ascending keys without multiplicities
+            throw new IllegalArgumentException("Multiset trees cannot be written in format version " + FORMAT_VERSION);
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32 crc = new CRC32();
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(tree.getSize());
+        
+        PrimitiveIterator.OfInt values = tree.iterator();
+        if (values.hasNext()) {
+            int previous = values.nextInt();
+            putVarint(buffer, (previous << 1) ^ (previous >> 31));
+            while (values.hasNext()) {
+                if (buffer.remaining() < MAX_VARINT_BYTES) {
+                    drain(buffer, channel, crc);
+                }
+                int value = values.nextInt();
+                // Values ascend, so the gap fits in 32 unsigned bits even across zero
+                putVarint(buffer, value - previous);
+                previous = value;
+            }
+        }
+        
+        drain(buffer, channel, crc);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        writeFully(buffer, channel);
+    }
+    
+    /**
+     * Appends an unsigned LEB128 varint
+     * @param buffer destination with at least MAX_VARINT_BYTES remaining
+     * @param value the value, read as unsigned 32 bits
+     */
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+    
+    /**
+     * Checksums and writes out everything buffered so far, leaving the buffer empty
+     * @param buffer the buffer in write mode
+     * @param channel the destination channel
+     * @param crc the running checksum
+     * @throws IOException if the channel cannot be written
+     */
+    private static void drain(ByteBuffer buffer, WritableByteChannel channel, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        writeFully(buffer, channel);
+        buffer.clear();
+    }
+    
+    /**
+     * Writes all remaining bytes (non-blocking channels may accept them in pieces)
+     * @param buffer the buffer in read mode
+     * @param channel the destination channel
+     * @throws IOException if the channel cannot be written
+     */
+    private static void writeFully(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
+    // ==================== READ OPERATIONS ====================
+    
+    /**
+     * Restores a balanced tree from a snapshot file
+     * @param file the snapshot file
+     * @param balanceMode the balancing strategy of the restored tree
+     * @return a new tree holding the saved values
+     * @throws IOException if the file cannot be read or is not a valid snapshot
+     */
+    public static BinarySearchTree read(Path file, BinarySearchTree.BalanceMode balanceMode) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel, balanceMode);
+        }
+    }
+    
+    /**
+     * Restores a balanced tree from a snapshot on a channel in O(n)
+     * The channel stays open. Input is read in large blocks, so the channel
+     * may end up positioned past the end of the snapshot.
+     * @param channel the source channel
+     * @param balanceMode the balancing strategy of the restored tree
+     * @return a new tree holding the saved values
+     * @throws IOException if the channel cannot be read or the data is not a valid snapshot
+     */
+    public static BinarySearchTree read(ReadableByteChannel channel, BinarySearchTree.BalanceMode balanceMode)
+            throws IOException {
+        if (channel == null || balanceMode == null) {
+            throw new IllegalArgumentException("Channel and balance mode cannot be null");
+        }
+        
+        Reader reader = new Reader(channel);
+        if (reader.readInt() != MAGIC) {
+            throw new IOException("Not a tree snapshot (bad signature)");
+        }
+        int version = reader.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        int count = reader.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt snapshot (negative count " + count + ")");
+        }
+        long available = reader.bytesLeft();
+        if (available >= 0 && count > available - Integer.BYTES) {
+            throw new IOException("Corrupt snapshot (count " + count + " exceeds the " + available + " bytes left)");
+        }
+        
+        int[] values = new int[available >= 0 ? count : Math.min(count, INITIAL_VALUES_CAPACITY)];
+        if (count > 0) {
+            int zigzag = reader.readVarint();
+            values[0] = (zigzag >>> 1) ^ -(zigzag & 1);
+            long previous = values[0];
+            for (int i = 1; i < count; i++) {
+                long next = previous + Integer.toUnsignedLong(reader.readVarint());
+                if (next <= previous || next > Integer.MAX_VALUE) {
+                    throw new IOException("Corrupt snapshot (value " + i + " out of order)");
+                }
+                if (i == values.length) {
+                    values = Arrays.copyOf(values, (int) Math.min(count, 2L * values.length));
+                }
+                values[i] = (int) next;
+                previous = next;
+            }
+        }
+        
+        int expected = (int) reader.checksum();
+        if (reader.readInt() != expected) {
+            throw new IOException("Corrupt snapshot (checksum mismatch)");
+        }
+        return BinarySearchTree.fromSorted(values, balanceMode, true);
+    }
+    
+    /**
+     * Buffered decoder that checksums every byte it consumes
+     * Bytes are checksummed when the buffer is refilled or when checksum()
+     * is called, so the CRC always covers exactly the consumed prefix.
+     */
+    private static final class Reader {
+        
+        /** Source of the snapshot bytes */
+        private final ReadableByteChannel channel;
+        
+        /** Read-mode buffer; bytes before checksumFrom are already in the CRC */
+        private final ByteBuffer buffer;
+        
+        /** Running checksum of consumed bytes */
+        private final CRC32 crc;
+        
+        /** Position in the buffer up to which bytes have been checksummed */
+        private int checksumFrom;
+        
+        Reader(ReadableByteChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            this.buffer.flip();
+            this.crc = new CRC32();
+        }
+        
+        /**
+         * Reads a little-endian int
+         * @return the value
+         * @throws IOException if the snapshot ends early
+         */
+        int readInt() throws IOException {
+            ensureAvailable(Integer.BYTES);
+            return buffer.getInt();
+        }
+        
+        /**
+         * Reads an unsigned LEB128 varint of at most five bytes
+         * @return the value as 32 bits
+         * @throws IOException if the snapshot ends early or the varint is too long
+         */
+        int readVarint() throws IOException {
+            if (buffer.remaining() < MAX_VARINT_BYTES) {
+                ensureAvailable(1);
+            }
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                if (!buffer.hasRemaining()) {
+                    ensureAvailable(1);
+                }
+                byte b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt snapshot (varint longer than " + MAX_VARINT_BYTES + " bytes)");
+        }
+        
+        /**
+         * Counts the bytes left to consume, if the channel knows its size
+         * @return the buffered plus unread bytes, or -1 if the channel is not seekable
+         * @throws IOException if the channel size cannot be read
+         */
+        long bytesLeft() throws IOException {
+            if (!(channel instanceof SeekableByteChannel)) {
+                return -1;
+            }
+            SeekableByteChannel seekable = (SeekableByteChannel) channel;
+            return buffer.remaining() + Math.max(0, seekable.size() - seekable.position());
+        }
+        
+        /**
+         * Gets the checksum of every byte consumed so far
+         * @return the CRC32 value
+         */
+        long checksum() {
+            updateChecksum();
+            return crc.getValue();
+        }
+        
+        /**
+         * Adds the consumed but not yet checksummed bytes to the CRC
+         */
+        private void updateChecksum() {
+            ByteBuffer consumed = buffer.duplicate();
+            consumed.limit(buffer.position()).position(checksumFrom);
+            crc.update(consumed);
+            checksumFrom = buffer.position();
+        }
+        
+        /**
+         * Refills the buffer until at least the given number of bytes are readable
+         * Tries to fill the buffer completely so refills stay rare.
+         * @param bytes number of bytes needed
+         * @throws IOException if the channel ends first
+         */
+        private void ensureAvailable(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            updateChecksum();
+            buffer.compact();
+            checksumFrom = 0;
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Snapshot ended unexpectedly");
+                }
+            }
+            // Opportunistically read more; stop at end of stream or a non-blocking pause
+            while (buffer.hasRemaining() && channel.read(buffer) > 0) {
+                // Keep filling
+            }
+            buffer.flip();
+        }
+    }
+}
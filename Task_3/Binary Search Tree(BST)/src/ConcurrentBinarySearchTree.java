@@ -0,0 +1,258 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe Binary Search Tree for many concurrent readers and writers.
+ * 
+ * The tree is leaf-oriented (an "external" BST): values live only in the
+ * leaves, and internal nodes just route searches (left subtree holds keys
+ * smaller than the routing key, right subtree keys greater or equal).
+ * Every update replaces a single child pointer with a fully built subtree:
+ * - insert swaps a leaf for a new internal node holding the old and new leaf
+ * - delete swings the grandparent's pointer past the leaf's parent to its sibling
+ * 
+ * Because each change is one volatile write, readers never lock and never
+ * see a half-made change. Writers lock only the one or two internal nodes
+ * whose pointers they change (parent, and grandparent for delete), check
+ * the pointers are still as they read them, and retry otherwise. A removed
+ * internal node is flagged and its children are never changed again, which
+ * is what makes lock-free searches linearizable.
+ * 
+ * Two sentinel leaves with keys above Integer.MAX_VALUE guarantee that every
+ * real leaf has both a parent and a grandparent, so no special cases exist
+ * for the root. Locks are always taken top-down and nodes never move up
+ * relative to each other (there are no rotations), so writers cannot deadlock.
+ * 
+ * Time Complexity:
+ * - search, insert, delete: O(h) plus retries under contention
+ * - The tree is not rebalanced, so h depends on insertion order as in
+ *   the plain BinarySearchTree
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class ConcurrentBinarySearchTree {
+    
+    /** Key of the smaller sentinel leaf, larger than any int value */
+    private static final long SENTINEL_LOW = Integer.MAX_VALUE + 1L;
+    
+    /** Key of the larger sentinel leaf and the root's routing key */
+    private static final long SENTINEL_HIGH = Integer.MAX_VALUE + 2L;
+    
+    /**
+     * Common base of leaves and internal nodes; the key never changes
+     */
+    private static class Node {
+        /** Stored value (leaf) or routing key (internal node) */
+        final long key;
+        
+        Node(long key) {
+            this.key = key;
+        }
+    }
+    
+    /**
+     * Leaf node holding one value of the set
+     */
+    private static final class Leaf extends Node {
+        Leaf(long key) {
+            super(key);
+        }
+    }
+    
+    /**
+     * Routing node; its own monitor guards changes to its child pointers
+     */
+    private static final class Internal extends Node {
+        /** Subtree with keys smaller than this node's key */
+        volatile Node left;
+        
+        /** Subtree with keys greater than or equal to this node's key */
+        volatile Node right;
+        
+        /** Set (under this node's lock) once the node is unlinked; children are then frozen */
+        volatile boolean removed;
+        
+        Internal(long key, Node left, Node right) {
+            super(key);
+            this.left = left;
+            this.right = right;
+        }
+    }
+    
+    /** Fixed root whose left subtree holds all real values plus the low sentinel */
+    private final Internal root;
+    
+    /** Number of values, updated after each successful insert/delete */
+    private final LongAdder size;
+    
+    /**
+     * Constructor - initializes an empty tree containing only the sentinels
+     */
+    public ConcurrentBinarySearchTree() {
+        this.root = new Internal(SENTINEL_HIGH, new Leaf(SENTINEL_LOW), new Leaf(SENTINEL_HIGH));
+        this.size = new LongAdder();
+    }
+    
+    // ==================== SEARCH OPERATIONS ====================
+    
+    /**
+     * Searches for a value without taking any lock
+     * @param value the value to search for
+     * @return true if the value was present at some point during the call
+     */
+    public boolean search(int value) {
+        Node current = root;
+        while (current instanceof Internal) {
+            Internal internal = (Internal) current;
+            current = value < internal.key ? internal.left : internal.right;
+        }
+        return current.key == value;
+    }
+    
+    // ==================== UPDATE OPERATIONS ====================
+    
+    /**
+     * Inserts a value, locking only the parent of the leaf it lands next to
+     * @param value the value to insert
+     * @return true if the value was added, false if it was already present
+     */
+    public boolean insert(int value) {
+        while (true) {
+            Internal parent = null;
+            Node leaf = root;
+            while (leaf instanceof Internal) {
+                parent = (Internal) leaf;
+                leaf = value < parent.key ? parent.left : parent.right;
+            }
+            
+            if (leaf.key == value) {
+                return false;
+            }
+            
+            synchronized (parent) {
+                // Retry if the parent was unlinked or the leaf moved since we read it
+                if (parent.removed || (parent.left != leaf && parent.right != leaf)) {
+                    continue;
+                }
+                
+                Leaf newLeaf = new Leaf(value);
+                Internal replacement = value < leaf.key
+                        ? new Internal(leaf.key, newLeaf, leaf)
+                        : new Internal(value, leaf, newLeaf);
+                if (parent.left == leaf) {
+                    parent.left = replacement;
+                } else {
+                    parent.right = replacement;
+                }
+            }
+            size.increment();
+            return true;
+        }
+    }
+    
+    /**
+     * Deletes a value, locking only the leaf's grandparent and parent
+     * @param value the value to delete
+     * @return true if the value was removed, false if it was not present
+     */
+    public boolean delete(int value) {
+        while (true) {
+            Internal grandparent = null;
+            Internal parent = null;
+            Node leaf = root;
+            while (leaf instanceof Internal) {
+                grandparent = parent;
+                parent = (Internal) leaf;
+                leaf = value < parent.key ? parent.left : parent.right;
+            }
+            
+            if (leaf.key != value) {
+                return false;
+            }
+            
+            synchronized (grandparent) {
+                synchronized (parent) {
+                    // Retry if either node was unlinked or a pointer changed since we read it
+                    if (grandparent.removed || parent.removed
+                            || (grandparent.left != parent && grandparent.right != parent)
+                            || (parent.left != leaf && parent.right != leaf)) {
+                        continue;
+                    }
+                    
+                    Node sibling = parent.left == leaf ? parent.right : parent.left;
+                    parent.removed = true;
+                    if (grandparent.left == parent) {
+                        grandparent.left = sibling;
+                    } else {
+                        grandparent.right = sibling;
+                    }
+                }
+            }
+            size.decrement();
+            return true;
+        }
+    }
+    
+    // ==================== UTILITY OPERATIONS ====================
+    
+    /**
+     * Checks if the tree is empty
+     * @return true if no value was present at the time of the check
+     */
+    public boolean isEmpty() {
+        // With no real values, the root's left child is the low sentinel leaf
+        return root.left instanceof Leaf;
+    }
+    
+    /**
+     * Counts the values in the tree
+     * Exact when no update is in flight; otherwise a recent approximation.
+     * @return the number of values
+     */
+    public int getSize() {
+        return size.intValue();
+    }
+    
+    /**
+     * Finds the minimum value (weakly consistent under concurrent updates)
+     * @return the minimum value
+     * @throws IllegalStateException if the tree is empty
+     */
+    public int findMin() {
+        Node current = root;
+        while (current instanceof Internal) {
+            current = ((Internal) current).left;
+        }
+        if (current.key >= SENTINEL_LOW) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        return (int) current.key;
+    }
+    
+    /**
+     * Finds the maximum value (weakly consistent under concurrent updates)
+     * The low sentinel is always the rightmost leaf of the root's left
+     * subtree, so the maximum is its predecessor: the rightmost leaf of the
+     * deepest left sibling along that right spine.
+     * @return the maximum value
+     * @throws IllegalStateException if the tree is empty
+     */
+    public int findMax() {
+        Node deepestLeftSibling = null;
+        Node current = root.left;
+        while (current instanceof Internal) {
+            Internal internal = (Internal) current;
+            deepestLeftSibling = internal.left;
+            current = internal.right;
+        }
+        if (deepestLeftSibling == null) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        
+        current = deepestLeftSibling;
+        while (current instanceof Internal) {
+            current = ((Internal) current).right;
+        }
+        return (int) current.key;
+    }
+}
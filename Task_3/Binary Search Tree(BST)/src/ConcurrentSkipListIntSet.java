@@ -0,0 +1,520 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+
+/**
+ * Thread-safe ordered int set built as a lazy skip list.
+ * 
+ * Every value sits in a sorted linked list (level 0); a random subset
+ * also appears in sparser lists above it (each node reaches level i+1
+ * with probability 1/2), so a search skips ahead on the upper levels and
+ * needs O(log n) steps on average, without any rebalancing.
+ * 
+ * Synchronization follows the same idea as ConcurrentBinarySearchTree:
+ * - Searches, navigation and iteration never lock
+ * - An update finds its predecessors without locking, then locks only
+ *   those nodes, checks they still point where it read them, and retries
+ *   otherwise. Locks are taken bottom-up and predecessors only ever move
+ *   right, so writers cannot deadlock.
+ * - A node counts as present once it is linked on every level
+ *   (fullyLinked) and until it is logically deleted (marked); physical
+ *   unlinking happens afterwards under the predecessors' locks.
+ * 
+ * search, insert and delete are linearizable. Navigation, range scans,
+ * iteration, getSize and min/max are weakly consistent: they never fail
+ * under concurrent updates but may or may not see updates made while
+ * they run.
+ * 
+ * Time Complexity (expected):
+ * - search, insert, delete, floor/ceiling/higher/lower, findMin/findMax: O(log n)
+ *   plus retries under contention
+ * - rangeScan: O(log n + k) for k matches; traversals: O(n)
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class ConcurrentSkipListIntSet implements OrderedIntSet {
+    
+    /** Number of levels; 2^32 values would be needed to fill the top one */
+    private static final int MAX_LEVEL = 32;
+    
+    /** Key of the head sentinel, smaller than any int value */
+    private static final long HEAD_KEY = Integer.MIN_VALUE - 1L;
+    
+    /** Key of the tail sentinel, larger than any int value */
+    private static final long TAIL_KEY = Integer.MAX_VALUE + 1L;
+    
+    /** Volatile access to the elements of Node.next */
+    private static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(Node[].class);
+    
+    /**
+     * Skip list node; the key and the number of levels never change
+     */
+    private static final class Node {
+        /** Stored value (or sentinel key) */
+        final long key;
+        
+        /** Successor on each level the node appears on; read and written through NEXT */
+        final Node[] next;
+        
+        /** Guards changes to next[] and the marked flag */
+        final ReentrantLock lock;
+        
+        /** Set once the node is logically deleted; it is then never unmarked */
+        volatile boolean marked;
+        
+        /** Set once the node is linked on all of its levels */
+        volatile boolean fullyLinked;
+        
+        Node(long key, int levels) {
+            this.key = key;
+            this.next = new Node[levels];
+            this.lock = new ReentrantLock();
+        }
+        
+        Node next(int level) {
+            return (Node) NEXT.getVolatile(next, level);
+        }
+        
+        void setNext(int level, Node node) {
+            NEXT.setVolatile(next, level, node);
+        }
+        
+        /** Highest level this node appears on */
+        int topLevel() {
+            return next.length - 1;
+        }
+    }
+    
+    /** Head sentinel, linked on every level */
+    private final Node head;
+    
+    /** Tail sentinel, linked on every level */
+    private final Node tail;
+    
+    /** Number of values, updated after each successful insert/delete */
+    private final LongAdder size;
+    
+    /**
+     * Constructor - initializes an empty set containing only the sentinels
+     */
+    public ConcurrentSkipListIntSet() {
+        this.head = new Node(HEAD_KEY, MAX_LEVEL);
+        this.tail = new Node(TAIL_KEY, MAX_LEVEL);
+        for (int level = 0; level < MAX_LEVEL; level++) {
+            head.setNext(level, tail);
+        }
+        head.fullyLinked = true;
+        tail.fullyLinked = true;
+        this.size = new LongAdder();
+    }
+    
+    // ==================== SEARCH OPERATIONS ====================
+    
+    /**
+     * Records, for every level, the last node with a smaller key and its successor
+     * @param key the key to locate
+     * @param preds receives the predecessor on each level
+     * @param succs receives the successor on each level
+     * @return the highest level on which a node with the key was found, or -1
+     */
+    private int find(long key, Node[] preds, Node[] succs) {
+        int foundLevel = -1;
+        Node pred = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node current = pred.next(level);
+            while (key > current.key) {
+                pred = current;
+                current = pred.next(level);
+            }
+            if (foundLevel == -1 && key == current.key) {
+                foundLevel = level;
+            }
+            preds[level] = pred;
+            succs[level] = current;
+        }
+        return foundLevel;
+    }
+    
+    /**
+     * Finds the last node on level 0 whose key is smaller than the given key
+     * @param key the bound (exclusive)
+     * @return the predecessor node, possibly the head sentinel
+     */
+    private Node predecessor(long key) {
+        Node pred = head;
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            Node current = pred.next(level);
+            while (key > current.key) {
+                pred = current;
+                current = pred.next(level);
+            }
+        }
+        return pred;
+    }
+    
+    /**
+     * Checks whether a node is a present value (linked and not deleted)
+     */
+    private static boolean isPresent(Node node) {
+        return node.fullyLinked && !node.marked;
+    }
+    
+    /**
+     * Searches for a value without taking any lock
+     * @param value the value to search for
+     * @return true if the value was present at some point during the call
+     */
+    @Override
+    public boolean search(int value) {
+        Node current = predecessor(value).next(0);
+        return current.key == value && isPresent(current);
+    }
+    
+    // ==================== UPDATE OPERATIONS ====================
+    
+    /**
+     * Inserts a value, locking only its predecessors on the levels it spans
+     * @param value the value to insert (duplicates are ignored)
+     */
+    @Override
+    public void insert(int value) {
+        int topLevel = randomLevel();
+        Node[] preds = new Node[MAX_LEVEL];
+        Node[] succs = new Node[MAX_LEVEL];
+        while (true) {
+            int foundLevel = find(value, preds, succs);
+            if (foundLevel != -1) {
+                Node found = succs[foundLevel];
+                if (!found.marked) {
+                    // Already present, or about to be: wait until it is visible everywhere
+                    while (!found.fullyLinked) {
+                        Thread.onSpinWait();
+                    }
+                    return;
+                }
+                // Being deleted: retry once it is unlinked
+                continue;
+            }
+            
+            int highestLocked = -1;
+            try {
+                boolean valid = true;
+                for (int level = 0; valid && level <= topLevel; level++) {
+                    Node pred = preds[level];
+                    Node succ = succs[level];
+                    pred.lock.lock();
+                    highestLocked = level;
+                    valid = !pred.marked && !succ.marked && pred.next(level) == succ;
+                }
+                if (!valid) {
+                    continue;
+                }
+                
+                Node node = new Node(value, topLevel + 1);
+                for (int level = 0; level <= topLevel; level++) {
+                    node.setNext(level, succs[level]);
+                }
+                for (int level = 0; level <= topLevel; level++) {
+                    preds[level].setNext(level, node);
+                }
+                node.fullyLinked = true;
+                size.increment();
+                return;
+            } finally {
+                unlock(preds, highestLocked);
+            }
+        }
+    }
+    
+    /**
+     * Deletes a value: marks its node under the node's lock (the
+     * linearization point), then unlinks it under its predecessors' locks
+     * @param value the value to delete (missing values are ignored)
+     */
+    @Override
+    public void delete(int value) {
+        Node victim = null;
+        boolean marked = false;
+        Node[] preds = new Node[MAX_LEVEL];
+        Node[] succs = new Node[MAX_LEVEL];
+        while (true) {
+            int foundLevel = find(value, preds, succs);
+            if (!marked) {
+                if (foundLevel == -1) {
+                    return;
+                }
+                victim = succs[foundLevel];
+                // Only a fully linked node found at its own top level can be claimed
+                if (!victim.fullyLinked || victim.topLevel() != foundLevel || victim.marked) {
+                    return;
+                }
+                victim.lock.lock();
+                if (victim.marked) {
+                    victim.lock.unlock();
+                    return;
+                }
+                victim.marked = true;
+                marked = true;
+            }
+            
+            int topLevel = victim.topLevel();
+            int highestLocked = -1;
+            try {
+                boolean valid = true;
+                for (int level = 0; valid && level <= topLevel; level++) {
+                    Node pred = preds[level];
+                    pred.lock.lock();
+                    highestLocked = level;
+                    valid = !pred.marked && pred.next(level) == victim;
+                }
+                if (!valid) {
+                    continue;
+                }
+                
+                for (int level = topLevel; level >= 0; level--) {
+                    preds[level].setNext(level, victim.next(level));
+                }
+                victim.lock.unlock();
+                size.decrement();
+                return;
+            } finally {
+                unlock(preds, highestLocked);
+            }
+        }
+    }
+    
+    /**
+     * Releases the predecessor locks taken on levels 0..highestLocked
+     * (a node that is the predecessor on several levels was locked once per level)
+     */
+    private static void unlock(Node[] preds, int highestLocked) {
+        for (int level = 0; level <= highestLocked; level++) {
+            preds[level].lock.unlock();
+        }
+    }
+    
+    /**
+     * Draws a node's top level: level i with probability 2^-(i+1)
+     * @return a level in [0, MAX_LEVEL - 1]
+     */
+    private static int randomLevel() {
+        return Integer.numberOfTrailingZeros(ThreadLocalRandom.current().nextInt() | (1 << (MAX_LEVEL - 1)));
+    }
+    
+    // ==================== UTILITY OPERATIONS ====================
+    
+    /**
+     * Checks if the set is empty
+     * @return true if no value was present at the time of the check
+     */
+    @Override
+    public boolean isEmpty() {
+        return firstFrom(head) == tail;
+    }
+    
+    /**
+     * Counts the values in the set
+     * Exact when no update is in flight; otherwise a recent approximation.
+     * @return the number of values
+     */
+    @Override
+    public int getSize() {
+        return size.intValue();
+    }
+    
+    /**
+     * Finds the minimum value (weakly consistent under concurrent updates)
+     * @return the minimum value
+     * @throws IllegalStateException if the set is empty
+     */
+    @Override
+    public int findMin() {
+        Node first = firstFrom(head);
+        if (first == tail) {
+            throw new IllegalStateException("Set is empty");
+        }
+        return (int) first.key;
+    }
+    
+    /**
+     * Finds the maximum value (weakly consistent under concurrent updates)
+     * @return the maximum value
+     * @throws IllegalStateException if the set is empty
+     */
+    @Override
+    public int findMax() {
+        OptionalInt max = below(TAIL_KEY);
+        if (!max.isPresent()) {
+            throw new IllegalStateException("Set is empty");
+        }
+        return max.getAsInt();
+    }
+    
+    // ==================== NAVIGATION ====================
+    
+    /**
+     * Finds the first present node on level 0 after the given node
+     * @param node the node to start after
+     * @return the first present successor, or the tail sentinel
+     */
+    private Node firstFrom(Node node) {
+        Node current = node.next(0);
+        while (current != tail && !isPresent(current)) {
+            current = current.next(0);
+        }
+        return current;
+    }
+    
+    /**
+     * Finds the greatest present value below the given key, skipping nodes
+     * that are being inserted or deleted by searching again below them
+     * @param key the bound (exclusive)
+     * @return the value, or empty if none exists
+     */
+    private OptionalInt below(long key) {
+        while (true) {
+            Node pred = predecessor(key);
+            if (pred == head) {
+                return OptionalInt.empty();
+            }
+            if (isPresent(pred)) {
+                return OptionalInt.of((int) pred.key);
+            }
+            key = pred.key;
+        }
+    }
+    
+    /**
+     * Finds the smallest present value at or above the given key
+     * @param key the bound (inclusive)
+     * @return the value, or empty if none exists
+     */
+    private OptionalInt atOrAbove(long key) {
+        Node node = firstFrom(predecessor(key));
+        return node == tail ? OptionalInt.empty() : OptionalInt.of((int) node.key);
+    }
+    
+    /**
+     * Finds the greatest value less than or equal to the given value
+     * @param value the bound to search from
+     * @return the floor value, or empty if every value is greater
+     */
+    @Override
+    public OptionalInt floor(int value) {
+        return below(value + 1L);
+    }
+    
+    /**
+     * Finds the smallest value greater than or equal to the given value
+     * @param value the bound to search from
+     * @return the ceiling value, or empty if every value is smaller
+     */
+    @Override
+    public OptionalInt ceiling(int value) {
+        return atOrAbove(value);
+    }
+    
+    /**
+     * Finds the smallest value strictly greater than the given value
+     * @param value the bound to search from
+     * @return the next larger value, or empty if none exists
+     */
+    @Override
+    public OptionalInt higher(int value) {
+        return atOrAbove(value + 1L);
+    }
+    
+    /**
+     * Finds the greatest value strictly less than the given value
+     * @param value the bound to search from
+     * @return the next smaller value, or empty if none exists
+     */
+    @Override
+    public OptionalInt lower(int value) {
+        return below(value);
+    }
+    
+    // ==================== TRAVERSAL OPERATIONS ====================
+    
+    /**
+     * Visits the values in the closed range [lo, hi] in ascending order
+     * by walking level 0 from the range's start (weakly consistent)
+     * @param lo the lower bound (inclusive)
+     * @param hi the upper bound (inclusive)
+     * @param action callback receiving each value in the range
+     */
+    @Override
+    public void rangeScan(int lo, int hi, IntConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        if (lo > hi) {
+            return;
+        }
+        for (Node node = firstFrom(predecessor(lo)); node.key <= hi; node = firstFrom(node)) {
+            action.accept((int) node.key);
+        }
+    }
+    
+    /**
+     * Pushes every value to the action in ascending order (weakly consistent)
+     * @param action callback receiving each value
+     */
+    @Override
+    public void forEachInorder(IntConsumer action) {
+        rangeScan(Integer.MIN_VALUE, Integer.MAX_VALUE, action);
+    }
+    
+    /**
+     * Copies the values into a new array in ascending order (weakly consistent)
+     * @return the values seen by one pass over the set, sorted
+     */
+    @Override
+    public int[] toSortedArray() {
+        int[] values = new int[Math.max(16, getSize())];
+        int count = 0;
+        for (Node node = firstFrom(head); node != tail; node = firstFrom(node)) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = (int) node.key;
+        }
+        return count == values.length ? values : Arrays.copyOf(values, count);
+    }
+    
+    /**
+     * Returns a weakly consistent iterator over the values in ascending order
+     * Unlike the tree iterators it stays valid while the set is modified.
+     * @return a primitive iterator over the sorted values
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            /** Next node to return, or the tail sentinel */
+            private Node next = firstFrom(head);
+            
+            @Override
+            public boolean hasNext() {
+                return next != tail;
+            }
+            
+            @Override
+            public int nextInt() {
+                if (next == tail) {
+                    throw new NoSuchElementException("No more values in the set");
+                }
+                int value = (int) next.key;
+                next = firstFrom(next);
+                return value;
+            }
+        };
+    }
+}
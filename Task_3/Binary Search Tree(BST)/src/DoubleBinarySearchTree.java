@@ -0,0 +1,1226 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.NoSuchElementException;
+import java.util.OptionalDouble;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Binary Search Tree specialized for primitive double keys.
+ * 
+ * A counterpart of BinarySearchTree with the key type changed from int
+ * to double: the same iterative algorithms, the same reusable path buffer
+ * and traversal stack, the same cached height/size per node and the same
+ * NONE and AVL balance modes. Keys are never boxed and comparisons are
+ * direct calls to Double.compare, so there is no Comparable dispatch on
+ * the hot path.
+ * 
+ * Keys are ordered by Double.compare, the same total order as Arrays.sort:
+ * -0.0 sorts before 0.0 and both are distinct keys, and NaN is a single
+ * key greater than positive infinity.
+ * 
+ * Features:
+ * - Insert, search, delete; bulk build from sorted or unsorted arrays
+ * - Order statistics (select, rank) and ordered queries (floor, ceiling,
+ *   higher, lower, rangeCount, rangeScan)
+ * - Inorder, preorder, postorder and level order traversal through a
+ *   DoubleConsumer, and a primitive inorder iterator
+ * - Aggregation on the calling thread or the common fork/join pool:
+ *   reduce, sum, summary statistics and parallelCollect
+ * - Optional AVL self-balancing mode selected at construction
+ * 
+ * Only that subset of BinarySearchTree is offered. SPLAY mode, multiset
+ * mode, split/join and the set operations, range deletions, batched
+ * search, node recycling, metrics, freezing and serialization are int-only.
+ * 
+ * Time Complexity:
+ * - Same as BinarySearchTree: O(h) for insert, search, delete, select,
+ *   rank and ordered queries; O(1) for getSize and getHeight
+ * 
+ * Space Complexity:
+ * - One 40-byte node per key plus two O(h) reusable buffers
+ * 
+ * Generated from codegen/PrimitiveBinarySearchTree.java.template by
+ * codegen/GeneratePrimitiveTrees.java, like the other primitive-key trees.
+ * Edit the template and regenerate rather than editing this file.
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class DoubleBinarySearchTree {
+    
+    /** Initial capacity of the path buffer, enough for any AVL tree of 2^22 nodes */
+    private static final int INITIAL_PATH_CAPACITY = 32;
+    
+    /**
+     * Approximate size of one node on a 64-bit JVM with compressed oops:
+     * 12-byte header + double value (8) + height, size (4 each) + two 4-byte references
+     */
+    private static final int NODE_BYTES = 40;
+    
+    /** Size of an array object header on a 64-bit JVM with compressed oops */
+    private static final int ARRAY_HEADER_BYTES = 16;
+    
+    /** Subtree size above which parallel aggregation forks tasks */
+    private static final int PARALLEL_AGGREGATE_THRESHOLD = 1 << 13;
+    
+    /**
+     * Tree node holding one double key
+     */
+    private static final class Node {
+        /** The key stored in this node */
+        double value;
+        
+        /** Left and right children */
+        Node left;
+        Node right;
+        
+        /** Height of this node's subtree (0 for a leaf) */
+        int height;
+        
+        /** Number of nodes in this node's subtree */
+        int size;
+        
+        Node(double value) {
+            this.value = value;
+            this.height = 0;
+            this.size = 1;
+        }
+    }
+    
+    /** The root node of the tree */
+    private Node root;
+    
+    /** Balancing strategy chosen at construction time */
+    private final BinarySearchTree.BalanceMode balanceMode;
+    
+    /**
+     * Reusable root-to-node path buffer for insert and delete, which never
+     * run callbacks. Grows with tree height.
+     */
+    private Node[] path;
+    
+    /** Reusable traversal stack; only borrowStack and returnStack touch it */
+    private Node[] traversalStack;
+    
+    /** True while a traversal is borrowing traversalStack */
+    private boolean stackBorrowed;
+    
+    /**
+     * Constructor - initializes an empty, unbalanced tree
+     */
+    public DoubleBinarySearchTree() {
+        this(BinarySearchTree.BalanceMode.NONE);
+    }
+    
+    /**
+     * Constructor - initializes an empty tree with the given balancing strategy
+     * @param balanceMode the balancing strategy to apply on insert and delete (NONE or AVL)
+     */
+    public DoubleBinarySearchTree(BinarySearchTree.BalanceMode balanceMode) {
+        if (balanceMode == null) {
+            throw new IllegalArgumentException("Balance mode cannot be null");
+        }
+        if (balanceMode == BinarySearchTree.BalanceMode.SPLAY) {
+            throw new IllegalArgumentException("Splay mode is not supported by DoubleBinarySearchTree");
+        }
+        this.root = null;
+        this.balanceMode = balanceMode;
+        this.path = new Node[INITIAL_PATH_CAPACITY];
+        this.traversalStack = new Node[INITIAL_PATH_CAPACITY];
+    }
+    
+    /**
+     * Gets the balancing strategy of this tree
+     * @return the balance mode chosen at construction
+     */
+    public BinarySearchTree.BalanceMode getBalanceMode() {
+        return balanceMode;
+    }
+    
+    // ==================== INSERTION OPERATIONS ====================
+    
+    /**
+     * Inserts a value into the tree (duplicates are ignored)
+     * @param value the value to insert
+     */
+    public void insert(double value) {
+        if (root == null) {
+            root = new Node(value);
+            return;
+        }
+        
+        Node[] path = ensurePathCapacity(heightOf(root) + 1);
+        int depth = 0;
+        Node current = root;
+        while (current != null) {
+            path[depth++] = current;
+            int cmp = Double.compare(value, current.value);
+            if (cmp < 0) {
+                current = current.left;
+            } else if (cmp > 0) {
+                current = current.right;
+            } else {
+                // If value equals node.value, we ignore duplicates
+                return;
+            }
+        }
+        
+        Node parent = path[depth - 1];
+        if (Double.compare(value, parent.value) < 0) {
+            parent.left = new Node(value);
+        } else {
+            parent.right = new Node(value);
+        }
+        
+        fixUpPath(depth);
+    }
+    
+    /**
+     * Inserts many values at once by merging them with the current contents
+     * and rebuilding a perfectly balanced tree in O(n + m log m)
+     * @param values the values to insert (not modified, duplicates allowed)
+     */
+    public void insertAll(double[] values) {
+        if (values == null) {
+            throw new IllegalArgumentException("Values cannot be null");
+        }
+        
+        double[] incoming = sortedDistinct(values);
+        double[] merged = isEmpty() ? incoming : mergeDistinct(toSortedArray(), incoming);
+        root = buildBalanced(merged, 0, merged.length);
+    }
+    
+    // ==================== BULK BUILD OPERATIONS ====================
+    
+    /**
+     * Builds a perfectly balanced tree from strictly ascending values in O(n)
+     * @param sorted the values in strictly ascending order (not modified)
+     * @param balanceMode the balancing strategy for later inserts and deletes
+     * @return a new tree containing exactly the given values
+     * @throws IllegalArgumentException if the values are not strictly ascending
+     */
+    public static DoubleBinarySearchTree fromSorted(double[] sorted, BinarySearchTree.BalanceMode balanceMode) {
+        if (sorted == null) {
+            throw new IllegalArgumentException("Values cannot be null");
+        }
+        for (int i = 1; i < sorted.length; i++) {
+            if (Double.compare(sorted[i - 1], sorted[i]) >= 0) {
+                throw new IllegalArgumentException("Values must be strictly ascending (index " + i + ")");
+            }
+        }
+        
+        DoubleBinarySearchTree tree = new DoubleBinarySearchTree(balanceMode);
+        tree.root = buildBalanced(sorted, 0, sorted.length);
+        return tree;
+    }
+    
+    /**
+     * Builds a perfectly balanced tree from values in any order in O(n log n)
+     * @param values the values to load (not modified, duplicates allowed)
+     * @param balanceMode the balancing strategy for later inserts and deletes
+     * @return a new tree containing the distinct values
+     */
+    public static DoubleBinarySearchTree fromArray(double[] values, BinarySearchTree.BalanceMode balanceMode) {
+        if (values == null) {
+            throw new IllegalArgumentException("Values cannot be null");
+        }
+        DoubleBinarySearchTree tree = new DoubleBinarySearchTree(balanceMode);
+        double[] sorted = sortedDistinct(values);
+        tree.root = buildBalanced(sorted, 0, sorted.length);
+        return tree;
+    }
+    
+    /**
+     * Builds the subtree for sorted[from, to) with its middle element as root
+     * Recursion depth is log2(n), never the tree size.
+     * @param sorted strictly ascending values
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @return the root of the subtree, or null for an empty range
+     */
+    private static Node buildBalanced(double[] sorted, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        
+        int mid = (from + to) >>> 1;
+        Node node = new Node(sorted[mid]);
+        node.left = buildBalanced(sorted, from, mid);
+        node.right = buildBalanced(sorted, mid + 1, to);
+        updateNode(node);
+        return node;
+    }
+    
+    /**
+     * Returns a sorted copy of the values with duplicates removed
+     * @param values the values to copy
+     * @return strictly ascending distinct values
+     */
+    private static double[] sortedDistinct(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct == 0 || Double.compare(sorted[i], sorted[distinct - 1]) != 0) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return distinct == sorted.length ? sorted : Arrays.copyOf(sorted, distinct);
+    }
+    
+    /**
+     * Merges two strictly ascending arrays into one, dropping values present in both
+     * @param a strictly ascending values
+     * @param b strictly ascending values
+     * @return the strictly ascending union of a and b
+     */
+    private static double[] mergeDistinct(double[] a, double[] b) {
+        double[] merged = new double[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length && j < b.length) {
+            int cmp = Double.compare(a[i], b[j]);
+            if (cmp < 0) {
+                merged[k++] = a[i++];
+            } else if (cmp > 0) {
+                merged[k++] = b[j++];
+            } else {
+                merged[k++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) {
+            merged[k++] = a[i++];
+        }
+        while (j < b.length) {
+            merged[k++] = b[j++];
+        }
+        return k == merged.length ? merged : Arrays.copyOf(merged, k);
+    }
+    
+    // ==================== SEARCH OPERATIONS ====================
+    
+    /**
+     * Searches for a value in the tree
+     * @param value the value to search for
+     * @return true if the value exists, false otherwise
+     */
+    public boolean search(double value) {
+        Node current = root;
+        while (current != null) {
+            int cmp = Double.compare(value, current.value);
+            if (cmp == 0) {
+                return true;
+            }
+            current = cmp < 0 ? current.left : current.right;
+        }
+        return false;
+    }
+    
+    // ==================== DELETION OPERATIONS ====================
+    
+    /**
+     * Deletes a value from the tree
+     * @param value the value to delete
+     */
+    public void delete(double value) {
+        if (root == null) {
+            return;
+        }
+        
+        Node[] path = ensurePathCapacity(heightOf(root) + 1);
+        int depth = 0;
+        Node current = root;
+        int cmp;
+        while (current != null && (cmp = Double.compare(value, current.value)) != 0) {
+            path[depth++] = current;
+            current = cmp < 0 ? current.left : current.right;
+        }
+        
+        // Value not found
+        if (current == null) {
+            return;
+        }
+        
+        Node parent = depth > 0 ? path[depth - 1] : null;
+        
+        if (current.left == null || current.right == null) {
+            // Case 1 and 2: Node has at most one child - splice it out
+            Node child = current.left != null ? current.left : current.right;
+            replaceChild(parent, current, child);
+        } else {
+            // Case 3: Node has two children - pull up the inorder successor
+            path[depth++] = current;
+            Node successorParent = current;
+            Node successor = current.right;
+            while (successor.left != null) {
+                path[depth++] = successor;
+                successorParent = successor;
+                successor = successor.left;
+            }
+            
+            current.value = successor.value;
+            replaceChild(successorParent, successor, successor.right);
+        }
+        
+        fixUpPath(depth);
+    }
+    
+    // ==================== BALANCING OPERATIONS ====================
+    
+    /**
+     * Walks the recorded path bottom-up, refreshing heights/sizes and rebalancing
+     * @param depth number of valid entries in the path buffer
+     */
+    private void fixUpPath(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            Node node = path[i];
+            Node subtree = rebalance(node);
+            if (subtree != node) {
+                replaceChild(i > 0 ? path[i - 1] : null, node, subtree);
+            }
+        }
+    }
+    
+    /**
+     * Points the parent (or the root, if parent is null) at a new child
+     * @param parent the parent node, or null if oldChild is the root
+     * @param oldChild the child being replaced
+     * @param newChild the replacement (may be null)
+     */
+    private void replaceChild(Node parent, Node oldChild, Node newChild) {
+        if (parent == null) {
+            root = newChild;
+        } else if (parent.left == oldChild) {
+            parent.left = newChild;
+        } else {
+            parent.right = newChild;
+        }
+    }
+    
+    /**
+     * Refreshes a node's height and size and, in AVL mode, restores balance
+     * @param node the node whose children may have changed
+     * @return the root of the (possibly rotated) subtree
+     */
+    private Node rebalance(Node node) {
+        updateNode(node);
+        if (balanceMode != BinarySearchTree.BalanceMode.AVL) {
+            return node;
+        }
+        
+        int balance = balanceFactor(node);
+        if (balance > 1) {
+            if (balanceFactor(node.left) < 0) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (balanceFactor(node.right) > 0) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+    
+    /**
+     * Rotates the subtree right around the given node
+     * @param node the root of the subtree (must have a left child)
+     * @return the new root of the subtree
+     */
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+    
+    /**
+     * Rotates the subtree left around the given node
+     * @param node the root of the subtree (must have a right child)
+     * @return the new root of the subtree
+     */
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+    
+    /**
+     * Recomputes a node's cached height and subtree size from its children
+     * @param node the node to update
+     */
+    private static void updateNode(Node node) {
+        node.height = Math.max(heightOf(node.left), heightOf(node.right)) + 1;
+        node.size = sizeOf(node.left) + sizeOf(node.right) + 1;
+    }
+    
+    /**
+     * Gets the cached height of a subtree
+     * @param node the root of the subtree
+     * @return the height, or -1 for an empty subtree
+     */
+    private static int heightOf(Node node) {
+        return node == null ? -1 : node.height;
+    }
+    
+    /**
+     * Gets the cached size of a subtree
+     * @param node the root of the subtree
+     * @return the number of nodes, or 0 for an empty subtree
+     */
+    private static int sizeOf(Node node) {
+        return node == null ? 0 : node.size;
+    }
+    
+    /**
+     * Computes the AVL balance factor of a node
+     * @param node the node to inspect
+     * @return left height minus right height
+     */
+    private static int balanceFactor(Node node) {
+        return heightOf(node.left) - heightOf(node.right);
+    }
+    
+    /**
+     * Makes sure the path buffer can hold the given number of nodes
+     * @param capacity the number of entries required
+     * @return the (possibly reallocated) path buffer
+     */
+    private Node[] ensurePathCapacity(int capacity) {
+        if (path.length < capacity) {
+            path = new Node[Math.max(capacity, path.length * 2)];
+        }
+        return path;
+    }
+    
+    // ==================== TRAVERSAL OPERATIONS ====================
+    
+    /**
+     * Copies all values into a new array in ascending order
+     * @return the values of the tree, sorted
+     */
+    public double[] toSortedArray() {
+        double[] values = new double[sizeOf(root)];
+        int[] index = {0};
+        forEachInorder(value -> values[index[0]++] = value);
+        return values;
+    }
+    
+    /**
+     * Pushes every value to the action in ascending order
+     * No boxing and no per-value allocation. The action must not modify the tree.
+     * @param action callback receiving each value
+     */
+    public void forEachInorder(DoubleConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        
+        Node[] stack = borrowStack();
+        try {
+            int top = 0;
+            Node current = root;
+            while (current != null || top > 0) {
+                while (current != null) {
+                    stack[top++] = current;
+                    current = current.left;
+                }
+                current = stack[--top];
+                action.accept(current.value);
+                current = current.right;
+            }
+        } finally {
+            returnStack(stack);
+        }
+    }
+    
+    /**
+     * Pushes every value to the action in preorder (Root -> Left -> Right)
+     * The action must not modify the tree.
+     * @param action callback receiving each value
+     */
+    public void forEachPreorder(DoubleConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        
+        Node[] stack = borrowStack();
+        try {
+            int top = 0;
+            Node current = root;
+            while (current != null || top > 0) {
+                // Visit nodes on the way down the left spine
+                while (current != null) {
+                    action.accept(current.value);
+                    stack[top++] = current;
+                    current = current.left;
+                }
+                current = stack[--top].right;
+            }
+        } finally {
+            returnStack(stack);
+        }
+    }
+    
+    /**
+     * Pushes every value to the action in postorder (Left -> Right -> Root)
+     * The action must not modify the tree.
+     * @param action callback receiving each value
+     */
+    public void forEachPostorder(DoubleConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        
+        Node[] stack = borrowStack();
+        try {
+            int top = 0;
+            Node current = root;
+            Node lastVisited = null;
+            while (current != null || top > 0) {
+                while (current != null) {
+                    stack[top++] = current;
+                    current = current.left;
+                }
+                Node peek = stack[top - 1];
+                if (peek.right != null && peek.right != lastVisited) {
+                    // Right subtree not done yet - descend into it first
+                    current = peek.right;
+                } else {
+                    action.accept(peek.value);
+                    lastVisited = stack[--top];
+                }
+            }
+        } finally {
+            returnStack(stack);
+        }
+    }
+    
+    /**
+     * Pushes every value to the action level by level, left to right
+     * Uses one growable ring buffer per call (sized to the widest level),
+     * not one allocation per value. The action must not modify the tree.
+     * @param action callback receiving each value
+     */
+    public void forEachLevelOrder(DoubleConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        if (root == null) {
+            return;
+        }
+        
+        Node[] queue = new Node[16];
+        queue[0] = root;
+        int head = 0;
+        int count = 1;
+        while (count > 0) {
+            Node node = queue[head];
+            head = (head + 1) & (queue.length - 1);
+            count--;
+            action.accept(node.value);
+            
+            // Grow before enqueueing children so the ring never overflows
+            if (count + 2 > queue.length) {
+                Node[] larger = new Node[queue.length * 2];
+                for (int i = 0; i < count; i++) {
+                    larger[i] = queue[(head + i) & (queue.length - 1)];
+                }
+                queue = larger;
+                head = 0;
+            }
+            if (node.left != null) {
+                queue[(head + count++) & (queue.length - 1)] = node.left;
+            }
+            if (node.right != null) {
+                queue[(head + count++) & (queue.length - 1)] = node.right;
+            }
+        }
+    }
+    
+    /**
+     * Returns an iterator over the values in ascending order, without boxing
+     * The tree must not be modified while iterating.
+     * @return a primitive iterator over the sorted values
+     */
+    public PrimitiveIterator.OfDouble iterator() {
+        return new InorderIterator(root);
+    }
+    
+    /**
+     * Inorder iterator that keeps the pending left spine on an explicit stack
+     */
+    private static final class InorderIterator implements PrimitiveIterator.OfDouble {
+        
+        /** Nodes whose value has not been returned yet, deepest on top */
+        private final Node[] stack;
+        
+        /** Number of nodes on the stack */
+        private int top;
+        
+        InorderIterator(Node root) {
+            this.stack = new Node[heightOf(root) + 1];
+            pushLeftSpine(root);
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+        
+        @Override
+        public double nextDouble() {
+            if (top == 0) {
+                throw new NoSuchElementException("No more values in the tree");
+            }
+            Node node = stack[--top];
+            pushLeftSpine(node.right);
+            return node.value;
+        }
+        
+        /**
+         * Pushes a node and all of its left descendants
+         * @param node the subtree to descend into (may be null)
+         */
+        private void pushLeftSpine(Node node) {
+            while (node != null) {
+                stack[top++] = node;
+                node = node.left;
+            }
+        }
+    }
+    
+    /**
+     * Lends the traversal stack to a traversal, or a fresh stack if it is
+     * already lent out (a callback started another traversal). Every
+     * traversal must get its stack here and give it back in a finally block.
+     * @return a stack large enough for the current tree height
+     */
+    private Node[] borrowStack() {
+        int capacity = heightOf(root) + 1;
+        if (stackBorrowed) {
+            return new Node[capacity];
+        }
+        if (traversalStack.length < capacity) {
+            traversalStack = new Node[Math.max(capacity, traversalStack.length * 2)];
+        }
+        stackBorrowed = true;
+        return traversalStack;
+    }
+    
+    /**
+     * Gives back a stack obtained from borrowStack
+     * @param stack the stack being returned
+     */
+    private void returnStack(Node[] stack) {
+        if (stack == traversalStack) {
+            stackBorrowed = false;
+        }
+    }
+    
+    // ==================== ORDER STATISTICS ====================
+    
+    /**
+     * Finds the k-th smallest value (0-based)
+     * @param k the zero-based rank of the value to find
+     * @return the value with exactly k smaller values in the tree
+     * @throws IllegalArgumentException if k is outside [0, getSize())
+     */
+    public double select(int k) {
+        if (k < 0 || k >= sizeOf(root)) {
+            throw new IllegalArgumentException("Rank " + k + " out of range for tree of size " + sizeOf(root));
+        }
+        
+        Node current = root;
+        while (true) {
+            int leftSize = sizeOf(current.left);
+            if (k < leftSize) {
+                current = current.left;
+            } else if (k > leftSize) {
+                k -= leftSize + 1;
+                current = current.right;
+            } else {
+                return current.value;
+            }
+        }
+    }
+    
+    /**
+     * Counts the values strictly smaller than the given value
+     * @param value the value to rank (need not be in the tree)
+     * @return the number of values less than value
+     */
+    public int rank(double value) {
+        int rank = 0;
+        Node current = root;
+        while (current != null) {
+            if (Double.compare(value, current.value) <= 0) {
+                current = current.left;
+            } else {
+                rank += sizeOf(current.left) + 1;
+                current = current.right;
+            }
+        }
+        return rank;
+    }
+    
+    // ==================== RANGE QUERIES ====================
+    
+    /**
+     * Finds the greatest value less than or equal to the given value
+     * @param value the bound to search from
+     * @return the floor value, or empty if every value is greater
+     */
+    public OptionalDouble floor(double value) {
+        Node best = null;
+        Node current = root;
+        while (current != null) {
+            int cmp = Double.compare(value, current.value);
+            if (cmp == 0) {
+                return OptionalDouble.of(current.value);
+            }
+            if (cmp < 0) {
+                current = current.left;
+            } else {
+                best = current;
+                current = current.right;
+            }
+        }
+        return best == null ? OptionalDouble.empty() : OptionalDouble.of(best.value);
+    }
+    
+    /**
+     * Finds the smallest value greater than or equal to the given value
+     * @param value the bound to search from
+     * @return the ceiling value, or empty if every value is smaller
+     */
+    public OptionalDouble ceiling(double value) {
+        Node best = null;
+        Node current = root;
+        while (current != null) {
+            int cmp = Double.compare(value, current.value);
+            if (cmp == 0) {
+                return OptionalDouble.of(current.value);
+            }
+            if (cmp > 0) {
+                current = current.right;
+            } else {
+                best = current;
+                current = current.left;
+            }
+        }
+        return best == null ? OptionalDouble.empty() : OptionalDouble.of(best.value);
+    }
+    
+    /**
+     * Finds the smallest value strictly greater than the given value (successor)
+     * @param value the bound to search from
+     * @return the next larger value, or empty if none exists
+     */
+    public OptionalDouble higher(double value) {
+        Node best = null;
+        Node current = root;
+        while (current != null) {
+            if (Double.compare(value, current.value) < 0) {
+                best = current;
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        return best == null ? OptionalDouble.empty() : OptionalDouble.of(best.value);
+    }
+    
+    /**
+     * Finds the greatest value strictly less than the given value (predecessor)
+     * @param value the bound to search from
+     * @return the next smaller value, or empty if none exists
+     */
+    public OptionalDouble lower(double value) {
+        Node best = null;
+        Node current = root;
+        while (current != null) {
+            if (Double.compare(value, current.value) > 0) {
+                best = current;
+                current = current.right;
+            } else {
+                current = current.left;
+            }
+        }
+        return best == null ? OptionalDouble.empty() : OptionalDouble.of(best.value);
+    }
+    
+    /**
+     * Counts the values in the closed range [lo, hi] using cached subtree sizes
+     * @param lo the lower bound (inclusive)
+     * @param hi the upper bound (inclusive)
+     * @return the number of values v with lo <= v <= hi (0 if lo > hi)
+     */
+    public int rangeCount(double lo, double hi) {
+        if (Double.compare(lo, hi) > 0) {
+            return 0;
+        }
+        return countAtMost(hi) - rank(lo);
+    }
+    
+    /**
+     * Visits the values in the closed range [lo, hi] in ascending order
+     * The action must not modify the tree.
+     * @param lo the lower bound (inclusive)
+     * @param hi the upper bound (inclusive)
+     * @param action callback receiving each value in the range
+     */
+    public void rangeScan(double lo, double hi, DoubleConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        if (Double.compare(lo, hi) > 0) {
+            return;
+        }
+        
+        Node[] stack = borrowStack();
+        try {
+            int top = 0;
+            Node current = root;
+            while (current != null || top > 0) {
+                while (current != null) {
+                    if (Double.compare(current.value, lo) < 0) {
+                        // Nothing in this node's left subtree can be in range
+                        current = current.right;
+                    } else {
+                        stack[top++] = current;
+                        current = current.left;
+                    }
+                }
+                if (top == 0) {
+                    break;
+                }
+                Node node = stack[--top];
+                if (Double.compare(node.value, hi) > 0) {
+                    // Every pending node is larger still
+                    break;
+                }
+                action.accept(node.value);
+                current = node.right;
+            }
+        } finally {
+            returnStack(stack);
+        }
+    }
+    
+    /**
+     * Counts the values less than or equal to the given value
+     * @param value the upper bound (inclusive)
+     * @return the number of values v with v <= value
+     */
+    private int countAtMost(double value) {
+        int count = 0;
+        Node current = root;
+        while (current != null) {
+            if (Double.compare(value, current.value) < 0) {
+                current = current.left;
+            } else {
+                count += sizeOf(current.left) + 1;
+                current = current.right;
+            }
+        }
+        return count;
+    }
+    
+    // ==================== PARALLEL AGGREGATION ====================
+    
+    /**
+     * Folds every value, in ascending order, on the calling thread
+     * @param identity the identity of the combiner (result for an empty tree)
+     * @param mapper converts each value to the value being folded
+     * @param combiner associative function combining two partial results
+     * @return the folded result
+     */
+    public double reduce(double identity, DoubleUnaryOperator mapper, DoubleBinaryOperator combiner) {
+        if (mapper == null || combiner == null) {
+            throw new IllegalArgumentException("Mapper and combiner cannot be null");
+        }
+        double[] result = {identity};
+        forEachInorder(value -> result[0] = combiner.applyAsDouble(result[0], mapper.applyAsDouble(value)));
+        return result[0];
+    }
+    
+    /**
+     * Folds every value on the common fork/join pool
+     * Partial results are combined in ascending key order, so any
+     * associative combiner gives exactly the result of reduce().
+     * @param identity the identity of the combiner (result for an empty tree)
+     * @param mapper converts each value to the value being folded
+     * @param combiner associative function combining two partial results
+     * @return the folded result
+     */
+    public double parallelReduce(double identity, DoubleUnaryOperator mapper, DoubleBinaryOperator combiner) {
+        if (mapper == null || combiner == null) {
+            throw new IllegalArgumentException("Mapper and combiner cannot be null");
+        }
+        double[] result = parallelCollect(
+                () -> new double[] {identity},
+                (partial, value) -> partial[0] = combiner.applyAsDouble(partial[0], mapper.applyAsDouble(value)),
+                (first, second) -> first[0] = combiner.applyAsDouble(first[0], second[0]));
+        return result[0];
+    }
+    
+    /**
+     * Sums all values on the calling thread
+     * @return the sum of the values, added in ascending order
+     */
+    public double sum() {
+        return reduce(0.0, value -> value, Double::sum);
+    }
+    
+    /**
+     * Sums all values on the common fork/join pool
+     * @return the sum of the values; double addition is not associative, so
+     *         this can differ from sum() in the last bits
+     */
+    public double parallelSum() {
+        return parallelReduce(0.0, value -> value, Double::sum);
+    }
+    
+    /**
+     * Computes count, sum, min, max and average in one pass on the calling thread
+     * @return statistics over all values
+     */
+    public DoubleSummaryStatistics summaryStatistics() {
+        DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
+        forEachInorder(statistics);
+        return statistics;
+    }
+    
+    /**
+     * Computes count, sum, min, max and average in one pass on the common fork/join pool
+     * @return statistics over all values; double addition is not associative,
+     *         so the sum and average can differ from summaryStatistics() in the last bits
+     */
+    public DoubleSummaryStatistics parallelSummaryStatistics() {
+        return parallelCollect(DoubleSummaryStatistics::new, DoubleSummaryStatistics::accept,
+                DoubleSummaryStatistics::combine);
+    }
+    
+    /**
+     * Accumulates every value into mutable containers on the common fork/join pool,
+     * in the style of DoubleStream.collect
+     * Each task fills its own container from supplier; containers are merged
+     * with combiner(earlier, later) in ascending key order, so order-sensitive
+     * containers (lists, hashes) see the values exactly as forEachInorder does.
+     * Subtrees of up to PARALLEL_AGGREGATE_THRESHOLD nodes are walked sequentially.
+     * The tree must not be modified while collecting.
+     * @param supplier creates an empty container
+     * @param accumulator adds one value to a container
+     * @param combiner merges the second container into the first
+     * @return the container holding every value
+     */
+    public <R> R parallelCollect(Supplier<R> supplier, ObjDoubleConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        if (supplier == null || accumulator == null || combiner == null) {
+            throw new IllegalArgumentException("Supplier, accumulator and combiner cannot be null");
+        }
+        
+        CollectTask<R> task = new CollectTask<>(root, supplier, accumulator, combiner);
+        return sizeOf(root) > PARALLEL_AGGREGATE_THRESHOLD
+                ? ForkJoinPool.commonPool().invoke(task)
+                : task.compute();
+    }
+    
+    /**
+     * Fork/join task collecting one subtree
+     * As in BinarySearchTree, a task walks down the larger child and forks
+     * the smaller one at every step, so task nesting stays below log2(n)
+     * even for a degenerate, list-shaped tree.
+     */
+    private static final class CollectTask<R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+        
+        /** Root of the subtree collected by this task (may be null) */
+        private final Node subtree;
+        
+        /** Creates an empty container per task */
+        private final Supplier<R> supplier;
+        
+        /** Adds one value to a container */
+        private final ObjDoubleConsumer<R> accumulator;
+        
+        /** Merges a later container into an earlier one */
+        private final BiConsumer<R, R> combiner;
+        
+        CollectTask(Node subtree, Supplier<R> supplier, ObjDoubleConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+            this.subtree = subtree;
+            this.supplier = supplier;
+            this.accumulator = accumulator;
+            this.combiner = combiner;
+        }
+        
+        @Override
+        protected R compute() {
+            // Nodes passed on the way down, with the task forked for their other child:
+            // "before" entries precede the final subtree in key order, "after" entries follow it
+            ArrayList<Node> beforeNodes = new ArrayList<>();
+            ArrayList<CollectTask<R>> beforeTasks = new ArrayList<>();
+            ArrayList<Node> afterNodes = new ArrayList<>();
+            ArrayList<CollectTask<R>> afterTasks = new ArrayList<>();
+            
+            Node node = subtree;
+            while (node != null && node.size > PARALLEL_AGGREGATE_THRESHOLD) {
+                if (sizeOf(node.left) >= sizeOf(node.right)) {
+                    afterNodes.add(node);
+                    afterTasks.add(forkSubtree(node.right));
+                    node = node.left;
+                } else {
+                    beforeNodes.add(node);
+                    beforeTasks.add(forkSubtree(node.left));
+                    node = node.right;
+                }
+            }
+            
+            R result = supplier.get();
+            for (int i = 0; i < beforeNodes.size(); i++) {
+                joinInto(result, beforeTasks.get(i));
+                accumulator.accept(result, beforeNodes.get(i).value);
+            }
+            collectSequentially(node, result);
+            // The deepest "after" entry is the closest successor of the final subtree
+            for (int i = afterNodes.size() - 1; i >= 0; i--) {
+                accumulator.accept(result, afterNodes.get(i).value);
+                joinInto(result, afterTasks.get(i));
+            }
+            return result;
+        }
+        
+        /**
+         * Forks a task for a subtree
+         * @param node the subtree root (may be null)
+         * @return the forked task, or null for an empty subtree
+         */
+        private CollectTask<R> forkSubtree(Node node) {
+            if (node == null) {
+                return null;
+            }
+            CollectTask<R> task = new CollectTask<>(node, supplier, accumulator, combiner);
+            task.fork();
+            return task;
+        }
+        
+        /**
+         * Waits for a forked task and merges its container into the result
+         * @param result the container of the current task
+         * @param task the forked task (null for an empty subtree)
+         */
+        private void joinInto(R result, CollectTask<R> task) {
+            if (task != null) {
+                combiner.accept(result, task.join());
+            }
+        }
+        
+        /**
+         * Accumulates a small subtree in inorder on the current thread
+         * @param node the subtree root (may be null)
+         * @param result the container to fill
+         */
+        private void collectSequentially(Node node, R result) {
+            Node[] stack = new Node[heightOf(node) + 1];
+            int top = 0;
+            Node current = node;
+            while (current != null || top > 0) {
+                while (current != null) {
+                    stack[top++] = current;
+                    current = current.left;
+                }
+                current = stack[--top];
+                accumulator.accept(result, current.value);
+                current = current.right;
+            }
+        }
+    }
+    
+    // ==================== UTILITY OPERATIONS ====================
+    
+    /**
+     * Checks if the tree is empty
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+    
+    /**
+     * Gets the height of the tree in O(1)
+     * @return the height of the tree (-1 for empty tree)
+     */
+    public int getHeight() {
+        return heightOf(root);
+    }
+    
+    /**
+     * Gets the number of values in the tree in O(1)
+     * @return the number of nodes
+     */
+    public int getSize() {
+        return sizeOf(root);
+    }
+    
+    /**
+     * Finds the minimum value in the tree
+     * @return the minimum value
+     * @throws IllegalStateException if the tree is empty
+     */
+    public double findMin() {
+        if (isEmpty()) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        
+        Node current = root;
+        while (current.left != null) {
+            current = current.left;
+        }
+        return current.value;
+    }
+    
+    /**
+     * Finds the maximum value in the tree
+     * @return the maximum value
+     * @throws IllegalStateException if the tree is empty
+     */
+    public double findMax() {
+        if (isEmpty()) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        
+        Node current = root;
+        while (current.right != null) {
+            current = current.right;
+        }
+        return current.value;
+    }
+    
+    /**
+     * Estimates the heap used by the nodes and reusable buffers,
+     * assuming a 64-bit JVM with compressed oops
+     * @return the approximate number of bytes retained by this tree
+     */
+    public long estimateMemoryFootprint() {
+        return (long) NODE_BYTES * sizeOf(root) + 2 * ARRAY_HEADER_BYTES + 4L * (path.length + traversalStack.length);
+    }
+}
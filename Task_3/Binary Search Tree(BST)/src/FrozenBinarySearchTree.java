@@ -0,0 +1,296 @@
+import java.util.Arrays;
+import java.util.OptionalInt;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable, read-optimized snapshot of a set of int keys.
+ * 
+ * A pointer tree costs one cache miss per level, because every TreeNode
+ * lives at its own heap address. This index keeps the keys in two flat
+ * int arrays instead:
+ * - Leaf blocks: all keys in ascending order, cut into blocks of
+ *   BLOCK_SIZE keys (16 ints = one 64-byte cache line)
+ * - Separators: the largest key of every block, stored in Eytzinger
+ *   (breadth-first) order, so node k has its children at 2k and 2k + 1
+ * 
+ * A lookup descends the separators without any pointers - the top levels
+ * share a few cache lines that stay hot, and each step only computes the
+ * next index - and then reads a single leaf block. For n keys that is
+ * about log2(n / 16) separator probes plus one leaf line, against log2(n)
+ * scattered node loads in the pointer tree.
+ * 
+ * Build it from a live tree with BinarySearchTree.freeze() or from sorted
+ * keys with fromSorted(). It never changes afterwards, so it is safe to
+ * share between threads without locking.
+ * 
+ * Time Complexity:
+ * - search, rank, floor, ceiling, rangeCount: O(log n)
+ * - rangeScan: O(log n + k) for k matches, reading keys sequentially
+ * - findMin, findMax, getSize: O(1)
+ * 
+ * Space Complexity:
+ * - 4 bytes per key plus 8 bytes per block of 16 keys (~4.5 bytes per key)
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public final class FrozenBinarySearchTree {
+    
+    /** Keys per leaf block: one 64-byte cache line of ints */
+    private static final int BLOCK_SIZE = 16;
+    
+    /** Size of an array object header on a 64-bit JVM with compressed oops */
+    private static final int ARRAY_HEADER_BYTES = 16;
+    
+    /** All keys in strictly ascending order */
+    private final int[] keys;
+    
+    /** Largest key of each block in Eytzinger order, 1-based (index 0 unused) */
+    private final int[] separators;
+    
+    /** Block number of each separator, parallel to separators */
+    private final int[] blocks;
+    
+    /**
+     * Creates the index over keys that are already sorted and distinct
+     * @param keys strictly ascending keys, owned by the new index
+     */
+    private FrozenBinarySearchTree(int[] keys) {
+        this.keys = keys;
+        int blockCount = (keys.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        this.separators = new int[blockCount + 1];
+        this.blocks = new int[blockCount + 1];
+        fillEytzinger(1, 0);
+    }
+    
+    // ==================== BUILD OPERATIONS ====================
+    
+    /**
+     * Builds an index from strictly ascending keys in O(n)
+     * @param sorted the keys in strictly ascending order (not modified)
+     * @return a new index containing exactly the given keys
+     * @throws IllegalArgumentException if the keys are not strictly ascending
+     */
+    public static FrozenBinarySearchTree fromSorted(int[] sorted) {
+        if (sorted == null) {
+            throw new IllegalArgumentException("Values cannot be null");
+        }
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1] >= sorted[i]) {
+                throw new IllegalArgumentException("Values must be strictly ascending (index " + i + ")");
+            }
+        }
+        return new FrozenBinarySearchTree(sorted.clone());
+    }
+    
+    /**
+     * Builds an index holding the current contents of a tree in O(n)
+     * Later changes to the tree are not reflected in the index.
+     * @param tree the tree to snapshot (not a multiset)
+     * @return a new index containing the tree's keys
+     * @throws IllegalArgumentException if tree is null or a multiset
+     */
+    public static FrozenBinarySearchTree fromTree(BinarySearchTree tree) {
+        if (tree == null) {
+            throw new IllegalArgumentException("Tree cannot be null");
+        }
+        if (tree.isMultiset()) {
+            // The index holds strictly ascending keys and has no room for multiplicities
+            throw new IllegalArgumentException("Multiset trees cannot be frozen");
+        }
+        return new FrozenBinarySearchTree(tree.toSortedArray());
+    }
+    
+    /**
+     * Assigns block separators to the Eytzinger subtree rooted at node
+     * An inorder walk of the implicit tree visits the blocks in ascending
+     * order. Recursion depth is log2 of the block count.
+     * @param node 1-based Eytzinger index of the subtree root
+     * @param nextBlock the next block number to assign
+     * @return the block number following the last one assigned
+     */
+    private int fillEytzinger(int node, int nextBlock) {
+        if (node >= separators.length) {
+            return nextBlock;
+        }
+        nextBlock = fillEytzinger(2 * node, nextBlock);
+        blocks[node] = nextBlock;
+        separators[node] = keys[Math.min(keys.length, (nextBlock + 1) * BLOCK_SIZE) - 1];
+        return fillEytzinger(2 * node + 1, nextBlock + 1);
+    }
+    
+    // ==================== SEARCH OPERATIONS ====================
+    
+    /**
+     * Searches for a key
+     * @param value the key to search for
+     * @return true if the key is present, false otherwise
+     */
+    public boolean search(int value) {
+        int index = lowerBound(value);
+        return index < keys.length && keys[index] == value;
+    }
+    
+    /**
+     * Finds the position of the first key greater than or equal to value
+     * @param value the key to look for
+     * @return the index into keys, or keys.length if every key is smaller
+     */
+    private int lowerBound(int value) {
+        // Branch-free descent: go right while the separator is too small
+        int node = 1;
+        while (node < separators.length) {
+            node = 2 * node + (separators[node] < value ? 1 : 0);
+        }
+        // Undo the trailing right turns plus the last left turn to reach the answer
+        node >>>= Integer.numberOfTrailingZeros(~node) + 1;
+        if (node == 0) {
+            return keys.length;
+        }
+        
+        int index = blocks[node] * BLOCK_SIZE;
+        int end = Math.min(keys.length, index + BLOCK_SIZE);
+        int smaller = 0;
+        for (int i = index; i < end; i++) {
+            smaller += keys[i] < value ? 1 : 0;
+        }
+        return index + smaller;
+    }
+    
+    // ==================== ORDERED QUERIES ====================
+    
+    /**
+     * Counts keys strictly smaller than value
+     * @param value the key to rank (need not be present)
+     * @return the number of keys smaller than value
+     */
+    public int rank(int value) {
+        return lowerBound(value);
+    }
+    
+    /**
+     * Finds the k-th smallest key (0-based)
+     * @param k the rank of the key to return
+     * @return the key with exactly k smaller keys
+     * @throws IllegalArgumentException if k is out of range
+     */
+    public int select(int k) {
+        if (k < 0 || k >= keys.length) {
+            throw new IllegalArgumentException("Rank " + k + " out of range for size " + keys.length);
+        }
+        return keys[k];
+    }
+    
+    /**
+     * Finds the largest key less than or equal to value
+     * @param value the bound
+     * @return the floor key, or empty if every key is larger
+     */
+    public OptionalInt floor(int value) {
+        int index = lowerBound(value);
+        if (index < keys.length && keys[index] == value) {
+            return OptionalInt.of(value);
+        }
+        return index == 0 ? OptionalInt.empty() : OptionalInt.of(keys[index - 1]);
+    }
+    
+    /**
+     * Finds the smallest key greater than or equal to value
+     * @param value the bound
+     * @return the ceiling key, or empty if every key is smaller
+     */
+    public OptionalInt ceiling(int value) {
+        int index = lowerBound(value);
+        return index == keys.length ? OptionalInt.empty() : OptionalInt.of(keys[index]);
+    }
+    
+    /**
+     * Counts keys in the closed range [lo, hi]
+     * @param lo lower bound (inclusive)
+     * @param hi upper bound (inclusive)
+     * @return the number of keys k with lo <= k <= hi (0 if lo > hi)
+     */
+    public int rangeCount(int lo, int hi) {
+        if (lo > hi) {
+            return 0;
+        }
+        int end = hi == Integer.MAX_VALUE ? keys.length : lowerBound(hi + 1);
+        return end - lowerBound(lo);
+    }
+    
+    /**
+     * Pushes every key in the closed range [lo, hi] to the action in ascending order
+     * @param lo lower bound (inclusive)
+     * @param hi upper bound (inclusive)
+     * @param action callback receiving each key in range
+     */
+    public void rangeScan(int lo, int hi, IntConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        if (lo > hi) {
+            return;
+        }
+        for (int i = lowerBound(lo); i < keys.length && keys[i] <= hi; i++) {
+            action.accept(keys[i]);
+        }
+    }
+    
+    // ==================== UTILITY OPERATIONS ====================
+    
+    /**
+     * Checks if the index is empty
+     * @return true if it holds no keys
+     */
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+    
+    /**
+     * Gets the number of keys
+     * @return the number of keys
+     */
+    public int getSize() {
+        return keys.length;
+    }
+    
+    /**
+     * Finds the minimum key
+     * @return the minimum key
+     * @throws IllegalStateException if the index is empty
+     */
+    public int findMin() {
+        if (keys.length == 0) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        return keys[0];
+    }
+    
+    /**
+     * Finds the maximum key
+     * @return the maximum key
+     * @throws IllegalStateException if the index is empty
+     */
+    public int findMax() {
+        if (keys.length == 0) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        return keys[keys.length - 1];
+    }
+    
+    /**
+     * Copies all keys into a new array in ascending order
+     * @return the keys, sorted
+     */
+    public int[] toSortedArray() {
+        return Arrays.copyOf(keys, keys.length);
+    }
+    
+    /**
+     * Estimates the heap used by the index on a 64-bit JVM with compressed oops
+     * @return the approximate number of bytes held by the three arrays
+     */
+    public long estimateMemoryFootprint() {
+        return 3L * ARRAY_HEADER_BYTES + 4L * keys.length + 8L * separators.length;
+    }
+}
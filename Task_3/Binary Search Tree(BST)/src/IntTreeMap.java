@@ -0,0 +1,319 @@
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+
+/**
+ * Ordered map from primitive int keys to object payloads.
+ * 
+ * The keys live in a BinarySearchTree whose nodes also carry the payload,
+ * so insert, delete, AVL balancing and the ordered descents are the
+ * tree's own code; this class only attaches and hands back payloads. A
+ * lookup is one descent through one structure, and keys are stored as
+ * plain ints, so no Integer is ever allocated - unlike a TreeMap<Integer, V>
+ * or a tree paired with a HashMap<Integer, V>.
+ * 
+ * Features:
+ * - get, containsKey, put (returns the previous payload), remove
+ * - floorKey/ceilingKey as OptionalInt, floorValue/ceilingValue
+ * - firstKey/lastKey, size, height
+ * - Ordered iteration over keys (primitive iterator) or key/value pairs
+ * 
+ * Payloads may not be null, so get() returning null always means the
+ * key is absent.
+ * 
+ * Time Complexity:
+ * - get, put, remove, floor, ceiling: O(h), O(log n) in AVL mode
+ * - size, height: O(1)
+ * 
+ * @param <V> the payload type
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class IntTreeMap<V> {
+    
+    /**
+     * Callback receiving one key/value pair
+     * @param <V> the payload type
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        /**
+         * Receives one entry
+         * @param key the entry's key
+         * @param value the entry's payload
+         */
+        void accept(int key, V value);
+    }
+    
+    /**
+     * Map node: a TreeNode with a payload attached
+     */
+    private static final class Entry<V> extends TreeNode {
+        /** The payload mapped to the node's key (never null) */
+        V payload;
+        
+        Entry(int key, V payload) {
+            super(key);
+            this.payload = payload;
+        }
+    }
+    
+    /**
+     * The tree holding the keys; its hooks create, update and report entries
+     * so that put and remove each take a single descent
+     */
+    private static final class Index<V> extends BinarySearchTree {
+        /** Payload for the key being put, null between calls */
+        V incoming;
+        
+        /** Payload replaced by put or dropped by remove, null between calls */
+        V displaced;
+        
+        Index(BalanceMode balanceMode) {
+            super(balanceMode);
+        }
+        
+        @Override
+        TreeNode newNode(int value) {
+            return new Entry<>(value, incoming);
+        }
+        
+        @Override
+        void duplicateInserted(TreeNode node) {
+            Entry<V> entry = entry(node);
+            displaced = entry.payload;
+            entry.payload = incoming;
+        }
+        
+        @Override
+        void entryRemoved(TreeNode node) {
+            displaced = IntTreeMap.<V>entry(node).payload;
+        }
+        
+        @Override
+        void moveEntry(TreeNode from, TreeNode to) {
+            super.moveEntry(from, to);
+            IntTreeMap.<V>entry(to).payload = IntTreeMap.<V>entry(from).payload;
+        }
+        
+        /**
+         * Hands back the displaced payload and clears both scratch fields,
+         * so the index keeps no payload alive after the call
+         * @return the payload replaced or removed by the last update, or null
+         */
+        V takeDisplaced() {
+            V previous = displaced;
+            incoming = null;
+            displaced = null;
+            return previous;
+        }
+    }
+    
+    /** The keys and payloads */
+    private final Index<V> index;
+    
+    /**
+     * Constructor - initializes an empty, AVL-balanced map
+     */
+    public IntTreeMap() {
+        this(BinarySearchTree.BalanceMode.AVL);
+    }
+    
+    /**
+     * Constructor - initializes an empty map with the given balancing strategy
+     * @param balanceMode the balancing strategy to apply on put and remove (NONE or AVL)
+     */
+    public IntTreeMap(BinarySearchTree.BalanceMode balanceMode) {
+        if (balanceMode == null) {
+            throw new IllegalArgumentException("Balance mode cannot be null");
+        }
+        if (balanceMode == BinarySearchTree.BalanceMode.SPLAY) {
+            throw new IllegalArgumentException("Splay mode is not supported by IntTreeMap");
+        }
+        this.index = new Index<>(balanceMode);
+    }
+    
+    /**
+     * Gets the balancing strategy of this map
+     * @return the balance mode chosen at construction
+     */
+    public BinarySearchTree.BalanceMode getBalanceMode() {
+        return index.getBalanceMode();
+    }
+    
+    /**
+     * Views a node of the index as the entry it was created as
+     * @param node a node of the index
+     * @return the same node with its payload
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> Entry<V> entry(TreeNode node) {
+        return (Entry<V>) node;
+    }
+    
+    /**
+     * Gets the payload of a node that may be absent
+     * @param node a node of the index, or null
+     * @return the node's payload, or null
+     */
+    private static <V> V payloadOf(TreeNode node) {
+        return node == null ? null : IntTreeMap.<V>entry(node).payload;
+    }
+    
+    // ==================== LOOKUP OPERATIONS ====================
+    
+    /**
+     * Gets the payload mapped to a key
+     * @param key the key to look up
+     * @return the payload, or null if the key is absent
+     */
+    public V get(int key) {
+        return payloadOf(index.findNode(key));
+    }
+    
+    /**
+     * Checks whether a key is present
+     * @param key the key to look up
+     * @return true if the key is mapped
+     */
+    public boolean containsKey(int key) {
+        return index.findNode(key) != null;
+    }
+    
+    // ==================== UPDATE OPERATIONS ====================
+    
+    /**
+     * Maps a key to a payload, replacing any previous payload
+     * @param key the key
+     * @param value the payload (not null)
+     * @return the previous payload, or null if the key was absent
+     */
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null");
+        }
+        index.incoming = value;
+        index.insert(key);
+        return index.takeDisplaced();
+    }
+    
+    /**
+     * Removes a key and its payload
+     * @param key the key to remove
+     * @return the removed payload, or null if the key was absent
+     */
+    public V remove(int key) {
+        index.delete(key);
+        return index.takeDisplaced();
+    }
+    
+    // ==================== ORDERED QUERIES ====================
+    
+    /**
+     * Finds the largest key less than or equal to the given key
+     * @param key the bound
+     * @return the floor key, or empty if every key is larger
+     */
+    public OptionalInt floorKey(int key) {
+        return index.floor(key);
+    }
+    
+    /**
+     * Gets the payload of the floor key in the same descent
+     * @param key the bound
+     * @return the payload of the largest key <= key, or null if there is none
+     */
+    public V floorValue(int key) {
+        return payloadOf(index.floorNode(key));
+    }
+    
+    /**
+     * Finds the smallest key greater than or equal to the given key
+     * @param key the bound
+     * @return the ceiling key, or empty if every key is smaller
+     */
+    public OptionalInt ceilingKey(int key) {
+        return index.ceiling(key);
+    }
+    
+    /**
+     * Gets the payload of the ceiling key in the same descent
+     * @param key the bound
+     * @return the payload of the smallest key >= key, or null if there is none
+     */
+    public V ceilingValue(int key) {
+        return payloadOf(index.ceilingNode(key));
+    }
+    
+    /**
+     * Finds the smallest key
+     * @return the smallest key
+     * @throws IllegalStateException if the map is empty
+     */
+    public int firstKey() {
+        if (index.isEmpty()) {
+            throw new IllegalStateException("Map is empty");
+        }
+        return index.findMin();
+    }
+    
+    /**
+     * Finds the largest key
+     * @return the largest key
+     * @throws IllegalStateException if the map is empty
+     */
+    public int lastKey() {
+        if (index.isEmpty()) {
+            throw new IllegalStateException("Map is empty");
+        }
+        return index.findMax();
+    }
+    
+    // ==================== ITERATION ====================
+    
+    /**
+     * Pushes every entry to the action in ascending key order
+     * The action must not modify the map.
+     * @param action callback receiving each key and payload
+     */
+    public void forEach(EntryConsumer<? super V> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        index.forEachInorderNode(node -> action.accept(node.value, IntTreeMap.<V>entry(node).payload));
+    }
+    
+    /**
+     * Returns an iterator over the keys in ascending order, without boxing
+     * The map must not be modified while iterating.
+     * @return a primitive iterator over the sorted keys
+     */
+    public PrimitiveIterator.OfInt keyIterator() {
+        return index.iterator();
+    }
+    
+    // ==================== UTILITY OPERATIONS ====================
+    
+    /**
+     * Checks if the map is empty
+     * @return true if no key is mapped
+     */
+    public boolean isEmpty() {
+        return index.isEmpty();
+    }
+    
+    /**
+     * Gets the number of entries in O(1)
+     * @return the number of keys
+     */
+    public int getSize() {
+        return index.getSize();
+    }
+    
+    /**
+     * Gets the height of the underlying tree in O(1)
+     * @return the height (-1 for an empty map)
+     */
+    public int getHeight() {
+        return index.getHeight();
+    }
+}
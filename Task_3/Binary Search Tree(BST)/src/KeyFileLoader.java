@@ -0,0 +1,405 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Streams int keys from files into trees for bulk loading.
+ * 
+ * Two file formats are understood:
+ * - BINARY: raw little-endian 32-bit ints back to back (the byte order
+ *   BinarySearchTreeSerializer uses), so the length must be a multiple of 4
+ * - TEXT: ASCII decimal ints with an optional '+' or '-' sign, separated by
+ *   newlines (LF or CRLF) or other whitespace; blank lines are ignored
+ * 
+ * Files are read through a FileChannel into one direct buffer that the
+ * loader keeps for its whole life, so repeated loads allocate nothing but
+ * the key array (sized exactly from the file length for binary files).
+ * Binary blocks are copied into the array with a single bulk get through
+ * an int view of the buffer. Text blocks are bulk-copied into a reusable
+ * byte array, which the JIT scans about twice as fast as the direct buffer,
+ * and parsed with no String, Scanner or Integer.parseInt in between: each
+ * key's digits are converted eight at a time from one 64-bit load (SWAR),
+ * and a small state machine handles signs, other separators, keys cut off
+ * at the end of a block and malformed input.
+ * 
+ * The keys are handed to OrderedIntSet.insertAll or
+ * BinarySearchTree.fromArray, which sort and build a balanced tree in one
+ * pass instead of inserting key by key.
+ * 
+ * A loader is not thread-safe; give each thread its own.
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public final class KeyFileLoader {
+    
+    /**
+     * Layout of a key file
+     */
+    public enum Format {
+        /** Little-endian 32-bit ints, four bytes per key */
+        BINARY,
+        /** Decimal ints separated by whitespace, usually one per line */
+        TEXT
+    }
+    
+    /** Buffer size used by the no-argument constructor */
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 20;
+    
+    /** Largest array the JVM reliably allocates */
+    private static final int MAX_KEYS = Integer.MAX_VALUE - 8;
+    
+    /** Initial key array size for text input of unknown length */
+    private static final int INITIAL_KEYS = 1 << 10;
+    
+    /** Bytes per key assumed when sizing the array for a text file */
+    private static final int TEXT_BYTES_PER_KEY_GUESS = 8;
+    
+    /** Bytes sniffed by detectFormat */
+    private static final int SNIFF_BYTES = 4096;
+    
+    /** Reads eight bytes of a text block as one little-endian long */
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    
+    /** ASCII '0' in every byte */
+    private static final long ZEROS = 0x3030303030303030L;
+    
+    /** Text parser states */
+    private static final int BETWEEN_KEYS = 0;
+    private static final int AFTER_SIGN = 1;
+    private static final int IN_DIGITS = 2;
+    
+    /** Little-endian read buffer, reused by every call */
+    private final ByteBuffer buffer;
+    
+    /** Int view over the whole buffer, for bulk copies of binary keys */
+    private final IntBuffer ints;
+    
+    /** Heap copy of each text block, which the parser scans faster than the direct buffer */
+    private final byte[] bytes;
+    
+    /**
+     * Constructor - creates a loader with a DEFAULT_BUFFER_BYTES direct buffer
+     */
+    public KeyFileLoader() {
+        this(DEFAULT_BUFFER_BYTES);
+    }
+    
+    /**
+     * Constructor - creates a loader with a direct buffer of the given size
+     * @param bufferBytes the buffer size; larger buffers mean fewer read calls
+     * @throws IllegalArgumentException if the buffer cannot hold one binary key
+     */
+    public KeyFileLoader(int bufferBytes) {
+        if (bufferBytes < Integer.BYTES) {
+            throw new IllegalArgumentException("Buffer must hold at least one key");
+        }
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes).order(ByteOrder.LITTLE_ENDIAN);
+        this.ints = buffer.asIntBuffer();
+        this.bytes = new byte[bufferBytes];
+    }
+    
+    // ==================== LOAD OPERATIONS ====================
+    
+    /**
+     * Builds a balanced tree from the distinct keys of a file
+     * Large inputs are sorted and built on the common fork/join pool.
+     * @param file the key file
+     * @param format the file layout
+     * @param balanceMode the balancing strategy of the new tree
+     * @return a new tree holding the distinct keys
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public BinarySearchTree load(Path file, Format format, BinarySearchTree.BalanceMode balanceMode) throws IOException {
+        return BinarySearchTree.fromArray(readKeys(file, format), balanceMode, true);
+    }
+    
+    /**
+     * Adds the keys of a file to an existing set through its bulk insert
+     * @param file the key file
+     * @param format the file layout
+     * @param set the set to add the keys to
+     * @return the number of keys read, duplicates included
+     * @throws IOException if the file cannot be read or is malformed; the set is then unchanged
+     */
+    public int loadInto(Path file, Format format, OrderedIntSet set) throws IOException {
+        if (set == null) {
+            throw new IllegalArgumentException("Set cannot be null");
+        }
+        int[] keys = readKeys(file, format);
+        set.insertAll(keys);
+        return keys.length;
+    }
+    
+    // ==================== READ OPERATIONS ====================
+    
+    /**
+     * Reads every key of a file in file order
+     * @param file the key file
+     * @param format the file layout
+     * @return the keys, duplicates included
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public int[] readKeys(Path file, Format format) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readKeys(channel, format);
+        }
+    }
+    
+    /**
+     * Reads every key from the current position of a channel to its end
+     * The channel stays open. Its remaining size, if known, presizes the key array.
+     * @param channel the source channel (blocking)
+     * @param format the data layout
+     * @return the keys, duplicates included
+     * @throws IOException if the channel cannot be read or the data is malformed
+     */
+    public int[] readKeys(ReadableByteChannel channel, Format format) throws IOException {
+        if (channel == null || format == null) {
+            throw new IllegalArgumentException("Channel and format cannot be null");
+        }
+        long remaining = channel instanceof FileChannel
+                ? ((FileChannel) channel).size() - ((FileChannel) channel).position()
+                : -1;
+        return format == Format.BINARY ? readBinary(channel, remaining) : readText(channel, remaining);
+    }
+    
+    /**
+     * Guesses the format of a file from its first bytes
+     * A file whose first SNIFF_BYTES bytes are all printable ASCII or whitespace
+     * is taken as TEXT, so a text file with a typo still fails with a parse
+     * error; anything else (binary keys almost always contain control or high
+     * bytes) counts as BINARY. Empty files count as TEXT.
+     * @param file the key file
+     * @return the detected format
+     * @throws IOException if the file cannot be read
+     */
+    public Format detectFormat(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        buffer.clear().limit(Math.min(SNIFF_BYTES, buffer.capacity()));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep filling
+            }
+        }
+        for (int i = 0, end = buffer.position(); i < end; i++) {
+            byte b = buffer.get(i);
+            if ((b < ' ' || b > '~') && !isWhitespace(b)) {
+                return Format.BINARY;
+            }
+        }
+        return Format.TEXT;
+    }
+    
+    /**
+     * Copies little-endian ints from the channel, a buffer at a time
+     * @param channel the source channel
+     * @param remaining the number of bytes left, or -1 if unknown
+     * @return the keys
+     * @throws IOException if the data does not end on a key boundary
+     */
+    private int[] readBinary(ReadableByteChannel channel, long remaining) throws IOException {
+        if (remaining >= 0) {
+            if (remaining % Integer.BYTES != 0) {
+                throw new IOException("Binary key data of " + remaining + " bytes is not a whole number of keys");
+            }
+            if (remaining / Integer.BYTES > MAX_KEYS) {
+                throw new IOException("Too many keys for one array: " + remaining / Integer.BYTES);
+            }
+        }
+        
+        int[] keys = new int[remaining >= 0 ? (int) (remaining / Integer.BYTES) : INITIAL_KEYS];
+        int count = 0;
+        buffer.clear();
+        while (channel.read(buffer) >= 0) {
+            int whole = buffer.position() / Integer.BYTES;
+            if (count + whole > keys.length) {
+                keys = grow(keys, count + whole);
+            }
+            ints.get(0, keys, count, whole);
+            count += whole;
+            // Move the 0-3 bytes of a key split across reads to the front
+            buffer.limit(buffer.position()).position(whole * Integer.BYTES);
+            buffer.compact();
+        }
+        if (buffer.position() != 0) {
+            throw new IOException("Binary key data ends inside a key (" + buffer.position() + " stray bytes)");
+        }
+        return count == keys.length ? keys : Arrays.copyOf(keys, count);
+    }
+    
+    /**
+     * Parses whitespace-separated decimal ints from the channel, a buffer at a time
+     * The parser state (sign, digits so far, line number) lives in locals, so
+     * a number cut off at the end of one block simply continues in the next.
+     * Digit runs starting at least nine bytes before the block end take the
+     * SWAR fast path, and a run of up to seven digits followed by a newline
+     * is stored right away.
+     * @param channel the source channel
+     * @param remaining the number of bytes left, or -1 if unknown
+     * @return the keys
+     * @throws IOException if a byte is not part of a valid key or separator
+     */
+    private int[] readText(ReadableByteChannel channel, long remaining) throws IOException {
+        int[] keys = new int[(int) Math.max(INITIAL_KEYS, Math.min(remaining / TEXT_BYTES_PER_KEY_GUESS, MAX_KEYS))];
+        int count = 0;
+        int state = BETWEEN_KEYS;
+        boolean negative = false;
+        long magnitude = 0;
+        long line = 1;
+        
+        buffer.clear();
+        while (channel.read(buffer) >= 0) {
+            int end = buffer.position();
+            buffer.get(0, bytes, 0, end);
+            int i = 0;
+            while (i < end) {
+                byte b = bytes[i];
+                if (b >= '0' && b <= '9') {
+                    if (state != IN_DIGITS && i <= end - Long.BYTES - 1) {
+                        // Fast path: up to eight digits from one 64-bit load
+                        long digits = (long) LONG_LE.get(bytes, i) - ZEROS;
+                        int length = digitRunLength(digits);
+                        magnitude = parseDigits(digits, length);
+                        i += length;
+                        if (length < Long.BYTES && bytes[i] == '\n') {
+                            // Common case: the key ends in a newline inside this block
+                            if (count == keys.length) {
+                                keys = grow(keys, count + 1);
+                            }
+                            keys[count++] = toKey(magnitude, negative, line);
+                            state = BETWEEN_KEYS;
+                            negative = false;
+                            magnitude = 0;
+                            line++;
+                            i++;
+                            continue;
+                        }
+                        // Otherwise the run's terminator (or ninth digit) is handled on the next pass
+                        state = IN_DIGITS;
+                        continue;
+                    }
+                    magnitude = magnitude * 10 + (b - '0');
+                    // 2^31 is the largest magnitude any int (Integer.MIN_VALUE) has
+                    if (magnitude > 1L << 31) {
+                        throw new IOException("Key out of int range on line " + line);
+                    }
+                    state = IN_DIGITS;
+                } else if (isWhitespace(b)) {
+                    if (state == IN_DIGITS) {
+                        if (count == keys.length) {
+                            keys = grow(keys, count + 1);
+                        }
+                        keys[count++] = toKey(magnitude, negative, line);
+                    } else if (state == AFTER_SIGN) {
+                        throw new IOException("Sign without digits on line " + line);
+                    }
+                    state = BETWEEN_KEYS;
+                    negative = false;
+                    magnitude = 0;
+                    if (b == '\n') {
+                        line++;
+                    }
+                } else if ((b == '-' || b == '+') && state == BETWEEN_KEYS) {
+                    negative = b == '-';
+                    state = AFTER_SIGN;
+                } else {
+                    throw new IOException(String.format("Unexpected byte 0x%02x on line %d", b & 0xFF, line));
+                }
+                i++;
+            }
+            buffer.clear();
+        }
+        
+        // The last key needs no trailing newline
+        if (state == IN_DIGITS) {
+            if (count == keys.length) {
+                keys = grow(keys, count + 1);
+            }
+            keys[count++] = toKey(magnitude, negative, line);
+        } else if (state == AFTER_SIGN) {
+            throw new IOException("Sign without digits on line " + line);
+        }
+        return count == keys.length ? keys : Arrays.copyOf(keys, count);
+    }
+    
+    /**
+     * Counts the leading digits of an 8-byte block (SWAR)
+     * After subtracting '0' from every byte, digit bytes hold 0-9 and the first
+     * non-digit holds 10 or more (or wrapped to 0x80 and above); adding 0x76
+     * pushes any byte of 10-127 into the high bit. Borrows and carries only
+     * travel towards later bytes, so the lowest flagged byte is exact.
+     * @param digits eight text bytes, first byte lowest, minus ZEROS
+     * @return the number of digits before the first non-digit, 8 if all are digits
+     */
+    private static int digitRunLength(long digits) {
+        long nonDigits = ((digits + 0x7676767676767676L) | digits) & 0x8080808080808080L;
+        return Long.numberOfTrailingZeros(nonDigits) >>> 3;
+    }
+    
+    /**
+     * Converts the first length digits of an 8-byte block to their value (SWAR)
+     * Shifting the digits to the top bytes pads them with leading zeros; three
+     * multiplies then combine adjacent digits into pairs, quads and the whole.
+     * @param digits eight text bytes, first byte lowest, minus ZEROS
+     * @param length the number of digits to use, 1 to 8
+     * @return the decimal value of the digits
+     */
+    private static long parseDigits(long digits, int length) {
+        long value = digits << (Long.SIZE - Byte.SIZE * length);
+        value = (value & 0x0F0F0F0F0F0F0F0FL) * 2561 >>> 8;
+        value = (value & 0x00FF00FF00FF00FFL) * 6553601 >>> 16;
+        return (value & 0x0000FFFF0000FFFFL) * 42949672960001L >>> 32;
+    }
+    
+    /**
+     * Applies the sign to a parsed magnitude
+     * @param magnitude the digits read, at most 2^31
+     * @param negative true if a '-' preceded the digits
+     * @param line the line number for the error message
+     * @return the key
+     * @throws IOException if the value does not fit in an int
+     */
+    private static int toKey(long magnitude, boolean negative, long line) throws IOException {
+        long value = negative ? -magnitude : magnitude;
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Key out of int range on line " + line);
+        }
+        return (int) value;
+    }
+    
+    /**
+     * Checks for the separators allowed between text keys
+     */
+    private static boolean isWhitespace(byte b) {
+        return b == '\n' || b == ' ' || b == '\r' || b == '\t';
+    }
+    
+    /**
+     * Enlarges the key array by half, or to the required size if that is more
+     * @param keys the full array
+     * @param required the smallest acceptable length
+     * @return a larger copy
+     * @throws IOException if more keys are needed than one array can hold
+     */
+    private static int[] grow(int[] keys, int required) throws IOException {
+        if (required < 0 || required > MAX_KEYS) {
+            throw new IOException("Too many keys for one array");
+        }
+        long preferred = keys.length + (keys.length >> 1) + 1L;
+        return Arrays.copyOf(keys, (int) Math.min(MAX_KEYS, Math.max(preferred, required)));
+    }
+}
@@ -0,0 +1,695 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * AVL-balanced Binary Search Tree stored in a memory-mapped file.
+ * 
+ * Uses the node layout of ArrayBinarySearchTree (key, left, right, height,
+ * size as ints, children linked by index), but the records live in the
+ * file rather than on the heap:
+ * 
+ *   [header: 32 bytes][node 0][node 1]...   each node = 20 bytes
+ * 
+ * The node area is mapped in segments of SEGMENT_NODES records, and a
+ * segment is only mapped the first time a node in it is touched. Opening
+ * an existing file therefore reads just the header, and the operating
+ * system pages nodes in on demand, so trees far larger than the heap
+ * start instantly and cost heap only for the segment table.
+ * 
+ * Changes are written straight into the mapping. flush() stores the header
+ * and forces all dirty pages to disk; close() flushes as well. A file is
+ * only guaranteed consistent after a flush - there is no write-ahead log,
+ * so a crash between flushes can leave a torn tree.
+ * 
+ * The tree is always AVL-balanced: on disk every extra level may be a page
+ * fault, so the unbalanced mode is not offered. Not thread-safe.
+ * 
+ * Time Complexity:
+ * - search, insert, delete: O(log n) node reads, each at most one page fault
+ * - open: O(1), independent of the tree size
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class MappedBinarySearchTree implements Closeable {
+    
+    /** File signature ("BSTM") identifying a tree file */
+    private static final int MAGIC = 0x4253544D;
+    
+    /** Format version written to new files */
+    private static final int VERSION = 1;
+    
+    /** Bytes reserved at the start of the file for the header */
+    private static final int HEADER_BYTES = 32;
+    
+    /** Header offsets of the persisted fields */
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int ROOT_OFFSET = 8;
+    private static final int HIGH_WATER_OFFSET = 12;
+    private static final int FREE_HEAD_OFFSET = 16;
+    
+    /** Record layout: five little-endian ints per node */
+    private static final int NODE_BYTES = 20;
+    private static final int KEY = 0;
+    private static final int LEFT = 4;
+    private static final int RIGHT = 8;
+    private static final int HEIGHT = 12;
+    private static final int SIZE = 16;
+    
+    /** log2 of the number of nodes per mapped segment */
+    private static final int SEGMENT_SHIFT = 16;
+    
+    /** Nodes per mapped segment (1.25 MB of file per segment) */
+    private static final int SEGMENT_NODES = 1 << SEGMENT_SHIFT;
+    
+    /** Index used in place of a null child link */
+    private static final int NIL = -1;
+    
+    /** The backing file */
+    private final Path file;
+    
+    /** Channel the segments are mapped from, null once closed */
+    private FileChannel channel;
+    
+    /** Mapping of the file header */
+    private MappedByteBuffer header;
+    
+    /** Mapped node segments, null until first touched */
+    private MappedByteBuffer[] segments;
+    
+    /** Index of the root node, or NIL for an empty tree */
+    private int root;
+    
+    /** Number of node records ever handed out */
+    private int highWater;
+    
+    /** Head of the free list of released records (threaded through LEFT), or NIL */
+    private int freeHead;
+    
+    /** Reusable root-to-node path, grows with tree height */
+    private int[] path;
+    
+    /**
+     * Opens the channel and loads or initializes the header
+     * @param file the tree file
+     * @throws IOException if the file cannot be opened or is not a tree file
+     */
+    private MappedBinarySearchTree(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean fresh = channel.size() == 0;
+            if (!fresh && channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a tree file (too short): " + file);
+            }
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (fresh) {
+                header.putInt(MAGIC_OFFSET, MAGIC);
+                header.putInt(VERSION_OFFSET, VERSION);
+                this.root = NIL;
+                this.highWater = 0;
+                this.freeHead = NIL;
+                writeHeader();
+            } else {
+                if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+                    throw new IOException("Not a tree file (bad signature): " + file);
+                }
+                if (header.getInt(VERSION_OFFSET) != VERSION) {
+                    throw new IOException("Unsupported tree file version " + header.getInt(VERSION_OFFSET) + ": " + file);
+                }
+                this.root = header.getInt(ROOT_OFFSET);
+                this.highWater = header.getInt(HIGH_WATER_OFFSET);
+                this.freeHead = header.getInt(FREE_HEAD_OFFSET);
+                // Mapping a segment READ_WRITE past the end of the file extends it silently,
+                // so a forged header must be rejected before any node is touched
+                long records = (channel.size() - HEADER_BYTES) / NODE_BYTES;
+                if (highWater < 0 || highWater > records) {
+                    throw new IOException("Corrupt tree file (high-water mark " + highWater
+                            + " beyond the " + records + " records in the file): " + file);
+                }
+                if (!isNodeOrNil(root)) {
+                    throw new IOException("Corrupt tree file (root " + root + " out of range): " + file);
+                }
+                if (!isNodeOrNil(freeHead)) {
+                    throw new IOException("Corrupt tree file (free list head " + freeHead + " out of range): " + file);
+                }
+            }
+            this.segments = new MappedByteBuffer[segmentOf(Math.max(0, highWater - 1)) + 1];
+            this.path = new int[32];
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Checks a node index read from the header against the records handed out so far
+     * @param node the node index
+     * @return true if the index is NIL or a record below the high-water mark
+     */
+    private boolean isNodeOrNil(int node) {
+        return node == NIL || (node >= 0 && node < highWater);
+    }
+    
+    /**
+     * Opens a tree file, creating an empty tree if the file does not exist or is empty
+     * Only the header is read; nodes are paged in as operations reach them.
+     * @param file the tree file
+     * @return the tree stored in the file
+     * @throws IOException if the file cannot be opened or is not a tree file
+     */
+    public static MappedBinarySearchTree open(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("File cannot be null");
+        }
+        return new MappedBinarySearchTree(file);
+    }
+    
+    /**
+     * Gets the backing file
+     * @return the path this tree was opened from
+     */
+    public Path getFile() {
+        return file;
+    }
+    
+    // ==================== INSERTION OPERATIONS ====================
+    
+    /**
+     * Inserts a value into the tree (duplicates are ignored)
+     * @param value the integer value to insert
+     * @throws UncheckedIOException if the file cannot grow
+     */
+    public void insert(int value) {
+        ensureOpen();
+        if (root == NIL) {
+            root = allocate(value);
+            return;
+        }
+        
+        int[] path = ensurePathCapacity(heightOf(root) + 1);
+        int depth = 0;
+        int current = root;
+        while (current != NIL) {
+            path[depth++] = current;
+            int key = key(current);
+            if (value < key) {
+                current = left(current);
+            } else if (value > key) {
+                current = right(current);
+            } else {
+                // If value equals the node's key, we ignore duplicates
+                return;
+            }
+        }
+        
+        int node = allocate(value);
+        int parent = path[depth - 1];
+        if (value < key(parent)) {
+            setLeft(parent, node);
+        } else {
+            setRight(parent, node);
+        }
+        
+        fixUpPath(depth);
+    }
+    
+    // ==================== SEARCH OPERATIONS ====================
+    
+    /**
+     * Searches for a value in the tree
+     * @param value the value to search for
+     * @return true if the value exists, false otherwise
+     */
+    public boolean search(int value) {
+        ensureOpen();
+        int current = root;
+        while (current != NIL) {
+            int key = key(current);
+            if (value == key) {
+                return true;
+            }
+            current = value < key ? left(current) : right(current);
+        }
+        return false;
+    }
+    
+    // ==================== DELETION OPERATIONS ====================
+    
+    /**
+     * Deletes a value from the tree and returns its record to the free list
+     * @param value the value to delete
+     */
+    public void delete(int value) {
+        ensureOpen();
+        if (root == NIL) {
+            return;
+        }
+        
+        int[] path = ensurePathCapacity(heightOf(root) + 1);
+        int depth = 0;
+        int current = root;
+        while (current != NIL && value != key(current)) {
+            path[depth++] = current;
+            current = value < key(current) ? left(current) : right(current);
+        }
+        
+        // Value not found
+        if (current == NIL) {
+            return;
+        }
+        
+        int parent = depth > 0 ? path[depth - 1] : NIL;
+        
+        if (left(current) == NIL || right(current) == NIL) {
+            // Case 1 and 2: Node has at most one child - splice it out
+            int child = left(current) != NIL ? left(current) : right(current);
+            replaceChild(parent, current, child);
+            release(current);
+        } else {
+            // Case 3: Node has two children - pull up the inorder successor
+            path[depth++] = current;
+            int successorParent = current;
+            int successor = right(current);
+            while (left(successor) != NIL) {
+                path[depth++] = successor;
+                successorParent = successor;
+                successor = left(successor);
+            }
+            
+            setKey(current, key(successor));
+            replaceChild(successorParent, successor, right(successor));
+            release(successor);
+        }
+        
+        fixUpPath(depth);
+    }
+    
+    // ==================== PERSISTENCE OPERATIONS ====================
+    
+    /**
+     * Writes the header and forces every mapped segment to disk
+     * @throws IOException if the data cannot be written
+     */
+    public void flush() throws IOException {
+        ensureOpen();
+        writeHeader();
+        try {
+            for (MappedByteBuffer segment : segments) {
+                if (segment != null) {
+                    segment.force();
+                }
+            }
+            header.force();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+    
+    /**
+     * Flushes the tree and closes the file
+     * The mappings themselves are released by the garbage collector;
+     * any further operation on this object throws IllegalStateException.
+     * @throws IOException if the data cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            channel.close();
+            channel = null;
+            header = null;
+            segments = null;
+        }
+    }
+    
+    /**
+     * Copies the in-memory header fields into the mapped header
+     */
+    private void writeHeader() {
+        header.putInt(ROOT_OFFSET, root);
+        header.putInt(HIGH_WATER_OFFSET, highWater);
+        header.putInt(FREE_HEAD_OFFSET, freeHead);
+    }
+    
+    /**
+     * Fails fast when the tree has been closed
+     */
+    private void ensureOpen() {
+        if (channel == null) {
+            throw new IllegalStateException("Tree file is closed: " + file);
+        }
+    }
+    
+    // ==================== RECORD ACCESS ====================
+    
+    /**
+     * Finds the segment number holding a node
+     * @param node the node index
+     * @return the segment number
+     */
+    private static int segmentOf(int node) {
+        return node >>> SEGMENT_SHIFT;
+    }
+    
+    /**
+     * Gets the mapped segment holding a node, mapping it on first use
+     * Mapping past the end of the file extends the file.
+     * @param node the node index
+     * @return the buffer holding the node's record
+     */
+    private MappedByteBuffer segment(int node) {
+        int index = segmentOf(node);
+        if (index >= segments.length) {
+            segments = Arrays.copyOf(segments, Math.max(index + 1, segments.length * 2));
+        }
+        MappedByteBuffer segment = segments[index];
+        if (segment == null) {
+            long position = HEADER_BYTES + (long) index * SEGMENT_NODES * NODE_BYTES;
+            try {
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, position, (long) SEGMENT_NODES * NODE_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map segment " + index + " of " + file, e);
+            }
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            segments[index] = segment;
+        }
+        return segment;
+    }
+    
+    /**
+     * Reads one int field of a node record
+     * @param node the node index
+     * @param field the field offset within the record
+     * @return the field value
+     */
+    private int read(int node, int field) {
+        return segment(node).getInt((node & (SEGMENT_NODES - 1)) * NODE_BYTES + field);
+    }
+    
+    /**
+     * Writes one int field of a node record
+     * @param node the node index
+     * @param field the field offset within the record
+     * @param value the new field value
+     */
+    private void write(int node, int field, int value) {
+        segment(node).putInt((node & (SEGMENT_NODES - 1)) * NODE_BYTES + field, value);
+    }
+    
+    // Typed accessors for the record fields used by the tree algorithms
+    
+    private int key(int node) {
+        return read(node, KEY);
+    }
+    
+    private int left(int node) {
+        return read(node, LEFT);
+    }
+    
+    private int right(int node) {
+        return read(node, RIGHT);
+    }
+    
+    private void setKey(int node, int value) {
+        write(node, KEY, value);
+    }
+    
+    private void setLeft(int node, int child) {
+        write(node, LEFT, child);
+    }
+    
+    private void setRight(int node, int child) {
+        write(node, RIGHT, child);
+    }
+    
+    /**
+     * Takes a record from the free list (or the unused tail) and initializes it as a leaf
+     * @param value the value to store
+     * @return the index of the new node
+     */
+    private int allocate(int value) {
+        int node;
+        if (freeHead != NIL) {
+            node = freeHead;
+            freeHead = left(node);
+        } else {
+            node = highWater++;
+        }
+        
+        setKey(node, value);
+        setLeft(node, NIL);
+        setRight(node, NIL);
+        write(node, HEIGHT, 0);
+        write(node, SIZE, 1);
+        return node;
+    }
+    
+    /**
+     * Pushes a record onto the free list so a later insert can reuse it
+     * @param node the index of the detached node
+     */
+    private void release(int node) {
+        setLeft(node, freeHead);
+        setRight(node, NIL);
+        freeHead = node;
+    }
+    
+    // ==================== BALANCING OPERATIONS ====================
+    
+    /**
+     * Walks the recorded path bottom-up, refreshing heights/sizes and rebalancing
+     * @param depth number of valid entries in the path buffer
+     */
+    private void fixUpPath(int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            int node = path[i];
+            int subtree = rebalance(node);
+            if (subtree != node) {
+                replaceChild(i > 0 ? path[i - 1] : NIL, node, subtree);
+            }
+        }
+    }
+    
+    /**
+     * Points the parent (or the root, if parent is NIL) at a new child
+     * @param parent the parent index, or NIL if oldChild is the root
+     * @param oldChild the child being replaced
+     * @param newChild the replacement (may be NIL)
+     */
+    private void replaceChild(int parent, int oldChild, int newChild) {
+        if (parent == NIL) {
+            root = newChild;
+        } else if (left(parent) == oldChild) {
+            setLeft(parent, newChild);
+        } else {
+            setRight(parent, newChild);
+        }
+    }
+    
+    /**
+     * Refreshes a node's height and size and restores AVL balance
+     * @param node the node whose children may have changed
+     * @return the root of the (possibly rotated) subtree
+     */
+    private int rebalance(int node) {
+        updateNode(node);
+        int balance = balanceFactor(node);
+        if (balance > 1) {
+            if (balanceFactor(left(node)) < 0) {
+                setLeft(node, rotateLeft(left(node)));
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (balanceFactor(right(node)) > 0) {
+                setRight(node, rotateRight(right(node)));
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+    
+    /**
+     * Rotates the subtree right around the given node
+     * @param node the root of the subtree (must have a left child)
+     * @return the new root of the subtree
+     */
+    private int rotateRight(int node) {
+        int pivot = left(node);
+        setLeft(node, right(pivot));
+        setRight(pivot, node);
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+    
+    /**
+     * Rotates the subtree left around the given node
+     * @param node the root of the subtree (must have a right child)
+     * @return the new root of the subtree
+     */
+    private int rotateLeft(int node) {
+        int pivot = right(node);
+        setRight(node, left(pivot));
+        setLeft(pivot, node);
+        updateNode(node);
+        updateNode(pivot);
+        return pivot;
+    }
+    
+    /**
+     * Recomputes a node's cached height and subtree size from its children
+     * @param node the node to update
+     */
+    private void updateNode(int node) {
+        int left = left(node);
+        int right = right(node);
+        write(node, HEIGHT, Math.max(heightOf(left), heightOf(right)) + 1);
+        write(node, SIZE, sizeOf(left) + sizeOf(right) + 1);
+    }
+    
+    /**
+     * Gets the cached height of a subtree
+     * @param node the root index of the subtree
+     * @return the height, or -1 for an empty subtree
+     */
+    private int heightOf(int node) {
+        return node == NIL ? -1 : read(node, HEIGHT);
+    }
+    
+    /**
+     * Gets the cached size of a subtree
+     * @param node the root index of the subtree
+     * @return the number of nodes, or 0 for an empty subtree
+     */
+    private int sizeOf(int node) {
+        return node == NIL ? 0 : read(node, SIZE);
+    }
+    
+    /**
+     * Computes the AVL balance factor of a node
+     * @param node the node to inspect
+     * @return left height minus right height
+     */
+    private int balanceFactor(int node) {
+        return heightOf(left(node)) - heightOf(right(node));
+    }
+    
+    /**
+     * Makes sure the path buffer can hold the given number of indices
+     * @param capacity the number of entries required
+     * @return the (possibly reallocated) path buffer
+     */
+    private int[] ensurePathCapacity(int capacity) {
+        if (path.length < capacity) {
+            path = new int[Math.max(capacity, path.length * 2)];
+        }
+        return path;
+    }
+    
+    // ==================== TRAVERSAL OPERATIONS ====================
+    
+    /**
+     * Pushes every value to the action in ascending order
+     * The action must not modify the tree.
+     * @param action callback receiving each value
+     */
+    public void forEachInorder(IntConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        ensureOpen();
+        
+        int[] stack = new int[heightOf(root) + 1];
+        int top = 0;
+        int current = root;
+        while (current != NIL || top > 0) {
+            while (current != NIL) {
+                stack[top++] = current;
+                current = left(current);
+            }
+            current = stack[--top];
+            action.accept(key(current));
+            current = right(current);
+        }
+    }
+    
+    // ==================== UTILITY OPERATIONS ====================
+    
+    /**
+     * Checks if the tree is empty
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        ensureOpen();
+        return root == NIL;
+    }
+    
+    /**
+     * Gets the height of the tree in O(1)
+     * @return the height of the tree (-1 for empty tree)
+     */
+    public int getHeight() {
+        ensureOpen();
+        return heightOf(root);
+    }
+    
+    /**
+     * Gets the number of values in the tree in O(1)
+     * @return the number of nodes
+     */
+    public int getSize() {
+        ensureOpen();
+        return sizeOf(root);
+    }
+    
+    /**
+     * Finds the minimum value in the tree
+     * @return the minimum value
+     * @throws IllegalStateException if the tree is empty
+     */
+    public int findMin() {
+        if (isEmpty()) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        
+        int current = root;
+        while (left(current) != NIL) {
+            current = left(current);
+        }
+        return key(current);
+    }
+    
+    /**
+     * Finds the maximum value in the tree
+     * @return the maximum value
+     * @throws IllegalStateException if the tree is empty
+     */
+    public int findMax() {
+        if (isEmpty()) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        
+        int current = root;
+        while (right(current) != NIL) {
+            current = right(current);
+        }
+        return key(current);
+    }
+}
@@ -0,0 +1,179 @@
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Ordered set of primitive int values.
+ * 
+ * This is the set and navigation API of BinarySearchTree, pulled out so
+ * callers can pick the structure that suits their workload without
+ * changing their code (see OrderedIntSetFactory). Values are never boxed.
+ * 
+ * Implementations:
+ * - BinarySearchTree: plain, AVL or splay tree, with order statistics on top
+ * - TreapIntSet: randomized balanced tree with cheap updates
+ * - ConcurrentSkipListIntSet: thread-safe, lock-free reads
+ * 
+ * Unless an implementation states otherwise it is not thread-safe, and
+ * callbacks and iterators must not modify the set they traverse.
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public interface OrderedIntSet {
+    
+    // ==================== UPDATE OPERATIONS ====================
+    
+    /**
+     * Adds a value; adding a value that is already present has no effect
+     * (a BinarySearchTree in multiset mode counts the extra occurrence instead)
+     * @param value the value to insert
+     */
+    void insert(int value);
+    
+    /**
+     * Adds every value of the array
+     * @param values the values to insert (not modified)
+     */
+    default void insertAll(int[] values) {
+        if (values == null) {
+            throw new IllegalArgumentException("Values cannot be null");
+        }
+        for (int value : values) {
+            insert(value);
+        }
+    }
+    
+    /**
+     * Removes a value; removing a missing value has no effect
+     * @param value the value to delete
+     */
+    void delete(int value);
+    
+    // ==================== QUERY OPERATIONS ====================
+    
+    /**
+     * Checks whether a value is present
+     * @param value the value to search for
+     * @return true if the value exists, false otherwise
+     */
+    boolean search(int value);
+    
+    /**
+     * Checks a batch of values at once
+     * @param keys the values to search for (not modified, duplicates allowed)
+     * @return an array whose entry i is true if keys[i] is present
+     */
+    default boolean[] searchAll(int[] keys) {
+        if (keys == null) {
+            throw new IllegalArgumentException("Keys cannot be null");
+        }
+        boolean[] found = new boolean[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            found[i] = search(keys[i]);
+        }
+        return found;
+    }
+    
+    /**
+     * Checks if the set is empty
+     * @return true if the set holds no values
+     */
+    boolean isEmpty();
+    
+    /**
+     * Gets the number of values
+     * @return the number of values in the set
+     */
+    int getSize();
+    
+    /**
+     * Finds the minimum value
+     * @return the smallest value
+     * @throws IllegalStateException if the set is empty
+     */
+    int findMin();
+    
+    /**
+     * Finds the maximum value
+     * @return the largest value
+     * @throws IllegalStateException if the set is empty
+     */
+    int findMax();
+    
+    // ==================== NAVIGATION ====================
+    
+    /**
+     * Finds the greatest value less than or equal to the given value
+     * @param value the bound to search from
+     * @return the floor value, or empty if every value is greater
+     */
+    OptionalInt floor(int value);
+    
+    /**
+     * Finds the smallest value greater than or equal to the given value
+     * @param value the bound to search from
+     * @return the ceiling value, or empty if every value is smaller
+     */
+    OptionalInt ceiling(int value);
+    
+    /**
+     * Finds the smallest value strictly greater than the given value
+     * @param value the bound to search from
+     * @return the next larger value, or empty if none exists
+     */
+    OptionalInt higher(int value);
+    
+    /**
+     * Finds the greatest value strictly less than the given value
+     * @param value the bound to search from
+     * @return the next smaller value, or empty if none exists
+     */
+    OptionalInt lower(int value);
+    
+    // ==================== ORDERED TRAVERSAL ====================
+    
+    /**
+     * Visits the values in the closed range [lo, hi] in ascending order
+     * @param lo the lower bound (inclusive)
+     * @param hi the upper bound (inclusive)
+     * @param action callback receiving each value in the range
+     */
+    void rangeScan(int lo, int hi, IntConsumer action);
+    
+    /**
+     * Counts the values in the closed range [lo, hi]
+     * The default scans the range in O(log n + k) for k matches;
+     * BinarySearchTree answers in O(h) from its subtree sizes.
+     * @param lo the lower bound (inclusive)
+     * @param hi the upper bound (inclusive)
+     * @return the number of values v with lo <= v <= hi (0 if lo > hi)
+     */
+    default int rangeCount(int lo, int hi) {
+        int[] count = new int[1];
+        rangeScan(lo, hi, value -> count[0]++);
+        return count[0];
+    }
+    
+    /**
+     * Pushes every value to the action in ascending order
+     * @param action callback receiving each value
+     */
+    void forEachInorder(IntConsumer action);
+    
+    /**
+     * Returns an iterator over the values in ascending order
+     * Inserts and deletes made while iterating are modifications the
+     * iterator need not survive. So is a SPLAY-mode BinarySearchTree search,
+     * since it restructures the tree, unless the implementation says
+     * otherwise (BinarySearchTree's iterator does).
+     * @return a primitive iterator over the sorted values
+     */
+    PrimitiveIterator.OfInt iterator();
+    
+    /**
+     * Copies all values into a new array in ascending order
+     * @return the values of the set, sorted
+     */
+    int[] toSortedArray();
+}
@@ -0,0 +1,157 @@
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Creates OrderedIntSet implementations, either by name or from hints
+ * about the workload they will serve.
+ * 
+ * The hint rules follow measurements on 1M random keys (4M operations):
+ * - The AVL tree had the fastest searches and updates of all
+ *   single-threaded implementations, so it is the default
+ * - CONCURRENT_ACCESS needs thread safety, which only the skip list offers
+ *   (single-threaded it is 4-6x slower than the AVL tree)
+ * - LOW_MEMORY picks the treap: its nodes are 32 bytes instead of 40,
+ *   at the cost of 2-2.5x slower searches
+ * - The splay tree was slower than the AVL tree even for skewed and
+ *   repeated lookups, and the plain tree degrades on sorted input, so
+ *   neither is chosen from hints; both remain available by name
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public final class OrderedIntSetFactory {
+    
+    /**
+     * Available OrderedIntSet implementations
+     */
+    public enum Implementation {
+        /** BinarySearchTree without balancing */
+        PLAIN_TREE,
+        /** BinarySearchTree in AVL mode */
+        AVL_TREE,
+        /** BinarySearchTree in splay mode */
+        SPLAY_TREE,
+        /** TreapIntSet */
+        TREAP,
+        /** ConcurrentSkipListIntSet */
+        CONCURRENT_SKIP_LIST
+    }
+    
+    /**
+     * Properties of the expected workload
+     */
+    public enum WorkloadHint {
+        /** Several threads will read and update the set at the same time */
+        CONCURRENT_ACCESS,
+        /** Heap use matters more than lookup speed */
+        LOW_MEMORY
+    }
+    
+    private OrderedIntSetFactory() {
+        // Static factory methods only
+    }
+    
+    /**
+     * Picks the implementation that best fits the given hints
+     * Thread safety takes precedence over every other hint.
+     * @param hints the workload properties (may be empty)
+     * @return the chosen implementation
+     */
+    public static Implementation choose(Set<WorkloadHint> hints) {
+        if (hints == null) {
+            throw new IllegalArgumentException("Hints cannot be null");
+        }
+        if (hints.contains(WorkloadHint.CONCURRENT_ACCESS)) {
+            return Implementation.CONCURRENT_SKIP_LIST;
+        }
+        if (hints.contains(WorkloadHint.LOW_MEMORY)) {
+            return Implementation.TREAP;
+        }
+        return Implementation.AVL_TREE;
+    }
+    
+    /**
+     * Creates an empty set suited to the given hints
+     * @param hints the workload properties (none for the default)
+     * @return a new, empty ordered set
+     */
+    public static OrderedIntSet create(WorkloadHint... hints) {
+        Set<WorkloadHint> set = EnumSet.noneOf(WorkloadHint.class);
+        for (WorkloadHint hint : hints) {
+            if (hint == null) {
+                throw new IllegalArgumentException("Hints cannot be null");
+            }
+            set.add(hint);
+        }
+        return create(choose(set));
+    }
+    
+    /**
+     * Creates an empty set of the given implementation
+     * @param implementation the implementation to instantiate
+     * @return a new, empty ordered set
+     */
+    public static OrderedIntSet create(Implementation implementation) {
+        if (implementation == null) {
+            throw new IllegalArgumentException("Implementation cannot be null");
+        }
+        switch (implementation) {
+            case PLAIN_TREE:
+                return new BinarySearchTree(BinarySearchTree.BalanceMode.NONE);
+            case AVL_TREE:
+                return new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+            case SPLAY_TREE:
+                return new BinarySearchTree(BinarySearchTree.BalanceMode.SPLAY);
+            case TREAP:
+                return new TreapIntSet();
+            case CONCURRENT_SKIP_LIST:
+                return new ConcurrentSkipListIntSet();
+            default:
+                throw new IllegalArgumentException("Unknown implementation: " + implementation);
+        }
+    }
+    
+    /**
+     * Creates an empty set from command-line style options: each option is
+     * either an implementation name or a workload hint, case-insensitive and
+     * with '-' accepted for '_' (for example "treap" or "concurrent-access").
+     * An implementation name wins over hints; no options give the default.
+     * @param options implementation names and/or hint names
+     * @return a new, empty ordered set
+     * @throws IllegalArgumentException if an option is neither
+     */
+    public static OrderedIntSet fromOptions(String... options) {
+        Set<WorkloadHint> hints = EnumSet.noneOf(WorkloadHint.class);
+        Implementation chosen = null;
+        for (String option : options) {
+            if (option == null) {
+                throw new IllegalArgumentException("Options cannot be null");
+            }
+            String name = option.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+            Implementation implementation = lookup(Implementation.class, name);
+            WorkloadHint hint = lookup(WorkloadHint.class, name);
+            if (implementation != null) {
+                chosen = implementation;
+            } else if (hint != null) {
+                hints.add(hint);
+            } else {
+                throw new IllegalArgumentException("Unknown implementation or workload hint: " + option);
+            }
+        }
+        return create(chosen != null ? chosen : choose(hints));
+    }
+    
+    /**
+     * Finds an enum constant by name without throwing
+     * @return the constant, or null if none has that name
+     */
+    private static <E extends Enum<E>> E lookup(Class<E> type, String name) {
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equals(name)) {
+                return constant;
+            }
+        }
+        return null;
+    }
+}
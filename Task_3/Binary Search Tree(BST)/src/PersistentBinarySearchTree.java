@@ -0,0 +1,479 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable (persistent) Binary Search Tree.
+ * 
+ * Every version of the tree is a value that never changes. insert and
+ * delete copy only the O(log n) nodes on the path to the changed value and
+ * share every other node with the previous version, so both versions stay
+ * valid and cheap to keep around. Taking a snapshot is free: it is just
+ * the current version.
+ * 
+ * All node fields are final, so a version handed to another thread (for
+ * example through a volatile field) is always seen fully built. Readers
+ * never lock, never block writers, and can never observe a torn update.
+ * 
+ * With a single writer, publishing each new version through a volatile
+ * field is enough:
+ * <pre>
+ * volatile PersistentBinarySearchTree current = PersistentBinarySearchTree.empty();
+ * current = current.insert(42);                       // the only writer
+ * PersistentBinarySearchTree report = current.snapshot(); // reader, stable forever
+ * </pre>
+ * 
+ * The read-modify-write above loses updates as soon as two writers race.
+ * With several writers, publish through an AtomicReference instead, whose
+ * updateAndGet retries the update (a pure function, safe to repeat) until
+ * its compare-and-set wins:
+ * <pre>
+ * AtomicReference&lt;PersistentBinarySearchTree&gt; current =
+ *         new AtomicReference&lt;&gt;(PersistentBinarySearchTree.empty());
+ * current.updateAndGet(tree -&gt; tree.insert(42));        // any writer
+ * PersistentBinarySearchTree report = current.get();      // reader, stable forever
+ * </pre>
+ * 
+ * The tree is AVL-balanced, so the recursive helpers are at most
+ * about 1.44 * log2(n) calls deep.
+ * 
+ * Time Complexity:
+ * - search, insert, delete, select, rank: O(log n)
+ * - snapshot, getSize, getHeight: O(1)
+ * 
+ * Space Complexity:
+ * - O(log n) new nodes per insert/delete; unchanged nodes are shared
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public final class PersistentBinarySearchTree {
+    
+    /** The shared empty tree */
+    private static final PersistentBinarySearchTree EMPTY = new PersistentBinarySearchTree(null);
+    
+    /**
+     * Immutable tree node; a changed node is always replaced by a copy
+     */
+    private static final class Node {
+        /** The integer value stored in this node */
+        final int value;
+        
+        /** Left subtree (smaller values) */
+        final Node left;
+        
+        /** Right subtree (larger values) */
+        final Node right;
+        
+        /** Height of the subtree rooted at this node (0 for a leaf) */
+        final int height;
+        
+        /** Number of nodes in the subtree rooted at this node */
+        final int size;
+        
+        Node(int value, Node left, Node right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(heightOf(left), heightOf(right)) + 1;
+            this.size = sizeOf(left) + sizeOf(right) + 1;
+        }
+    }
+    
+    /** Root of this version, or null for the empty tree */
+    private final Node root;
+    
+    /**
+     * Wraps a root as a tree version
+     * @param root the root node (may be null)
+     */
+    private PersistentBinarySearchTree(Node root) {
+        this.root = root;
+    }
+    
+    /**
+     * Gets the empty tree
+     * @return the shared empty version
+     */
+    public static PersistentBinarySearchTree empty() {
+        return EMPTY;
+    }
+    
+    /**
+     * Builds a balanced tree from strictly ascending values in O(n)
+     * @param sorted the values in strictly ascending order (not modified)
+     * @return a new version containing exactly the given values
+     * @throws IllegalArgumentException if the values are not strictly ascending
+     */
+    public static PersistentBinarySearchTree fromSorted(int[] sorted) {
+        if (sorted == null) {
+            throw new IllegalArgumentException("Values cannot be null");
+        }
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i - 1] >= sorted[i]) {
+                throw new IllegalArgumentException("Values must be strictly ascending (index " + i + ")");
+            }
+        }
+        return sorted.length == 0 ? EMPTY : new PersistentBinarySearchTree(build(sorted, 0, sorted.length));
+    }
+    
+    /**
+     * Builds the subtree for sorted[from, to) with its middle element as root
+     * @param sorted strictly ascending values
+     * @param from first index (inclusive)
+     * @param to last index (exclusive)
+     * @return the root of the subtree, or null for an empty range
+     */
+    private static Node build(int[] sorted, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        return new Node(sorted[mid], build(sorted, from, mid), build(sorted, mid + 1, to));
+    }
+    
+    /**
+     * Returns a stable view of this version
+     * Versions are immutable, so this is free and simply returns this tree.
+     * @return this version
+     */
+    public PersistentBinarySearchTree snapshot() {
+        return this;
+    }
+    
+    // ==================== UPDATE OPERATIONS ====================
+    
+    /**
+     * Returns a version that also contains the given value
+     * @param value the value to insert
+     * @return the new version, or this version if the value is already present
+     */
+    public PersistentBinarySearchTree insert(int value) {
+        Node updated = insert(root, value);
+        return updated == root ? this : new PersistentBinarySearchTree(updated);
+    }
+    
+    /**
+     * Path-copying insert helper
+     * @param node the root of the subtree
+     * @param value the value to insert
+     * @return the new subtree root, or node itself if nothing changed
+     */
+    private static Node insert(Node node, int value) {
+        if (node == null) {
+            return new Node(value, null, null);
+        }
+        
+        if (value < node.value) {
+            Node left = insert(node.left, value);
+            return left == node.left ? node : balance(node.value, left, node.right);
+        } else if (value > node.value) {
+            Node right = insert(node.right, value);
+            return right == node.right ? node : balance(node.value, node.left, right);
+        }
+        // Duplicate - share the existing subtree unchanged
+        return node;
+    }
+    
+    /**
+     * Returns a version without the given value
+     * @param value the value to delete
+     * @return the new version, or this version if the value is absent
+     */
+    public PersistentBinarySearchTree delete(int value) {
+        Node updated = delete(root, value);
+        if (updated == root) {
+            return this;
+        }
+        return updated == null ? EMPTY : new PersistentBinarySearchTree(updated);
+    }
+    
+    /**
+     * Path-copying delete helper
+     * @param node the root of the subtree
+     * @param value the value to delete
+     * @return the new subtree root, or node itself if nothing changed
+     */
+    private static Node delete(Node node, int value) {
+        if (node == null) {
+            return null;
+        }
+        
+        if (value < node.value) {
+            Node left = delete(node.left, value);
+            return left == node.left ? node : balance(node.value, left, node.right);
+        } else if (value > node.value) {
+            Node right = delete(node.right, value);
+            return right == node.right ? node : balance(node.value, node.left, right);
+        }
+        
+        // Node to be deleted found
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        
+        // Two children: the copy takes the inorder successor's value
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.value, node.left, delete(node.right, successor.value));
+    }
+    
+    // ==================== BALANCING OPERATIONS ====================
+    
+    /**
+     * Creates a node from a value and two subtrees, rotating if they differ
+     * in height by more than one (the AVL invariant)
+     * @param value the value of the new node
+     * @param left the left subtree
+     * @param right the right subtree
+     * @return the root of the balanced subtree
+     */
+    private static Node balance(int value, Node left, Node right) {
+        int difference = heightOf(left) - heightOf(right);
+        if (difference > 1) {
+            if (heightOf(left.left) >= heightOf(left.right)) {
+                // Single right rotation
+                return new Node(left.value, left.left, new Node(value, left.right, right));
+            }
+            // Left-right double rotation
+            Node pivot = left.right;
+            return new Node(pivot.value,
+                    new Node(left.value, left.left, pivot.left),
+                    new Node(value, pivot.right, right));
+        }
+        if (difference < -1) {
+            if (heightOf(right.right) >= heightOf(right.left)) {
+                // Single left rotation
+                return new Node(right.value, new Node(value, left, right.left), right.right);
+            }
+            // Right-left double rotation
+            Node pivot = right.left;
+            return new Node(pivot.value,
+                    new Node(value, left, pivot.left),
+                    new Node(right.value, pivot.right, right.right));
+        }
+        return new Node(value, left, right);
+    }
+    
+    /**
+     * Gets the height of a subtree
+     * @param node the root of the subtree
+     * @return the height, or -1 for an empty subtree
+     */
+    private static int heightOf(Node node) {
+        return node == null ? -1 : node.height;
+    }
+    
+    /**
+     * Gets the size of a subtree
+     * @param node the root of the subtree
+     * @return the number of nodes, or 0 for an empty subtree
+     */
+    private static int sizeOf(Node node) {
+        return node == null ? 0 : node.size;
+    }
+    
+    // ==================== QUERY OPERATIONS ====================
+    
+    /**
+     * Searches for a value in this version
+     * @param value the value to search for
+     * @return true if the value exists, false otherwise
+     */
+    public boolean search(int value) {
+        Node current = root;
+        while (current != null) {
+            if (value == current.value) {
+                return true;
+            }
+            current = value < current.value ? current.left : current.right;
+        }
+        return false;
+    }
+    
+    /**
+     * Finds the k-th smallest value (0-based)
+     * @param k the zero-based rank of the value to find
+     * @return the value with exactly k smaller values in the tree
+     * @throws IllegalArgumentException if k is outside [0, getSize())
+     */
+    public int select(int k) {
+        if (k < 0 || k >= sizeOf(root)) {
+            throw new IllegalArgumentException("Rank " + k + " out of range for tree of size " + sizeOf(root));
+        }
+        
+        Node current = root;
+        while (true) {
+            int leftSize = sizeOf(current.left);
+            if (k < leftSize) {
+                current = current.left;
+            } else if (k > leftSize) {
+                k -= leftSize + 1;
+                current = current.right;
+            } else {
+                return current.value;
+            }
+        }
+    }
+    
+    /**
+     * Counts the values strictly smaller than the given value
+     * @param value the value to rank (need not be in the tree)
+     * @return the number of values less than value
+     */
+    public int rank(int value) {
+        int rank = 0;
+        Node current = root;
+        while (current != null) {
+            if (value <= current.value) {
+                current = current.left;
+            } else {
+                rank += sizeOf(current.left) + 1;
+                current = current.right;
+            }
+        }
+        return rank;
+    }
+    
+    /**
+     * Pushes every value to the action in ascending order
+     * @param action callback receiving each value
+     */
+    public void forEachInorder(IntConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        PrimitiveIterator.OfInt iterator = iterator();
+        while (iterator.hasNext()) {
+            action.accept(iterator.nextInt());
+        }
+    }
+    
+    /**
+     * Returns an iterator over the values of this version in ascending order
+     * Later versions never affect it.
+     * @return a primitive iterator over the sorted values
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new InorderIterator(root);
+    }
+    
+    /**
+     * Inorder iterator that keeps the pending left spine on an explicit stack
+     */
+    private static final class InorderIterator implements PrimitiveIterator.OfInt {
+        
+        /** Nodes whose value has not been returned yet, deepest on top */
+        private final Node[] stack;
+        
+        /** Number of nodes on the stack */
+        private int top;
+        
+        InorderIterator(Node root) {
+            this.stack = new Node[heightOf(root) + 1];
+            pushLeftSpine(root);
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+        
+        @Override
+        public int nextInt() {
+            if (top == 0) {
+                throw new NoSuchElementException("No more values in the tree");
+            }
+            Node node = stack[--top];
+            pushLeftSpine(node.right);
+            return node.value;
+        }
+        
+        /**
+         * Pushes a node and all of its left descendants
+         * @param node the subtree to descend into (may be null)
+         */
+        private void pushLeftSpine(Node node) {
+            while (node != null) {
+                stack[top++] = node;
+                node = node.left;
+            }
+        }
+    }
+    
+    /**
+     * Copies all values of this version into a new array in ascending order
+     * @return the values, sorted
+     */
+    public int[] toSortedArray() {
+        int[] values = new int[sizeOf(root)];
+        PrimitiveIterator.OfInt iterator = iterator();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = iterator.nextInt();
+        }
+        return values;
+    }
+    
+    // ==================== UTILITY OPERATIONS ====================
+    
+    /**
+     * Checks if this version is empty
+     * @return true if empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+    
+    /**
+     * Gets the number of values in this version in O(1)
+     * @return the number of nodes
+     */
+    public int getSize() {
+        return sizeOf(root);
+    }
+    
+    /**
+     * Gets the height of this version in O(1)
+     * @return the height of the tree (-1 for empty tree)
+     */
+    public int getHeight() {
+        return heightOf(root);
+    }
+    
+    /**
+     * Finds the minimum value in this version
+     * @return the minimum value
+     * @throws IllegalStateException if the tree is empty
+     */
+    public int findMin() {
+        if (isEmpty()) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        Node current = root;
+        while (current.left != null) {
+            current = current.left;
+        }
+        return current.value;
+    }
+    
+    /**
+     * Finds the maximum value in this version
+     * @return the maximum value
+     * @throws IllegalStateException if the tree is empty
+     */
+    public int findMax() {
+        if (isEmpty()) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        Node current = root;
+        while (current.right != null) {
+            current = current.right;
+        }
+        return current.value;
+    }
+}
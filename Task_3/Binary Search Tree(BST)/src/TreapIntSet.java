@@ -0,0 +1,559 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+/**
+ * Treap: a binary search tree that is also a max-heap on random priorities.
+ * 
+ * Every node draws a random priority when it is inserted, and no child
+ * ever has a higher priority than its parent. The tree therefore has the
+ * shape a plain BST would get from inserting the same keys in random
+ * order, whatever order they really arrive in, so sorted input does not
+ * degrade it and the expected depth of a node is O(log n).
+ * 
+ * Compared with the AVL mode of BinarySearchTree, updates are cheaper:
+ * an insert or delete makes fewer than two rotations on average and no
+ * cached height or size has to be refreshed along the path. The price is
+ * an expected rather than guaranteed height bound and no order statistics.
+ * 
+ * Time Complexity (expected, over the random priorities):
+ * - insert, delete, search, floor/ceiling/higher/lower: O(log n)
+ * - rangeScan: O(log n + k) for k matches
+ * - Traversals: O(n); getSize: O(1); getHeight: O(n), heights are not cached
+ * 
+ * Space Complexity:
+ * - Storage: O(n), one node (key, priority, two links) per value
+ * - Insert path buffer and traversal stacks: O(h), all code is iterative
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class TreapIntSet implements OrderedIntSet {
+    
+    /** Initial length of the insert path buffer and traversal stacks (grown on demand) */
+    private static final int INITIAL_PATH_CAPACITY = 32;
+    
+    /**
+     * Approximate size of one Node on a 64-bit JVM with compressed oops:
+     * 12-byte header + key and priority (4 bytes each) + two 4-byte
+     * references, padded to a multiple of 8
+     */
+    private static final int NODE_BYTES = 32;
+    
+    /** Size of an array object header on a 64-bit JVM with compressed oops */
+    private static final int ARRAY_HEADER_BYTES = 16;
+    
+    /**
+     * Treap node; the priority is fixed at insertion
+     */
+    private static final class Node {
+        /** The stored value */
+        final int key;
+        
+        /** Random heap priority, never lower than either child's */
+        final int priority;
+        
+        /** Subtree with smaller keys */
+        Node left;
+        
+        /** Subtree with larger keys */
+        Node right;
+        
+        Node(int key, int priority) {
+            this.key = key;
+            this.priority = priority;
+        }
+    }
+    
+    /** The root node, holding the highest priority */
+    private Node root;
+    
+    /** Number of values in the set */
+    private int size;
+    
+    /** State of the xorshift generator that draws node priorities (never zero) */
+    private long seed;
+    
+    /** Reusable root-to-leaf path recorded by insert for the rotations back up */
+    private Node[] path;
+    
+    /**
+     * Constructor - initializes an empty treap with randomly seeded priorities
+     */
+    public TreapIntSet() {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+    
+    /**
+     * Constructor - initializes an empty treap whose shape is reproducible
+     * for the same seed and the same sequence of updates
+     * @param seed seed of the priority generator
+     */
+    public TreapIntSet(long seed) {
+        this.root = null;
+        this.size = 0;
+        this.seed = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+        this.path = new Node[INITIAL_PATH_CAPACITY];
+    }
+    
+    // ==================== UPDATE OPERATIONS ====================
+    
+    /**
+     * Inserts a value as a leaf, then rotates it up past every ancestor
+     * with a lower priority
+     * @param value the value to insert (duplicates are ignored)
+     */
+    @Override
+    public void insert(int value) {
+        int depth = 0;
+        Node current = root;
+        while (current != null) {
+            if (value == current.key) {
+                return;
+            }
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, depth * 2);
+            }
+            path[depth++] = current;
+            current = value < current.key ? current.left : current.right;
+        }
+        
+        Node node = new Node(value, nextPriority());
+        size++;
+        if (depth == 0) {
+            root = node;
+            return;
+        }
+        Node parent = path[depth - 1];
+        if (value < parent.key) {
+            parent.left = node;
+        } else {
+            parent.right = node;
+        }
+        
+        // Restore the heap order bottom-up; each rotation lifts the new node one level
+        while (depth > 0 && path[depth - 1].priority < node.priority) {
+            parent = path[depth - 1];
+            if (parent.left == node) {
+                rotateRight(parent);
+            } else {
+                rotateLeft(parent);
+            }
+            replaceChild(depth > 1 ? path[depth - 2] : null, parent, node);
+            depth--;
+        }
+    }
+    
+    /**
+     * Deletes a value by rotating its node down (lifting the child with the
+     * higher priority each time) until it has at most one child, then
+     * splicing it out
+     * @param value the value to delete (missing values are ignored)
+     */
+    @Override
+    public void delete(int value) {
+        Node parent = null;
+        Node current = root;
+        while (current != null && value != current.key) {
+            parent = current;
+            current = value < current.key ? current.left : current.right;
+        }
+        if (current == null) {
+            return;
+        }
+        
+        while (current.left != null && current.right != null) {
+            Node lifted = current.left.priority > current.right.priority
+                    ? rotateRight(current)
+                    : rotateLeft(current);
+            replaceChild(parent, current, lifted);
+            parent = lifted;
+        }
+        replaceChild(parent, current, current.left != null ? current.left : current.right);
+        size--;
+    }
+    
+    /**
+     * Rotates the subtree right around the given node
+     * @param node the root of the subtree (must have a left child)
+     * @return the new root of the subtree
+     */
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        return pivot;
+    }
+    
+    /**
+     * Rotates the subtree left around the given node
+     * @param node the root of the subtree (must have a right child)
+     * @return the new root of the subtree
+     */
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        return pivot;
+    }
+    
+    /**
+     * Points the parent (or the root, if parent is null) at a new child
+     * @param parent the parent node, or null if oldChild is the root
+     * @param oldChild the child being replaced
+     * @param newChild the replacement (may be null)
+     */
+    private void replaceChild(Node parent, Node oldChild, Node newChild) {
+        if (parent == null) {
+            root = newChild;
+        } else if (parent.left == oldChild) {
+            parent.left = newChild;
+        } else {
+            parent.right = newChild;
+        }
+    }
+    
+    /**
+     * Draws the next node priority (xorshift64)
+     * @return a uniformly distributed int
+     */
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (int) (seed >>> 32);
+    }
+    
+    // ==================== QUERY OPERATIONS ====================
+    
+    /**
+     * Searches for a value
+     * @param value the value to search for
+     * @return true if the value exists, false otherwise
+     */
+    @Override
+    public boolean search(int value) {
+        Node current = root;
+        while (current != null) {
+            if (value == current.key) {
+                return true;
+            }
+            current = value < current.key ? current.left : current.right;
+        }
+        return false;
+    }
+    
+    /**
+     * Checks if the treap is empty
+     * @return true if the treap holds no values
+     */
+    @Override
+    public boolean isEmpty() {
+        return root == null;
+    }
+    
+    /**
+     * Gets the number of values
+     * @return the number of values in the treap
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+    
+    /**
+     * Computes the height by visiting every node (heights are not cached)
+     * @return the height, or -1 for an empty treap
+     */
+    public int getHeight() {
+        Node[] stack = new Node[INITIAL_PATH_CAPACITY];
+        int[] depths = new int[INITIAL_PATH_CAPACITY];
+        int top = 0;
+        int height = -1;
+        if (root != null) {
+            stack[top] = root;
+            depths[top++] = 0;
+        }
+        while (top > 0) {
+            Node node = stack[--top];
+            int depth = depths[top];
+            height = Math.max(height, depth);
+            if (top + 2 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+                depths = Arrays.copyOf(depths, depths.length * 2);
+            }
+            if (node.left != null) {
+                stack[top] = node.left;
+                depths[top++] = depth + 1;
+            }
+            if (node.right != null) {
+                stack[top] = node.right;
+                depths[top++] = depth + 1;
+            }
+        }
+        return height;
+    }
+    
+    /**
+     * Finds the minimum value
+     * @return the smallest value
+     * @throws IllegalStateException if the treap is empty
+     */
+    @Override
+    public int findMin() {
+        if (root == null) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        Node current = root;
+        while (current.left != null) {
+            current = current.left;
+        }
+        return current.key;
+    }
+    
+    /**
+     * Finds the maximum value
+     * @return the largest value
+     * @throws IllegalStateException if the treap is empty
+     */
+    @Override
+    public int findMax() {
+        if (root == null) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        Node current = root;
+        while (current.right != null) {
+            current = current.right;
+        }
+        return current.key;
+    }
+    
+    /**
+     * Estimates the heap used by this treap's nodes and path buffer,
+     * assuming a 64-bit JVM with compressed oops
+     * Nodes carry no cached height, size or count, so they are 8 bytes
+     * smaller than BinarySearchTree's.
+     * @return the approximate number of bytes retained by this treap
+     */
+    public long estimateMemoryFootprint() {
+        return (long) NODE_BYTES * size + ARRAY_HEADER_BYTES + 4L * path.length;
+    }
+    
+    // ==================== NAVIGATION ====================
+    
+    /**
+     * Finds the greatest value less than or equal to the given value
+     * @param value the bound to search from
+     * @return the floor value, or empty if every value is greater
+     */
+    @Override
+    public OptionalInt floor(int value) {
+        Node best = null;
+        Node current = root;
+        while (current != null) {
+            if (value == current.key) {
+                return OptionalInt.of(value);
+            }
+            if (value < current.key) {
+                current = current.left;
+            } else {
+                best = current;
+                current = current.right;
+            }
+        }
+        return best == null ? OptionalInt.empty() : OptionalInt.of(best.key);
+    }
+    
+    /**
+     * Finds the smallest value greater than or equal to the given value
+     * @param value the bound to search from
+     * @return the ceiling value, or empty if every value is smaller
+     */
+    @Override
+    public OptionalInt ceiling(int value) {
+        Node best = null;
+        Node current = root;
+        while (current != null) {
+            if (value == current.key) {
+                return OptionalInt.of(value);
+            }
+            if (value > current.key) {
+                current = current.right;
+            } else {
+                best = current;
+                current = current.left;
+            }
+        }
+        return best == null ? OptionalInt.empty() : OptionalInt.of(best.key);
+    }
+    
+    /**
+     * Finds the smallest value strictly greater than the given value
+     * @param value the bound to search from
+     * @return the next larger value, or empty if none exists
+     */
+    @Override
+    public OptionalInt higher(int value) {
+        Node best = null;
+        Node current = root;
+        while (current != null) {
+            if (value < current.key) {
+                best = current;
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        return best == null ? OptionalInt.empty() : OptionalInt.of(best.key);
+    }
+    
+    /**
+     * Finds the greatest value strictly less than the given value
+     * @param value the bound to search from
+     * @return the next smaller value, or empty if none exists
+     */
+    @Override
+    public OptionalInt lower(int value) {
+        Node best = null;
+        Node current = root;
+        while (current != null) {
+            if (value > current.key) {
+                best = current;
+                current = current.right;
+            } else {
+                current = current.left;
+            }
+        }
+        return best == null ? OptionalInt.empty() : OptionalInt.of(best.key);
+    }
+    
+    // ==================== TRAVERSAL OPERATIONS ====================
+    
+    /**
+     * Visits the values in the closed range [lo, hi] in ascending order,
+     * skipping every subtree that lies entirely outside the range
+     * The action must not modify the treap.
+     * @param lo the lower bound (inclusive)
+     * @param hi the upper bound (inclusive)
+     * @param action callback receiving each value in the range
+     */
+    @Override
+    public void rangeScan(int lo, int hi, IntConsumer action) {
+        if (action == null) {
+            throw new IllegalArgumentException("Action cannot be null");
+        }
+        if (lo > hi) {
+            return;
+        }
+        
+        // Each traversal owns its stack, so callbacks may start nested traversals
+        Node[] stack = new Node[INITIAL_PATH_CAPACITY];
+        int top = 0;
+        Node current = root;
+        while (current != null || top > 0) {
+            while (current != null) {
+                if (current.key < lo) {
+                    current = current.right;
+                } else {
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, top * 2);
+                    }
+                    stack[top++] = current;
+                    current = current.left;
+                }
+            }
+            if (top == 0) {
+                break;
+            }
+            Node node = stack[--top];
+            if (node.key > hi) {
+                break;
+            }
+            action.accept(node.key);
+            current = node.right;
+        }
+    }
+    
+    /**
+     * Pushes every value to the action in ascending order
+     * The action must not modify the treap.
+     * @param action callback receiving each value
+     */
+    @Override
+    public void forEachInorder(IntConsumer action) {
+        rangeScan(Integer.MIN_VALUE, Integer.MAX_VALUE, action);
+    }
+    
+    /**
+     * Copies all values into a new array in ascending order
+     * @return the values of the treap, sorted
+     */
+    @Override
+    public int[] toSortedArray() {
+        int[] values = new int[size];
+        PrimitiveIterator.OfInt iterator = iterator();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = iterator.nextInt();
+        }
+        return values;
+    }
+    
+    /**
+     * Returns an iterator over the values in ascending order
+     * The treap must not be modified while iterating.
+     * @return a primitive iterator over the sorted values
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new InorderIterator(root);
+    }
+    
+    /**
+     * Inorder iterator that keeps the pending left spine on a growable stack
+     */
+    private static final class InorderIterator implements PrimitiveIterator.OfInt {
+        
+        /** Nodes whose value has not been returned yet, deepest on top */
+        private Node[] stack;
+        
+        /** Number of nodes on the stack */
+        private int top;
+        
+        InorderIterator(Node root) {
+            this.stack = new Node[INITIAL_PATH_CAPACITY];
+            pushLeftSpine(root);
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+        
+        @Override
+        public int nextInt() {
+            if (top == 0) {
+                throw new NoSuchElementException("No more values in the tree");
+            }
+            Node node = stack[--top];
+            pushLeftSpine(node.right);
+            return node.key;
+        }
+        
+        /**
+         * Pushes a node and all of its left descendants
+         * @param node the subtree to descend into (may be null)
+         */
+        private void pushLeftSpine(Node node) {
+            while (node != null) {
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, top * 2);
+                }
+                stack[top++] = node;
+                node = node.left;
+            }
+        }
+    }
+}
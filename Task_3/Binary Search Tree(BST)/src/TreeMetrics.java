@@ -0,0 +1,421 @@
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Operation counters for BinarySearchTree, attached with setMetrics.
+ * 
+ * Recorded per operation:
+ * - search: comparisons made (one per node visited) and a histogram of
+ *   them, which shows directly how deep lookups land in the tree
+ * - insert/delete: nodes visited, including the successor search of deletes
+ * - delete: how often a node with two children is replaced by its successor
+ * - insert: whether the new node was allocated or taken from the node pool
+ *   (see BinarySearchTree.setNodePoolCapacity), i.e. the allocation rate
+ * 
+ * The tree only calls into this class while metrics are attached, so an
+ * uninstrumented tree pays a single null check per insert/delete and runs
+ * its original search loop. Counters are LongAdders and the histogram is an
+ * AtomicLongArray, so they can be read from other threads (JMX, JFR) while
+ * the owning thread keeps updating the tree. One instance may be shared by
+ * several trees to aggregate their counts.
+ * 
+ * Publishing:
+ * - register() exposes the counters as an MXBean named
+ *   "BinarySearchTree:type=TreeMetrics,name=<name>" and adds them to the
+ *   periodic "bst.TreeMetrics" JFR snapshot event
+ * - searches making more comparisons than the deep search threshold emit a
+ *   "bst.DeepSearch" JFR event (only while a recording has it enabled)
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class TreeMetrics implements TreeMetricsMXBean {
+    
+    /** Histogram buckets: searches making 0..62 comparisons, then one bucket for 63 or more */
+    public static final int HISTOGRAM_BUCKETS = 64;
+    
+    /** Default comparison count above which a search emits a JFR event */
+    public static final int DEFAULT_DEEP_SEARCH_THRESHOLD = 64;
+    
+    /** Metrics currently registered, reported by the periodic JFR event */
+    private static final List<TreeMetrics> REGISTERED = new CopyOnWriteArrayList<>();
+    
+    /** True once the periodic JFR hook has been installed */
+    private static boolean periodicHookInstalled;
+    
+    /** Name used for the MBean and in JFR events */
+    private final String name;
+    
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder searchComparisons = new LongAdder();
+    private final LongAccumulator maxSearchComparisons = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray searchDepthHistogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder insertNodesVisited = new LongAdder();
+    private final LongAdder deletes = new LongAdder();
+    private final LongAdder deleteNodesVisited = new LongAdder();
+    private final LongAdder successorReplacements = new LongAdder();
+    private final LongAdder nodesAllocated = new LongAdder();
+    private final LongAdder nodesReused = new LongAdder();
+    
+    /** Comparison count above which a search emits a DeepSearchEvent */
+    private volatile int deepSearchThreshold = DEFAULT_DEEP_SEARCH_THRESHOLD;
+    
+    /** MBean name while registered, null otherwise */
+    private ObjectName objectName;
+    
+    /**
+     * Constructor - creates zeroed counters
+     * @param name the name to publish the metrics under
+     * @throws IllegalArgumentException if the name is null
+     */
+    public TreeMetrics(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name cannot be null");
+        }
+        this.name = name;
+    }
+    
+    // ==================== RECORDING OPERATIONS ====================
+    
+    /**
+     * Records one search
+     * @param value the value searched for
+     * @param comparisons the number of nodes compared against
+     */
+    void recordSearch(int value, int comparisons) {
+        searches.increment();
+        searchComparisons.add(comparisons);
+        maxSearchComparisons.accumulate(comparisons);
+        searchDepthHistogram.incrementAndGet(Math.min(comparisons, HISTOGRAM_BUCKETS - 1));
+        
+        if (comparisons > deepSearchThreshold) {
+            DeepSearchEvent event = new DeepSearchEvent();
+            if (event.shouldCommit()) {
+                event.tree = name;
+                event.value = value;
+                event.comparisons = comparisons;
+                event.commit();
+            }
+        }
+    }
+    
+    /**
+     * Records one insert
+     * @param nodesVisited the number of existing nodes walked past
+     */
+    void recordInsert(int nodesVisited) {
+        inserts.increment();
+        insertNodesVisited.add(nodesVisited);
+    }
+    
+    /**
+     * Records one delete
+     * @param nodesVisited the number of nodes visited, successor search included
+     */
+    void recordDelete(int nodesVisited) {
+        deletes.increment();
+        deleteNodesVisited.add(nodesVisited);
+    }
+    
+    /**
+     * Records that a delete replaced a two-children node by its successor
+     */
+    void recordSuccessorReplacement() {
+        successorReplacements.increment();
+    }
+    
+    /**
+     * Records that an insert allocated a new node
+     */
+    void recordNodeAllocated() {
+        nodesAllocated.increment();
+    }
+    
+    /**
+     * Records that an insert reused a pooled node instead of allocating
+     */
+    void recordNodeReused() {
+        nodesReused.increment();
+    }
+    
+    // ==================== MXBEAN ATTRIBUTES ====================
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public long getSearches() {
+        return searches.sum();
+    }
+    
+    @Override
+    public long getSearchComparisons() {
+        return searchComparisons.sum();
+    }
+    
+    @Override
+    public double getAverageSearchComparisons() {
+        return average(searchComparisons, searches);
+    }
+    
+    @Override
+    public long getMaxSearchComparisons() {
+        return maxSearchComparisons.get();
+    }
+    
+    @Override
+    public long[] getSearchDepthHistogram() {
+        long[] copy = new long[HISTOGRAM_BUCKETS];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = searchDepthHistogram.get(i);
+        }
+        return copy;
+    }
+    
+    @Override
+    public long getInserts() {
+        return inserts.sum();
+    }
+    
+    @Override
+    public long getInsertNodesVisited() {
+        return insertNodesVisited.sum();
+    }
+    
+    @Override
+    public double getAverageInsertNodesVisited() {
+        return average(insertNodesVisited, inserts);
+    }
+    
+    @Override
+    public long getDeletes() {
+        return deletes.sum();
+    }
+    
+    @Override
+    public long getDeleteNodesVisited() {
+        return deleteNodesVisited.sum();
+    }
+    
+    @Override
+    public double getAverageDeleteNodesVisited() {
+        return average(deleteNodesVisited, deletes);
+    }
+    
+    @Override
+    public long getSuccessorReplacements() {
+        return successorReplacements.sum();
+    }
+    
+    @Override
+    public long getNodesAllocated() {
+        return nodesAllocated.sum();
+    }
+    
+    @Override
+    public long getNodesReused() {
+        return nodesReused.sum();
+    }
+    
+    @Override
+    public int getDeepSearchThreshold() {
+        return deepSearchThreshold;
+    }
+    
+    @Override
+    public void setDeepSearchThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold cannot be negative");
+        }
+        deepSearchThreshold = threshold;
+    }
+    
+    @Override
+    public void reset() {
+        searches.reset();
+        searchComparisons.reset();
+        maxSearchComparisons.reset();
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            searchDepthHistogram.set(i, 0);
+        }
+        inserts.reset();
+        insertNodesVisited.reset();
+        deletes.reset();
+        deleteNodesVisited.reset();
+        successorReplacements.reset();
+        nodesAllocated.reset();
+        nodesReused.reset();
+    }
+    
+    /**
+     * Divides a total by a count, treating an empty count as 0
+     */
+    private static double average(LongAdder total, LongAdder count) {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+    
+    // ==================== PUBLISHING OPERATIONS ====================
+    
+    /**
+     * Publishes these metrics on the platform MBeanServer and in the
+     * periodic JFR snapshot event; does nothing if already registered
+     * @throws IllegalStateException if the MBean cannot be registered,
+     *         for example because another instance uses the same name
+     */
+    public synchronized void register() {
+        if (objectName != null) {
+            return;
+        }
+        try {
+            ObjectName candidate = new ObjectName("BinarySearchTree:type=TreeMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, candidate);
+            objectName = candidate;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register metrics '" + name + "'", e);
+        }
+        installPeriodicHook();
+        REGISTERED.add(this);
+    }
+    
+    /**
+     * Removes these metrics from JMX and the JFR snapshot; does nothing if not registered
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        REGISTERED.remove(this);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(objectName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister metrics '" + name + "'", e);
+        } finally {
+            objectName = null;
+        }
+    }
+    
+    /**
+     * Checks whether these metrics are currently published
+     * @return true between register() and unregister()
+     */
+    public synchronized boolean isRegistered() {
+        return objectName != null;
+    }
+    
+    /**
+     * Installs the JFR hook that emits one snapshot event per registered
+     * instance each period; JFR only calls it while a recording enables the event
+     */
+    private static synchronized void installPeriodicHook() {
+        if (!periodicHookInstalled) {
+            FlightRecorder.addPeriodicEvent(SnapshotEvent.class, TreeMetrics::emitSnapshots);
+            periodicHookInstalled = true;
+        }
+    }
+    
+    /**
+     * Emits a snapshot event for every registered instance
+     */
+    private static void emitSnapshots() {
+        for (TreeMetrics metrics : REGISTERED) {
+            SnapshotEvent event = new SnapshotEvent();
+            event.tree = metrics.name;
+            event.searches = metrics.getSearches();
+            event.averageSearchComparisons = metrics.getAverageSearchComparisons();
+            event.maxSearchComparisons = metrics.getMaxSearchComparisons();
+            event.inserts = metrics.getInserts();
+            event.averageInsertNodesVisited = metrics.getAverageInsertNodesVisited();
+            event.deletes = metrics.getDeletes();
+            event.averageDeleteNodesVisited = metrics.getAverageDeleteNodesVisited();
+            event.successorReplacements = metrics.getSuccessorReplacements();
+            event.nodesAllocated = metrics.getNodesAllocated();
+            event.nodesReused = metrics.getNodesReused();
+            event.commit();
+        }
+    }
+    
+    // ==================== JFR EVENTS ====================
+    
+    /**
+     * Periodic copy of the counters of one registered TreeMetrics
+     */
+    @Name("bst.TreeMetrics")
+    @Label("Tree Metrics")
+    @Category("Binary Search Tree")
+    @Description("Cumulative operation counters of a BinarySearchTree")
+    @Period("1 s")
+    @StackTrace(false)
+    static final class SnapshotEvent extends Event {
+        @Label("Tree")
+        String tree;
+        
+        @Label("Searches")
+        long searches;
+        
+        @Label("Average Search Comparisons")
+        double averageSearchComparisons;
+        
+        @Label("Max Search Comparisons")
+        long maxSearchComparisons;
+        
+        @Label("Inserts")
+        long inserts;
+        
+        @Label("Average Insert Nodes Visited")
+        double averageInsertNodesVisited;
+        
+        @Label("Deletes")
+        long deletes;
+        
+        @Label("Average Delete Nodes Visited")
+        double averageDeleteNodesVisited;
+        
+        @Label("Successor Replacements")
+        long successorReplacements;
+        
+        @Label("Nodes Allocated")
+        long nodesAllocated;
+        
+        @Label("Nodes Reused")
+        long nodesReused;
+    }
+    
+    /**
+     * One search that made more comparisons than the deep search threshold;
+     * the stack trace shows which caller hit the deep part of the tree
+     */
+    @Name("bst.DeepSearch")
+    @Label("Deep Search")
+    @Category("Binary Search Tree")
+    @Description("A search that visited more nodes than the configured threshold")
+    static final class DeepSearchEvent extends Event {
+        @Label("Tree")
+        String tree;
+        
+        @Label("Value")
+        int value;
+        
+        @Label("Comparisons")
+        int comparisons;
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Management interface of TreeMetrics, published on the platform
+ * MBeanServer by TreeMetrics.register() so the counters can be read
+ * from JConsole, VisualVM or any other JMX client.
+ * 
+ * Averages are 0 until the first matching operation has been recorded.
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public interface TreeMetricsMXBean {
+    
+    /**
+     * Gets the name the metrics are published under
+     * @return the name given at construction
+     */
+    String getName();
+    
+    /**
+     * Counts the recorded searches
+     * @return the number of searches since creation or the last reset
+     */
+    long getSearches();
+    
+    /**
+     * Counts the key comparisons made by all recorded searches
+     * @return the total number of nodes compared against
+     */
+    long getSearchComparisons();
+    
+    /**
+     * Gets the mean number of comparisons per search
+     * @return total comparisons divided by searches
+     */
+    double getAverageSearchComparisons();
+    
+    /**
+     * Gets the longest search path seen
+     * @return the largest number of comparisons made by one search
+     */
+    long getMaxSearchComparisons();
+    
+    /**
+     * Gets how many searches made each number of comparisons; the last
+     * bucket collects every search at or beyond its index
+     * @return a copy of the histogram indexed by comparisons
+     */
+    long[] getSearchDepthHistogram();
+    
+    /**
+     * Counts the recorded inserts
+     * @return the number of inserts, including ignored duplicates
+     */
+    long getInserts();
+    
+    /**
+     * Counts the existing nodes walked past by all recorded inserts
+     * @return the total number of nodes visited
+     */
+    long getInsertNodesVisited();
+    
+    /**
+     * Gets the mean number of nodes visited per insert
+     * @return total nodes visited divided by inserts
+     */
+    double getAverageInsertNodesVisited();
+    
+    /**
+     * Counts the recorded deletes
+     * @return the number of deletes, including misses
+     */
+    long getDeletes();
+    
+    /**
+     * Counts the nodes visited by all recorded deletes, successor searches included
+     * @return the total number of nodes visited
+     */
+    long getDeleteNodesVisited();
+    
+    /**
+     * Gets the mean number of nodes visited per delete
+     * @return total nodes visited divided by deletes
+     */
+    double getAverageDeleteNodesVisited();
+    
+    /**
+     * Counts deletes of nodes with two children, which copy their inorder
+     * successor into the node and unlink the successor instead
+     * @return the number of successor replacements
+     */
+    long getSuccessorReplacements();
+    
+    /**
+     * Counts nodes inserts had to allocate; flat while a warmed-up node pool
+     * absorbs the churn
+     * @return the number of allocated nodes
+     */
+    long getNodesAllocated();
+    
+    /**
+     * Counts nodes inserts took from the node pool instead of allocating
+     * @return the number of reused nodes
+     */
+    long getNodesReused();
+    
+    /**
+     * Gets the comparison count above which a search emits a JFR event
+     * @return the deep search threshold
+     */
+    int getDeepSearchThreshold();
+    
+    /**
+     * Sets the comparison count above which a search emits a JFR event
+     * @param threshold the new threshold (not negative)
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    void setDeepSearchThreshold(int threshold);
+    
+    /**
+     * Clears every counter and the histogram
+     */
+    void reset();
+}
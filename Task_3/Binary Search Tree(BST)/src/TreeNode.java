@@ -15,7 +15,19 @@ public class TreeNode {
     
     /** Reference to the right child node (contains values larger than this node's value) */
     TreeNode right;
-
+    
+    /** Height of the subtree rooted at this node (0 for a leaf), used for AVL rebalancing */
+    int height;
+    
+    /**
+     * Number of values in the subtree rooted at this node (1 for a leaf), used for
+     * order statistics; counts every occurrence when the tree is a multiset
+     */
+    int size;
+    
+    /** Number of occurrences of this node's value (always 1 unless the tree is a multiset) */
+    int count;
+    
     /**
      * Constructor to create a new TreeNode with the specified value.
      * Initializes left and right children to null.
@@ -26,8 +38,11 @@ public class TreeNode {
         this.value = value;
         this.left = null;
         this.right = null;
+        this.height = 0;
+        this.size = 1;
+        this.count = 1;
     }
-
+    
     /**
      * Returns a string representation of this node.
      * Useful for debugging and display purposes.
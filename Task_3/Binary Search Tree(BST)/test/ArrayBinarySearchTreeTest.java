@@ -0,0 +1,185 @@
+import java.util.Random;
+
+/**
+ * Test suite for the array-backed Binary Search Tree.
+ * Checks the primitive-array layout against the object-per-node
+ * BinarySearchTree, which serves as the reference implementation.
+ * 
+ * Test Coverage:
+ * - Basic operations: insert, search, delete, min/max, empty tree
+ * - Slot reuse: deleted slots are recycled instead of growing the arrays
+ * - Randomized comparison with BinarySearchTree in both balance modes
+ * - Memory footprint: array layout is smaller than the object layout
+ * - Capacity growth: doubling is capped instead of overflowing past 2^30
+ * 
+ * Usage:
+ * 1. Compile: javac -cp src test/*.java
+ * 2. Run: java -ea -cp src:test ArrayBinarySearchTreeTest
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class ArrayBinarySearchTreeTest {
+    
+    /**
+     * Test insert, search and delete on a small tree
+     */
+    public void testBasicOperations() {
+        ArrayBinarySearchTree tree = new ArrayBinarySearchTree();
+        assert tree.isEmpty() : "New tree should be empty";
+        assert tree.getHeight() == -1 : "Empty tree should have height -1";
+        
+        int[] values = {50, 30, 70, 20, 40, 60, 80};
+        for (int value : values) {
+            tree.insert(value);
+        }
+        tree.insert(50); // Duplicate should be ignored
+        
+        assert tree.getSize() == 7 : "Size should match distinct insertions";
+        assert tree.getHeight() == 2 : "Tree should have height 2";
+        assert tree.findMin() == 20 && tree.findMax() == 80 : "Should find min and max";
+        assert tree.select(3) == 50 && tree.rank(45) == 3 : "Order statistics should work";
+        
+        tree.delete(30); // Two children
+        tree.delete(20); // Leaf
+        tree.delete(99); // Missing
+        assert !tree.search(30) && !tree.search(20) : "Deleted values should be gone";
+        assert tree.search(40) && tree.search(80) : "Other values should remain";
+        assert tree.getSize() == 5 : "Size should drop after deletions";
+    }
+    
+    /**
+     * Test that deleted slots are reused before the arrays grow
+     */
+    public void testSlotReuse() {
+        ArrayBinarySearchTree tree = new ArrayBinarySearchTree(BinarySearchTree.BalanceMode.AVL, 64);
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 64; i++) {
+                tree.insert(round * 64 + i);
+            }
+            for (int i = 0; i < 64; i++) {
+                tree.delete(round * 64 + i);
+            }
+        }
+        
+        assert tree.isEmpty() : "Tree should be empty after deleting everything";
+        assert tree.getCapacity() == 64 : "Churn should reuse slots, capacity was " + tree.getCapacity();
+    }
+    
+    /**
+     * Test a random operation sequence against the reference tree
+     */
+    public void testMatchesReferenceTree() {
+        BinarySearchTree.BalanceMode[] modes = {BinarySearchTree.BalanceMode.NONE, BinarySearchTree.BalanceMode.AVL};
+        for (BinarySearchTree.BalanceMode mode : modes) {
+            BinarySearchTree reference = new BinarySearchTree(mode);
+            ArrayBinarySearchTree tree = new ArrayBinarySearchTree(mode);
+            Random random = new Random(42);
+            
+            for (int i = 0; i < 20000; i++) {
+                int value = random.nextInt(2000);
+                if (random.nextInt(3) == 0) {
+                    reference.delete(value);
+                    tree.delete(value);
+                } else {
+                    reference.insert(value);
+                    tree.insert(value);
+                }
+                assert tree.search(value) == reference.search(value) : "Membership mismatch for " + value;
+            }
+            
+            assert tree.getSize() == reference.getSize() : "Size mismatch in mode " + mode;
+            assert tree.getHeight() == reference.getHeight() : "Height mismatch in mode " + mode;
+            for (int k = 0; k < tree.getSize(); k++) {
+                assert tree.select(k) == reference.select(k) : "select(" + k + ") mismatch in mode " + mode;
+            }
+        }
+    }
+    
+    /**
+     * Test that the array layout reports a smaller footprint than the object layout
+     */
+    public void testMemoryFootprint() {
+        int n = 100000;
+        BinarySearchTree objects = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        ArrayBinarySearchTree arrays = new ArrayBinarySearchTree(BinarySearchTree.BalanceMode.AVL, n);
+        for (int i = 0; i < n; i++) {
+            objects.insert(i);
+            arrays.insert(i);
+        }
+        
+        long objectBytes = objects.estimateMemoryFootprint();
+        long arrayBytes = arrays.estimateMemoryFootprint();
+        System.out.println("Footprint for " + n + " keys: objects=" + objectBytes + " bytes, arrays=" + arrayBytes + " bytes");
+        assert arrayBytes < objectBytes : "Array layout should be smaller than the object layout";
+    }
+    
+    /**
+     * Test that empty tree min/max throw
+     */
+    public void testEmptyTreeExceptions() {
+        ArrayBinarySearchTree tree = new ArrayBinarySearchTree();
+        try {
+            tree.findMin();
+            assert false : "Should throw exception for empty tree";
+        } catch (IllegalStateException e) {
+            // Expected behavior
+        }
+        try {
+            tree.findMax();
+            assert false : "Should throw exception for empty tree";
+        } catch (IllegalStateException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Test that growing the arrays caps at MAX_CAPACITY instead of overflowing
+     */
+    public void testGrowthCap() {
+        assert ArrayBinarySearchTree.grownCapacity(0) == 16 : "Empty arrays grow to the default capacity";
+        assert ArrayBinarySearchTree.grownCapacity(1000) == 2000 : "Small arrays double";
+        assert ArrayBinarySearchTree.grownCapacity(1 << 30) == ArrayBinarySearchTree.MAX_CAPACITY
+                : "Doubling past 2^30 should be capped, not overflow";
+        assert ArrayBinarySearchTree.grownCapacity(ArrayBinarySearchTree.MAX_CAPACITY - 1)
+                == ArrayBinarySearchTree.MAX_CAPACITY : "The last step should reach the cap";
+        try {
+            ArrayBinarySearchTree.grownCapacity(ArrayBinarySearchTree.MAX_CAPACITY);
+            assert false : "Should refuse to grow past the cap";
+        } catch (IllegalStateException e) {
+            // Expected behavior
+        }
+        try {
+            new ArrayBinarySearchTree(BinarySearchTree.BalanceMode.SPLAY, 0);
+            assert false : "Splay mode should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Runs all tests
+     */
+    public static void main(String[] args) {
+        ArrayBinarySearchTreeTest tester = new ArrayBinarySearchTreeTest();
+        
+        System.out.println("=== Array Binary Search Tree Test Suite ===\n");
+        
+        try {
+            tester.testBasicOperations();
+            tester.testSlotReuse();
+            tester.testMatchesReferenceTree();
+            tester.testMemoryFootprint();
+            tester.testEmptyTreeExceptions();
+            tester.testGrowthCap();
+            
+            System.out.println("🎉 ALL TESTS PASSED! 🎉");
+        } catch (AssertionError e) {
+            System.err.println("❌ TEST FAILED: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("❌ UNEXPECTED ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
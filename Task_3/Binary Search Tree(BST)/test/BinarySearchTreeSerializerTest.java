@@ -0,0 +1,209 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test suite for saving and restoring trees with BinarySearchTreeSerializer.
+ * 
+ * Test Coverage:
+ * - Round trips: empty tree, extreme values, random sparse and dense key sets
+ * - Restored shape: trees come back perfectly balanced in the requested mode
+ * - Large snapshots: multi-million keys through a file, with timing
+ * - Corruption: bad signature, unknown version, flipped bytes, truncation
+ * - Forged counts: huge header counts fail with IOException, not OutOfMemoryError
+ * 
+ * Usage:
+ * 1. Compile: javac -cp src test/*.java
+ * 2. Run: java -ea -cp src:test BinarySearchTreeSerializerTest
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class BinarySearchTreeSerializerTest {
+    
+    /**
+     * Serializes a tree into a byte array
+     */
+    private static byte[] save(BinarySearchTree tree) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySearchTreeSerializer.write(tree, Channels.newChannel(out));
+        return out.toByteArray();
+    }
+    
+    /**
+     * Restores a tree from a byte array
+     */
+    private static BinarySearchTree load(byte[] bytes) throws IOException {
+        return BinarySearchTreeSerializer.read(Channels.newChannel(new ByteArrayInputStream(bytes)),
+                BinarySearchTree.BalanceMode.AVL);
+    }
+    
+    /**
+     * Test round trips of small and unusual key sets
+     */
+    public void testRoundTrip() throws IOException {
+        BinarySearchTree empty = new BinarySearchTree();
+        assert load(save(empty)).isEmpty() : "Empty tree should round-trip";
+        
+        BinarySearchTree extremes = new BinarySearchTree();
+        for (int value : new int[] {Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE}) {
+            extremes.insert(value);
+        }
+        assert Arrays.equals(load(save(extremes)).toSortedArray(), extremes.toSortedArray()) : "Extremes should round-trip";
+        
+        Random random = new Random(1);
+        BinarySearchTree sparse = new BinarySearchTree();
+        for (int i = 0; i < 10000; i++) {
+            sparse.insert(random.nextInt());
+        }
+        BinarySearchTree restored = load(save(sparse));
+        assert Arrays.equals(restored.toSortedArray(), sparse.toSortedArray()) : "Random keys should round-trip";
+        assert restored.getBalanceMode() == BinarySearchTree.BalanceMode.AVL : "Restored tree uses the requested mode";
+        assert restored.getHeight() < sparse.getHeight() : "Restored tree should be perfectly balanced";
+        
+        BinarySearchTree multiset = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL, true);
+        multiset.insert(1);
+        try {
+            save(multiset);
+            assert false : "Multisets cannot be stored in version 1";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Test that dense keys cost about one byte each
+     */
+    public void testDenseEncoding() throws IOException {
+        int n = 100000;
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = 1_000_000 + 3 * i;
+        }
+        byte[] bytes = save(BinarySearchTree.fromSorted(values, BinarySearchTree.BalanceMode.NONE));
+        assert bytes.length < n + 32 : "Small gaps should take one byte each, got " + bytes.length;
+        assert Arrays.equals(load(bytes).toSortedArray(), values) : "Dense keys should round-trip";
+    }
+    
+    /**
+     * Test a multi-million key snapshot through a file
+     */
+    public void testLargeFileRoundTrip() throws IOException {
+        int n = 5_000_000;
+        Random random = new Random(2);
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextInt();
+        }
+        BinarySearchTree tree = BinarySearchTree.fromArray(values, BinarySearchTree.BalanceMode.AVL);
+        Path file = Files.createTempFile("bst", ".snapshot");
+        try {
+            long start = System.nanoTime();
+            BinarySearchTreeSerializer.write(tree, file);
+            long written = System.nanoTime();
+            BinarySearchTree restored = BinarySearchTreeSerializer.read(file, BinarySearchTree.BalanceMode.AVL);
+            long read = System.nanoTime();
+            
+            System.out.printf("%d keys: %d bytes, write %d ms, read %d ms%n", tree.getSize(), Files.size(file),
+                    (written - start) / 1_000_000, (read - written) / 1_000_000);
+            assert restored.getSize() == tree.getSize() : "Size should survive the round trip";
+            assert Arrays.equals(restored.toSortedArray(), tree.toSortedArray()) : "Contents should survive the round trip";
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    /**
+     * Test that damaged snapshots are rejected
+     */
+    public void testCorruptionDetected() throws IOException {
+        BinarySearchTree tree = new BinarySearchTree();
+        for (int i = 0; i < 1000; i++) {
+            tree.insert(i * 7);
+        }
+        byte[] good = save(tree);
+        
+        byte[] badMagic = good.clone();
+        badMagic[0] ^= 1;
+        byte[] badVersion = good.clone();
+        badVersion[4] = 99;
+        byte[] flipped = good.clone();
+        flipped[good.length / 2] ^= 0x01;
+        byte[] truncated = Arrays.copyOf(good, good.length - 3);
+        
+        for (byte[] bytes : new byte[][] {badMagic, badVersion, flipped, truncated}) {
+            try {
+                load(bytes);
+                assert false : "Should reject a damaged snapshot";
+            } catch (IOException e) {
+                // Expected behavior
+            }
+        }
+    }
+    
+    /**
+     * Test that a header claiming far more values than the data holds is
+     * rejected before the value array is allocated, from a file and a stream
+     */
+    public void testForgedCountRejected() throws IOException {
+        BinarySearchTree tree = new BinarySearchTree();
+        for (int i = 0; i < 100; i++) {
+            tree.insert(i);
+        }
+        byte[] forged = save(tree);
+        for (int count : new int[] {Integer.MAX_VALUE, Integer.MAX_VALUE - 8, 1 << 28, 101}) {
+            forged[8] = (byte) count;
+            forged[9] = (byte) (count >>> 8);
+            forged[10] = (byte) (count >>> 16);
+            forged[11] = (byte) (count >>> 24);
+            
+            try {
+                load(forged);
+                assert false : "Stream: count " + count + " should be rejected";
+            } catch (IOException e) {
+                // Expected behavior
+            }
+            
+            Path file = Files.createTempFile("bst", ".snapshot");
+            try {
+                Files.write(file, forged);
+                BinarySearchTreeSerializer.read(file, BinarySearchTree.BalanceMode.AVL);
+                assert false : "File: count " + count + " should be rejected";
+            } catch (IOException e) {
+                // Expected behavior
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+    
+    /**
+     * Runs all tests
+     */
+    public static void main(String[] args) {
+        BinarySearchTreeSerializerTest tester = new BinarySearchTreeSerializerTest();
+        
+        System.out.println("=== Binary Search Tree Serializer Test Suite ===\n");
+        
+        try {
+            tester.testRoundTrip();
+            tester.testDenseEncoding();
+            tester.testLargeFileRoundTrip();
+            tester.testCorruptionDetected();
+            tester.testForgedCountRejected();
+            
+            System.out.println("🎉 ALL TESTS PASSED! 🎉");
+        } catch (AssertionError e) {
+            System.err.println("❌ TEST FAILED: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("❌ UNEXPECTED ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -1,3 +1,15 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IntSummaryStatistics;
+import java.util.NoSuchElementException;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+
 /**
  * Comprehensive test suite for Binary Search Tree implementation.
  * Tests all major operations including insertion, deletion, search, and traversals.
@@ -7,7 +19,19 @@
  * - Search: Existing values, non-existing values, empty tree
  * - Deletion: Leaf nodes, single child, two children, root deletion
  * - Utility: isEmpty, getSize, getHeight, findMin, findMax
- * - Traversals: Inorder, preorder, postorder
+ * - Traversals: Inorder, preorder, postorder, level order, consumers, iterator and calls made from callbacks
+ * - Balancing: AVL mode under sorted and adversarial insert orders
+ * - Order statistics: select (k-th smallest) and rank
+ * - Bulk build: sorted, unsorted, parallel and bulk insert into a populated tree
+ * - Range queries: floor, ceiling, higher, lower, rangeCount, rangeScan
+ * - Multiset mode: per-value counts, multiplicity-aware rank/select/size
+ * - Splay mode: accessed keys move to the root, results match the plain tree,
+ *   traversals and iterators survive searches made while they run
+ * - Batch search: searchAll matches per-key search, sequential and parallel
+ * - Split/join and set operations: contents, counts, cached shape data, balance
+ * - Range deletion: deleteRange, deleteBelow, deleteAbove and their removal counts
+ * - Node recycling: pooled trees match plain ones, pool bound, allocation-free churn
+ * - Parallel aggregation: fork/join sum, statistics, reducers, collectors
  * - Stress testing: Large datasets (100+ nodes)
  * - Edge cases: Empty tree operations, exception handling
  * 
@@ -361,16 +385,1374 @@ public class BinarySearchTreeTest {
         // Expected output: 20 40 30 60 80 70 50
     }
     
+    /**
+     * Collects the values pushed to a consumer into an array
+     */
+    private static final class Collector implements IntConsumer {
+        /** Values received so far */
+        final int[] values;
+        
+        /** Number of values received */
+        int count;
+        
+        Collector(int capacity) {
+            values = new int[capacity];
+        }
+        
+        @Override
+        public void accept(int value) {
+            values[count++] = value;
+        }
+        
+        int[] toArray() {
+            return Arrays.copyOf(values, count);
+        }
+    }
+    
+    /**
+     * Test all four consumer traversals against the known orders
+     */
+    public void testConsumerTraversals() {
+        setUp();
+        int[] values = {50, 30, 70, 20, 40, 60, 80};
+        for (int value : values) {
+            bst.insert(value);
+        }
+        
+        Collector inorder = new Collector(values.length);
+        bst.forEachInorder(inorder);
+        assert Arrays.equals(inorder.toArray(), new int[] {20, 30, 40, 50, 60, 70, 80}) : "Wrong inorder";
+        
+        Collector preorder = new Collector(values.length);
+        bst.forEachPreorder(preorder);
+        assert Arrays.equals(preorder.toArray(), new int[] {50, 30, 20, 40, 70, 60, 80}) : "Wrong preorder";
+        
+        Collector postorder = new Collector(values.length);
+        bst.forEachPostorder(postorder);
+        assert Arrays.equals(postorder.toArray(), new int[] {20, 40, 30, 60, 80, 70, 50}) : "Wrong postorder";
+        
+        Collector levelOrder = new Collector(values.length);
+        bst.forEachLevelOrder(levelOrder);
+        assert Arrays.equals(levelOrder.toArray(), values) : "Wrong level order";
+    }
+    
+    /**
+     * Test level order on a wide tree that forces the ring buffer to grow
+     */
+    public void testLevelOrderWideTree() {
+        int n = 4095;
+        int[] sorted = new int[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = i;
+        }
+        BinarySearchTree full = BinarySearchTree.fromSorted(sorted, BinarySearchTree.BalanceMode.NONE);
+        
+        Collector levelOrder = new Collector(n);
+        full.forEachLevelOrder(levelOrder);
+        assert levelOrder.count == n : "Level order should visit every node";
+        assert levelOrder.values[0] == 2047 : "Root of a perfect tree is the middle value";
+        assert levelOrder.values[n - 1] == n - 1 : "Last level ends with the maximum";
+        assert levelOrder.values[n - 2048] == 0 : "Last level starts with the minimum";
+    }
+    
+    /**
+     * Test the primitive iterator yields sorted values and then stops
+     */
+    public void testIterator() {
+        setUp();
+        assert !bst.iterator().hasNext() : "Empty tree iterator should be exhausted";
+        
+        for (int i = 0; i < 100; i++) {
+            bst.insert((i * 37) % 100);
+        }
+        
+        PrimitiveIterator.OfInt iterator = bst.iterator();
+        for (int expected = 0; expected < 100; expected++) {
+            assert iterator.hasNext() : "Iterator ended early at " + expected;
+            assert iterator.nextInt() == expected : "Iterator out of order at " + expected;
+        }
+        assert !iterator.hasNext() : "Iterator should be exhausted";
+        
+        try {
+            iterator.nextInt();
+            assert false : "Should throw exception past the end";
+        } catch (NoSuchElementException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Test that a consumer may start another traversal of the same tree
+     */
+    public void testNestedTraversal() {
+        setUp();
+        for (int value : new int[] {2, 1, 3}) {
+            bst.insert(value);
+        }
+        
+        int[] pairs = {0};
+        bst.forEachInorder(outer -> bst.forEachInorder(inner -> pairs[0]++));
+        assert pairs[0] == 9 : "Nested traversal should see every pair";
+    }
+    
+    /**
+     * Test that snapshot and bulk-load calls made from a traversal callback
+     * leave the running traversal intact
+     */
+    public void testSnapshotsDuringTraversal() {
+        int[] keys = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15};
+        BinarySearchTree tree = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        tree.insertAll(keys);
+        
+        Collector visited = new Collector(keys.length);
+        tree.forEachInorder(value -> {
+            assert Arrays.equals(tree.toSortedArray(), keys) : "Nested toSortedArray should see every key";
+            visited.accept(value);
+        });
+        assert Arrays.equals(visited.toArray(), keys) : "toSortedArray cut the traversal short: " + Arrays.toString(visited.toArray());
+        
+        visited.count = 0;
+        tree.forEachInorder(value -> {
+            assert tree.freeze().getSize() == keys.length : "Nested freeze should see every key";
+            visited.accept(value);
+        });
+        assert Arrays.equals(visited.toArray(), keys) : "freeze cut the traversal short: " + Arrays.toString(visited.toArray());
+        
+        // insertAll rebuilds the tree from fresh nodes, so the old nodes the traversal holds stay intact
+        visited.count = 0;
+        tree.rangeScan(1, 15, value -> {
+            tree.insertAll(new int[] {value});
+            visited.accept(value);
+        });
+        assert Arrays.equals(visited.toArray(), keys) : "insertAll cut the range scan short: " + Arrays.toString(visited.toArray());
+        assert Arrays.equals(tree.toSortedArray(), keys) : "Re-inserting existing keys should change nothing";
+    }
+    
+    /**
+     * Test every callback-driven traversal against calls that walk the tree
+     * from inside the callback: snapshots, and inserts/deletes that record
+     * a path without changing the tree
+     */
+    public void testTreeCallsDuringEachTraversal() {
+        int[] keys = new int[63];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i + 1;
+        }
+        BinarySearchTree tree = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        tree.insertAll(keys);
+        IntConsumer nestedCalls = value -> {
+            assert tree.toSortedArray().length == keys.length : "Nested toSortedArray should see every key";
+            assert tree.freeze().search(value) : "Nested freeze should see the current key";
+            tree.insert(value); // Already present
+            tree.delete(-value); // Absent
+        };
+        
+        for (int order = 0; order < 5; order++) {
+            Collector visited = new Collector(keys.length);
+            final int traversal = order;
+            IntConsumer action = value -> {
+                nestedCalls.accept(value);
+                assert visited.count < keys.length : "Traversal " + traversal + " revisited keys";
+                visited.accept(value);
+            };
+            if (order == 0) {
+                tree.forEachInorder(action);
+            } else if (order == 1) {
+                tree.forEachPreorder(action);
+            } else if (order == 2) {
+                tree.forEachPostorder(action);
+            } else if (order == 3) {
+                tree.forEachLevelOrder(action);
+            } else {
+                tree.rangeScan(1, keys.length, action);
+            }
+            int[] seen = visited.toArray();
+            Arrays.sort(seen);
+            assert Arrays.equals(seen, keys) : "Traversal " + order + " should visit every key once";
+        }
+        assert Arrays.equals(tree.toSortedArray(), keys) : "The nested calls should not change the contents";
+    }
+    
     // ==================== PROPERTY TESTS ====================
     
     /**
      * Helper method to verify BST property is maintained
      */
     private void testBSTProperty() {
-        // This would require access to the tree structure
-        // For now, we verify by checking that inorder traversal is sorted
-        System.out.println("Verifying BST property with inorder traversal:");
-        bst.inorderTraversal();
+        // Verify by checking that the inorder sequence is strictly ascending
+        PrimitiveIterator.OfInt iterator = bst.iterator();
+        int count = 0;
+        long previous = Long.MIN_VALUE;
+        while (iterator.hasNext()) {
+            int value = iterator.nextInt();
+            assert value > previous : "Inorder sequence should be strictly ascending at " + value;
+            previous = value;
+            count++;
+        }
+        assert count == bst.getSize() : "Inorder traversal should visit every node";
+    }
+    
+    // ==================== BALANCING TESTS ====================
+    
+    /**
+     * Upper bound on AVL height for n nodes: 1.44 * log2(n + 2)
+     */
+    private static int avlHeightBound(int n) {
+        return (int) Math.floor(1.4405 * (Math.log(n + 2) / Math.log(2)));
+    }
+    
+    /**
+     * Test that AVL mode stays logarithmic for ascending insertions
+     */
+    public void testBalancedSortedInsert() {
+        BinarySearchTree avl = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        int n = 10000;
+        for (int i = 1; i <= n; i++) {
+            avl.insert(i);
+        }
+        
+        assert avl.getSize() == n : "Size should match number of insertions";
+        assert avl.getHeight() <= avlHeightBound(n) : "AVL height too large: " + avl.getHeight();
+        assert avl.findMin() == 1 : "Should find minimum value";
+        assert avl.findMax() == n : "Should find maximum value";
+        for (int i = 1; i <= n; i++) {
+            assert avl.search(i) : "Should find value: " + i;
+        }
+    }
+    
+    /**
+     * Test that AVL mode stays logarithmic for zig-zag and descending insertions
+     */
+    public void testBalancedAdversarialInsert() {
+        BinarySearchTree avl = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        int n = 5000;
+        // Alternate between the low and high ends to force double rotations
+        for (int i = 0; i < n / 2; i++) {
+            avl.insert(i);
+            avl.insert(n - 1 - i);
+        }
+        for (int i = -1; i >= -n; i--) {
+            avl.insert(i);
+        }
+        
+        assert avl.getSize() == 2 * n : "Size should match number of insertions";
+        assert avl.getHeight() <= avlHeightBound(2 * n) : "AVL height too large: " + avl.getHeight();
+        assert avl.search(-n) && avl.search(n - 1) : "Should find boundary values";
+    }
+    
+    /**
+     * Test that AVL mode stays balanced while deleting
+     */
+    public void testBalancedDelete() {
+        BinarySearchTree avl = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        int n = 4096;
+        for (int i = 0; i < n; i++) {
+            avl.insert(i);
+        }
+        
+        // Remove the whole lower half plus every third remaining value
+        for (int i = 0; i < n / 2; i++) {
+            avl.delete(i);
+        }
+        for (int i = n / 2; i < n; i += 3) {
+            avl.delete(i);
+        }
+        
+        int remaining = 0;
+        for (int i = 0; i < n; i++) {
+            boolean expected = i >= n / 2 && (i - n / 2) % 3 != 0;
+            assert avl.search(i) == expected : "Unexpected membership for " + i;
+            if (expected) {
+                remaining++;
+            }
+        }
+        assert avl.getSize() == remaining : "Size should match remaining values";
+        assert avl.getHeight() <= avlHeightBound(remaining) : "AVL height too large: " + avl.getHeight();
+    }
+    
+    /**
+     * Test that the default constructor keeps the original unbalanced behavior
+     */
+    public void testDefaultModeIsUnbalanced() {
+        setUp();
+        assert bst.getBalanceMode() == BinarySearchTree.BalanceMode.NONE : "Default mode should be NONE";
+        
+        for (int i = 1; i <= 10; i++) {
+            bst.insert(i);
+        }
+        assert bst.getHeight() == 9 : "Sorted inserts should form a chain without balancing";
+    }
+    
+    // ==================== ORDER STATISTICS TESTS ====================
+    
+    /**
+     * Test select returns values in sorted order
+     */
+    public void testSelect() {
+        setUp();
+        int[] values = {50, 30, 70, 20, 40, 60, 80};
+        for (int value : values) {
+            bst.insert(value);
+        }
+        
+        int[] sorted = {20, 30, 40, 50, 60, 70, 80};
+        for (int k = 0; k < sorted.length; k++) {
+            assert bst.select(k) == sorted[k] : "select(" + k + ") should be " + sorted[k];
+        }
+        
+        try {
+            bst.select(sorted.length);
+            assert false : "Should throw exception for rank past the end";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Test rank counts strictly smaller values, present or not
+     */
+    public void testRank() {
+        setUp();
+        assert bst.rank(10) == 0 : "Empty tree should have rank 0 everywhere";
+        
+        int[] values = {50, 30, 70, 20, 40, 60, 80};
+        for (int value : values) {
+            bst.insert(value);
+        }
+        
+        assert bst.rank(20) == 0 : "Minimum should have rank 0";
+        assert bst.rank(45) == 3 : "Three values are below 45";
+        assert bst.rank(80) == 6 : "Maximum should have rank size - 1";
+        assert bst.rank(1000) == 7 : "All values are below 1000";
+        assert bst.select(bst.rank(60)) == 60 : "select(rank(x)) should be x";
+    }
+    
+    /**
+     * Test that cached sizes stay correct through rotations and deletions
+     */
+    public void testOrderStatisticsAfterUpdates() {
+        BinarySearchTree avl = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        int n = 2000;
+        for (int i = 0; i < n; i++) {
+            avl.insert((i * 7919) % n);
+        }
+        // Keep only the even values
+        for (int i = 1; i < n; i += 2) {
+            avl.delete(i);
+        }
+        
+        assert avl.getSize() == n / 2 : "Size should count remaining values";
+        for (int k = 0; k < n / 2; k++) {
+            assert avl.select(k) == 2 * k : "select(" + k + ") should be " + (2 * k);
+            assert avl.rank(2 * k) == k : "rank(" + (2 * k) + ") should be " + k;
+            assert avl.rank(2 * k + 1) == k + 1 : "rank(" + (2 * k + 1) + ") should be " + (k + 1);
+        }
+    }
+    
+    // ==================== BULK BUILD TESTS ====================
+    
+    /**
+     * Test building from sorted input gives a minimal-height tree
+     */
+    public void testFromSorted() {
+        int n = 1000;
+        int[] sorted = new int[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = i * 2;
+        }
+        
+        BinarySearchTree built = BinarySearchTree.fromSorted(sorted, BinarySearchTree.BalanceMode.NONE);
+        assert built.getSize() == n : "Size should match input length";
+        assert built.getHeight() == 9 : "1000 nodes should fit in height floor(log2 1000) = 9";
+        assert Arrays.equals(built.toSortedArray(), sorted) : "Contents should match input";
+        
+        try {
+            BinarySearchTree.fromSorted(new int[] {1, 3, 2}, BinarySearchTree.BalanceMode.NONE);
+            assert false : "Should reject unsorted input";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Test building from unsorted input with duplicates
+     */
+    public void testFromArray() {
+        int[] values = {40, 10, 30, 10, 20, 40, 50};
+        BinarySearchTree built = BinarySearchTree.fromArray(values, BinarySearchTree.BalanceMode.AVL);
+        
+        assert built.getSize() == 5 : "Duplicates should be dropped";
+        assert Arrays.equals(built.toSortedArray(), new int[] {10, 20, 30, 40, 50}) : "Contents should be sorted and distinct";
+        assert values[0] == 40 : "Input array should not be modified";
+        
+        // The built tree should keep working as a normal AVL tree
+        built.insert(60);
+        built.delete(30);
+        assert built.search(60) && !built.search(30) : "Updates after bulk build should work";
+    }
+    
+    /**
+     * Test that the parallel build produces the same tree as the sequential build
+     */
+    public void testParallelBuild() {
+        int n = 300000;
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = (int) ((i * 2654435761L) % 1000003);
+        }
+        
+        BinarySearchTree sequential = BinarySearchTree.fromArray(values, BinarySearchTree.BalanceMode.AVL, false);
+        BinarySearchTree parallel = BinarySearchTree.fromArray(values, BinarySearchTree.BalanceMode.AVL, true);
+        
+        assert parallel.getSize() == sequential.getSize() : "Sizes should match";
+        assert parallel.getHeight() == sequential.getHeight() : "Heights should match";
+        assert Arrays.equals(parallel.toSortedArray(), sequential.toSortedArray()) : "Contents should match";
+    }
+    
+    /**
+     * Test bulk insert into a tree that already has values
+     */
+    public void testInsertAll() {
+        setUp();
+        bst.insert(5);
+        bst.insert(1);
+        bst.insertAll(new int[] {9, 3, 5, 7, 3});
+        
+        assert Arrays.equals(bst.toSortedArray(), new int[] {1, 3, 5, 7, 9}) : "Should merge without duplicates";
+        assert bst.getHeight() == 2 : "Merged tree should be rebuilt balanced";
+    }
+    
+    // ==================== RANGE QUERY TESTS ====================
+    
+    /**
+     * Test floor, ceiling, higher and lower around present and missing values
+     */
+    public void testFloorCeilingHigherLower() {
+        setUp();
+        assert !bst.floor(10).isPresent() : "Empty tree should have no floor";
+        
+        int[] values = {50, 30, 70, 20, 40, 60, 80};
+        for (int value : values) {
+            bst.insert(value);
+        }
+        
+        assert bst.floor(45).equals(OptionalInt.of(40)) : "floor(45) should be 40";
+        assert bst.floor(40).equals(OptionalInt.of(40)) : "floor of a present value is itself";
+        assert !bst.floor(19).isPresent() : "Nothing is <= 19";
+        assert bst.ceiling(45).equals(OptionalInt.of(50)) : "ceiling(45) should be 50";
+        assert bst.ceiling(20).equals(OptionalInt.of(20)) : "ceiling of a present value is itself";
+        assert !bst.ceiling(81).isPresent() : "Nothing is >= 81";
+        assert bst.higher(50).equals(OptionalInt.of(60)) : "Successor of 50 should be 60";
+        assert !bst.higher(80).isPresent() : "Maximum has no successor";
+        assert bst.lower(50).equals(OptionalInt.of(40)) : "Predecessor of 50 should be 40";
+        assert !bst.lower(20).isPresent() : "Minimum has no predecessor";
+    }
+    
+    /**
+     * Test counting values in closed ranges, including extreme bounds
+     */
+    public void testRangeCount() {
+        setUp();
+        int[] values = {50, 30, 70, 20, 40, 60, 80};
+        for (int value : values) {
+            bst.insert(value);
+        }
+        
+        assert bst.rangeCount(30, 60) == 4 : "30, 40, 50, 60 are in [30, 60]";
+        assert bst.rangeCount(31, 39) == 0 : "Nothing in [31, 39]";
+        assert bst.rangeCount(60, 30) == 0 : "Empty range when lo > hi";
+        assert bst.rangeCount(Integer.MIN_VALUE, Integer.MAX_VALUE) == 7 : "Full range counts everything";
+    }
+    
+    /**
+     * Test that rangeScan reports exactly the values in range, in order
+     */
+    public void testRangeScan() {
+        BinarySearchTree avl = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        for (int i = 0; i < 1000; i++) {
+            avl.insert(i * 3);
+        }
+        
+        int[] seen = new int[1000];
+        int[] count = {0};
+        avl.rangeScan(100, 200, value -> seen[count[0]++] = value);
+        
+        assert count[0] == avl.rangeCount(100, 200) : "Scan and count should agree";
+        for (int i = 0; i < count[0]; i++) {
+            assert seen[i] >= 100 && seen[i] <= 200 : "Value out of range: " + seen[i];
+            assert i == 0 || seen[i] > seen[i - 1] : "Values should be ascending";
+        }
+        assert seen[0] == 102 && seen[count[0] - 1] == 198 : "Scan should start and end at the range boundaries";
+    }
+    
+    // ==================== MULTISET TESTS ====================
+    
+    /**
+     * Test that a multiset counts duplicates on one node per distinct value
+     */
+    public void testMultisetCounts() {
+        BinarySearchTree multiset = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL, true);
+        assert multiset.isMultiset() && !new BinarySearchTree().isMultiset() : "Mode should be reported";
+        for (int value : new int[] {5, 3, 5, 8, 5, 3}) {
+            multiset.insert(value);
+        }
+        
+        assert multiset.count(5) == 3 && multiset.count(3) == 2 && multiset.count(8) == 1 : "Counts per value";
+        assert multiset.count(4) == 0 : "Absent values have count 0";
+        assert multiset.getSize() == 6 : "Size should include every occurrence";
+        assert multiset.getHeight() == 1 : "Three distinct values need only three nodes";
+        assert Arrays.equals(multiset.toSortedArray(), new int[] {3, 3, 5, 5, 5, 8}) : "Sorted array repeats values";
+        
+        multiset.delete(5);
+        assert multiset.count(5) == 2 && multiset.getSize() == 5 : "Delete removes one occurrence";
+        multiset.delete(8);
+        multiset.delete(3);
+        multiset.delete(3);
+        assert !multiset.search(3) && !multiset.search(8) : "Last occurrence removes the value";
+        assert multiset.getSize() == 2 && multiset.findMin() == 5 : "Only 5 should remain, twice";
+        
+        BinarySearchTree set = new BinarySearchTree();
+        set.insert(1);
+        set.insert(1);
+        assert set.count(1) == 1 && set.getSize() == 1 : "Set mode still ignores duplicates";
+    }
+    
+    /**
+     * Test that rank, select, range queries and traversals respect multiplicity
+     */
+    public void testMultisetOrderStatistics() {
+        BinarySearchTree multiset = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL, true);
+        multiset.insertAll(new int[] {10, 20, 20, 30, 30, 30});
+        
+        assert multiset.rank(20) == 1 && multiset.rank(30) == 3 && multiset.rank(31) == 6 : "Rank counts occurrences";
+        int[] expected = {10, 20, 20, 30, 30, 30};
+        for (int k = 0; k < expected.length; k++) {
+            assert multiset.select(k) == expected[k] : "select(" + k + ") should be " + expected[k];
+        }
+        assert multiset.rangeCount(15, 30) == 5 : "Range count includes duplicates";
+        
+        Collector scanned = new Collector(8);
+        multiset.rangeScan(20, 25, scanned);
+        assert Arrays.equals(scanned.toArray(), new int[] {20, 20}) : "Range scan repeats values";
+        
+        PrimitiveIterator.OfInt iterator = multiset.iterator();
+        for (int value : expected) {
+            assert iterator.hasNext() && iterator.nextInt() == value : "Iterator should repeat values";
+        }
+        assert !iterator.hasNext() : "Iterator should be exhausted";
+        assert multiset.sum() == 140 && multiset.parallelSum() == 140 : "Aggregation counts occurrences";
+    }
+    
+    /**
+     * Test a heavy-duplicate random stream against a frequency table
+     */
+    public void testMultisetMatchesFrequencies() {
+        BinarySearchTree multiset = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL, true);
+        int[] frequency = new int[100];
+        Random random = new Random(21);
+        int total = 0;
+        for (int i = 0; i < 50000; i++) {
+            int value = random.nextInt(100);
+            if (random.nextInt(3) == 0) {
+                if (frequency[value] > 0) {
+                    frequency[value]--;
+                    total--;
+                }
+                multiset.delete(value);
+            } else {
+                frequency[value]++;
+                total++;
+                multiset.insert(value);
+            }
+        }
+        
+        assert multiset.getSize() == total : "Size should equal the total frequency";
+        int below = 0;
+        for (int value = 0; value < 100; value++) {
+            assert multiset.count(value) == frequency[value] : "Count mismatch for " + value;
+            assert multiset.rank(value) == below : "Rank mismatch for " + value;
+            below += frequency[value];
+        }
+        assert multiset.getHeight() <= avlHeightBound(100) : "Height depends on distinct values only";
+    }
+    
+    // ==================== SPLAY TESTS ====================
+    
+    /**
+     * Gets the root value of a tree, which preorder visits first
+     */
+    private static int rootOf(BinarySearchTree tree) {
+        Collector collector = new Collector(tree.getSize());
+        tree.forEachPreorder(collector);
+        return collector.values[0];
+    }
+    
+    /**
+     * Test that search, insert and delete move the touched node to the root
+     */
+    public void testSplayMovesAccessedKeyToRoot() {
+        BinarySearchTree splay = new BinarySearchTree(BinarySearchTree.BalanceMode.SPLAY);
+        int n = 1000;
+        for (int i = 1; i <= n; i++) {
+            splay.insert(i);
+            assert rootOf(splay) == i : "Inserted key should become the root";
+        }
+        // Sorted inserts leave a left path; splaying its deepest key roughly halves the height
+        assert splay.getHeight() == n - 1 : "Sorted inserts should build a path";
+        assert splay.search(1) && rootOf(splay) == 1 : "Found key should become the root";
+        assert splay.getHeight() <= n / 2 + 1 : "Splaying the deepest key should halve the path, height was " + splay.getHeight();
+        
+        assert !splay.search(5000) && rootOf(splay) == n : "Missing key should splay the last node visited";
+        splay.insert(500);
+        assert rootOf(splay) == 500 : "Duplicate insert should splay the existing node";
+        splay.delete(500);
+        assert rootOf(splay) != 500 && !splay.search(500) : "Deleted root should be gone";
+        splay.delete(499);
+        assert splay.getSize() == n - 2 : "Size should survive the rotations";
+        assert splay.select(497) == 498 && splay.select(498) == 501 && splay.rank(501) == 498 : "Order statistics should survive the rotations";
+        
+        // 3 is the root with the path 3 -> 2 -> 1; deleting 1 splays its parent
+        BinarySearchTree small = new BinarySearchTree(BinarySearchTree.BalanceMode.SPLAY);
+        small.insert(1);
+        small.insert(2);
+        small.insert(3);
+        small.delete(1);
+        assert rootOf(small) == 2 : "Delete should splay the parent of the removed node";
+    }
+    
+    /**
+     * Test a random workload in splay mode against the plain tree, for sets and multisets
+     */
+    public void testSplayMatchesReference() {
+        for (boolean multiset : new boolean[] {false, true}) {
+            BinarySearchTree reference = new BinarySearchTree(BinarySearchTree.BalanceMode.NONE, multiset);
+            BinarySearchTree splay = new BinarySearchTree(BinarySearchTree.BalanceMode.SPLAY, multiset);
+            Random random = new Random(17);
+            
+            for (int i = 0; i < 50000; i++) {
+                int value = random.nextInt(2000);
+                int operation = random.nextInt(4);
+                if (operation == 0) {
+                    reference.delete(value);
+                    splay.delete(value);
+                } else if (operation == 1) {
+                    reference.insert(value);
+                    splay.insert(value);
+                } else {
+                    assert splay.search(value) == reference.search(value) : "Membership mismatch for " + value;
+                }
+            }
+            
+            assert splay.getSize() == reference.getSize() : "Size mismatch";
+            assert Arrays.equals(splay.toSortedArray(), reference.toSortedArray()) : "Contents mismatch";
+            assert splay.getHeight() == heightFromPreorder(splay) : "Cached height should match the real height";
+            for (int k = 0; k < splay.getSize(); k += 7) {
+                assert splay.select(k) == reference.select(k) : "select(" + k + ") mismatch";
+            }
+            for (int value = 0; value < 2000; value += 3) {
+                assert splay.rank(value) == reference.rank(value) : "rank(" + value + ") mismatch";
+                assert splay.count(value) == reference.count(value) : "count(" + value + ") mismatch";
+            }
+        }
+    }
+    
+    /**
+     * Test that searching from a traversal callback does not restructure the tree mid-traversal
+     */
+    public void testSplaySearchDuringTraversal() {
+        BinarySearchTree splay = new BinarySearchTree(BinarySearchTree.BalanceMode.SPLAY);
+        splay.insertAll(new int[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+        int root = rootOf(splay);
+        Collector collector = new Collector(10);
+        splay.forEachInorder(value -> {
+            assert splay.search(11 - value) : "Nested search should find every key";
+            collector.accept(value);
+        });
+        
+        assert Arrays.equals(collector.toArray(), new int[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10}) : "Traversal should be unaffected";
+        assert rootOf(splay) == root : "Nested searches should not splay";
+        assert splay.search(10) && rootOf(splay) == 10 : "Searches outside a traversal should splay again";
+    }
+    
+    /**
+     * Test that splay-mode searches between nextInt() calls do not derail an iterator
+     */
+    public void testSplaySearchDuringIteration() {
+        BinarySearchTree splay = new BinarySearchTree(BinarySearchTree.BalanceMode.SPLAY);
+        for (int i = 0; i < 20; i++) {
+            splay.insert(i);
+        }
+        Collector collector = new Collector(20);
+        PrimitiveIterator.OfInt iterator = splay.iterator();
+        while (iterator.hasNext()) {
+            int value = iterator.nextInt();
+            assert collector.count < 20 : "Iterator returned more values than the tree holds";
+            collector.accept(value);
+            assert splay.search(19 - value) : "Search should find every key";
+        }
+        int[] expected = new int[20];
+        Arrays.setAll(expected, i -> i);
+        assert Arrays.equals(collector.toArray(), expected) : "Iterator should survive splaying: " + Arrays.toString(collector.toArray());
+        
+        // Random searches, including misses, reshape a perfectly balanced tree between steps
+        int[] keys = new int[64];
+        Arrays.setAll(keys, i -> i);
+        Random random = new Random(61);
+        for (int round = 0; round < 50; round++) {
+            BinarySearchTree tree = BinarySearchTree.fromSorted(keys, BinarySearchTree.BalanceMode.SPLAY);
+            Collector seen = new Collector(keys.length);
+            PrimitiveIterator.OfInt keyIterator = tree.iterator();
+            while (keyIterator.hasNext()) {
+                assert seen.count < keys.length : "Iterator returned more values than the tree holds";
+                seen.accept(keyIterator.nextInt());
+                tree.search(random.nextInt(80) - 8);
+            }
+            assert Arrays.equals(seen.toArray(), keys) : "Round " + round + ": " + Arrays.toString(seen.toArray());
+        }
+        
+        // Multiset: a search between two occurrences of the same value must not skip or repeat any
+        BinarySearchTree multiset = new BinarySearchTree(BinarySearchTree.BalanceMode.SPLAY, true);
+        multiset.insertAll(new int[] {1, 2, 2, 2, 3, 4, 4, 5});
+        Collector occurrences = new Collector(8);
+        PrimitiveIterator.OfInt occurrenceIterator = multiset.iterator();
+        while (occurrenceIterator.hasNext()) {
+            occurrences.accept(occurrenceIterator.nextInt());
+            multiset.search(occurrences.count % 2 == 0 ? 5 : 1);
+        }
+        assert Arrays.equals(occurrences.toArray(), new int[] {1, 2, 2, 2, 3, 4, 4, 5}) : "Multiset iteration under splaying";
+    }
+    
+    /**
+     * Recomputes a tree's height from its preorder sequence, which fixes the
+     * shape of a BST, so the check does not rely on the cached heights
+     */
+    private static int heightFromPreorder(BinarySearchTree tree) {
+        Collector collector = new Collector(tree.getSize());
+        tree.forEachPreorder(collector);
+        int[] stackValues = new int[collector.count];
+        int[] stackDepths = new int[collector.count];
+        int top = -1;
+        int height = -1;
+        for (int i = 0; i < collector.count; i++) {
+            int value = collector.values[i];
+            if (top >= 0 && stackValues[top] == value) {
+                continue; // Repeated occurrence of a multiset node
+            }
+            int depth = 0;
+            if (top >= 0 && value < stackValues[top]) {
+                depth = stackDepths[top] + 1; // Left child of the previous node
+            } else {
+                // Right child of the last ancestor smaller than the value
+                while (top >= 0 && stackValues[top] < value) {
+                    depth = stackDepths[top--] + 1;
+                }
+            }
+            stackValues[++top] = value;
+            stackDepths[top] = depth;
+            height = Math.max(height, depth);
+        }
+        return height;
+    }
+    
+    // ==================== BATCH SEARCH TESTS ====================
+    
+    /**
+     * Test that searchAll answers every probe like search, in input order
+     */
+    public void testSearchAll() {
+        Random random = new Random(23);
+        // Small trees answer probes one by one, large ones share sorted descents
+        for (int size : new int[] {3000, 1 << 19}) {
+            int range = size * 4;
+            int[] probes = new int[5000];
+            for (int i = 0; i < probes.length; i++) {
+                probes[i] = random.nextInt(2 * range) - range;
+            }
+            probes[0] = Integer.MIN_VALUE;
+            probes[1] = Integer.MAX_VALUE;
+            probes[2] = probes[3]; // Duplicate probes
+            
+            for (BinarySearchTree.BalanceMode mode : BinarySearchTree.BalanceMode.values()) {
+                BinarySearchTree tree = new BinarySearchTree(mode);
+                tree.insert(Integer.MAX_VALUE);
+                while (tree.getSize() < size) {
+                    tree.insert(random.nextInt(2 * range) - range);
+                }
+                int[] before = preorderOf(tree);
+                
+                boolean[] found = tree.searchAll(probes);
+                assert Arrays.equals(preorderOf(tree), before) : "searchAll should not restructure the tree in mode " + mode;
+                for (int i = 0; i < probes.length; i++) {
+                    assert found[i] == tree.search(probes[i]) : "searchAll(" + probes[i] + ") mismatch in mode " + mode;
+                }
+            }
+        }
+        
+        // A degenerate chain, probed from both ends
+        setUp();
+        for (int i = 0; i < 2000; i++) {
+            bst.insert(i * 2);
+        }
+        boolean[] found = bst.searchAll(new int[] {3998, 0, -1, 1, 3999, 2000});
+        assert Arrays.equals(found, new boolean[] {true, true, false, false, false, true}) : "Chain batch mismatch";
+        
+        assert new BinarySearchTree().searchAll(new int[] {1, 2}).length == 2 : "Empty tree should answer every probe";
+        assert bst.searchAll(new int[0]).length == 0 : "Empty batch should give an empty result";
+        try {
+            bst.searchAll(null);
+            assert false : "Null keys should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Test that a parallel searchAll over a large batch matches the sequential one
+     */
+    public void testParallelSearchAll() {
+        int n = 1_000_000;
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i * 2;
+        }
+        BinarySearchTree tree = BinarySearchTree.fromSorted(values, BinarySearchTree.BalanceMode.AVL);
+        
+        Random random = new Random(29);
+        int[] probes = new int[200_000];
+        for (int i = 0; i < probes.length; i++) {
+            probes[i] = random.nextInt(2 * n + 10) - 5;
+        }
+        boolean[] parallel = tree.searchAll(probes, true);
+        assert Arrays.equals(parallel, tree.searchAll(probes)) : "Parallel and sequential results should match";
+        for (int i = 0; i < probes.length; i++) {
+            boolean expected = probes[i] >= 0 && probes[i] < 2 * n && probes[i] % 2 == 0;
+            assert parallel[i] == expected : "Parallel searchAll(" + probes[i] + ") mismatch";
+        }
+    }
+    
+    /**
+     * Collects the preorder sequence, which identifies the tree's shape
+     */
+    private static int[] preorderOf(BinarySearchTree tree) {
+        int[] values = new int[tree.getSize()];
+        int[] count = new int[1];
+        tree.forEachPreorder(value -> values[count[0]++] = value);
+        return values;
+    }
+    
+    // ==================== SPLIT AND SET OPERATION TESTS ====================
+    
+    /**
+     * Checks a set's contents and that its cached sizes and heights match its actual shape
+     */
+    private static void assertSetState(BinarySearchTree tree, TreeSet<Integer> expected, boolean balanced, String label) {
+        int[] values = expected.stream().mapToInt(Integer::intValue).toArray();
+        assert Arrays.equals(tree.toSortedArray(), values) : label + ": contents mismatch";
+        assert tree.getSize() == values.length : label + ": size mismatch";
+        for (int k = 0; k < values.length; k += Math.max(1, values.length / 50)) {
+            assert tree.select(k) == values[k] : label + ": select(" + k + ") mismatch";
+        }
+        assert tree.getHeight() == heightFromPreorder(tree) : label + ": cached height mismatch";
+        if (balanced) {
+            assertAvlInvariant(tree, label);
+        }
+    }
+    
+    /**
+     * Checks the AVL balance rule on every node, rebuilding the shape from the
+     * preorder sequence so the check does not rely on the cached heights
+     */
+    private static void assertAvlInvariant(BinarySearchTree tree, String label) {
+        Collector collector = new Collector(tree.getSize());
+        tree.forEachPreorder(collector);
+        int[] values = new int[collector.count];
+        int n = 0;
+        for (int i = 0; i < collector.count; i++) {
+            if (n == 0 || values[n - 1] != collector.values[i]) {
+                values[n++] = collector.values[i]; // Skip repeated occurrences of a multiset node
+            }
+        }
+        
+        // Link children by index: a smaller value is the previous node's left child,
+        // a larger one the right child of the last ancestor smaller than it
+        int[] left = new int[n];
+        int[] right = new int[n];
+        Arrays.fill(left, -1);
+        Arrays.fill(right, -1);
+        int[] stack = new int[n];
+        int top = -1;
+        for (int i = 0; i < n; i++) {
+            if (top >= 0 && values[i] < values[stack[top]]) {
+                left[stack[top]] = i;
+            } else if (top >= 0) {
+                int parent = -1;
+                while (top >= 0 && values[stack[top]] < values[i]) {
+                    parent = stack[top--];
+                }
+                right[parent] = i;
+            }
+            stack[++top] = i;
+        }
+        
+        // Children follow their parent in preorder, so heights are final when read backwards
+        int[] heights = new int[n];
+        for (int i = n - 1; i >= 0; i--) {
+            int leftHeight = left[i] < 0 ? -1 : heights[left[i]];
+            int rightHeight = right[i] < 0 ? -1 : heights[right[i]];
+            assert Math.abs(leftHeight - rightHeight) <= 1
+                    : label + ": node " + values[i] + " breaks the AVL rule (" + leftHeight + " vs " + rightHeight + ")";
+            heights[i] = 1 + Math.max(leftHeight, rightHeight);
+        }
+    }
+    
+    /**
+     * Builds a tree in the given mode from random values and mirrors it in a TreeSet
+     */
+    private static BinarySearchTree randomTree(BinarySearchTree.BalanceMode mode, int size, int range, Random random, TreeSet<Integer> mirror) {
+        BinarySearchTree tree = new BinarySearchTree(mode);
+        for (int i = 0; i < size; i++) {
+            int value = random.nextInt(range);
+            tree.insert(value);
+            mirror.add(value);
+        }
+        return tree;
+    }
+    
+    /**
+     * Test split at various keys and joining the halves back together
+     */
+    public void testSplitAndJoin() {
+        Random random = new Random(31);
+        for (BinarySearchTree.BalanceMode mode : BinarySearchTree.BalanceMode.values()) {
+            for (int key : new int[] {-5, 0, 1500, 1501, 2999, 5000}) {
+                TreeSet<Integer> all = new TreeSet<>();
+                BinarySearchTree tree = randomTree(mode, 2000, 3000, random, all);
+                tree.insert(1500);
+                all.add(1500);
+                
+                // Split and join rebalance NONE and SPLAY trees first, so every piece is AVL-shaped
+                boolean balanced = true;
+                BinarySearchTree upper = tree.split(key);
+                assert upper.getBalanceMode() == mode : "Split should keep the balance mode";
+                assertSetState(tree, new TreeSet<>(all.headSet(key)), balanced, mode + " lower split at " + key);
+                assertSetState(upper, new TreeSet<>(all.tailSet(key)), balanced, mode + " upper split at " + key);
+                
+                BinarySearchTree joined = BinarySearchTree.join(tree, upper);
+                assert tree.isEmpty() && upper.isEmpty() : "Join should consume its operands";
+                assertSetState(joined, all, balanced, mode + " join at " + key);
+            }
+        }
+        
+        BinarySearchTree empty = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        assert empty.split(10).isEmpty() && empty.isEmpty() : "Splitting an empty tree gives two empty trees";
+        
+        BinarySearchTree low = BinarySearchTree.fromSorted(new int[] {1, 2, 3}, BinarySearchTree.BalanceMode.AVL);
+        BinarySearchTree high = BinarySearchTree.fromSorted(new int[] {3, 4}, BinarySearchTree.BalanceMode.AVL);
+        try {
+            BinarySearchTree.join(low, high);
+            assert false : "Overlapping ranges should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+        assert low.getSize() == 3 && high.getSize() == 2 : "A rejected join should leave its operands intact";
+        try {
+            low.unionWith(low);
+            assert false : "Combining a tree with itself should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+        try {
+            low.unionWith(new BinarySearchTree(BinarySearchTree.BalanceMode.AVL, true));
+            assert false : "Combining a set with a multiset should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Test union, intersection and difference against TreeSet for many size
+     * ratios and every combination of operand balance modes
+     */
+    public void testSetOperations() {
+        Random random = new Random(37);
+        int[][] sizes = {{0, 100}, {100, 0}, {1, 5000}, {5000, 1}, {50, 20000}, {20000, 50}, {8000, 8000}};
+        for (BinarySearchTree.BalanceMode mode : BinarySearchTree.BalanceMode.values()) {
+            for (BinarySearchTree.BalanceMode otherMode : BinarySearchTree.BalanceMode.values()) {
+                for (int[] size : sizes) {
+                    for (int operation = 0; operation < 3; operation++) {
+                        TreeSet<Integer> a = new TreeSet<>();
+                        TreeSet<Integer> b = new TreeSet<>();
+                        BinarySearchTree tree = randomTree(mode, size[0], 30000, random, a);
+                        BinarySearchTree other = randomTree(otherMode, size[1], 30000, random, b);
+                        String label = mode + " " + size[0] + "/" + otherMode + " " + size[1];
+                        
+                        if (operation == 0) {
+                            tree.unionWith(other);
+                            a.addAll(b);
+                            label += " union";
+                        } else if (operation == 1) {
+                            tree.intersectWith(other);
+                            a.retainAll(b);
+                            label += " intersection";
+                        } else {
+                            tree.subtract(other);
+                            a.removeAll(b);
+                            label += " difference";
+                        }
+                        assert other.isEmpty() : label + ": other tree should be consumed";
+                        assertSetState(tree, a, true, label);
+                    }
+                }
+            }
+        }
+        
+        // An AVL tree must stay AVL-shaped through later inserts after absorbing an unbalanced tree
+        TreeSet<Integer> expected = new TreeSet<>();
+        BinarySearchTree avl = randomTree(BinarySearchTree.BalanceMode.AVL, 5000, 100000, random, expected);
+        avl.unionWith(randomTree(BinarySearchTree.BalanceMode.NONE, 5000, 100000, random, expected));
+        for (int i = 0; i < 100000; i++) {
+            avl.insert(100000 + i);
+            expected.add(100000 + i);
+        }
+        assertSetState(avl, expected, true, "AVL after union with NONE and sorted inserts");
+    }
+    
+    /**
+     * Test that set operations on multisets add, take the minimum of, or subtract counts
+     */
+    public void testMultisetSetOperations() {
+        Random random = new Random(41);
+        for (int operation = 0; operation < 3; operation++) {
+            BinarySearchTree tree = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL, true);
+            BinarySearchTree other = new BinarySearchTree(BinarySearchTree.BalanceMode.NONE, true);
+            TreeMap<Integer, Integer> a = new TreeMap<>();
+            TreeMap<Integer, Integer> b = new TreeMap<>();
+            for (int i = 0; i < 3000; i++) {
+                int value = random.nextInt(500);
+                tree.insert(value);
+                a.merge(value, 1, Integer::sum);
+                value = random.nextInt(500);
+                other.insert(value);
+                b.merge(value, 1, Integer::sum);
+            }
+            
+            BinarySearchTree copy = tree.copy();
+            if (operation == 0) {
+                tree.unionWith(other);
+            } else if (operation == 1) {
+                tree.intersectWith(other);
+            } else {
+                tree.subtract(other);
+            }
+            
+            int total = 0;
+            for (int value = 0; value < 500; value++) {
+                int countA = a.getOrDefault(value, 0);
+                int countB = b.getOrDefault(value, 0);
+                int expected = operation == 0 ? countA + countB
+                        : operation == 1 ? Math.min(countA, countB)
+                        : Math.max(0, countA - countB);
+                assert tree.count(value) == expected : "Count of " + value + " mismatch for operation " + operation;
+                assert copy.count(value) == countA : "Copy should be unaffected";
+                total += expected;
+            }
+            assert tree.getSize() == total : "Multiset size should include every occurrence";
+            assert tree.getHeight() <= avlHeightBound(total) : "Result should stay balanced";
+        }
+    }
+    
+    /**
+     * Test parallel set operations on large trees against the sequential ones
+     */
+    public void testParallelSetOperations() {
+        Random random = new Random(43);
+        int[] first = new int[1_000_000];
+        int[] second = new int[400_000];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = random.nextInt(4_000_000);
+        }
+        for (int i = 0; i < second.length; i++) {
+            second[i] = random.nextInt(4_000_000);
+        }
+        BinarySearchTree a = BinarySearchTree.fromArray(first, BinarySearchTree.BalanceMode.AVL);
+        BinarySearchTree b = BinarySearchTree.fromArray(second, BinarySearchTree.BalanceMode.AVL);
+        
+        BinarySearchTree union = a.copy();
+        union.unionWith(b.copy(), true);
+        BinarySearchTree expectedUnion = a.copy();
+        expectedUnion.unionWith(b.copy());
+        assert Arrays.equals(union.toSortedArray(), expectedUnion.toSortedArray()) : "Parallel union mismatch";
+        assert union.getHeight() <= avlHeightBound(union.getSize()) : "Parallel union should stay balanced";
+        
+        BinarySearchTree intersection = a.copy();
+        intersection.intersectWith(b.copy(), true);
+        BinarySearchTree difference = a.copy();
+        difference.subtract(b.copy(), true);
+        assert intersection.getSize() + difference.getSize() == a.getSize() : "Intersection and difference should partition a";
+        assert intersection.getSize() + union.getSize() == a.getSize() + b.getSize() : "Inclusion-exclusion should hold";
+        for (int k = 0; k < intersection.getSize(); k += 997) {
+            int value = intersection.select(k);
+            assert a.search(value) && b.search(value) && !difference.search(value) : "Intersection value " + value + " misplaced";
+        }
+    }
+    
+    /**
+     * Test that degenerate operands are handled without deep recursion
+     */
+    public void testSetOperationsOnDegenerateTree() {
+        setUp();
+        int n = 20000;
+        for (int i = 0; i < n; i++) {
+            bst.insert(i); // Right-leaning chain
+        }
+        BinarySearchTree odd = new BinarySearchTree();
+        for (int i = n - 1; i >= 0; i -= 2) {
+            odd.insert(i + n / 2); // Left-leaning chain, half overlapping
+        }
+        
+        bst.subtract(odd);
+        assert bst.getSize() == n / 2 + n / 4 : "Difference size mismatch: " + bst.getSize();
+        assert bst.getHeight() <= avlHeightBound(bst.getSize()) : "Chains should be rebuilt before combining";
+        assert bst.search(n / 2) && !bst.search(n / 2 + 1) && bst.search(n - 1 - 1) : "Difference contents mismatch";
+        
+        BinarySearchTree upper = bst.split(n / 2);
+        assert bst.getSize() == n / 2 && upper.getSize() == n / 4 : "Split sizes mismatch";
+    }
+    
+    /**
+     * Test range deletions against TreeSet, including the int extremes
+     */
+    public void testDeleteRange() {
+        Random random = new Random(47);
+        for (BinarySearchTree.BalanceMode mode : BinarySearchTree.BalanceMode.values()) {
+            TreeSet<Integer> expected = new TreeSet<>();
+            BinarySearchTree tree = randomTree(mode, 20000, 100000, random, expected);
+            tree.insert(Integer.MIN_VALUE);
+            tree.insert(Integer.MAX_VALUE);
+            expected.add(Integer.MIN_VALUE);
+            expected.add(Integer.MAX_VALUE);
+            
+            for (int i = 0; i < 200; i++) {
+                int lo = random.nextInt(110000) - 5000;
+                int hi = lo + random.nextInt(3000);
+                int removedExpected = expected.subSet(lo, true, hi, true).size();
+                expected.subSet(lo, true, hi, true).clear();
+                assert tree.deleteRange(lo, hi) == removedExpected : mode + ": deleteRange(" + lo + ", " + hi + ") count";
+            }
+            assertSetState(tree, expected, true, mode + " after deleteRange");
+            
+            assert tree.deleteRange(10, 5) == 0 : "An empty range removes nothing";
+            int below = expected.headSet(30000).size();
+            assert tree.deleteBelow(30000) == below : mode + ": deleteBelow count";
+            expected.headSet(30000).clear();
+            int above = expected.tailSet(70000, false).size();
+            assert tree.deleteAbove(70000) == above : mode + ": deleteAbove count";
+            expected.tailSet(70000, false).clear();
+            assertSetState(tree, expected, true, mode + " after deleteBelow/Above");
+            
+            int all = tree.getSize();
+            assert tree.deleteRange(Integer.MIN_VALUE, Integer.MAX_VALUE) == all && tree.isEmpty() : "Full range should empty the tree";
+            assert tree.deleteBelow(0) == 0 && tree.deleteAbove(0) == 0 : "Empty tree removes nothing";
+        }
+        
+        // A NONE tree built by inserts is rebuilt before splitting, so the remainder is AVL-shaped
+        TreeSet<Integer> unbalancedExpected = new TreeSet<>();
+        BinarySearchTree unbalanced = new BinarySearchTree(BinarySearchTree.BalanceMode.NONE);
+        for (int i = 0; i < 12000; i++) {
+            int value = random.nextInt(50000);
+            unbalanced.insert(value);
+            unbalancedExpected.add(value);
+        }
+        unbalanced.deleteRange(20000, 30000);
+        unbalancedExpected.subSet(20000, true, 30000, true).clear();
+        assertSetState(unbalanced, unbalancedExpected, true, "NONE after deleteRange");
+        for (int i = 0; i < 2000; i++) {
+            unbalanced.insert(i); // Sorted inserts unbalance it again; the next deletion must notice
+            unbalancedExpected.add(i);
+        }
+        unbalanced.deleteAbove(45000);
+        unbalancedExpected.tailSet(45000, false).clear();
+        assertSetState(unbalanced, unbalancedExpected, true, "NONE after sorted inserts and deleteAbove");
+        
+        // Multiset: counts include every occurrence
+        BinarySearchTree multiset = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL, true);
+        multiset.insertAll(new int[] {1, 2, 2, 3, 3, 3, 4, 4, 4, 4});
+        assert multiset.deleteRange(2, 3) == 5 : "deleteRange should count occurrences";
+        assert multiset.deleteBelow(2) == 1 && multiset.getSize() == 4 && multiset.count(4) == 4 : "Only 4s should remain";
+    }
+    
+    /**
+     * Test expiring ids below a moving watermark while new ids keep arriving
+     */
+    public void testDeleteBelowWatermark() {
+        BinarySearchTree tree = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        int next = 0;
+        for (int watermark = 0; watermark < 200000; watermark += 5000) {
+            while (next < watermark + 20000) {
+                tree.insert(next++);
+            }
+            assert tree.deleteBelow(watermark) == (watermark == 0 ? 0 : 5000) : "Each step should expire 5000 ids";
+            assert tree.findMin() == watermark && tree.getSize() == next - watermark : "Window mismatch";
+            assert tree.getHeight() <= avlHeightBound(tree.getSize()) : "Window should stay balanced";
+        }
+    }
+    
+    // ==================== NODE RECYCLING TESTS ====================
+    
+    /**
+     * Test that a tree with a node pool behaves exactly like one without, in every mode
+     */
+    public void testNodeRecyclingMatchesPlainTree() {
+        for (BinarySearchTree.BalanceMode mode : BinarySearchTree.BalanceMode.values()) {
+            for (boolean multiset : new boolean[] {false, true}) {
+                BinarySearchTree plain = new BinarySearchTree(mode, multiset);
+                BinarySearchTree pooled = new BinarySearchTree(mode, multiset);
+                pooled.setNodePoolCapacity(64);
+                Random random = new Random(5);
+                
+                for (int i = 0; i < 30000; i++) {
+                    int value = random.nextInt(1000);
+                    if (random.nextInt(2) == 0) {
+                        plain.delete(value);
+                        pooled.delete(value);
+                    } else {
+                        plain.insert(value);
+                        pooled.insert(value);
+                    }
+                }
+                
+                String label = mode + (multiset ? " multiset" : "");
+                assert pooled.getPooledNodeCount() <= 64 : "Pool exceeded its capacity in " + label;
+                assert pooled.getSize() == plain.getSize() : "Size mismatch in " + label;
+                assert Arrays.equals(preorderOf(pooled), preorderOf(plain)) : "Shape mismatch in " + label;
+                for (int k = 0; k < plain.getSize(); k++) {
+                    assert pooled.select(k) == plain.select(k) : "select(" + k + ") mismatch in " + label;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Test that the pool keeps at most its capacity and can be shrunk or turned off
+     */
+    public void testNodePoolCapacity() {
+        BinarySearchTree tree = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        assert tree.getNodePoolCapacity() == 0 : "Recycling should be off by default";
+        for (int i = 0; i < 100; i++) {
+            tree.insert(i);
+        }
+        tree.delete(0);
+        assert tree.getPooledNodeCount() == 0 : "Disabled pool should keep nothing";
+        
+        tree.setNodePoolCapacity(10);
+        for (int i = 1; i < 50; i++) {
+            tree.delete(i);
+        }
+        assert tree.getPooledNodeCount() == 10 : "Pool should fill up to its capacity";
+        
+        tree.setNodePoolCapacity(4);
+        assert tree.getPooledNodeCount() == 4 : "Shrinking should release the surplus";
+        tree.insert(1000);
+        tree.insert(0);
+        assert tree.getPooledNodeCount() == 2 && tree.search(1000) && tree.search(0) : "Inserts should use pooled nodes";
+        assert tree.getSize() == 52 : "Size should count live nodes only";
+        
+        tree.setNodePoolCapacity(0);
+        assert tree.getPooledNodeCount() == 0 : "Turning recycling off should drop the pool";
+        
+        try {
+            tree.setNodePoolCapacity(-1);
+            assert false : "Negative capacity should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Test that steady insert/delete churn allocates (almost) nothing once the pool is warm
+     */
+    public void testNodeRecyclingAvoidsAllocation() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("Per-thread allocation counters unavailable, skipping");
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        
+        int window = 10000;
+        BinarySearchTree tree = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        tree.setNodePoolCapacity(1024);
+        for (int i = 0; i < window; i++) {
+            tree.insert(i);
+        }
+        // Warm up: fills the pool and lets the JIT settle
+        for (int i = window; i < 2 * window; i++) {
+            tree.delete(i - window);
+            tree.insert(i);
+        }
+        
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 2 * window; i < 2 * window + 100000; i++) {
+            tree.delete(i - window);
+            tree.insert(i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        
+        assert tree.getSize() == window && tree.findMin() == window + 100000 : "Window mismatch";
+        assert allocated < 64 * 1024 : "Churn allocated " + allocated + " bytes for 200000 operations";
+    }
+    
+    // ==================== PARALLEL AGGREGATION TESTS ====================
+    
+    /**
+     * Test that parallel reductions match the sequential ones on a large balanced tree
+     */
+    public void testParallelAggregation() {
+        int n = 1_000_000;
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i * 3 - n;
+        }
+        BinarySearchTree tree = BinarySearchTree.fromSorted(values, BinarySearchTree.BalanceMode.AVL);
+        
+        assert tree.parallelSum() == tree.sum() : "Parallel sum should match sequential sum";
+        assert tree.sum() == Arrays.stream(values).asLongStream().sum() : "Sum should match the input";
+        
+        IntSummaryStatistics statistics = tree.parallelSummaryStatistics();
+        assert statistics.getCount() == tree.getSize() : "Count should match size";
+        assert statistics.getMin() == tree.findMin() && statistics.getMax() == tree.findMax() : "Min/max should match";
+        assert statistics.getSum() == tree.summaryStatistics().getSum() : "Statistics sum should match";
+        
+        // Max of squares: a user reducer with a non-zero identity
+        long maxSquare = tree.parallelReduce(Long.MIN_VALUE, value -> (long) value * value, Math::max);
+        assert maxSquare == tree.reduce(Long.MIN_VALUE, value -> (long) value * value, Math::max) : "Reducer mismatch";
+        
+        // An order-sensitive collector must see values exactly in inorder
+        ArrayList<Integer> collected = tree.parallelCollect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        int[] ordered = collected.stream().mapToInt(Integer::intValue).toArray();
+        assert Arrays.equals(ordered, values) : "Collected values should be in ascending order";
+    }
+    
+    /**
+     * Test parallel aggregation on degenerate and empty trees
+     */
+    public void testParallelAggregationSkewed() {
+        setUp();
+        int n = 20000;
+        for (int i = n - 1; i >= 0; i--) {
+            bst.insert(i); // Left-leaning chain
+        }
+        
+        long expected = (long) n * (n - 1) / 2;
+        assert bst.parallelSum() == expected : "Parallel sum over a chain should be exact";
+        ArrayList<Integer> collected = bst.parallelCollect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        assert collected.size() == n && collected.get(0) == 0 && collected.get(n - 1) == n - 1 : "Chain order mismatch";
+        
+        BinarySearchTree empty = new BinarySearchTree();
+        assert empty.parallelSum() == 0 : "Empty tree sums to zero";
+        assert empty.parallelReduce(7, value -> value, Long::sum) == 7 : "Empty tree reduces to the identity";
+        assert empty.parallelSummaryStatistics().getCount() == 0 : "Empty tree has no values";
     }
     
     // ==================== STRESS TESTS ====================
@@ -397,6 +1779,31 @@ public class BinarySearchTreeTest {
         System.out.println("Tree height: " + bst.getHeight());
     }
     
+    /**
+     * Test that a fully skewed tree deeper than the thread stack allows
+     * for recursion still supports every operation
+     */
+    public void testDeepSkewedTree() {
+        setUp();
+        int n = 20000;
+        for (int i = 0; i < n; i++) {
+            bst.insert(i);
+        }
+        
+        assert bst.getHeight() == n - 1 : "Sorted inserts should form a chain";
+        assert bst.getSize() == n : "Size should match number of insertions";
+        assert bst.search(n - 1) : "Should find the deepest value";
+        assert !bst.search(n) : "Should not find value past the end";
+        
+        // Delete from the bottom of the chain, then the top
+        bst.delete(n - 1);
+        bst.delete(0);
+        assert bst.getSize() == n - 2 : "Size should drop after deletions";
+        assert bst.findMin() == 1 && bst.findMax() == n - 2 : "Min/max should move inward";
+        
+        System.out.println("Deep skewed tree test passed. Tree height: " + bst.getHeight());
+    }
+    
     // ==================== MAIN TEST RUNNER ====================
     
     /**
@@ -445,16 +1852,98 @@ public class BinarySearchTreeTest {
             tester.testInorderTraversal();
             tester.testPreorderTraversal();
             tester.testPostorderTraversal();
+            tester.testConsumerTraversals();
+            tester.testLevelOrderWideTree();
+            tester.testIterator();
+            tester.testNestedTraversal();
+            tester.testSnapshotsDuringTraversal();
+            tester.testTreeCallsDuringEachTraversal();
             System.out.println("✓ All traversal tests passed\n");
             
+            // Balancing tests
+            System.out.println("Running balancing tests...");
+            tester.testBalancedSortedInsert();
+            tester.testBalancedAdversarialInsert();
+            tester.testBalancedDelete();
+            tester.testDefaultModeIsUnbalanced();
+            System.out.println("✓ All balancing tests passed\n");
+            
+            // Order statistics tests
+            System.out.println("Running order statistics tests...");
+            tester.testSelect();
+            tester.testRank();
+            tester.testOrderStatisticsAfterUpdates();
+            System.out.println("✓ All order statistics tests passed\n");
+            
+            // Bulk build tests
+            System.out.println("Running bulk build tests...");
+            tester.testFromSorted();
+            tester.testFromArray();
+            tester.testParallelBuild();
+            tester.testInsertAll();
+            System.out.println("✓ All bulk build tests passed\n");
+            
+            // Range query tests
+            System.out.println("Running range query tests...");
+            tester.testFloorCeilingHigherLower();
+            tester.testRangeCount();
+            tester.testRangeScan();
+            System.out.println("✓ All range query tests passed\n");
+            
+            // Multiset tests
+            System.out.println("Running multiset tests...");
+            tester.testMultisetCounts();
+            tester.testMultisetOrderStatistics();
+            tester.testMultisetMatchesFrequencies();
+            System.out.println("✓ All multiset tests passed\n");
+            
+            // Splay tests
+            System.out.println("Running splay tests...");
+            tester.testSplayMovesAccessedKeyToRoot();
+            tester.testSplayMatchesReference();
+            tester.testSplaySearchDuringTraversal();
+            tester.testSplaySearchDuringIteration();
+            System.out.println("✓ All splay tests passed\n");
+            
+            // Batch search tests
+            System.out.println("Running batch search tests...");
+            tester.testSearchAll();
+            tester.testParallelSearchAll();
+            System.out.println("✓ All batch search tests passed\n");
+            
+            // Split and set operation tests
+            System.out.println("Running split and set operation tests...");
+            tester.testSplitAndJoin();
+            tester.testSetOperations();
+            tester.testMultisetSetOperations();
+            tester.testParallelSetOperations();
+            tester.testSetOperationsOnDegenerateTree();
+            tester.testDeleteRange();
+            tester.testDeleteBelowWatermark();
+            System.out.println("✓ All split and set operation tests passed\n");
+            
+            // Node recycling tests
+            System.out.println("Running node recycling tests...");
+            tester.testNodeRecyclingMatchesPlainTree();
+            tester.testNodePoolCapacity();
+            tester.testNodeRecyclingAvoidsAllocation();
+            System.out.println("✓ All node recycling tests passed\n");
+            
+            // Parallel aggregation tests
+            System.out.println("Running parallel aggregation tests...");
+            tester.testParallelAggregation();
+            tester.testParallelAggregationSkewed();
+            System.out.println("✓ All parallel aggregation tests passed\n");
+            
             // Stress tests
             System.out.println("Running stress tests...");
             tester.testLargeDataset();
+            tester.testDeepSkewedTree();
             System.out.println("✓ All stress tests passed\n");
             
             System.out.println("🎉 ALL TESTS PASSED! 🎉");
             System.out.println("Binary Search Tree implementation is working correctly.");
-            
+        
         } catch (AssertionError e) {
             System.err.println("❌ TEST FAILED: " + e.getMessage());
             e.printStackTrace();
@@ -0,0 +1,54 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
+
+/**
+ * Thread harness shared by the multi-threaded stress tests.
+ * Starts every worker at the same moment so their operations overlap,
+ * and turns a failure on any worker into an assertion on the caller.
+ * 
+ * Usage:
+ * 1. Compile: javac -cp src test/*.java
+ * 2. Call ConcurrencyTestSupport.runConcurrently from a test method
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+final class ConcurrencyTestSupport {
+    
+    /** Number of worker threads used by the stress tests */
+    static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    
+    private ConcurrencyTestSupport() {
+    }
+    
+    /**
+     * Runs the task on THREADS threads started at the same moment and waits for all
+     * @param task body receiving the thread index
+     */
+    static void runConcurrently(IntConsumer task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        AtomicBoolean failed = new AtomicBoolean();
+        StringBuilder failure = new StringBuilder();
+        for (int t = 0; t < THREADS; t++) {
+            final int index = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    task.accept(index);
+                } catch (Throwable e) {
+                    if (failed.compareAndSet(false, true)) {
+                        failure.append(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assert !failed.get() : "Worker failed: " + failure;
+    }
+}
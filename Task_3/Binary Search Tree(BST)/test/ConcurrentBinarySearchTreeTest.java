@@ -0,0 +1,207 @@
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Test suite for the thread-safe Binary Search Tree.
+ * Runs single-threaded checks against BinarySearchTree and multi-threaded
+ * stress tests whose outcomes are only possible if every insert, delete
+ * and search takes effect atomically (linearizability).
+ * 
+ * Test Coverage:
+ * - Sequential behavior: matches BinarySearchTree on a random workload
+ * - Disjoint writers: every thread's own operations succeed exactly once
+ * - Contended writers: per-key successful inserts and deletes alternate,
+ *   so each key's net count is 0 or 1 and agrees with the final search
+ * - Readers during churn: stable keys are always found, absent keys never
+ * 
+ * Usage:
+ * 1. Compile: javac -cp src test/*.java
+ * 2. Run: java -ea -cp src:test ConcurrentBinarySearchTreeTest
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class ConcurrentBinarySearchTreeTest {
+    
+    /** Number of worker threads used by the stress tests */
+    private static final int THREADS = ConcurrencyTestSupport.THREADS;
+    
+    /**
+     * Maps (thread, index) pairs onto a permutation of [0, THREADS * perThread)
+     * so keys from different threads interleave in the same subtrees
+     */
+    private static int scatter(int sequence, int total) {
+        return (int) ((long) sequence * 1_000_003L % total);
+    }
+    
+    /**
+     * Test single-threaded behavior against the reference tree
+     */
+    public void testSequentialMatchesReference() {
+        ConcurrentBinarySearchTree tree = new ConcurrentBinarySearchTree();
+        BinarySearchTree reference = new BinarySearchTree();
+        assert tree.isEmpty() : "New tree should be empty";
+        
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(1000) - 500;
+            if (random.nextBoolean()) {
+                boolean expected = !reference.search(value);
+                reference.insert(value);
+                assert tree.insert(value) == expected : "insert(" + value + ") result mismatch";
+            } else {
+                boolean expected = reference.search(value);
+                reference.delete(value);
+                assert tree.delete(value) == expected : "delete(" + value + ") result mismatch";
+            }
+        }
+        
+        assert tree.getSize() == reference.getSize() : "Size mismatch";
+        assert tree.findMin() == reference.findMin() : "Min mismatch";
+        assert tree.findMax() == reference.findMax() : "Max mismatch";
+        for (int value = -500; value < 500; value++) {
+            assert tree.search(value) == reference.search(value) : "Membership mismatch for " + value;
+        }
+        
+        // Extreme values must route correctly around the sentinels
+        assert tree.insert(Integer.MAX_VALUE) && tree.insert(Integer.MIN_VALUE) : "Extremes should insert";
+        assert tree.findMax() == Integer.MAX_VALUE && tree.findMin() == Integer.MIN_VALUE : "Extremes should be min/max";
+    }
+    
+    /**
+     * Test threads working on disjoint key ranges never interfere
+     */
+    public void testDisjointWriters() throws InterruptedException {
+        ConcurrentBinarySearchTree tree = new ConcurrentBinarySearchTree();
+        int perThread = 20000;
+        
+        ConcurrencyTestSupport.runConcurrently(t -> {
+            int base = t * perThread;
+            for (int i = 0; i < perThread; i++) {
+                int value = scatter(base + i, THREADS * perThread);
+                if (!tree.insert(value)) {
+                    throw new AssertionError("insert(" + value + ") should succeed once");
+                }
+            }
+            for (int i = 0; i < perThread; i += 2) {
+                int value = scatter(base + i, THREADS * perThread);
+                if (!tree.delete(value)) {
+                    throw new AssertionError("delete(" + value + ") should succeed once");
+                }
+            }
+        });
+        
+        assert tree.getSize() == THREADS * perThread / 2 : "Half of all keys should remain";
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < perThread; i++) {
+                int value = scatter(t * perThread + i, THREADS * perThread);
+                assert tree.search(value) == (i % 2 == 1) : "Unexpected membership for " + value;
+            }
+        }
+    }
+    
+    /**
+     * Test heavy contention on a few keys: successful inserts and deletes of
+     * a key must alternate, so its net count ends at 0 or 1
+     */
+    public void testContendedWriters() throws InterruptedException {
+        ConcurrentBinarySearchTree tree = new ConcurrentBinarySearchTree();
+        int keys = 64;
+        AtomicIntegerArray net = new AtomicIntegerArray(keys);
+        
+        ConcurrencyTestSupport.runConcurrently(t -> {
+            Random random = new Random(t);
+            for (int i = 0; i < 200000; i++) {
+                int value = random.nextInt(keys);
+                if (random.nextBoolean()) {
+                    if (tree.insert(value)) {
+                        net.incrementAndGet(value);
+                    }
+                } else {
+                    if (tree.delete(value)) {
+                        net.decrementAndGet(value);
+                    }
+                }
+            }
+        });
+        
+        int present = 0;
+        for (int value = 0; value < keys; value++) {
+            int count = net.get(value);
+            assert count == 0 || count == 1 : "Key " + value + " has impossible net count " + count;
+            assert tree.search(value) == (count == 1) : "Final membership disagrees for " + value;
+            present += count;
+        }
+        assert tree.getSize() == present : "Size should equal the number of present keys";
+    }
+    
+    /**
+     * Test lock-free readers while writers churn neighbouring keys
+     */
+    public void testReadersDuringChurn() throws InterruptedException {
+        ConcurrentBinarySearchTree tree = new ConcurrentBinarySearchTree();
+        // Even keys are stable, odd keys are churned, negative keys never exist
+        for (int value = 0; value < 2000; value += 2) {
+            tree.insert(value);
+        }
+        AtomicBoolean writersDone = new AtomicBoolean();
+        AtomicInteger writersLeft = new AtomicInteger(THREADS / 2);
+        
+        ConcurrencyTestSupport.runConcurrently(t -> {
+            Random random = new Random(t);
+            if (t % 2 == 0) {
+                for (int i = 0; i < 100000; i++) {
+                    int value = random.nextInt(1000) * 2 + 1;
+                    if (random.nextBoolean()) {
+                        tree.insert(value);
+                    } else {
+                        tree.delete(value);
+                    }
+                }
+                if (writersLeft.decrementAndGet() == 0) {
+                    writersDone.set(true);
+                }
+            } else {
+                while (!writersDone.get()) {
+                    int stable = random.nextInt(1000) * 2;
+                    if (!tree.search(stable)) {
+                        throw new AssertionError("Stable key " + stable + " went missing");
+                    }
+                    int absent = -1 - random.nextInt(1000);
+                    if (tree.search(absent)) {
+                        throw new AssertionError("Absent key " + absent + " was found");
+                    }
+                }
+            }
+        });
+        
+        assert tree.findMin() == 0 : "Stable minimum should survive churn";
+    }
+    
+    /**
+     * Runs all tests
+     */
+    public static void main(String[] args) {
+        ConcurrentBinarySearchTreeTest tester = new ConcurrentBinarySearchTreeTest();
+        
+        System.out.println("=== Concurrent Binary Search Tree Test Suite ===\n");
+        System.out.println("Using " + THREADS + " threads");
+        
+        try {
+            tester.testSequentialMatchesReference();
+            tester.testDisjointWriters();
+            tester.testContendedWriters();
+            tester.testReadersDuringChurn();
+            
+            System.out.println("🎉 ALL TESTS PASSED! 🎉");
+        } catch (AssertionError e) {
+            System.err.println("❌ TEST FAILED: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("❌ UNEXPECTED ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi-threaded test suite for the concurrent skip list.
+ * Single-threaded behavior is covered by OrderedIntSetTest.
+ * 
+ * Test Coverage:
+ * - Disjoint writers: no update is lost or applied twice
+ * - Contended writers: size, contents and membership agree afterwards
+ * - Readers during churn: stable keys are always found, absent keys never,
+ *   navigation never skips a stable key, iteration stays sorted
+ * 
+ * Usage:
+ * 1. Compile: javac -cp src test/*.java
+ * 2. Run: java -ea -cp src:test ConcurrentSkipListIntSetTest
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class ConcurrentSkipListIntSetTest {
+    
+    /** Number of worker threads used by the stress tests */
+    private static final int THREADS = ConcurrencyTestSupport.THREADS;
+    
+    /**
+     * Test threads working on interleaved but disjoint keys never interfere
+     */
+    public void testDisjointWriters() throws InterruptedException {
+        ConcurrentSkipListIntSet set = new ConcurrentSkipListIntSet();
+        int perThread = 20000;
+        
+        ConcurrencyTestSupport.runConcurrently(t -> {
+            // Thread t owns the keys congruent to t modulo THREADS
+            for (int i = 0; i < perThread; i++) {
+                set.insert(i * THREADS + t);
+            }
+            for (int i = 0; i < perThread; i += 2) {
+                set.delete(i * THREADS + t);
+            }
+        });
+        
+        assert set.getSize() == THREADS * perThread / 2 : "Half of all keys should remain";
+        for (int key = 0; key < THREADS * perThread; key++) {
+            assert set.search(key) == ((key / THREADS) % 2 == 1) : "Unexpected membership for " + key;
+        }
+        assert set.toSortedArray().length == set.getSize() : "Traversal should see every key once";
+    }
+    
+    /**
+     * Test heavy contention on a few keys leaves a consistent set
+     */
+    public void testContendedWriters() throws InterruptedException {
+        ConcurrentSkipListIntSet set = new ConcurrentSkipListIntSet();
+        int keys = 64;
+        
+        ConcurrencyTestSupport.runConcurrently(t -> {
+            Random random = new Random(t);
+            for (int i = 0; i < 200000; i++) {
+                int value = random.nextInt(keys);
+                if (random.nextBoolean()) {
+                    set.insert(value);
+                } else {
+                    set.delete(value);
+                }
+            }
+        });
+        
+        int[] values = set.toSortedArray();
+        int present = 0;
+        for (int value = 0; value < keys; value++) {
+            if (set.search(value)) {
+                assert values[present++] == value : "Traversal and search disagree on " + value;
+            }
+        }
+        assert present == values.length && set.getSize() == present : "Size should equal the number of present keys";
+    }
+    
+    /**
+     * Test lock-free readers while writers churn neighbouring keys
+     */
+    public void testReadersDuringChurn() throws InterruptedException {
+        ConcurrentSkipListIntSet set = new ConcurrentSkipListIntSet();
+        // Even keys are stable, odd keys are churned, negative keys never exist
+        for (int value = 0; value < 2000; value += 2) {
+            set.insert(value);
+        }
+        AtomicBoolean writersDone = new AtomicBoolean();
+        AtomicInteger writersLeft = new AtomicInteger(THREADS / 2);
+        
+        ConcurrencyTestSupport.runConcurrently(t -> {
+            Random random = new Random(t);
+            if (t % 2 == 0) {
+                for (int i = 0; i < 100000; i++) {
+                    int value = random.nextInt(1000) * 2 + 1;
+                    if (random.nextBoolean()) {
+                        set.insert(value);
+                    } else {
+                        set.delete(value);
+                    }
+                }
+                if (writersLeft.decrementAndGet() == 0) {
+                    writersDone.set(true);
+                }
+            } else {
+                while (!writersDone.get()) {
+                    int stable = random.nextInt(1000) * 2;
+                    if (!set.search(stable) || set.search(-1 - stable)) {
+                        throw new AssertionError("Membership wrong around " + stable);
+                    }
+                    // The stable key two below bounds every answer from below
+                    int floor = set.floor(stable + 1).getAsInt();
+                    int lower = set.lower(stable).orElse(-2);
+                    if (floor < stable || lower < stable - 2) {
+                        throw new AssertionError("Navigation skipped a stable key near " + stable);
+                    }
+                    
+                    long previous = Long.MIN_VALUE;
+                    int stableSeen = 0;
+                    PrimitiveIterator.OfInt iterator = set.iterator();
+                    while (iterator.hasNext()) {
+                        int value = iterator.nextInt();
+                        if (value <= previous) {
+                            throw new AssertionError("Iteration out of order at " + value);
+                        }
+                        previous = value;
+                        stableSeen += value % 2 == 0 ? 1 : 0;
+                    }
+                    if (stableSeen != 1000) {
+                        throw new AssertionError("Iteration saw " + stableSeen + " of 1000 stable keys");
+                    }
+                }
+            }
+        });
+        
+        assert set.findMin() == 0 && set.findMax() >= 1998 : "Stable bounds should survive churn";
+    }
+    
+    /**
+     * Runs all tests
+     */
+    public static void main(String[] args) {
+        ConcurrentSkipListIntSetTest tester = new ConcurrentSkipListIntSetTest();
+        
+        System.out.println("=== Concurrent Skip List Int Set Test Suite ===\n");
+        System.out.println("Using " + THREADS + " threads");
+        
+        try {
+            tester.testDisjointWriters();
+            tester.testContendedWriters();
+            tester.testReadersDuringChurn();
+            
+            System.out.println("🎉 ALL TESTS PASSED! 🎉");
+        } catch (AssertionError e) {
+            System.err.println("❌ TEST FAILED: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("❌ UNEXPECTED ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+import java.util.Arrays;
+import java.util.OptionalInt;
+import java.util.Random;
+
+/**
+ * Test suite for the read-optimized frozen index.
+ * Every query is checked against BinarySearchTree on the same keys,
+ * including sizes that leave the last leaf block partly filled.
+ * 
+ * Test Coverage:
+ * - Basic queries: search, min/max, empty index
+ * - Reference comparison: search, rank, floor, ceiling, range queries
+ * - Snapshot semantics: later tree changes are not visible
+ * - Memory footprint: much smaller than the pointer tree
+ * - Multiset trees: rejected, since the index holds distinct keys only
+ * 
+ * Usage:
+ * 1. Compile: javac -cp src test/*.java
+ * 2. Run: java -ea -cp src:test FrozenBinarySearchTreeTest
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class FrozenBinarySearchTreeTest {
+    
+    /**
+     * Test basic queries on a small index
+     */
+    public void testBasicOperations() {
+        FrozenBinarySearchTree index = FrozenBinarySearchTree.fromSorted(new int[] {20, 30, 40, 50, 60, 70, 80});
+        assert index.getSize() == 7 : "Size should match input";
+        assert index.search(50) && index.search(20) && index.search(80) : "Should find present keys";
+        assert !index.search(10) && !index.search(45) && !index.search(90) : "Should not find absent keys";
+        assert index.findMin() == 20 && index.findMax() == 80 : "Should find min and max";
+        assert index.rangeCount(25, 65) == 4 : "Range count should be inclusive";
+        
+        FrozenBinarySearchTree empty = FrozenBinarySearchTree.fromSorted(new int[0]);
+        assert empty.isEmpty() && !empty.search(0) : "Empty index holds nothing";
+        assert !empty.floor(0).isPresent() && !empty.ceiling(0).isPresent() : "Empty index has no floor/ceiling";
+        try {
+            empty.findMin();
+            assert false : "Should throw exception for empty index";
+        } catch (IllegalStateException e) {
+            // Expected behavior
+        }
+        try {
+            FrozenBinarySearchTree.fromSorted(new int[] {1, 1});
+            assert false : "Should reject duplicate keys";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Test every query against the pointer tree for many sizes
+     */
+    public void testMatchesReferenceTree() {
+        Random random = new Random(5);
+        int[] sizes = {1, 15, 16, 17, 31, 33, 255, 1000, 4099};
+        for (int n : sizes) {
+            BinarySearchTree reference = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+            for (int i = 0; i < n; i++) {
+                reference.insert(random.nextInt(8 * n) - 4 * n);
+            }
+            FrozenBinarySearchTree index = reference.freeze();
+            assert index.getSize() == reference.getSize() : "Size mismatch for n=" + n;
+            assert index.findMin() == reference.findMin() && index.findMax() == reference.findMax() : "Min/max mismatch";
+            
+            for (int value = -4 * n - 2; value <= 4 * n + 2; value++) {
+                assert index.search(value) == reference.search(value) : "search(" + value + ") mismatch for n=" + n;
+                assert index.rank(value) == reference.rank(value) : "rank(" + value + ") mismatch for n=" + n;
+                assert index.floor(value).equals(reference.floor(value)) : "floor(" + value + ") mismatch";
+                assert index.ceiling(value).equals(reference.ceiling(value)) : "ceiling(" + value + ") mismatch";
+            }
+            for (int i = 0; i < 200; i++) {
+                int lo = random.nextInt(10 * n) - 5 * n;
+                int hi = lo + random.nextInt(2 * n);
+                assert index.rangeCount(lo, hi) == reference.rangeCount(lo, hi) : "rangeCount mismatch";
+            }
+            for (int k = 0; k < n; k += 7) {
+                if (k < index.getSize()) {
+                    assert index.select(k) == reference.select(k) : "select(" + k + ") mismatch";
+                }
+            }
+        }
+    }
+    
+    /**
+     * Test range scans, including the extreme bounds
+     */
+    public void testRangeScan() {
+        int[] keys = {Integer.MIN_VALUE, -5, 0, 5, 17, Integer.MAX_VALUE};
+        FrozenBinarySearchTree index = FrozenBinarySearchTree.fromSorted(keys);
+        
+        int[] all = new int[keys.length];
+        int[] count = {0};
+        index.rangeScan(Integer.MIN_VALUE, Integer.MAX_VALUE, value -> all[count[0]++] = value);
+        assert Arrays.equals(all, keys) : "Full scan should return every key in order";
+        assert index.rangeCount(Integer.MIN_VALUE, Integer.MAX_VALUE) == keys.length : "Full range count";
+        assert index.rangeCount(-5, 5) == 3 && index.rangeCount(6, 16) == 0 : "Partial range counts";
+        assert index.floor(16).equals(OptionalInt.of(5)) && index.ceiling(6).equals(OptionalInt.of(17)) : "Floor/ceiling";
+    }
+    
+    /**
+     * Test that the index is a snapshot and is much smaller than the tree
+     */
+    public void testSnapshotAndFootprint() {
+        int n = 100000;
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = 2 * i;
+        }
+        BinarySearchTree tree = BinarySearchTree.fromSorted(values, BinarySearchTree.BalanceMode.AVL);
+        FrozenBinarySearchTree index = tree.freeze();
+        tree.insert(1);
+        tree.delete(0);
+        
+        assert !index.search(1) && index.search(0) : "Index should not see later tree changes";
+        assert Arrays.equals(index.toSortedArray(), values) : "Index contents should match the snapshot";
+        
+        long treeBytes = tree.estimateMemoryFootprint();
+        long indexBytes = index.estimateMemoryFootprint();
+        System.out.println("Footprint for " + n + " keys: tree=" + treeBytes + " bytes, frozen=" + indexBytes + " bytes");
+        assert indexBytes * 4 < treeBytes : "Frozen index should be several times smaller";
+    }
+    
+    /**
+     * Test that multiset trees are rejected instead of frozen with repeated keys
+     */
+    public void testMultisetRejected() {
+        BinarySearchTree multiset = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL, true);
+        multiset.insertAll(new int[] {5, 5, 7});
+        try {
+            multiset.freeze();
+            assert false : "Freezing a multiset should throw";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+        try {
+            FrozenBinarySearchTree.fromTree(multiset);
+            assert false : "fromTree on a multiset should throw";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Runs all tests
+     */
+    public static void main(String[] args) {
+        FrozenBinarySearchTreeTest tester = new FrozenBinarySearchTreeTest();
+        
+        System.out.println("=== Frozen Binary Search Tree Test Suite ===\n");
+        
+        try {
+            tester.testBasicOperations();
+            tester.testMatchesReferenceTree();
+            tester.testRangeScan();
+            tester.testSnapshotAndFootprint();
+            tester.testMultisetRejected();
+            
+            System.out.println("🎉 ALL TESTS PASSED! 🎉");
+        } catch (AssertionError e) {
+            System.err.println("❌ TEST FAILED: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("❌ UNEXPECTED ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
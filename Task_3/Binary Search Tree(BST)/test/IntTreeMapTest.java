@@ -0,0 +1,159 @@
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Test suite for the primitive int-keyed ordered map.
+ * java.util.TreeMap serves as the reference implementation.
+ * 
+ * Test Coverage:
+ * - Basic operations: put/replace, get, containsKey, remove, empty map
+ * - Ordered queries: floor/ceiling keys and values, first/last key
+ * - Ordered iteration: entry callback and primitive key iterator
+ * - Randomized comparison with TreeMap in both balance modes
+ * 
+ * Usage:
+ * 1. Compile: javac -cp src test/*.java
+ * 2. Run: java -ea -cp src:test IntTreeMapTest
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class IntTreeMapTest {
+    
+    /**
+     * Test put, get and remove on a small map
+     */
+    public void testBasicOperations() {
+        IntTreeMap<String> map = new IntTreeMap<>();
+        assert map.isEmpty() && map.get(1) == null : "New map should be empty";
+        
+        assert map.put(50, "fifty") == null : "First put returns null";
+        assert map.put(30, "thirty") == null && map.put(70, "seventy") == null : "New keys return null";
+        assert "fifty".equals(map.put(50, "FIFTY")) : "Replacing returns the previous payload";
+        assert map.getSize() == 3 : "Replacing does not add an entry";
+        assert "FIFTY".equals(map.get(50)) && map.containsKey(30) && !map.containsKey(40) : "Lookups";
+        
+        assert "FIFTY".equals(map.remove(50)) : "Removing the root (two children) returns its payload";
+        assert map.remove(50) == null : "Removing a missing key returns null";
+        assert "thirty".equals(map.get(30)) && "seventy".equals(map.get(70)) : "Other entries survive";
+        assert map.firstKey() == 30 && map.lastKey() == 70 : "First and last keys";
+        
+        try {
+            map.put(1, null);
+            assert false : "Null payloads should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+        try {
+            new IntTreeMap<String>().firstKey();
+            assert false : "Should throw exception for empty map";
+        } catch (IllegalStateException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Test floor and ceiling lookups with their payloads
+     */
+    public void testFloorCeiling() {
+        IntTreeMap<String> map = new IntTreeMap<>();
+        for (int key : new int[] {10, 20, 30, 40}) {
+            map.put(key, "v" + key);
+        }
+        
+        assert map.floorKey(25).getAsInt() == 20 && "v20".equals(map.floorValue(25)) : "Floor between keys";
+        assert map.floorKey(30).getAsInt() == 30 : "Floor of a present key is the key";
+        assert !map.floorKey(5).isPresent() && map.floorValue(5) == null : "No floor below the minimum";
+        assert map.ceilingKey(25).getAsInt() == 30 && "v30".equals(map.ceilingValue(25)) : "Ceiling between keys";
+        assert !map.ceilingKey(41).isPresent() && map.ceilingValue(41) == null : "No ceiling above the maximum";
+    }
+    
+    /**
+     * Test ordered iteration over entries and keys
+     */
+    public void testOrderedIteration() {
+        IntTreeMap<Integer> map = new IntTreeMap<>();
+        int[] keys = {5, -3, 12, 0, 8};
+        for (int key : keys) {
+            map.put(key, key * 10);
+        }
+        
+        int[] previous = {Integer.MIN_VALUE};
+        int[] count = {0};
+        map.forEach((key, value) -> {
+            assert key > previous[0] : "Entries should arrive in ascending key order";
+            assert value == key * 10 : "Each key should arrive with its own payload";
+            previous[0] = key;
+            count[0]++;
+        });
+        assert count[0] == keys.length : "Every entry should be visited";
+        
+        PrimitiveIterator.OfInt iterator = map.keyIterator();
+        int[] expected = {-3, 0, 5, 8, 12};
+        for (int key : expected) {
+            assert iterator.hasNext() && iterator.nextInt() == key : "Key iterator order mismatch";
+        }
+        assert !iterator.hasNext() : "Key iterator should be exhausted";
+    }
+    
+    /**
+     * Test a random workload against TreeMap
+     */
+    public void testMatchesTreeMap() {
+        BinarySearchTree.BalanceMode[] modes = {BinarySearchTree.BalanceMode.NONE, BinarySearchTree.BalanceMode.AVL};
+        for (BinarySearchTree.BalanceMode mode : modes) {
+            IntTreeMap<Integer> map = new IntTreeMap<>(mode);
+            TreeMap<Integer, Integer> reference = new TreeMap<>();
+            Random random = new Random(13);
+            
+            for (int i = 0; i < 50000; i++) {
+                int key = random.nextInt(3000);
+                int op = random.nextInt(4);
+                if (op == 0) {
+                    assert Objects.equals(map.remove(key), reference.remove(key)) : "remove mismatch";
+                } else if (op == 1) {
+                    Integer floor = reference.floorKey(key);
+                    assert floor == null ? !map.floorKey(key).isPresent() : map.floorKey(key).getAsInt() == floor
+                            : "floorKey mismatch";
+                } else {
+                    assert Objects.equals(map.put(key, i), reference.put(key, i)) : "put mismatch";
+                }
+            }
+            
+            assert map.getSize() == reference.size() : "Size mismatch in mode " + mode;
+            for (int key = 0; key < 3000; key++) {
+                assert Objects.equals(map.get(key), reference.get(key)) : "get(" + key + ") mismatch";
+            }
+            if (mode == BinarySearchTree.BalanceMode.AVL) {
+                int n = map.getSize();
+                assert map.getHeight() <= 1.4405 * (Math.log(n + 2) / Math.log(2)) : "AVL height too large";
+            }
+        }
+    }
+    
+    /**
+     * Runs all tests
+     */
+    public static void main(String[] args) {
+        IntTreeMapTest tester = new IntTreeMapTest();
+        
+        System.out.println("=== Int Tree Map Test Suite ===\n");
+        
+        try {
+            tester.testBasicOperations();
+            tester.testFloorCeiling();
+            tester.testOrderedIteration();
+            tester.testMatchesTreeMap();
+            
+            System.out.println("🎉 ALL TESTS PASSED! 🎉");
+        } catch (AssertionError e) {
+            System.err.println("❌ TEST FAILED: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("❌ UNEXPECTED ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
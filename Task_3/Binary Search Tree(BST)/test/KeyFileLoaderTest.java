@@ -0,0 +1,263 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test suite for streaming key files into trees with KeyFileLoader.
+ * 
+ * Test Coverage:
+ * - Text parsing: signs, extremes, leading zeros, CRLF, blank lines, other whitespace
+ * - Block boundaries: keys split across reads for many buffer sizes
+ * - Binary keys: files and channels of unknown length, keys split across reads
+ * - Malformed input: bad bytes, lone signs, out-of-range keys, truncated binary data
+ * - Loading: format detection, bulk insert into a set, balanced tree build
+ * - Allocation: a binary load allocates little beyond the key array
+ * 
+ * Usage:
+ * 1. Compile: javac -cp src test/*.java
+ * 2. Run: java -ea -cp src:test KeyFileLoaderTest
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class KeyFileLoaderTest {
+    
+    /** Buffer sizes exercising every split position of a key */
+    private static final int[] BUFFER_SIZES = {4, 5, 7, 9, 13, 64, 1000, KeyFileLoader.DEFAULT_BUFFER_BYTES};
+    
+    /**
+     * Parses text from memory through a channel of unknown length
+     */
+    private static int[] parseText(String text, int bufferBytes) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        return new KeyFileLoader(bufferBytes).readKeys(Channels.newChannel(new ByteArrayInputStream(bytes)), KeyFileLoader.Format.TEXT);
+    }
+    
+    /**
+     * Encodes keys as little-endian ints
+     */
+    private static byte[] toBinary(int[] keys) {
+        ByteBuffer buffer = ByteBuffer.allocate(keys.length * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int key : keys) {
+            buffer.putInt(key);
+        }
+        return buffer.array();
+    }
+    
+    /**
+     * Checks that parsing the text fails with an IOException mentioning the fragment
+     */
+    private static void assertRejected(String text, String fragment) {
+        for (int bufferBytes : new int[] {4, KeyFileLoader.DEFAULT_BUFFER_BYTES}) {
+            try {
+                parseText(text, bufferBytes);
+                assert false : "Should reject " + text.replace("\n", "\\n");
+            } catch (IOException e) {
+                assert e.getMessage().contains(fragment) : "Unexpected message: " + e.getMessage();
+            }
+        }
+    }
+    
+    /**
+     * Test the text grammar on hand-written input
+     */
+    public void testTextGrammar() throws IOException {
+        String text = "42\n-7\n+13\n\n0\n-0\n007\r\n2147483647\n-2147483648\n  5\t6 \n\n1234567\n12345678\n123456789";
+        int[] expected = {42, -7, 13, 0, 0, 7, Integer.MAX_VALUE, Integer.MIN_VALUE, 5, 6, 1234567, 12345678, 123456789};
+        for (int bufferBytes : BUFFER_SIZES) {
+            assert Arrays.equals(parseText(text, bufferBytes), expected) : "Mismatch with buffer of " + bufferBytes;
+        }
+        assert parseText("", 16).length == 0 && parseText("\n\r\n  \n", 16).length == 0 : "Blank input has no keys";
+    }
+    
+    /**
+     * Test random keys of every length and sign with random separators against Integer.toString
+     */
+    public void testRandomText() throws IOException {
+        Random random = new Random(17);
+        String[] separators = {"\n", "\n", "\n", "\r\n", " ", "\t", "\n\n"};
+        int[] keys = new int[20000];
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            // Spread lengths evenly from 1 to 10 digits
+            int digits = 1 + random.nextInt(10);
+            long bound = (long) Math.pow(10, digits);
+            keys[i] = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, (random.nextBoolean() ? -1 : 1) * (random.nextLong() & Long.MAX_VALUE) % bound));
+            if (keys[i] >= 0 && random.nextInt(10) == 0) {
+                text.append('+');
+            }
+            text.append(keys[i]).append(separators[random.nextInt(separators.length)]);
+        }
+        
+        for (int bufferBytes : BUFFER_SIZES) {
+            assert Arrays.equals(parseText(text.toString(), bufferBytes), keys) : "Mismatch with buffer of " + bufferBytes;
+        }
+    }
+    
+    /**
+     * Test that malformed text is rejected with the line it was found on
+     */
+    public void testMalformedText() {
+        assertRejected("1\n2\n3x\n", "line 3");
+        assertRejected("1\n--5\n", "line 2");
+        assertRejected("1\n-\n", "Sign without digits on line 2");
+        assertRejected("1\n2\n+", "Sign without digits on line 3");
+        assertRejected("5-\n", "Unexpected byte 0x2d");
+        assertRejected("2147483648\n", "out of int range on line 1");
+        assertRejected("1\n-2147483649", "out of int range on line 2");
+        assertRejected("99999999999999999999999\n", "out of int range");
+        assertRejected("12345678901\n", "out of int range");
+        assertRejected("1,2\n", "Unexpected byte 0x2c");
+    }
+    
+    /**
+     * Test binary keys from files and from channels of unknown length
+     */
+    public void testBinaryKeys() throws IOException {
+        int[] keys = new Random(3).ints(100003).toArray();
+        keys[0] = Integer.MIN_VALUE;
+        keys[1] = Integer.MAX_VALUE;
+        byte[] bytes = toBinary(keys);
+        
+        for (int bufferBytes : BUFFER_SIZES) {
+            KeyFileLoader loader = new KeyFileLoader(bufferBytes);
+            int[] read = loader.readKeys(Channels.newChannel(new ByteArrayInputStream(bytes)), KeyFileLoader.Format.BINARY);
+            assert Arrays.equals(read, keys) : "Channel mismatch with buffer of " + bufferBytes;
+        }
+        
+        Path file = Files.createTempFile("keys", ".bin");
+        try {
+            Files.write(file, bytes);
+            KeyFileLoader loader = new KeyFileLoader(4096);
+            assert Arrays.equals(loader.readKeys(file, KeyFileLoader.Format.BINARY), keys) : "File mismatch";
+            // The same loader (and buffer) serves any number of files
+            assert Arrays.equals(loader.readKeys(file, KeyFileLoader.Format.BINARY), keys) : "Reused loader mismatch";
+            
+            Files.write(file, Arrays.copyOf(bytes, 4099));
+            try {
+                loader.readKeys(file, KeyFileLoader.Format.BINARY);
+                assert false : "Should reject a file that is not a whole number of keys";
+            } catch (IOException e) {
+                // Expected behavior
+            }
+        } finally {
+            Files.delete(file);
+        }
+        
+        try {
+            new KeyFileLoader(8).readKeys(Channels.newChannel(new ByteArrayInputStream(Arrays.copyOf(bytes, 10))), KeyFileLoader.Format.BINARY);
+            assert false : "Should reject a channel ending inside a key";
+        } catch (IOException e) {
+            assert e.getMessage().contains("2 stray bytes") : "Unexpected message: " + e.getMessage();
+        }
+        
+        try {
+            new KeyFileLoader(3);
+            assert false : "Buffer smaller than a key should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Test format detection and loading into sets and trees
+     */
+    public void testLoading() throws IOException {
+        int[] keys = new Random(9).ints(50000, -1000000, 1000000).toArray();
+        StringBuilder text = new StringBuilder();
+        for (int key : keys) {
+            text.append(key).append('\n');
+        }
+        int[] sorted = Arrays.stream(keys).sorted().distinct().toArray();
+        
+        Path binary = Files.createTempFile("keys", ".bin");
+        Path textFile = Files.createTempFile("keys", ".txt");
+        try {
+            Files.write(binary, toBinary(keys));
+            Files.writeString(textFile, text, StandardCharsets.US_ASCII);
+            KeyFileLoader loader = new KeyFileLoader();
+            assert loader.detectFormat(binary) == KeyFileLoader.Format.BINARY : "Binary file not detected";
+            assert loader.detectFormat(textFile) == KeyFileLoader.Format.TEXT : "Text file not detected";
+            Files.writeString(binary, "1\n2x\n");
+            assert loader.detectFormat(binary) == KeyFileLoader.Format.TEXT : "Text with a typo is still text";
+            Files.write(binary, toBinary(keys));
+            
+            BinarySearchTree tree = loader.load(textFile, KeyFileLoader.Format.TEXT, BinarySearchTree.BalanceMode.AVL);
+            assert Arrays.equals(tree.toSortedArray(), sorted) : "Loaded tree contents mismatch";
+            assert tree.getHeight() < 2 * (32 - Integer.numberOfLeadingZeros(tree.getSize())) : "Loaded tree should be balanced";
+            
+            OrderedIntSet set = new TreapIntSet();
+            set.insert(5000000);
+            assert loader.loadInto(binary, KeyFileLoader.Format.BINARY, set) == keys.length : "Should report keys read";
+            assert set.getSize() == sorted.length + 1 && set.search(5000000) : "Keys should be added to the existing set";
+            assert set.findMin() == sorted[0] : "Minimum mismatch";
+        } finally {
+            Files.delete(binary);
+            Files.delete(textFile);
+        }
+    }
+    
+    /**
+     * Test that reading a binary file allocates little more than the key array
+     */
+    public void testBinaryLoadAllocation() throws IOException {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("Per-thread allocation counters unavailable, skipping");
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        
+        int n = 1 << 20;
+        Path file = Files.createTempFile("keys", ".bin");
+        try {
+            Files.write(file, toBinary(new Random(1).ints(n).toArray()));
+            KeyFileLoader loader = new KeyFileLoader();
+            loader.readKeys(file, KeyFileLoader.Format.BINARY); // warm up
+            
+            long threadId = Thread.currentThread().getId();
+            long before = threads.getThreadAllocatedBytes(threadId);
+            int[] keys = loader.readKeys(file, KeyFileLoader.Format.BINARY);
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+            
+            assert keys.length == n : "Key count mismatch";
+            assert allocated < (long) n * Integer.BYTES + 64 * 1024 : "Read allocated " + allocated + " bytes for " + n + " keys";
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    /**
+     * Runs all tests
+     */
+    public static void main(String[] args) {
+        KeyFileLoaderTest tester = new KeyFileLoaderTest();
+        
+        System.out.println("=== Key File Loader Test Suite ===\n");
+        
+        try {
+            tester.testTextGrammar();
+            tester.testRandomText();
+            tester.testMalformedText();
+            tester.testBinaryKeys();
+            tester.testLoading();
+            tester.testBinaryLoadAllocation();
+            
+            System.out.println("🎉 ALL TESTS PASSED! 🎉");
+        } catch (AssertionError e) {
+            System.err.println("❌ TEST FAILED: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("❌ UNEXPECTED ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
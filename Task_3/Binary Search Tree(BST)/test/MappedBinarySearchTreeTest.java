@@ -0,0 +1,201 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Test suite for the memory-mapped Binary Search Tree.
+ * Each test works on its own temporary file, which is deleted afterwards.
+ * 
+ * Test Coverage:
+ * - Basic operations: insert, search, delete, min/max, empty tree
+ * - Reference comparison: random workload against an AVL BinarySearchTree
+ * - Persistence: contents and shape survive close and reopen, across segments
+ * - Error handling: foreign files and use after close are rejected
+ * - Corrupt headers: out-of-range high-water mark, root and free list head are rejected
+ * 
+ * Usage:
+ * 1. Compile: javac -cp src test/*.java
+ * 2. Run: java -ea -cp src:test MappedBinarySearchTreeTest
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class MappedBinarySearchTreeTest {
+    
+    /**
+     * Creates an empty temporary file for one test
+     */
+    private static Path tempFile() throws IOException {
+        Path file = Files.createTempFile("bst", ".tree");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+    
+    /**
+     * Writes a valid three-node tree file, then overwrites one little-endian header int
+     */
+    private static Path corruptedFile(int offset, int value) throws IOException {
+        Path file = tempFile();
+        try (MappedBinarySearchTree tree = MappedBinarySearchTree.open(file)) {
+            tree.insert(2);
+            tree.insert(1);
+            tree.insert(3);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            bytes.putInt(value).flip();
+            channel.write(bytes, offset);
+        }
+        return file;
+    }
+    
+    /**
+     * Collects the tree's values in ascending order
+     */
+    private static int[] contents(MappedBinarySearchTree tree) {
+        int[] values = new int[tree.getSize()];
+        int[] index = {0};
+        tree.forEachInorder(value -> values[index[0]++] = value);
+        return values;
+    }
+    
+    /**
+     * Test insert, search and delete on a small tree
+     */
+    public void testBasicOperations() throws IOException {
+        try (MappedBinarySearchTree tree = MappedBinarySearchTree.open(tempFile())) {
+            assert tree.isEmpty() && tree.getHeight() == -1 : "New tree should be empty";
+            for (int value : new int[] {50, 30, 70, 20, 40, 60, 80, 50}) {
+                tree.insert(value);
+            }
+            assert tree.getSize() == 7 : "Duplicates should be ignored";
+            assert tree.findMin() == 20 && tree.findMax() == 80 : "Should find min and max";
+            
+            tree.delete(30);
+            tree.delete(99);
+            assert !tree.search(30) && tree.search(20) && tree.search(40) : "Delete should remove only the value";
+            assert tree.getSize() == 6 : "Size should drop after deletion";
+        }
+    }
+    
+    /**
+     * Test a random workload against the heap AVL tree, then reopen and compare again
+     */
+    public void testMatchesReferenceAndReopens() throws IOException {
+        Path file = tempFile();
+        BinarySearchTree reference = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        Random random = new Random(9);
+        
+        try (MappedBinarySearchTree tree = MappedBinarySearchTree.open(file)) {
+            // More than one segment's worth of records
+            for (int i = 0; i < 150000; i++) {
+                int value = random.nextInt(200000);
+                if (random.nextInt(4) == 0) {
+                    reference.delete(value);
+                    tree.delete(value);
+                } else {
+                    reference.insert(value);
+                    tree.insert(value);
+                }
+            }
+            assert tree.getSize() == reference.getSize() : "Size mismatch";
+            assert tree.getHeight() == reference.getHeight() : "Same AVL algorithm should give the same height";
+        }
+        
+        try (MappedBinarySearchTree reopened = MappedBinarySearchTree.open(file)) {
+            assert reopened.getSize() == reference.getSize() : "Size should survive reopening";
+            assert Arrays.equals(contents(reopened), reference.toSortedArray()) : "Contents should survive reopening";
+            
+            // Keep working on the reopened file, reusing freed records
+            for (int i = 0; i < 1000; i++) {
+                reopened.insert(-i);
+                reference.insert(-i);
+            }
+            assert reopened.findMin() == reference.findMin() : "Reopened tree should accept updates";
+        }
+    }
+    
+    /**
+     * Test that foreign files and closed trees are rejected
+     */
+    public void testErrors() throws IOException {
+        Path foreign = tempFile();
+        Files.write(foreign, new byte[64]);
+        try {
+            MappedBinarySearchTree.open(foreign).close();
+            assert false : "Should reject a file without the signature";
+        } catch (IOException e) {
+            // Expected behavior
+        }
+        
+        MappedBinarySearchTree tree = MappedBinarySearchTree.open(tempFile());
+        tree.close();
+        tree.close(); // Closing twice is harmless
+        try {
+            tree.search(1);
+            assert false : "Should reject use after close";
+        } catch (IllegalStateException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Test that header indices pointing outside the file are rejected without growing it
+     */
+    public void testCorruptHeaders() throws IOException {
+        int[][] cases = {
+            {12, 1_000_000}, // high-water mark beyond the records in the file
+            {12, -1},        // negative high-water mark
+            {8, 3},          // root at the high-water mark
+            {8, -7},         // root below NIL
+            {16, 3},         // free list head at the high-water mark
+            {16, Integer.MIN_VALUE}
+        };
+        for (int[] c : cases) {
+            Path file = corruptedFile(c[0], c[1]);
+            long size = Files.size(file);
+            try {
+                MappedBinarySearchTree.open(file).close();
+                assert false : "Should reject header int " + c[1] + " at offset " + c[0];
+            } catch (IOException e) {
+                // Expected behavior
+            }
+            assert Files.size(file) == size : "Rejecting a corrupt header should not grow the file";
+        }
+        
+        // Rewriting the root with its own index leaves a valid file that still opens
+        try (MappedBinarySearchTree tree = MappedBinarySearchTree.open(corruptedFile(8, 0))) {
+            assert Arrays.equals(contents(tree), new int[]{1, 2, 3}) : "A valid header should open";
+        }
+    }
+    
+    /**
+     * Runs all tests
+     */
+    public static void main(String[] args) {
+        MappedBinarySearchTreeTest tester = new MappedBinarySearchTreeTest();
+        
+        System.out.println("=== Mapped Binary Search Tree Test Suite ===\n");
+        
+        try {
+            tester.testBasicOperations();
+            tester.testMatchesReferenceAndReopens();
+            tester.testErrors();
+            tester.testCorruptHeaders();
+            
+            System.out.println("🎉 ALL TESTS PASSED! 🎉");
+        } catch (AssertionError e) {
+            System.err.println("❌ TEST FAILED: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("❌ UNEXPECTED ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
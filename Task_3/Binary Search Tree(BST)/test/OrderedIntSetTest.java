@@ -0,0 +1,204 @@
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Contract tests for every OrderedIntSet implementation, plus the factory.
+ * java.util.TreeSet serves as the reference implementation.
+ * 
+ * Test Coverage:
+ * - Basic operations and navigation on a small set, for every implementation
+ * - Randomized comparison with TreeSet, including extreme values
+ * - Treap: stays shallow under sorted inserts, reproducible with a seed
+ * - Factory: hint rules, option parsing, rejected options
+ * 
+ * Usage:
+ * 1. Compile: javac -cp src test/*.java
+ * 2. Run: java -ea -cp src:test OrderedIntSetTest
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class OrderedIntSetTest {
+    
+    /**
+     * Checks an OptionalInt against a possibly-null reference value
+     */
+    private static boolean matches(OptionalInt actual, Integer expected) {
+        return expected == null ? !actual.isPresent() : actual.isPresent() && actual.getAsInt() == expected;
+    }
+    
+    /**
+     * Test the basic operations on a small set, for every implementation
+     */
+    public void testBasicOperations() {
+        for (OrderedIntSetFactory.Implementation implementation : OrderedIntSetFactory.Implementation.values()) {
+            OrderedIntSet set = OrderedIntSetFactory.create(implementation);
+            assert set.isEmpty() && set.getSize() == 0 : implementation + ": new set should be empty";
+            assert !set.iterator().hasNext() : implementation + ": empty iterator";
+            try {
+                set.findMin();
+                assert false : implementation + ": findMin on an empty set should throw";
+            } catch (IllegalStateException e) {
+                // Expected behavior
+            }
+            
+            set.insertAll(new int[] {50, 30, 70, 20, 40, 60, 80});
+            set.insert(50); // Duplicate should be ignored
+            assert set.getSize() == 7 : implementation + ": size should match distinct insertions";
+            assert set.findMin() == 20 && set.findMax() == 80 : implementation + ": min/max";
+            assert set.search(40) && !set.search(45) : implementation + ": search";
+            assert set.floor(45).getAsInt() == 40 && set.ceiling(45).getAsInt() == 50 : implementation + ": floor/ceiling";
+            assert set.higher(50).getAsInt() == 60 && set.lower(50).getAsInt() == 40 : implementation + ": higher/lower";
+            assert !set.higher(80).isPresent() && !set.lower(20).isPresent() : implementation + ": no neighbour";
+            assert set.rangeCount(30, 60) == 4 && set.rangeCount(60, 30) == 0 : implementation + ": rangeCount";
+            
+            set.delete(50); // Two children in the trees
+            set.delete(99); // Missing
+            assert Arrays.equals(set.toSortedArray(), new int[] {20, 30, 40, 60, 70, 80}) : implementation + ": contents";
+        }
+    }
+    
+    /**
+     * Test a random workload against TreeSet, for every implementation
+     */
+    public void testMatchesTreeSet() {
+        for (OrderedIntSetFactory.Implementation implementation : OrderedIntSetFactory.Implementation.values()) {
+            OrderedIntSet set = OrderedIntSetFactory.create(implementation);
+            TreeSet<Integer> reference = new TreeSet<>();
+            Random random = new Random(19);
+            
+            for (int i = 0; i < 40000; i++) {
+                // Mostly a dense range, sometimes the extremes to exercise overflow-prone bounds
+                int value = random.nextInt(50) == 0
+                        ? (random.nextBoolean() ? Integer.MIN_VALUE : Integer.MAX_VALUE)
+                        : random.nextInt(2000) - 1000;
+                int operation = random.nextInt(6);
+                if (operation == 0) {
+                    set.delete(value);
+                    reference.remove(value);
+                } else if (operation == 1) {
+                    assert set.search(value) == reference.contains(value) : implementation + ": search(" + value + ")";
+                } else if (operation == 2) {
+                    assert matches(set.floor(value), reference.floor(value)) : implementation + ": floor(" + value + ")";
+                    assert matches(set.higher(value), reference.higher(value)) : implementation + ": higher(" + value + ")";
+                } else if (operation == 3) {
+                    assert matches(set.ceiling(value), reference.ceiling(value)) : implementation + ": ceiling(" + value + ")";
+                    assert matches(set.lower(value), reference.lower(value)) : implementation + ": lower(" + value + ")";
+                } else {
+                    set.insert(value);
+                    reference.add(value);
+                }
+            }
+            
+            assert set.getSize() == reference.size() : implementation + ": size mismatch";
+            int[] expected = reference.stream().mapToInt(Integer::intValue).toArray();
+            assert Arrays.equals(set.toSortedArray(), expected) : implementation + ": contents mismatch";
+            assert set.findMin() == reference.first() && set.findMax() == reference.last() : implementation + ": min/max";
+            
+            int[] iterated = new int[expected.length];
+            int count = 0;
+            PrimitiveIterator.OfInt iterator = set.iterator();
+            while (iterator.hasNext()) {
+                iterated[count++] = iterator.nextInt();
+            }
+            assert Arrays.equals(iterated, expected) : implementation + ": iterator mismatch";
+            
+            int[] scanned = new int[expected.length];
+            int[] scannedCount = new int[1];
+            set.rangeScan(-500, 500, value -> scanned[scannedCount[0]++] = value);
+            int expectedInRange = reference.subSet(-500, true, 500, true).size();
+            assert scannedCount[0] == expectedInRange && set.rangeCount(-500, 500) == expectedInRange
+                    : implementation + ": range mismatch";
+            
+            int[] probes = new int[3000];
+            for (int i = 0; i < probes.length; i++) {
+                probes[i] = i % 100 == 0 ? Integer.MIN_VALUE : random.nextInt(2200) - 1100;
+            }
+            boolean[] found = set.searchAll(probes);
+            for (int i = 0; i < probes.length; i++) {
+                assert found[i] == reference.contains(probes[i]) : implementation + ": searchAll(" + probes[i] + ")";
+            }
+        }
+    }
+    
+    /**
+     * Test that the treap stays shallow for sorted input and is reproducible with a seed
+     */
+    public void testTreapShape() {
+        int n = 200000;
+        TreapIntSet sorted = new TreapIntSet(5);
+        TreapIntSet again = new TreapIntSet(5);
+        for (int i = 0; i < n; i++) {
+            sorted.insert(i);
+            again.insert(i);
+        }
+        
+        // Expected depth is about 2 ln n; 4 log2 n leaves a wide margin
+        double log2 = Math.log(n) / Math.log(2);
+        assert sorted.getHeight() <= 4 * log2 : "Treap height too large: " + sorted.getHeight();
+        assert sorted.getHeight() == again.getHeight() : "Same seed should give the same shape";
+        
+        for (int i = 0; i < n; i += 2) {
+            sorted.delete(i);
+        }
+        assert sorted.getSize() == n / 2 && sorted.findMin() == 1 : "Deletes should keep the treap consistent";
+        assert sorted.getHeight() <= 4 * log2 : "Treap height too large after deletes: " + sorted.getHeight();
+        assert sorted.estimateMemoryFootprint() < 40L * sorted.getSize() : "Treap nodes should be smaller than tree nodes";
+    }
+    
+    /**
+     * Test the factory's hint rules and option parsing
+     */
+    public void testFactory() {
+        assert OrderedIntSetFactory.choose(EnumSet.noneOf(OrderedIntSetFactory.WorkloadHint.class))
+                == OrderedIntSetFactory.Implementation.AVL_TREE : "Default should be the AVL tree";
+        assert OrderedIntSetFactory.choose(EnumSet.of(OrderedIntSetFactory.WorkloadHint.LOW_MEMORY))
+                == OrderedIntSetFactory.Implementation.TREAP : "Low memory should pick the treap";
+        assert OrderedIntSetFactory.choose(EnumSet.allOf(OrderedIntSetFactory.WorkloadHint.class))
+                == OrderedIntSetFactory.Implementation.CONCURRENT_SKIP_LIST : "Concurrency should win over other hints";
+        
+        assert OrderedIntSetFactory.create(OrderedIntSetFactory.WorkloadHint.CONCURRENT_ACCESS) instanceof ConcurrentSkipListIntSet
+                : "Hints should create the chosen implementation";
+        OrderedIntSet splay = OrderedIntSetFactory.fromOptions("splay-tree", "low_memory");
+        assert splay instanceof BinarySearchTree
+                && ((BinarySearchTree) splay).getBalanceMode() == BinarySearchTree.BalanceMode.SPLAY
+                : "An implementation name should win over hints";
+        assert OrderedIntSetFactory.fromOptions(" Low-Memory ") instanceof TreapIntSet : "Options are case-insensitive";
+        assert OrderedIntSetFactory.fromOptions() instanceof BinarySearchTree : "No options should give the default";
+        
+        try {
+            OrderedIntSetFactory.fromOptions("red-black");
+            assert false : "Unknown options should be rejected";
+        } catch (IllegalArgumentException e) {
+            // Expected behavior
+        }
+    }
+    
+    /**
+     * Runs all tests
+     */
+    public static void main(String[] args) {
+        OrderedIntSetTest tester = new OrderedIntSetTest();
+        
+        System.out.println("=== Ordered Int Set Test Suite ===\n");
+        
+        try {
+            tester.testBasicOperations();
+            tester.testMatchesTreeSet();
+            tester.testTreapShape();
+            tester.testFactory();
+            
+            System.out.println("🎉 ALL TESTS PASSED! 🎉");
+        } catch (AssertionError e) {
+            System.err.println("❌ TEST FAILED: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("❌ UNEXPECTED ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
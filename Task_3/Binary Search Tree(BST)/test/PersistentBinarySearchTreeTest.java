@@ -0,0 +1,181 @@
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Test suite for the persistent (path-copying) Binary Search Tree.
+ * 
+ * Test Coverage:
+ * - Versions: updates return new versions and never change older ones
+ * - Balance: height stays logarithmic for sorted inserts
+ * - Reference comparison: random workload against BinarySearchTree
+ * - Concurrency: readers iterating snapshots while a writer publishes versions,
+ *   several writers publishing through an AtomicReference without lost updates
+ * 
+ * Usage:
+ * 1. Compile: javac -cp src test/*.java
+ * 2. Run: java -ea -cp src:test PersistentBinarySearchTreeTest
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class PersistentBinarySearchTreeTest {
+    
+    /** Latest published version, shared between writer and reader threads */
+    private volatile PersistentBinarySearchTree current;
+    
+    /**
+     * Test that older versions are unaffected by later updates
+     */
+    public void testVersionsAreIndependent() {
+        PersistentBinarySearchTree empty = PersistentBinarySearchTree.empty();
+        PersistentBinarySearchTree v1 = empty.insert(50).insert(30).insert(70);
+        PersistentBinarySearchTree v2 = v1.insert(20).delete(50);
+        PersistentBinarySearchTree v3 = v2.delete(999);
+        
+        assert empty.isEmpty() : "Empty version should stay empty";
+        assert Arrays.equals(v1.toSortedArray(), new int[] {30, 50, 70}) : "v1 should be unchanged";
+        assert Arrays.equals(v2.toSortedArray(), new int[] {20, 30, 70}) : "v2 should reflect its updates";
+        assert v3 == v2 : "Deleting a missing value should return the same version";
+        assert v1.insert(30) == v1 : "Inserting a duplicate should return the same version";
+        assert v1.snapshot() == v1 : "Snapshots are the version itself";
+        assert v1.findMin() == 30 && v2.findMin() == 20 : "Each version has its own minimum";
+    }
+    
+    /**
+     * Test that sorted inserts keep the tree balanced
+     */
+    public void testBalancedUnderSortedInserts() {
+        PersistentBinarySearchTree tree = PersistentBinarySearchTree.empty();
+        int n = 100000;
+        for (int i = 0; i < n; i++) {
+            tree = tree.insert(i);
+        }
+        
+        assert tree.getSize() == n : "Size should match number of insertions";
+        assert tree.getHeight() <= 1.4405 * (Math.log(n + 2) / Math.log(2)) : "Height too large: " + tree.getHeight();
+        assert tree.select(12345) == 12345 && tree.rank(500) == 500 : "Order statistics should work";
+    }
+    
+    /**
+     * Test a random workload against the mutable reference tree
+     */
+    public void testMatchesReferenceTree() {
+        BinarySearchTree reference = new BinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        PersistentBinarySearchTree tree = PersistentBinarySearchTree.fromSorted(new int[] {1, 2, 3});
+        reference.insertAll(new int[] {1, 2, 3});
+        Random random = new Random(3);
+        
+        for (int i = 0; i < 30000; i++) {
+            int value = random.nextInt(3000);
+            if (random.nextInt(3) == 0) {
+                reference.delete(value);
+                tree = tree.delete(value);
+            } else {
+                reference.insert(value);
+                tree = tree.insert(value);
+            }
+        }
+        
+        assert tree.getSize() == reference.getSize() : "Size mismatch";
+        assert Arrays.equals(tree.toSortedArray(), reference.toSortedArray()) : "Contents mismatch";
+        assert tree.findMax() == reference.findMax() : "Max mismatch";
+    }
+    
+    /**
+     * Test that readers always see a complete, sorted snapshot while a writer keeps publishing
+     */
+    public void testSnapshotsUnderConcurrentWrites() throws InterruptedException {
+        current = PersistentBinarySearchTree.empty();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicBoolean failed = new AtomicBoolean();
+        
+        Thread writer = new Thread(() -> {
+            Random random = new Random(11);
+            for (int i = 0; i < 200000; i++) {
+                int value = random.nextInt(5000);
+                current = random.nextBoolean() ? current.insert(value) : current.delete(value);
+            }
+            done.set(true);
+        });
+        
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                PersistentBinarySearchTree snapshot = current.snapshot();
+                int count = 0;
+                long previous = Long.MIN_VALUE;
+                PrimitiveIterator.OfInt iterator = snapshot.iterator();
+                while (iterator.hasNext()) {
+                    int value = iterator.nextInt();
+                    if (value <= previous) {
+                        failed.set(true);
+                    }
+                    previous = value;
+                    count++;
+                }
+                if (count != snapshot.getSize()) {
+                    failed.set(true);
+                }
+            }
+        });
+        
+        writer.start();
+        reader.start();
+        writer.join();
+        reader.join();
+        assert !failed.get() : "Reader observed a torn or unsorted snapshot";
+    }
+    
+    /**
+     * Test the documented multi-writer pattern: no update is lost
+     */
+    public void testConcurrentWritersLoseNoUpdates() throws InterruptedException {
+        AtomicReference<PersistentBinarySearchTree> shared = new AtomicReference<>(PersistentBinarySearchTree.empty());
+        int writers = 4;
+        int perWriter = 20000;
+        Thread[] threads = new Thread[writers];
+        for (int t = 0; t < writers; t++) {
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    int value = i * writers + offset;
+                    shared.updateAndGet(tree -> tree.insert(value));
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assert shared.get().getSize() == writers * perWriter : "Lost updates: size " + shared.get().getSize();
+    }
+    
+    /**
+     * Runs all tests
+     */
+    public static void main(String[] args) {
+        PersistentBinarySearchTreeTest tester = new PersistentBinarySearchTreeTest();
+        
+        System.out.println("=== Persistent Binary Search Tree Test Suite ===\n");
+        
+        try {
+            tester.testVersionsAreIndependent();
+            tester.testBalancedUnderSortedInserts();
+            tester.testMatchesReferenceTree();
+            tester.testSnapshotsUnderConcurrentWrites();
+            tester.testConcurrentWritersLoseNoUpdates();
+            
+            System.out.println("🎉 ALL TESTS PASSED! 🎉");
+        } catch (AssertionError e) {
+            System.err.println("❌ TEST FAILED: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("❌ UNEXPECTED ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
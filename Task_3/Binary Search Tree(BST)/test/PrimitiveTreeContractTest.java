@@ -0,0 +1,473 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.IntSummaryStatistics;
+import java.util.LongSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+/**
+ * Shared test suite that keeps the int, long and double trees in sync.
+ * 
+ * Each tree is wrapped in a Subject adapter that maps the suite's int
+ * test values onto its own key type (exactly, and far outside the int
+ * range for long). The same randomized workload then runs against every
+ * subject and BinarySearchTree side by side, and every observable result
+ * - including the tree height, since the algorithms are identical - must
+ * agree after each step. A new operation or specialization only needs an
+ * adapter method here to be covered for all key types at once.
+ * 
+ * Test Coverage:
+ * - Contract: insert, delete, search, select, rank, floor, ceiling,
+ *   higher, lower, rangeCount, rangeScan, iterator, bulk build, min/max
+ *   in both balance modes
+ * - Traversals: inorder iterator, preorder, postorder and level order
+ * - Aggregation: sum, summary statistics and parallelCollect, sequential
+ *   and on the fork/join pool, on small and large trees
+ * - Long keys: values at and beyond the int range, Long.MIN/MAX_VALUE
+ * - Double keys: signed zeros, infinities and NaN ordering
+ * 
+ * Usage:
+ * 1. Compile: javac -cp src test/*.java
+ * 2. Run: java -ea -cp src:test PrimitiveTreeContractTest
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class PrimitiveTreeContractTest {
+    
+    /** Scale applied to long keys so every test key lies outside the int range */
+    private static final long LONG_SCALE = 1L << 32;
+    
+    /**
+     * One tree under test, seen through int test values
+     * Results are reported as longs holding the original test value.
+     */
+    private interface Subject {
+        String name();
+        void insert(int value);
+        void insertAll(int[] values);
+        void delete(int value);
+        boolean search(int value);
+        long select(int k);
+        int rank(int value);
+        OptionalLong floor(int value);
+        OptionalLong ceiling(int value);
+        OptionalLong higher(int value);
+        OptionalLong lower(int value);
+        int rangeCount(int lo, int hi);
+        long rangeScanChecksum(int lo, int hi);
+        long iteratorChecksum();
+        long preorderChecksum();
+        long postorderChecksum();
+        long levelOrderChecksum();
+        long sum(boolean parallel);
+        /** Count, sum, min and max, in that order */
+        long[] statistics(boolean parallel);
+        long parallelCollectChecksum();
+        int getSize();
+        int getHeight();
+        long findMin();
+        long findMax();
+    }
+    
+    private static OptionalLong widen(OptionalInt value) {
+        return value.isPresent() ? OptionalLong.of(value.getAsInt()) : OptionalLong.empty();
+    }
+    
+    private static OptionalLong unscale(OptionalLong value) {
+        return value.isPresent() ? OptionalLong.of(value.getAsLong() / LONG_SCALE) : OptionalLong.empty();
+    }
+    
+    private static OptionalLong unscale(OptionalDouble value) {
+        return value.isPresent() ? OptionalLong.of((long) (value.getAsDouble() * 2)) : OptionalLong.empty();
+    }
+    
+    /**
+     * Order-sensitive checksum of a sequence of test values
+     */
+    private static long mix(long checksum, long value) {
+        return checksum * 31 + value;
+    }
+    
+    /**
+     * Order-sensitive checksum of collected test values
+     */
+    private static long mixAll(ArrayList<Long> values) {
+        long checksum = 0;
+        for (long value : values) {
+            checksum = mix(checksum, value);
+        }
+        return checksum;
+    }
+    
+    private static Subject intSubject(BinarySearchTree tree) {
+        return new Subject() {
+            public String name() { return "int"; }
+            public void insert(int value) { tree.insert(value); }
+            public void insertAll(int[] values) { tree.insertAll(values); }
+            public void delete(int value) { tree.delete(value); }
+            public boolean search(int value) { return tree.search(value); }
+            public long select(int k) { return tree.select(k); }
+            public int rank(int value) { return tree.rank(value); }
+            public OptionalLong floor(int value) { return widen(tree.floor(value)); }
+            public OptionalLong ceiling(int value) { return widen(tree.ceiling(value)); }
+            public OptionalLong higher(int value) { return widen(tree.higher(value)); }
+            public OptionalLong lower(int value) { return widen(tree.lower(value)); }
+            public int rangeCount(int lo, int hi) { return tree.rangeCount(lo, hi); }
+            public long rangeScanChecksum(int lo, int hi) {
+                long[] checksum = {0};
+                tree.rangeScan(lo, hi, value -> checksum[0] = mix(checksum[0], value));
+                return checksum[0];
+            }
+            public long iteratorChecksum() {
+                long checksum = 0;
+                PrimitiveIterator.OfInt iterator = tree.iterator();
+                while (iterator.hasNext()) {
+                    checksum = mix(checksum, iterator.nextInt());
+                }
+                return checksum;
+            }
+            public long preorderChecksum() {
+                long[] checksum = {0};
+                tree.forEachPreorder(value -> checksum[0] = mix(checksum[0], value));
+                return checksum[0];
+            }
+            public long postorderChecksum() {
+                long[] checksum = {0};
+                tree.forEachPostorder(value -> checksum[0] = mix(checksum[0], value));
+                return checksum[0];
+            }
+            public long levelOrderChecksum() {
+                long[] checksum = {0};
+                tree.forEachLevelOrder(value -> checksum[0] = mix(checksum[0], value));
+                return checksum[0];
+            }
+            public long sum(boolean parallel) { return parallel ? tree.parallelSum() : tree.sum(); }
+            public long[] statistics(boolean parallel) {
+                IntSummaryStatistics statistics = parallel ? tree.parallelSummaryStatistics() : tree.summaryStatistics();
+                return new long[] {statistics.getCount(), statistics.getSum(), statistics.getMin(), statistics.getMax()};
+            }
+            public long parallelCollectChecksum() {
+                return mixAll(tree.parallelCollect(ArrayList::new, (list, value) -> list.add((long) value), ArrayList::addAll));
+            }
+            public int getSize() { return tree.getSize(); }
+            public int getHeight() { return tree.getHeight(); }
+            public long findMin() { return tree.findMin(); }
+            public long findMax() { return tree.findMax(); }
+        };
+    }
+    
+    private static Subject longSubject(LongBinarySearchTree tree) {
+        return new Subject() {
+            public String name() { return "long"; }
+            public void insert(int value) { tree.insert(value * LONG_SCALE); }
+            public void insertAll(int[] values) {
+                long[] keys = new long[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    keys[i] = values[i] * LONG_SCALE;
+                }
+                tree.insertAll(keys);
+            }
+            public void delete(int value) { tree.delete(value * LONG_SCALE); }
+            public boolean search(int value) { return tree.search(value * LONG_SCALE); }
+            public long select(int k) { return tree.select(k) / LONG_SCALE; }
+            public int rank(int value) { return tree.rank(value * LONG_SCALE); }
+            public OptionalLong floor(int value) { return unscale(tree.floor(value * LONG_SCALE)); }
+            public OptionalLong ceiling(int value) { return unscale(tree.ceiling(value * LONG_SCALE)); }
+            public OptionalLong higher(int value) { return unscale(tree.higher(value * LONG_SCALE)); }
+            public OptionalLong lower(int value) { return unscale(tree.lower(value * LONG_SCALE)); }
+            public int rangeCount(int lo, int hi) { return tree.rangeCount(lo * LONG_SCALE, hi * LONG_SCALE); }
+            public long rangeScanChecksum(int lo, int hi) {
+                long[] checksum = {0};
+                tree.rangeScan(lo * LONG_SCALE, hi * LONG_SCALE, value -> checksum[0] = mix(checksum[0], value / LONG_SCALE));
+                return checksum[0];
+            }
+            public long iteratorChecksum() {
+                long checksum = 0;
+                PrimitiveIterator.OfLong iterator = tree.iterator();
+                while (iterator.hasNext()) {
+                    checksum = mix(checksum, iterator.nextLong() / LONG_SCALE);
+                }
+                return checksum;
+            }
+            public long preorderChecksum() {
+                long[] checksum = {0};
+                tree.forEachPreorder(value -> checksum[0] = mix(checksum[0], value / LONG_SCALE));
+                return checksum[0];
+            }
+            public long postorderChecksum() {
+                long[] checksum = {0};
+                tree.forEachPostorder(value -> checksum[0] = mix(checksum[0], value / LONG_SCALE));
+                return checksum[0];
+            }
+            public long levelOrderChecksum() {
+                long[] checksum = {0};
+                tree.forEachLevelOrder(value -> checksum[0] = mix(checksum[0], value / LONG_SCALE));
+                return checksum[0];
+            }
+            public long sum(boolean parallel) { return (parallel ? tree.parallelSum() : tree.sum()) / LONG_SCALE; }
+            public long[] statistics(boolean parallel) {
+                LongSummaryStatistics statistics = parallel ? tree.parallelSummaryStatistics() : tree.summaryStatistics();
+                return new long[] {statistics.getCount(), statistics.getSum() / LONG_SCALE,
+                    statistics.getMin() / LONG_SCALE, statistics.getMax() / LONG_SCALE};
+            }
+            public long parallelCollectChecksum() {
+                return mixAll(tree.parallelCollect(ArrayList::new, (list, value) -> list.add(value / LONG_SCALE), ArrayList::addAll));
+            }
+            public int getSize() { return tree.getSize(); }
+            public int getHeight() { return tree.getHeight(); }
+            public long findMin() { return tree.findMin() / LONG_SCALE; }
+            public long findMax() { return tree.findMax() / LONG_SCALE; }
+        };
+    }
+    
+    private static Subject doubleSubject(DoubleBinarySearchTree tree) {
+        return new Subject() {
+            public String name() { return "double"; }
+            public void insert(int value) { tree.insert(value * 0.5); }
+            public void insertAll(int[] values) {
+                double[] keys = new double[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    keys[i] = values[i] * 0.5;
+                }
+                tree.insertAll(keys);
+            }
+            public void delete(int value) { tree.delete(value * 0.5); }
+            public boolean search(int value) { return tree.search(value * 0.5); }
+            public long select(int k) { return (long) (tree.select(k) * 2); }
+            public int rank(int value) { return tree.rank(value * 0.5); }
+            public OptionalLong floor(int value) { return unscale(tree.floor(value * 0.5)); }
+            public OptionalLong ceiling(int value) { return unscale(tree.ceiling(value * 0.5)); }
+            public OptionalLong higher(int value) { return unscale(tree.higher(value * 0.5)); }
+            public OptionalLong lower(int value) { return unscale(tree.lower(value * 0.5)); }
+            public int rangeCount(int lo, int hi) { return tree.rangeCount(lo * 0.5, hi * 0.5); }
+            public long rangeScanChecksum(int lo, int hi) {
+                long[] checksum = {0};
+                tree.rangeScan(lo * 0.5, hi * 0.5, value -> checksum[0] = mix(checksum[0], (long) (value * 2)));
+                return checksum[0];
+            }
+            public long iteratorChecksum() {
+                long checksum = 0;
+                PrimitiveIterator.OfDouble iterator = tree.iterator();
+                while (iterator.hasNext()) {
+                    checksum = mix(checksum, (long) (iterator.nextDouble() * 2));
+                }
+                return checksum;
+            }
+            public long preorderChecksum() {
+                long[] checksum = {0};
+                tree.forEachPreorder(value -> checksum[0] = mix(checksum[0], (long) (value * 2)));
+                return checksum[0];
+            }
+            public long postorderChecksum() {
+                long[] checksum = {0};
+                tree.forEachPostorder(value -> checksum[0] = mix(checksum[0], (long) (value * 2)));
+                return checksum[0];
+            }
+            public long levelOrderChecksum() {
+                long[] checksum = {0};
+                tree.forEachLevelOrder(value -> checksum[0] = mix(checksum[0], (long) (value * 2)));
+                return checksum[0];
+            }
+            // Halves of small ints add up exactly, so the sums are exact in any grouping
+            public long sum(boolean parallel) { return (long) ((parallel ? tree.parallelSum() : tree.sum()) * 2); }
+            public long[] statistics(boolean parallel) {
+                DoubleSummaryStatistics statistics = parallel ? tree.parallelSummaryStatistics() : tree.summaryStatistics();
+                return new long[] {statistics.getCount(), (long) (statistics.getSum() * 2),
+                    (long) (statistics.getMin() * 2), (long) (statistics.getMax() * 2)};
+            }
+            public long parallelCollectChecksum() {
+                return mixAll(tree.parallelCollect(ArrayList::new, (list, value) -> list.add((long) (value * 2)), ArrayList::addAll));
+            }
+            public int getSize() { return tree.getSize(); }
+            public int getHeight() { return tree.getHeight(); }
+            public long findMin() { return (long) (tree.findMin() * 2); }
+            public long findMax() { return (long) (tree.findMax() * 2); }
+        };
+    }
+    
+    /**
+     * Checks every query on a subject against the reference at the current state
+     */
+    private static void assertSameState(Subject reference, Subject subject, Random random, int range) {
+        String who = subject.name();
+        assert subject.getSize() == reference.getSize() : who + ": size mismatch";
+        assert subject.getHeight() == reference.getHeight() : who + ": height mismatch";
+        assert subject.iteratorChecksum() == reference.iteratorChecksum() : who + ": iteration order mismatch";
+        assertSameTraversalsAndAggregates(reference, subject);
+        if (reference.getSize() > 0) {
+            assert subject.findMin() == reference.findMin() && subject.findMax() == reference.findMax() : who + ": min/max";
+            int k = random.nextInt(reference.getSize());
+            assert subject.select(k) == reference.select(k) : who + ": select(" + k + ") mismatch";
+        }
+        for (int i = 0; i < 20; i++) {
+            int value = random.nextInt(range) - range / 2;
+            int hi = value + random.nextInt(range / 4 + 1);
+            assert subject.search(value) == reference.search(value) : who + ": search(" + value + ")";
+            assert subject.rank(value) == reference.rank(value) : who + ": rank(" + value + ")";
+            assert subject.floor(value).equals(reference.floor(value)) : who + ": floor(" + value + ")";
+            assert subject.ceiling(value).equals(reference.ceiling(value)) : who + ": ceiling(" + value + ")";
+            assert subject.higher(value).equals(reference.higher(value)) : who + ": higher(" + value + ")";
+            assert subject.lower(value).equals(reference.lower(value)) : who + ": lower(" + value + ")";
+            assert subject.rangeCount(value, hi) == reference.rangeCount(value, hi) : who + ": rangeCount";
+            assert subject.rangeScanChecksum(value, hi) == reference.rangeScanChecksum(value, hi) : who + ": rangeScan";
+        }
+    }
+    
+    /**
+     * Checks the traversal orders and every aggregation, sequential and parallel
+     */
+    private static void assertSameTraversalsAndAggregates(Subject reference, Subject subject) {
+        String who = subject.name();
+        assert subject.preorderChecksum() == reference.preorderChecksum() : who + ": preorder mismatch";
+        assert subject.postorderChecksum() == reference.postorderChecksum() : who + ": postorder mismatch";
+        assert subject.levelOrderChecksum() == reference.levelOrderChecksum() : who + ": level order mismatch";
+        assert subject.parallelCollectChecksum() == reference.iteratorChecksum() : who + ": parallelCollect order";
+        for (boolean parallel : new boolean[] {false, true}) {
+            assert subject.sum(parallel) == reference.sum(parallel) : who + ": sum (parallel " + parallel + ")";
+            long[] expected = reference.statistics(parallel);
+            long[] actual = subject.statistics(parallel);
+            assert actual[0] == expected[0] && actual[1] == expected[1] : who + ": statistics count/sum";
+            assert expected[0] == 0 || (actual[2] == expected[2] && actual[3] == expected[3]) : who + ": statistics min/max";
+        }
+    }
+    
+    /**
+     * Test the shared contract: one workload, every key type, both balance modes
+     */
+    public void testContract() {
+        BinarySearchTree.BalanceMode[] modes = {BinarySearchTree.BalanceMode.NONE, BinarySearchTree.BalanceMode.AVL};
+        for (BinarySearchTree.BalanceMode mode : modes) {
+            Subject reference = intSubject(new BinarySearchTree(mode));
+            Subject[] subjects = {
+                longSubject(new LongBinarySearchTree(mode)),
+                doubleSubject(new DoubleBinarySearchTree(mode))
+            };
+            Random random = new Random(17);
+            int range = 4000;
+            
+            for (int step = 0; step < 20000; step++) {
+                int value = random.nextInt(range) - range / 2;
+                int op = random.nextInt(10);
+                if (op == 0 && step % 1000 == 0) {
+                    int[] batch = random.ints(200, -range / 2, range / 2).toArray();
+                    reference.insertAll(batch);
+                    for (Subject subject : subjects) {
+                        subject.insertAll(batch);
+                    }
+                } else if (op < 4) {
+                    reference.delete(value);
+                    for (Subject subject : subjects) {
+                        subject.delete(value);
+                    }
+                } else {
+                    reference.insert(value);
+                    for (Subject subject : subjects) {
+                        subject.insert(value);
+                    }
+                }
+                
+                if (step % 100 == 0) {
+                    for (Subject subject : subjects) {
+                        assertSameState(reference, subject, random, range);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Test traversals and aggregation on trees large enough to fork tasks,
+     * built balanced and by unbalanced inserts
+     */
+    public void testLargeTreeAggregation() {
+        BinarySearchTree.BalanceMode[] modes = {BinarySearchTree.BalanceMode.NONE, BinarySearchTree.BalanceMode.AVL};
+        for (BinarySearchTree.BalanceMode mode : modes) {
+            Subject reference = intSubject(new BinarySearchTree(mode));
+            Subject[] subjects = {
+                longSubject(new LongBinarySearchTree(mode)),
+                doubleSubject(new DoubleBinarySearchTree(mode))
+            };
+            Random random = new Random(23);
+            int[] batch = random.ints(50000, -20000, 20000).toArray();
+            reference.insertAll(batch);
+            for (Subject subject : subjects) {
+                subject.insertAll(batch);
+            }
+            // Then a sorted run, which leaves a long spine in NONE mode
+            for (int value = 20000; value < 40000; value++) {
+                reference.insert(value);
+                for (Subject subject : subjects) {
+                    subject.insert(value);
+                }
+            }
+            
+            for (Subject subject : subjects) {
+                assert subject.getSize() == reference.getSize() : subject.name() + ": size mismatch";
+                assertSameTraversalsAndAggregates(reference, subject);
+            }
+        }
+    }
+    
+    /**
+     * Test long keys at the ends of the long range
+     */
+    public void testLongExtremes() {
+        LongBinarySearchTree tree = LongBinarySearchTree.fromArray(
+                new long[] {Long.MAX_VALUE, 0L, Long.MIN_VALUE, Integer.MAX_VALUE + 1L, Long.MAX_VALUE},
+                BinarySearchTree.BalanceMode.AVL);
+        assert tree.getSize() == 4 : "Duplicates should be dropped";
+        assert tree.findMin() == Long.MIN_VALUE && tree.findMax() == Long.MAX_VALUE : "Extremes should be min/max";
+        assert tree.higher(0L).getAsLong() == Integer.MAX_VALUE + 1L : "Successor beyond the int range";
+        assert tree.rangeCount(Long.MIN_VALUE, Long.MAX_VALUE) == 4 : "Full range should count every key";
+        assert !tree.higher(Long.MAX_VALUE).isPresent() : "Nothing above Long.MAX_VALUE";
+    }
+    
+    /**
+     * Test the total order used for double keys
+     */
+    public void testDoubleOrdering() {
+        DoubleBinarySearchTree tree = new DoubleBinarySearchTree(BinarySearchTree.BalanceMode.AVL);
+        double[] keys = {Double.NaN, 1.5, -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NaN};
+        for (double key : keys) {
+            tree.insert(key);
+        }
+        
+        assert tree.getSize() == 6 : "Signed zeros are distinct keys; NaN is stored once";
+        double[] sorted = tree.toSortedArray();
+        double[] expected = {Double.NEGATIVE_INFINITY, -0.0, 0.0, 1.5, Double.POSITIVE_INFINITY, Double.NaN};
+        assert Arrays.equals(sorted, expected) : "Keys should follow Double.compare order";
+        assert tree.search(Double.NaN) && Double.isNaN(tree.findMax()) : "NaN is the largest key";
+        
+        tree.delete(-0.0);
+        assert !tree.search(-0.0) && tree.search(0.0) : "Deleting -0.0 must leave 0.0";
+    }
+    
+    /**
+     * Runs all tests
+     */
+    public static void main(String[] args) {
+        PrimitiveTreeContractTest tester = new PrimitiveTreeContractTest();
+        
+        System.out.println("=== Primitive Tree Contract Test Suite ===\n");
+        
+        try {
+            tester.testContract();
+            tester.testLargeTreeAggregation();
+            tester.testLongExtremes();
+            tester.testDoubleOrdering();
+            
+            System.out.println("🎉 ALL TESTS PASSED! 🎉");
+        } catch (AssertionError e) {
+            System.err.println("❌ TEST FAILED: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("❌ UNEXPECTED ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Test suite for BinarySearchTree instrumentation.
+ * 
+ * Test Coverage:
+ * - Counters: comparisons per search, nodes visited per insert/delete
+ * - Successor replacements: counted only for deletes of two-children nodes
+ * - Allocation counters: allocated vs pooled nodes with node recycling on
+ * - Histograms: search depth histogram and the tree's node depth histogram
+ * - Disabled metrics: detached counters stop changing
+ * - JMX: attributes readable and reset invocable through the platform MBeanServer
+ * - JFR: deep search and periodic snapshot events appear in a recording
+ * 
+ * Usage:
+ * 1. Compile: javac -cp src test/*.java
+ * 2. Run: java -ea -cp src:test TreeMetricsTest
+ * 
+ * @author Aya Gamal
+ * @version 1.0
+ */
+public class TreeMetricsTest {
+    
+    /**
+     * Builds the balanced seven-node tree 50 / 30 70 / 20 40 60 80 with metrics attached
+     */
+    private static BinarySearchTree sampleTree(TreeMetrics metrics) {
+        BinarySearchTree tree = new BinarySearchTree();
+        tree.setMetrics(metrics);
+        for (int value : new int[] {50, 30, 70, 20, 40, 60, 80}) {
+            tree.insert(value);
+        }
+        return tree;
+    }
+    
+    /**
+     * Test counts on a tree of known shape
+     */
+    public void testCountsOnKnownTree() {
+        TreeMetrics metrics = new TreeMetrics("known");
+        BinarySearchTree tree = sampleTree(metrics);
+        
+        // Nodes walked past: 0 for the root, 1 each for 30 and 70, 2 each for the leaves
+        assert metrics.getInserts() == 7 : "Every insert should be recorded";
+        assert metrics.getInsertNodesVisited() == 10 : "Insert visits: " + metrics.getInsertNodesVisited();
+        
+        tree.search(50); // 1 comparison
+        tree.search(60); // 3 comparisons
+        tree.search(65); // 3 comparisons, miss
+        assert metrics.getSearches() == 3 : "Every search should be recorded";
+        assert metrics.getSearchComparisons() == 7 : "Comparisons: " + metrics.getSearchComparisons();
+        assert metrics.getMaxSearchComparisons() == 3 : "Deepest search made 3 comparisons";
+        assert Math.abs(metrics.getAverageSearchComparisons() - 7 / 3.0) < 1e-9 : "Average mismatch";
+        
+        tree.delete(20); // leaf: 3 nodes
+        tree.delete(99); // miss: 3 nodes
+        assert metrics.getDeletes() == 2 : "Every delete should be recorded";
+        assert metrics.getDeleteNodesVisited() == 6 : "Delete visits: " + metrics.getDeleteNodesVisited();
+        assert metrics.getSuccessorReplacements() == 0 : "No two-children node was deleted";
+    }
+    
+    /**
+     * Test that only two-children deletes count as successor replacements
+     */
+    public void testSuccessorReplacements() {
+        TreeMetrics metrics = new TreeMetrics("successor");
+        BinarySearchTree tree = sampleTree(metrics);
+        
+        tree.delete(50); // two children: 50, then 70 and 60 while finding the successor
+        assert metrics.getSuccessorReplacements() == 1 : "Root deletion should replace by successor";
+        assert metrics.getDeleteNodesVisited() == 3 : "Successor search should count as visits";
+        
+        tree.delete(80); // leaf
+        tree.delete(70); // now a leaf
+        assert metrics.getSuccessorReplacements() == 1 : "Leaf deletions are not replacements";
+        assert Arrays.equals(tree.toSortedArray(), new int[] {20, 30, 40, 60}) : "Deletes should still work";
+    }
+    
+    /**
+     * Test that inserts count allocated and reused nodes separately
+     */
+    public void testNodeAllocationCounters() {
+        TreeMetrics metrics = new TreeMetrics("allocation");
+        BinarySearchTree tree = sampleTree(metrics);
+        assert metrics.getNodesAllocated() == 7 && metrics.getNodesReused() == 0 : "Pool is off by default";
+        
+        tree.setNodePoolCapacity(2);
+        tree.delete(20);
+        tree.delete(80);
+        tree.delete(40); // pool already full
+        tree.insert(1);
+        tree.insert(2);
+        tree.insert(3);
+        assert metrics.getNodesReused() == 2 : "Two pooled nodes should be reused";
+        assert metrics.getNodesAllocated() == 8 : "Third insert should allocate";
+        assert metrics.getInserts() == 10 : "Inserts are counted either way";
+        
+        metrics.reset();
+        assert metrics.getNodesAllocated() == 0 && metrics.getNodesReused() == 0 : "Reset should clear allocation counters";
+    }
+    
+    /**
+     * Test the search depth histogram and the node depth histogram
+     */
+    public void testHistograms() {
+        TreeMetrics metrics = new TreeMetrics("histogram");
+        BinarySearchTree tree = sampleTree(metrics);
+        for (int value = 0; value <= 100; value += 10) {
+            tree.search(value);
+        }
+        
+        long[] histogram = metrics.getSearchDepthHistogram();
+        assert histogram.length == TreeMetrics.HISTOGRAM_BUCKETS : "Histogram length mismatch";
+        assert histogram[1] == 1 && histogram[2] == 2 && histogram[3] == 8 : "Search histogram: " + Arrays.toString(histogram);
+        assert Arrays.equals(tree.depthHistogram(), new int[] {1, 2, 4}) : "Balanced tree should fill every level";
+        
+        // A degenerate chain lands far beyond the last bucket
+        BinarySearchTree chain = new BinarySearchTree();
+        chain.setMetrics(metrics);
+        for (int i = 0; i < 100; i++) {
+            chain.insert(i);
+        }
+        int[] shape = chain.depthHistogram();
+        assert shape.length == 100 && shape[99] == 1 : "Chain should have one node per level";
+        chain.search(99);
+        assert metrics.getSearchDepthHistogram()[TreeMetrics.HISTOGRAM_BUCKETS - 1] == 1 : "Deep search should land in the last bucket";
+        assert metrics.getMaxSearchComparisons() == 100 : "Max should keep the exact depth";
+        assert new BinarySearchTree().depthHistogram().length == 0 : "Empty tree has no levels";
+    }
+    
+    /**
+     * Test that detached or reset metrics stop counting and that splay searches are counted
+     */
+    public void testDisabledAndReset() {
+        TreeMetrics metrics = new TreeMetrics("disabled");
+        BinarySearchTree tree = sampleTree(metrics);
+        tree.setMetrics(null);
+        assert tree.getMetrics() == null : "Metrics should be detached";
+        
+        tree.insert(45);
+        tree.search(45);
+        tree.delete(30);
+        assert metrics.getInserts() == 7 && metrics.getSearches() == 0 && metrics.getDeletes() == 0 : "Detached metrics should not change";
+        
+        metrics.reset();
+        assert metrics.getInserts() == 0 && metrics.getInsertNodesVisited() == 0 : "Reset should clear counters";
+        assert metrics.getAverageInsertNodesVisited() == 0 : "Averages of empty counters should be 0";
+        
+        BinarySearchTree splay = new BinarySearchTree(BinarySearchTree.BalanceMode.SPLAY);
+        splay.setMetrics(metrics);
+        splay.insert(1);
+        splay.insert(2);
+        splay.search(1); // 2 is the root after its insert
+        assert metrics.getSearches() == 1 && metrics.getSearchComparisons() == 2 : "Splay searches should be counted";
+    }
+    
+    /**
+     * Test reading and resetting the metrics through JMX
+     */
+    public void testJmxAttributes() throws Exception {
+        TreeMetrics metrics = new TreeMetrics("jmx \"test\"");
+        BinarySearchTree tree = sampleTree(metrics);
+        tree.search(60);
+        metrics.register();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("BinarySearchTree:type=TreeMetrics,name=" + ObjectName.quote("jmx \"test\""));
+            assert metrics.isRegistered() && server.isRegistered(name) : "MBean should be registered";
+            assert (Long) server.getAttribute(name, "Inserts") == 7 : "Inserts attribute mismatch";
+            assert (Long) server.getAttribute(name, "SearchComparisons") == 3 : "Comparisons attribute mismatch";
+            assert ((long[]) server.getAttribute(name, "SearchDepthHistogram"))[3] == 1 : "Histogram attribute mismatch";
+            
+            try {
+                new TreeMetrics("jmx \"test\"").register();
+                assert false : "Duplicate names should be rejected";
+            } catch (IllegalStateException e) {
+                // Expected behavior
+            }
+            
+            server.invoke(name, "reset", null, null);
+            assert metrics.getInserts() == 0 : "Reset through JMX should clear counters";
+        } finally {
+            metrics.unregister();
+        }
+        assert !metrics.isRegistered() : "Metrics should be unregistered";
+    }
+    
+    /**
+     * Test that deep searches and periodic snapshots show up in a JFR recording
+     */
+    public void testJfrEvents() throws Exception {
+        TreeMetrics metrics = new TreeMetrics("jfr");
+        metrics.setDeepSearchThreshold(50);
+        BinarySearchTree chain = new BinarySearchTree();
+        chain.setMetrics(metrics);
+        for (int i = 0; i < 100; i++) {
+            chain.insert(i);
+        }
+        
+        Path file = Files.createTempFile("tree-metrics", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("bst.DeepSearch");
+            recording.enable("bst.TreeMetrics").withPeriod(Duration.ofMillis(50));
+            metrics.register();
+            recording.start();
+            chain.search(10); // shallow, no event
+            chain.search(80); // 81 comparisons
+            Thread.sleep(300);
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            metrics.unregister();
+        }
+        
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        long deep = events.stream()
+                .filter(e -> e.getEventType().getName().equals("bst.DeepSearch"))
+                .peek(e -> {
+                    assert e.getString("tree").equals("jfr") && e.getInt("value") == 80 : "Deep search fields mismatch";
+                    assert e.getInt("comparisons") == 81 : "Deep search comparisons mismatch";
+                })
+                .count();
+        boolean snapshot = events.stream()
+                .anyMatch(e -> e.getEventType().getName().equals("bst.TreeMetrics")
+                        && e.getString("tree").equals("jfr") && e.getLong("inserts") == 100
+                        && e.getLong("nodesAllocated") == 100);
+        assert deep == 1 : "Expected one deep search event, got " + deep;
+        assert snapshot : "Expected a periodic snapshot event";
+    }
+    
+    /**
+     * Runs all tests
+     */
+    public static void main(String[] args) {
+        TreeMetricsTest tester = new TreeMetricsTest();
+        
+        System.out.println("=== Tree Metrics Test Suite ===\n");
+        
+        try {
+            tester.testCountsOnKnownTree();
+            tester.testSuccessorReplacements();
+            tester.testNodeAllocationCounters();
+            tester.testHistograms();
+            tester.testDisabledAndReset();
+            tester.testJmxAttributes();
+            tester.testJfrEvents();
+            
+            System.out.println("🎉 ALL TESTS PASSED! 🎉");
+        } catch (AssertionError e) {
+            System.err.println("❌ TEST FAILED: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("❌ UNEXPECTED ERROR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}